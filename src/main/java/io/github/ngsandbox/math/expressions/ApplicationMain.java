@@ -1,14 +1,38 @@
 package io.github.ngsandbox.math.expressions;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import io.github.ngsandbox.math.expressions.service.EvaluationDaemon;
+import io.github.ngsandbox.math.expressions.service.EvaluationServer;
 import io.github.ngsandbox.math.expressions.utils.Color;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
 public class ApplicationMain {
 
-    public static void main(String... args) {
+    public static final String DAEMON_OPTION = "--daemon";
+    public static final String SOCKET_OPTION = "--socket";
+    public static final String SERVER_OPTION = "--server";
+
+    public static void main(String... args) throws IOException {
         ApplicationMain app = new ApplicationMain();
+        if (args.length > 0 && DAEMON_OPTION.equals(args[0])) {
+            app.runDaemon(args);
+            return;
+        }
+        if (args.length > 0 && SERVER_OPTION.equals(args[0])) {
+            app.runServer(args);
+            return;
+        }
+
         app.processArguments(args)
                 .ifPresent(w -> System.out.println(Color.YELLOW + "Result: " + w.getExpression() + Color.RESET));
     }
@@ -25,26 +49,78 @@ public class ApplicationMain {
             return Optional.empty();
         }
 
-        Expression expression = new Expression(args[0]);
-        if (args.length > 1) {
-            for (int i = 1; i < args.length; i++) {
-                String variable = args[i];
-                String value = args[++i];
-                try {
-                    double dbl = Double.parseDouble(value);
-                    expression.with(variable, dbl);
-                } catch (NumberFormatException ex) {
-                    expression.with(variable, value);
-                }
+        Map<String, String> variables = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            String variable = args[i];
+            String value = args[++i];
+            variables.put(variable, value);
+        }
+
+        FormulaRecord record = new FormulaRecord(args[0], variables);
+        return Optional.of(record.applyTo(new Expression(record.getFormula())).eval());
+    }
+
+    /**
+     * Stay resident and evaluate requests (formula and tab separated <code>name=value</code> variables per line)
+     * from the standard input or the Unix domain socket (<code>--daemon --socket path</code>) until the input ends.
+     * The standard output is used only for the results, logs are redirected to the standard error.
+     */
+    public void runDaemon(String[] args) throws IOException {
+        if (args.length != 1 && (args.length != 3 || !SOCKET_OPTION.equals(args[1]))) {
+            System.err.println(Color.RED + "Unexpected daemon arguments!" + Color.RESET);
+            printHelp();
+            return;
+        }
+
+        PrintStream results = System.out;
+        System.setOut(System.err);
+        EvaluationDaemon daemon = EvaluationDaemon.builder().build();
+        try {
+            if (args.length == 3) {
+                // the socket file is removed on close, the process of the socket mode is usually stopped by a signal
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> closeQuietly(daemon)));
+                daemon.serveSocket(Paths.get(args[2]));
+            } else {
+                daemon.serve(System.in, results);
             }
+        } finally {
+            daemon.close();
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Start HTTP evaluation server on the loopback interface (<code>--server [port]</code>), it runs until the process is stopped
+     */
+    public void runServer(String[] args) throws IOException {
+        if (args.length > 2) {
+            System.out.println(Color.RED + "Unexpected server arguments!" + Color.RESET);
+            printHelp();
+            return;
         }
 
-        return Optional.of(expression.eval());
+        int port = args.length == 2 ? Integer.parseInt(args[1]) : EvaluationServer.DEFAULT_PORT;
+        EvaluationServer server = EvaluationServer.builder()
+                .address(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))
+                .build();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close));
+        server.start();
     }
 
     private static void printHelp() {
         System.out.println(Color.YELLOW + "Expression and/or list of variables with values are expected. Example:");
         System.out.println(Color.YELLOW + ">         \"(a+(b+c))/d\" a 10 b 20 c 30 d 40");
+        System.out.println(Color.YELLOW + "or daemon mode reading formula and tab separated variables per line from stdin or the Unix socket:");
+        System.out.println(Color.YELLOW + ">         " + DAEMON_OPTION + " [" + SOCKET_OPTION + " /tmp/math-expressions.sock]");
+        System.out.println(Color.YELLOW + "or HTTP evaluation server on the loopback interface:");
+        System.out.println(Color.YELLOW + ">         " + SERVER_OPTION + " [" + EvaluationServer.DEFAULT_PORT + "]");
         System.out.print(Color.RESET);
     }
 
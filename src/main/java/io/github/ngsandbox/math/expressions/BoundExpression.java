@@ -0,0 +1,60 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.variables.ObjectVariables;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Expression which variables are bound to the accessors of a type, see {@link Expression#bind(Class)}.
+ * Every evaluation reads only the variables the evaluation reaches directly from the object.
+ * Thread safe as long as the variables of the expression are not changed.
+ *
+ * @param <T> type of the objects
+ */
+public final class BoundExpression<T> {
+
+    @Getter
+    private final Expression expression;
+
+    @Getter
+    private final ObjectVariables<T> objectVariables;
+
+    private final Map<String, MethodHandle> accessors = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    BoundExpression(Expression expression, ObjectVariables<T> objectVariables, Set<String> names) {
+        this.expression = expression;
+        this.objectVariables = objectVariables;
+        Set<String> unknown = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : names) {
+            if (objectVariables.contains(name)) {
+                accessors.put(name, objectVariables.getAccessor(name));
+            } else {
+                unknown.add(name);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            throw new ExpressionException("Variables do not exist " + unknown + " in " + objectVariables.getType().getName());
+        }
+    }
+
+    /**
+     * Evaluates the expression with the variables of the object
+     *
+     * @param object object to read the variables from
+     * @return The wrapper result of the expression
+     */
+    public WrappedValue eval(@NonNull T object) {
+        return expression.eval(name -> {
+            MethodHandle accessor = accessors.get(name);
+            return ObjectVariables.read(accessor == null ? objectVariables.getAccessor(name) : accessor, object);
+        });
+    }
+}
@@ -4,21 +4,57 @@ import java.math.BigDecimal;
 import java.math.MathContext;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
+import io.github.ngsandbox.math.expressions.ast.AstParser;
+import io.github.ngsandbox.math.expressions.ast.Node;
+import io.github.ngsandbox.math.expressions.ast.PartialEvaluator;
+import io.github.ngsandbox.math.expressions.ast.TreeCompiler;
+import io.github.ngsandbox.math.expressions.ast.TypeInference;
+import io.github.ngsandbox.math.expressions.ast.VariableNode;
+import io.github.ngsandbox.math.expressions.audit.AuditJournal;
 import io.github.ngsandbox.math.expressions.functions.Function;
+import io.github.ngsandbox.math.expressions.jfr.EventScope;
+import io.github.ngsandbox.math.expressions.jfr.ExpressionEvents;
+import io.github.ngsandbox.math.expressions.metrics.ExpressionMetrics;
 import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.profiler.ProfilingSession;
+import io.github.ngsandbox.math.expressions.tokens.FormulaShape;
+import io.github.ngsandbox.math.expressions.tokens.Lexer;
+import io.github.ngsandbox.math.expressions.tokens.OperatorTrie;
 import io.github.ngsandbox.math.expressions.tokens.ShuntingYardParser;
 import io.github.ngsandbox.math.expressions.tokens.Token;
 import io.github.ngsandbox.math.expressions.tokens.Tokenizer;
+import io.github.ngsandbox.math.expressions.utils.VirtualThreads;
+import io.github.ngsandbox.math.expressions.variables.AsyncResolvedVariables;
+import io.github.ngsandbox.math.expressions.variables.AsyncVariableResolver;
+import io.github.ngsandbox.math.expressions.variables.ObjectVariables;
+import io.github.ngsandbox.math.expressions.variables.ResolvedVariables;
+import io.github.ngsandbox.math.expressions.variables.SyncResolvedVariables;
+import io.github.ngsandbox.math.expressions.variables.VariableResolver;
+import io.github.ngsandbox.math.expressions.variables.VariableScope;
+import io.github.ngsandbox.math.expressions.variables.VariableUsage;
+import io.github.ngsandbox.math.expressions.wrappers.AbstractedWrapper;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedEvaluator;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedExpression;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedFunctionArgs;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedOperatorArgs;
@@ -28,6 +64,7 @@ import io.github.ngsandbox.math.expressions.wrappers.WrappedVariable;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,9 +73,10 @@ import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.NULL_CONST;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.TRUE_CONST;
 import static io.github.ngsandbox.math.expressions.ExpressionUtils.isNumber;
-import static io.github.ngsandbox.math.expressions.functions.Functions.buildFunctions;
-import static io.github.ngsandbox.math.expressions.operators.Operators.buildOperators;
+import static io.github.ngsandbox.math.expressions.functions.Functions.defaultFunctions;
+import static io.github.ngsandbox.math.expressions.operators.Operators.defaultOperators;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.FUNCTION;
+import static io.github.ngsandbox.math.expressions.tokens.TokenType.LITERAL;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.OPERATOR;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.VARIABLE;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
@@ -68,14 +106,29 @@ public class Expression {
     private final String expressionString;
 
     /**
-     * All defined operators with name and implementation.
+     * Id of the formula used by metrics, the expression string by default.
      */
-    private final Map<String, Operator> operators = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private String formulaId;
 
     /**
-     * All defined functions with name and implementation.
+     * Parsing and evaluation metrics.
      */
-    private final Map<String, Function> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    private final ExpressionMetrics metrics;
+
+    /**
+     * All defined operators with name and implementation, read only and shared with nested expressions.
+     */
+    private final Map<String, Operator> operators;
+
+    /**
+     * Prefix tree of the operators read by the lexer, shared with nested expressions.
+     */
+    private final OperatorTrie operatorTrie;
+
+    /**
+     * All defined functions with name and implementation, read only and shared with nested expressions.
+     */
+    private final Map<String, Function> functions;
 
     /**
      * All defined variables with name and value.
@@ -84,6 +137,17 @@ public class Expression {
 
     private final static class Variables {
         private final Map<String, WrappedValue> vars = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        /**
+         * Incremented when the static type of a variable changes, so the inferred types of the expressions are stale
+         */
+        private int typesVersion;
+
+        private void put(String name, WrappedValue value) {
+            WrappedValue previous = vars.put(name, value);
+            if (StaticType.of(previous) != StaticType.of(value)) {
+                typesVersion++;
+            }
+        }
     }
 
     /**
@@ -91,6 +155,39 @@ public class Expression {
      */
     private List<Token> reversePolishNotation = null;
 
+    /**
+     * The values of the literals of the cached RPN in the order of the RPN, read once by the parse
+     * instead of every compile. Invalid literals are null, they are reported by the compile as before.
+     */
+    private WrappedValue[] rpnLiterals = null;
+
+    /**
+     * The cached syntax tree of the expression, see {@link ExpressionSettings#isSyntaxTree()}.
+     */
+    private Node syntaxTree = null;
+
+    /**
+     * The cached static types of the syntax tree nodes for the types of the variables of the version.
+     */
+    private TypeInference nodeTypes = null;
+    private int nodeTypesVersion;
+
+    /**
+     * The static types of the syntax tree inferred for the types of its variables, shared by the copies of the expression.
+     */
+    private InferredTypes inferredTypes = null;
+
+    /**
+     * The cached shape of the formula, see {@link #getShape()}.
+     */
+    private FormulaShape shape = null;
+
+    /**
+     * The parsed RPN or syntax tree of another formula of the same shape, it is evaluated with the literals
+     * and positions of this formula, see {@link #parse(Expression)}.
+     */
+    private SharedProgram program = null;
+
     /**
      * Creates a new expression instance from an expression string with a given default match context
      * of {@link MathContext#DECIMAL32}.
@@ -111,10 +208,7 @@ public class Expression {
      * @param settings   The {@link MathContext} to use by default.
      */
     public Expression(String expression, ExpressionSettings settings) {
-        this(expression, settings,
-                new TreeMap<>(String.CASE_INSENSITIVE_ORDER),
-                new TreeMap<>(String.CASE_INSENSITIVE_ORDER),
-                new Variables());
+        this(expression, settings, Collections.emptyMap(), Collections.emptyMap(), new Variables());
     }
 
     /**
@@ -123,6 +217,8 @@ public class Expression {
      * @param expression         The expression. E.g. <code>"2.4*MIN(3,5)/(2-4)"</code> or
      *                           <code>"LOG(y)>0 & max(z, 3)>3"</code>
      * @param expressionSettings The {@link ExpressionSettings} to use by default.
+     * @param operators          The operators, shared default ones if empty.
+     * @param functions          The functions, shared default ones if empty.
      */
     public Expression(String expression,
                       @NonNull ExpressionSettings expressionSettings,
@@ -130,75 +226,599 @@ public class Expression {
                       @NonNull Map<String, Function> functions,
                       Variables variables
     ) {
-        this.operators.putAll(operators);
-        this.functions.putAll(functions);
+        this.operators = operators.isEmpty() ? defaultOperators(expressionSettings) : readOnly(operators);
+        this.operatorTrie = OperatorTrie.of(this.operators);
+        this.functions = functions.isEmpty() ? defaultFunctions(expressionSettings) : readOnly(functions);
         this.variables = variables;
         this.mc = expressionSettings.buildMathContext();
         this.settings = expressionSettings;
+        this.metrics = expressionSettings.getMetrics();
         this.expressionString = expression;
-        if (this.operators.isEmpty()) {
-            this.operators.putAll(buildOperators(settings));
-        }
-
-        if (this.functions.isEmpty()) {
-            this.functions.putAll(buildFunctions(settings));
-        }
-
         if (this.variables.vars.isEmpty()) {
             buildVariables();
         }
     }
 
+    /**
+     * Creates a nested expression which shares settings, operators, functions and variables with the parent one.
+     */
+    private Expression(Expression parent, String expression) {
+        this(parent, expression, parent.variables);
+    }
+
+    /**
+     * Creates an expression which shares settings, operators and functions with the parent one.
+     */
+    private Expression(Expression parent, String expression, Variables variables) {
+        this.operators = parent.operators;
+        this.operatorTrie = parent.operatorTrie;
+        this.functions = parent.functions;
+        this.variables = variables;
+        this.mc = parent.mc;
+        this.settings = parent.settings;
+        this.metrics = parent.metrics;
+        this.expressionString = expression;
+    }
+
+    private static <T> Map<String, T> readOnly(Map<String, T> values) {
+        Map<String, T> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        result.putAll(values);
+        return Collections.unmodifiableMap(result);
+    }
+
     private void buildVariables() {
-        variables.vars.put(NULL_CONST, WRAPPED_NULL);
-        variables.vars.put(TRUE_CONST, WRAPPED_ONE);
-        variables.vars.put(FALSE_CONST, WRAPPED_ZERO);
+        variables.put(NULL_CONST, WRAPPED_NULL);
+        variables.put(TRUE_CONST, WRAPPED_ONE);
+        variables.put(FALSE_CONST, WRAPPED_ZERO);
     }
 
+    /**
+     * Creates a copy of the expression which shares read only parsed RPN and syntax tree, but has its own variables,
+     * so copies of one parsed expression can be evaluated with different variables in parallel.
+     * Nested expressions of the variables are bound to the variables of the copy.
+     *
+     * @return The new expression.
+     */
     public Expression copy() {
-        Expression expression = new Expression(expressionString,
-                settings,
-                this.operators,
-                functions,
-                variables);
-        expression.reversePolishNotation = this.reversePolishNotation != null
-                ? new ArrayList<>(this.reversePolishNotation)
-                : null;
+        Expression expression = copyVariables(expressionString);
+        expression.reversePolishNotation = this.reversePolishNotation;
+        expression.rpnLiterals = this.rpnLiterals;
+        expression.syntaxTree = this.syntaxTree;
+        expression.shape = this.shape;
+        expression.program = this.program;
+        expression.inferredTypes = this.inferredTypes;
+        // the copied variables have the same types, so the inferred types stay valid
+        expression.nodeTypes = this.nodeTypes;
+        expression.nodeTypesVersion = this.nodeTypesVersion;
+        expression.variables.typesVersion = this.variables.typesVersion;
+        expression.formulaId = formulaId;
         return expression;
     }
 
+    /**
+     * Creates an expression of the formula with the copy of the variables of this one
+     */
+    private Expression copyVariables(String formula) {
+        Expression expression = new Expression(this, formula, new Variables());
+        variables.vars.forEach((name, value) -> expression.variables.put(name, value instanceof WrappedExpression
+                ? new WrappedExpression(new Expression(expression, value.getExpression()))
+                : value));
+        return expression;
+    }
+
+    /**
+     * Partially evaluates the expression against the constants which are known before the requests
+     * (e.g. the layers of the tenant variables): everything which depends only on the constants and literals
+     * is evaluated once, IF with such a condition is replaced by the chosen branch, see {@link PartialEvaluator}.
+     * The residual expression needs only the other variables, it is evaluated as any other expression
+     * and can be copied for every request. The constants take precedence over the variables of this expression,
+     * formulas set to the variables are not specialized, but they see the constants.
+     *
+     * @param constants values of the known variables
+     * @return parsed expression of the residual formula with the variables of this one and the same formula id
+     */
+    public Expression specialize(@NonNull VariableScope constants) {
+        PartialEvaluator evaluator = new PartialEvaluator(name -> getConstant(constants, name), mc);
+        Expression expression = copyVariables(evaluator.residual(getSyntaxTree()));
+        Set<String> referenced = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        referenced.addAll(evaluator.getReferencedBindings());
+        for (WrappedValue value : variables.vars.values()) {
+            if (value instanceof WrappedExpression) {
+                new Expression(this, value.getExpression()).getUsedVariables().stream()
+                        .filter(constants::contains)
+                        .forEach(referenced::add);
+            }
+        }
+        referenced.forEach(name -> expression.variables.put(name, constants.get(name)));
+        expression.formulaId = getFormulaId();
+        return expression.parse();
+    }
+
+    /**
+     * @return value of the constant, the built-in constants (NULL, TRUE, FALSE) if they are not overridden
+     */
+    private WrappedValue getConstant(VariableScope constants, String name) {
+        WrappedValue value = constants.get(name);
+        if (value == null && (NULL_CONST.equalsIgnoreCase(name) || TRUE_CONST.equalsIgnoreCase(name)
+                || FALSE_CONST.equalsIgnoreCase(name))) {
+            return variables.vars.get(name);
+        }
+        return value;
+    }
+
+    /**
+     * Parses the formula now instead of the first evaluation, copies of the expression share the parsed RPN
+     * (or the syntax tree if {@link ExpressionSettings#isSyntaxTree()}).
+     *
+     * @return The expression, allows to chain methods.
+     */
+    public Expression parse() {
+        if (settings.isSyntaxTree()) {
+            getSyntaxTree();
+        } else {
+            getReversePolishNotation();
+        }
+        return this;
+    }
+
+    /**
+     * Shares the parsed program of the prototype instead of parsing the formula if both formulas have the same
+     * {@link #getShape() shape} and settings: the RPN (or the syntax tree) of the prototype is evaluated with
+     * the literals of this formula and the errors are reported at the positions of this formula.
+     * Otherwise the formula is parsed, see {@link #parse()}.
+     *
+     * @param prototype expression of a formula of the same shape
+     * @return The expression, allows to chain methods.
+     */
+    public Expression parse(@NonNull Expression prototype) {
+        if (settings.isSyntaxTree() != prototype.settings.isSyntaxTree() || operators != prototype.operators
+                || functions != prototype.functions || !mc.equals(prototype.mc)
+                || !getShape().equals(prototype.getShape())) {
+            return parse();
+        }
+
+        List<String> texts = shape.getLiterals();
+        WrappedValue[] literals = new WrappedValue[texts.size()];
+        for (int i = 0; i < literals.length; i++) {
+            try {
+                literals[i] = WrappedBigDecimal.wrapBigDecimal(texts.get(i), new BigDecimal(texts.get(i), mc));
+            } catch (NumberFormatException ex) {
+                // invalid literals are reported as by the formula itself
+                return parse();
+            }
+        }
+
+        SharedProgram shared = prototype.program;
+        if (shared == null) {
+            prototype.parse();
+            boolean tree = settings.isSyntaxTree();
+            shared = new SharedProgram(prototype, prototype.getShape(),
+                    tree ? null : prototype.reversePolishNotation, tree ? prototype.syntaxTree : null, null, null);
+        }
+        program = new SharedProgram(shared.prototype, shared.shape, shared.rpn, shared.tree, literals,
+                shared.tree == null ? relocate(shared.rpn, shared.shape) : relocate(shared.tree, shared.shape));
+        // literals are numbers in all the formulas of the shape, so the static types are the same too
+        inferredTypes = prototype.inferredTypes;
+        // only the literals and the positions are kept, the shape is read again if it is requested
+        shape = null;
+        return this;
+    }
+
+    /**
+     * @return <code>true</code> if the expression evaluates the parsed program of another formula, see {@link #parse(Expression)}
+     */
+    public boolean isProgramShared() {
+        return program != null;
+    }
+
+    /**
+     * @return positions of the RPN tokens of the prototype in this formula by the indexes of the tokens
+     */
+    private int[] relocate(List<Token> rpn, FormulaShape prototype) {
+        int[] positions = new int[rpn.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = prototype.relocate(rpn.get(i).getPos(), shape, false);
+        }
+        return positions;
+    }
+
+    /**
+     * @return positions of the syntax tree nodes of the prototype in this formula by the indexes of the nodes
+     */
+    private int[] relocate(Node tree, FormulaShape prototype) {
+        int[] positions = new int[tree.getIndex() + 1];
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(tree);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            positions[node.getIndex()] = prototype.relocate(node.getPosition(), shape, true);
+            node.getChildren().forEach(pending::push);
+        }
+        return positions;
+    }
+
+    /**
+     * Canonical shape of the formula: formulas which differ only in blanks, literals and the case of the functions
+     * and operators have the same shape and can share one parsed program, see {@link #parse(Expression)}.
+     *
+     * @return The cached shape of the formula.
+     */
+    public FormulaShape getShape() {
+        if (shape == null) {
+            shape = FormulaShape.of(expressionString, operatorTrie);
+        }
+        return shape;
+    }
+
+    /**
+     * @return Id of the formula reported to metrics, the expression string if not set explicitly
+     */
+    public String getFormulaId() {
+        return formulaId == null ? expressionString : formulaId;
+    }
+
+    /**
+     * Sets id of the formula reported to metrics instead of the expression string.
+     *
+     * @param formulaId The formula id.
+     * @return The expression, allows to chain methods.
+     */
+    public Expression withFormulaId(String formulaId) {
+        this.formulaId = formulaId;
+        return this;
+    }
+
     /**
      * Evaluates the expression with provided list of variables
      *
      * @return The wrapper result of the expression
      */
     public WrappedValue eval() {
-        Deque<WrappedValue> stack = new ArrayDeque<>();
-        for (final Token token : getReversePolishNotation()) {
-            evaluateToken(stack, token);
+        return evalObserved(null, false);
+    }
+
+    /**
+     * Evaluates the expression and returns the errors as values instead of throwing exceptions: division by zero,
+     * NULL operands and unknown variables are reported by {@link WrappedError} without creating exceptions,
+     * other errors are converted to it. Unlike {@link #eval()}, an unknown variable is an error only
+     * if the evaluation reaches it.
+     *
+     * @return The wrapper result of the expression, {@link WrappedValue#isError()} if the evaluation failed
+     */
+    public WrappedValue tryEval() {
+        return evalObserved(null, true);
+    }
+
+    /**
+     * Evaluates the expression with the resolver and returns the errors as values, see {@link #tryEval()}
+     *
+     * @param resolver source of the variables which are not set to the expression
+     * @return The wrapper result of the expression, {@link WrappedValue#isError()} if the evaluation failed
+     */
+    public WrappedValue tryEval(@NonNull VariableResolver resolver) {
+        return evalObserved(new SyncResolvedVariables(resolver), true);
+    }
+
+    /**
+     * Evaluates the expression, the variables which are not set to the expression are requested from the resolver
+     * when the evaluation reaches them, at most once per variable.
+     *
+     * @param resolver source of the variables which are not set to the expression
+     * @return The wrapper result of the expression
+     */
+    public WrappedValue eval(@NonNull VariableResolver resolver) {
+        return evalObserved(new SyncResolvedVariables(resolver), false);
+    }
+
+    /**
+     * Binds the variables of the formula which are not set to the expression to the record components, bean getters
+     * or public fields of the type, the accessors are found once, see {@link BoundExpression#eval(Object)}.
+     *
+     * @param type type of the objects to evaluate the expression with
+     * @return The bound expression
+     * @throws ExpressionException if the type has no accessors for some variables
+     */
+    public <T> BoundExpression<T> bind(@NonNull Class<T> type) {
+        return new BoundExpression<>(parse(), ObjectVariables.of(type), getUnsetVariables());
+    }
+
+    /**
+     * @return variables used by the formula and its nested formulas which are not set to the expression
+     */
+    private Set<String> getUnsetVariables() {
+        Set<String> result = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Set<String> nested = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            for (String name : pending.pop().getUsedVariables()) {
+                WrappedValue value = variables.vars.get(name);
+                if (value == null) {
+                    result.add(name);
+                } else if (value instanceof WrappedExpression && nested.add(name)) {
+                    pending.push(((WrappedExpression) value).getNested());
+                }
+            }
         }
+        return result;
+    }
 
-        return stack.pop().eval();
+    /**
+     * Evaluates the expression asynchronously on virtual threads (the common fork join pool if they are not supported).
+     *
+     * @see #evalAsync(AsyncVariableResolver, Executor)
+     */
+    public CompletableFuture<WrappedValue> evalAsync(@NonNull AsyncVariableResolver resolver) {
+        return evalAsync(resolver, VirtualThreads.sharedExecutor());
     }
 
-    private void evaluateToken(Deque<WrappedValue> stack, Token token) {
+    /**
+     * Evaluates the expression asynchronously, the variables which are not set to the expression are requested
+     * from the resolver only when they are needed. The variables used by every evaluation of the formula
+     * and of its nested formulas are requested in parallel before the evaluation, the ones used only by branches of IF functions
+     * are requested when the evaluation reaches them.
+     *
+     * @param resolver source of the variables which are not set to the expression
+     * @param executor executor to parse and evaluate the expression, evaluation waits for the lazily requested variables
+     * @return The future wrapper result of the expression
+     */
+    public CompletableFuture<WrappedValue> evalAsync(@NonNull AsyncVariableResolver resolver, @NonNull Executor executor) {
+        AsyncResolvedVariables resolved = new AsyncResolvedVariables(resolver);
+        return CompletableFuture.supplyAsync(this::getUnconditionalVariables, executor)
+                .thenCompose(resolved::prefetch)
+                .thenApplyAsync(ignored -> evalObserved(resolved, false), executor);
+    }
+
+    /**
+     * @return variables which are not set to the expression and are used by every evaluation of the formula,
+     * including the ones of the nested formulas of the variables used by every evaluation
+     */
+    private Set<String> getUnconditionalVariables() {
+        Set<String> result = new LinkedHashSet<>();
+        Set<String> nested = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(this);
+        while (!pending.isEmpty()) {
+            for (String name : VariableUsage.unconditional(pending.pop().getProgramRpn())) {
+                WrappedValue value = variables.vars.get(name);
+                if (value == null) {
+                    result.add(name);
+                } else if (value instanceof WrappedExpression && nested.add(name)) {
+                    // nested formulas share the variables of this expression
+                    pending.push(((WrappedExpression) value).getNested());
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the expression with metrics, events and audit
+     *
+     * @param resolved       variables resolved during the evaluation, null if all of them have to be set to the expression
+     * @param errorsAsValues return the errors as {@link WrappedError} instead of throwing exceptions
+     */
+    private WrappedValue evalObserved(ResolvedVariables resolved, boolean errorsAsValues) {
+        EventScope event = ExpressionEvents.beginEvaluation();
+        AuditJournal auditJournal = settings.getAuditJournal();
+        if (!metrics.isEnabled() && event == EventScope.NONE && auditJournal == null) {
+            WrappedValue result = evaluate(resolved, errorsAsValues);
+            if (!errorsAsValues && result instanceof WrappedError) {
+                throw ((WrappedError) result).toException();
+            }
+            return result;
+        }
+
+        long start = System.nanoTime();
+        WrappedValue result;
+        try {
+            result = evaluate(resolved, errorsAsValues);
+        } catch (RuntimeException ex) {
+            metrics.recordEvaluation(getFormulaId(), System.nanoTime() - start);
+            reportError(event, auditJournal, resolved, ex);
+            throw ex;
+        }
+        ExpressionException ex = completeObserved(event, auditJournal, resolved, start, result);
+        if (ex != null && !errorsAsValues) {
+            throw ex;
+        }
+        return result;
+    }
+
+    /**
+     * Records metrics, events and audit of the finished evaluation
+     *
+     * @return exception of the error result, null if the evaluation succeeded
+     */
+    private ExpressionException completeObserved(EventScope event, AuditJournal auditJournal, ResolvedVariables resolved,
+                                                 long start, WrappedValue result) {
+        metrics.recordEvaluation(getFormulaId(), System.nanoTime() - start);
+
+        if (result instanceof WrappedError) {
+            ExpressionException ex = ((WrappedError) result).toException();
+            reportError(event, auditJournal, resolved, ex);
+            return ex;
+        }
+
+        event.complete(this, getTokenCount(), null);
+        if (auditJournal != null) {
+            auditJournal.append(getFormulaId(), getAuditVariables(resolved), result, null);
+        }
+        return null;
+    }
+
+    private void reportError(EventScope event, AuditJournal auditJournal, ResolvedVariables resolved, RuntimeException ex) {
+        event.complete(this, getTokenCount(), ex);
+        metrics.recordError(getFormulaId(), ex.getClass().getSimpleName());
+        if (auditJournal != null) {
+            auditJournal.append(getFormulaId(), getAuditVariables(resolved), null, ex);
+        }
+    }
+
+    private Map<String, WrappedValue> getAuditVariables(ResolvedVariables resolved) {
+        if (resolved == null) {
+            return variables.vars;
+        }
+
+        Map<String, WrappedValue> result = resolved.getResolved();
+        result.putAll(variables.vars);
+        return result;
+    }
+
+    private WrappedValue evaluate(ResolvedVariables resolved, boolean errorsAsValues) {
+        try {
+            return WrappedEvaluator.evaluate(compile(resolved, errorsAsValues));
+        } catch (ExpressionException ex) {
+            if (errorsAsValues) {
+                return WrappedError.of(ex);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Builds the graph of the expression nested into another one (a variable set by {@link #with(String, String)}),
+     * so it is evaluated by the same {@link WrappedEvaluator} stack as the outer expression.
+     *
+     * Metrics, events and audit of the nested evaluation are recorded as by {@link #eval()},
+     * but its error is returned as {@link WrappedError} to the outer expression.
+     *
+     * @param resolved       variables resolved by the outer evaluation, null if all of them have to be set to the expression
+     * @param errorsAsValues unknown variables are compiled to {@link WrappedError} as by the outer evaluation
+     * @return root of the graph
+     */
+    public WrappedValue compileNested(ResolvedVariables resolved, boolean errorsAsValues) {
+        WrappedValue graph = compile(resolved, errorsAsValues);
+        if (metrics.isEnabled() || ExpressionEvents.isRecorderActive() || settings.getAuditJournal() != null) {
+            return new ObservedGraph(graph, resolved);
+        }
+        return graph;
+    }
+
+    /**
+     * Build the graph of wrapped values from the RPN
+     *
+     * @param resolved       variables resolved during the evaluation, null if all of them have to be set to the expression
+     * @param errorsAsValues unknown variables are compiled to {@link WrappedError} instead of throwing exceptions
+     * @return root of the graph to evaluate
+     */
+    private WrappedValue compile(ResolvedVariables resolved, boolean errorsAsValues) {
+        if (settings.isSyntaxTree()) {
+            return compileSyntaxTree(resolved, errorsAsValues);
+        }
+
+        SharedProgram shared = program;
+        List<Token> rpn = shared == null ? getReversePolishNotation() : shared.rpn;
+        WrappedValue[] literals = shared == null ? getRpnLiterals(rpn) : shared.literals;
+        EventScope event = ExpressionEvents.beginCompile();
+        try {
+            Deque<WrappedValue> stack = new ArrayDeque<>();
+            ProfilingSession session = settings.getProfiler()
+                    .sample(getFormulaId(), shared == null ? expressionString : shared.prototype.expressionString, rpn);
+            int literal = 0;
+            for (int i = 0; i < rpn.size(); i++) {
+                Token token = rpn.get(i);
+                WrappedValue value = token.getType() == LITERAL ? literals[literal++] : null;
+                if (value != null) {
+                    stack.push(value);
+                } else {
+                    evaluateToken(stack, token, shared == null ? token.getPos() : shared.positions[i], resolved,
+                            errorsAsValues);
+                }
+                if (session != null && isProfiled(token)) {
+                    stack.push(session.profile(i, stack.pop()));
+                }
+            }
+
+            WrappedValue result = stack.pop();
+            event.complete(this, rpn.size(), null);
+            return result;
+        } catch (RuntimeException ex) {
+            event.complete(this, rpn.size(), ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Build the graph of wrapped values from the syntax tree, the same graph as {@link #compile} builds from the RPN.
+     * The profiler reports the nodes by their RPN tokens, so the RPN is parsed too if the profiler is enabled.
+     */
+    private WrappedValue compileSyntaxTree(ResolvedVariables resolved, boolean errorsAsValues) {
+        SharedProgram shared = program;
+        Node tree = shared == null ? getSyntaxTree() : shared.tree;
+        EventScope event = ExpressionEvents.beginCompile();
+        try {
+            ProfilingSession session = settings.getProfiler().isEnabled()
+                    ? settings.getProfiler().sample(getFormulaId(),
+                    shared == null ? expressionString : shared.prototype.expressionString, getProgramRpn())
+                    : null;
+            WrappedValue result = shared == null
+                    ? new TreeCompiler(node -> lookupVariable(node.getName(), node.getPosition(), resolved, errorsAsValues),
+                    getNodeTypes(tree), session).compile(tree)
+                    : new TreeCompiler(node -> lookupVariable(node.getName(), shared.positions[node.getIndex()], resolved,
+                    errorsAsValues), getNodeTypes(tree), shared.literals, shared.positions, session).compile(tree);
+            event.complete(this, tree.getIndex() + 1, null);
+            return result;
+        } catch (RuntimeException ex) {
+            event.complete(this, tree.getIndex() + 1, ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Operators, functions and variables with nested expressions are timed by the profiler
+     */
+    private boolean isProfiled(Token token) {
+        switch (token.getType()) {
+        case OPERATOR:
+        case UNARY_OPERATOR:
+        case FUNCTION:
+            return true;
+        case VARIABLE:
+            WrappedValue variable = variables.vars.get(token.getSurface());
+            return variable != null && !variable.isPrimitive();
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * @return count of the parsed RPN tokens or syntax tree nodes, 0 if the formula is not parsed yet
+     */
+    public int getTokenCount() {
+        if (program != null) {
+            return program.tree != null ? program.tree.getIndex() + 1 : program.rpn.size();
+        }
+        Node tree = syntaxTree;
+        if (tree != null) {
+            return tree.getIndex() + 1;
+        }
+        List<Token> rpn = reversePolishNotation;
+        return rpn == null ? 0 : rpn.size();
+    }
+
+    /**
+     * @param position position of the token in the formula, the positions of the tokens of the shared program differ
+     */
+    private void evaluateToken(Deque<WrappedValue> stack, Token token, int position, ResolvedVariables resolved,
+                               boolean errorsAsValues) {
         log.trace("Evaluate token `{}` with expression `{}`", token.getType(), token.getSurface());
         switch (token.getType()) {
         case UNARY_OPERATOR:
-            stack.push(new WrappedOperatorArgs(getOperator(token.getSurface()), stack.pop(), null));
+            stack.push(new WrappedOperatorArgs(getOperator(token.getSurface()), stack.pop(), null, position));
             break;
         case OPERATOR:
             WrappedValue value1 = stack.pop();
             WrappedValue value2 = stack.pop();
-            WrappedValue wrappedValueOp = new WrappedOperatorArgs(getOperator(token.getSurface()), value2, value1);
+            WrappedValue wrappedValueOp = new WrappedOperatorArgs(getOperator(token.getSurface()), value2, value1, position);
             stack.push(wrappedValueOp);
             break;
         case VARIABLE:
-            WrappedValue variable = getVariable(token.getSurface());
+            WrappedValue variable = lookupVariable(token.getSurface(), position, resolved, errorsAsValues);
             stack.push(new WrappedVariable(token.getSurface(), variable));
             break;
         case FUNCTION:
-            evaluateFunctionToken(stack, token);
+            evaluateFunctionToken(stack, token, position);
             break;
         case OPEN_PAREN:
             stack.push(PARAMS_START);
@@ -210,38 +830,77 @@ public class Expression {
             stack.push(new WrappedString(token.getSurface()));
             break;
         default:
-            throw new ExpressionException("Unexpected token " + token.getSurface(), token.getPos());
+            throw new ExpressionException("Unexpected token " + token.getSurface(), position);
         }
     }
 
     private void evaluateLiteralToken(Deque<WrappedValue> stack, Token token) {
+        stack.push(getLiteral(token));
+    }
+
+    private WrappedValue getLiteral(Token token) {
         if (NULL_CONST.equalsIgnoreCase(token.getSurface())) {
-            stack.push(WRAPPED_NULL);
-        } else {
-            BigDecimal value = new BigDecimal(token.getSurface(), mc);
-            stack.push(WrappedBigDecimal.wrapBigDecimal(token.getSurface(), value));
+            return WRAPPED_NULL;
         }
+        BigDecimal value = new BigDecimal(token.getSurface(), mc);
+        return WrappedBigDecimal.wrapBigDecimal(token.getSurface(), value);
     }
 
-    private void evaluateFunctionToken(Deque<WrappedValue> stack, Token token) {
-        Function function = getFunction(token.getSurface().toUpperCase(Locale.ROOT));
-        List<WrappedValue> params = new ArrayList<>(!function.numParamsVaries() ? function.getNumParams() : 0);
-        // pop parameters off the stack until we hit the start of this function's parameter list
-        while (!stack.isEmpty() && stack.peek() != PARAMS_START) {
-            params.add(0, stack.pop());
+    /**
+     * @return values of the literals of the RPN, the copies of the expression share the ones read by the parse
+     */
+    private WrappedValue[] getRpnLiterals(List<Token> rpn) {
+        WrappedValue[] result = rpnLiterals;
+        if (result == null) {
+            result = readLiterals(rpn);
+            rpnLiterals = result;
         }
+        return result;
+    }
 
-        if (stack.peek() == PARAMS_START) {
-            stack.pop();
+    private WrappedValue[] readLiterals(List<Token> rpn) {
+        List<WrappedValue> result = new ArrayList<>();
+        for (Token token : rpn) {
+            if (token.getType() == LITERAL) {
+                WrappedValue value;
+                try {
+                    value = getLiteral(token);
+                } catch (NumberFormatException ex) {
+                    // the compile reports the invalid literal when the formula is evaluated
+                    value = null;
+                }
+                result.add(value);
+            }
         }
+        return result.toArray(new WrappedValue[0]);
+    }
 
-        WrappedFunctionArgs wrappedFunc = new WrappedFunctionArgs(function, params);
+    private void evaluateFunctionToken(Deque<WrappedValue> stack, Token token, int position) {
+        Function function = getFunction(token.getSurface().toUpperCase(Locale.ROOT));
+        // pop parameters off the stack until we hit the start of this function's parameter list
+        List<WrappedValue> params = ExpressionUtils.popParams(stack, value -> value == PARAMS_START);
+        WrappedFunctionArgs wrappedFunc = new WrappedFunctionArgs(function, params, position);
         stack.push(wrappedFunc);
     }
 
-    private WrappedValue getVariable(String key) {
+    /**
+     * @param errorsAsValues an unknown variable is {@link WrappedError} instead of the exception
+     */
+    private WrappedValue lookupVariable(String key, int position, ResolvedVariables resolved, boolean errorsAsValues) {
+        if (errorsAsValues && resolved == null && !variables.vars.containsKey(key)) {
+            return WrappedError.of(ErrorCode.UNKNOWN_VARIABLE, key, key).at(null, position);
+        }
+        WrappedValue value = getVariable(key, resolved);
+        // nested formulas see the resolver and return the errors as the outer evaluation
+        return value instanceof WrappedExpression ? ((WrappedExpression) value).within(resolved, errorsAsValues) : value;
+    }
+
+    private WrappedValue getVariable(String key, ResolvedVariables resolved) {
         if (!variables.vars.containsKey(key)) {
-            log.error("Variable `{}` not found. Available list: ```{}```", key, variables.vars.keySet());
+            if (resolved != null) {
+                return resolved.lazy(key);
+            }
+            log.debug("Variable `{}` not found. Available list: ```{}```", key, variables.vars.keySet());
             throw new ExpressionException("Variable does not exist " + key);
         }
 
@@ -251,7 +910,7 @@ public class Expression {
     private Operator getOperator(String key) {
         Operator result = operators.get(key);
         if (result == null) {
-            log.error("Operator `{}` not found. Available list: ```{}```", key, operators.keySet());
+            log.debug("Operator `{}` not found. Available list: ```{}```", key, operators.keySet());
             throw new ExpressionException("Operator does not exist " + key);
         }
 
@@ -261,7 +920,7 @@ public class Expression {
     private Function getFunction(String key) {
         Function result = functions.get(key);
         if (result == null) {
-            log.error("Function `{}` not found. Available list: ```{}```", key, functions.keySet());
+            log.debug("Function `{}` not found. Available list: ```{}```", key, functions.keySet());
             throw new ExpressionException("Function does not exist " + key);
         }
 
@@ -276,7 +935,7 @@ public class Expression {
      * @return The expression, allows to chain methods.
      */
     private Expression setVariable(String variable, WrappedValue value) {
-        variables.vars.put(variable, value);
+        variables.put(variable, value);
         return this;
     }
 
@@ -290,13 +949,13 @@ public class Expression {
     private Expression setVariable(String variable, String value) {
         log.debug("Set variable `{}` value `{}`", variable, value);
         if (value == null || value.isEmpty() || value.equalsIgnoreCase(NULL_CONST)) {
-            variables.vars.put(variable, WRAPPED_NULL);
+            variables.put(variable, WRAPPED_NULL);
         } else if (isNumber(value)) {
-            variables.vars.put(variable, WrappedBigDecimal.wrapBigDecimal(new BigDecimal(value, mc)));
+            variables.put(variable, WrappedBigDecimal.wrapBigDecimal(new BigDecimal(value, mc)));
         } else {
-            final Expression expression = new Expression(value, settings, operators, functions, variables);
-            variables.vars.put(variable, new WrappedExpression(expression));
-            reversePolishNotation = null;
+            final Expression expression = new Expression(this, value);
+            variables.put(variable, new WrappedExpression(expression));
+            evictReversePolishNotation();
         }
         return this;
     }
@@ -362,7 +1021,7 @@ public class Expression {
      * @return A new iterator instance for this expression.
      */
     public Iterator<Token> getExpressionTokenizer() {
-        return new Tokenizer(this.expressionString, operators);
+        return new Tokenizer(this.expressionString, operatorTrie);
     }
 
     /**
@@ -373,13 +1032,102 @@ public class Expression {
      * @return The cached RPN instance.
      */
     private List<Token> getReversePolishNotation() {
-        if (reversePolishNotation == null) {
-            ShuntingYardParser parser = new ShuntingYardParser(this.expressionString, operators, functions);
-            reversePolishNotation = parser.shuntingYard();
+        if (reversePolishNotation != null) {
+            return reversePolishNotation;
+        }
+
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        EventScope event = ExpressionEvents.beginParse();
+        ShuntingYardParser parser = new ShuntingYardParser(this.expressionString, operatorTrie, functions);
+        try {
+            List<Token> rpn = Collections.unmodifiableList(parser.shuntingYard());
+            rpnLiterals = readLiterals(rpn);
+            reversePolishNotation = rpn;
+        } catch (RuntimeException ex) {
+            event.complete(this, 0, ex);
+            throw ex;
+        }
+
+        event.complete(this, reversePolishNotation.size(), null);
+        if (metrics.isEnabled()) {
+            metrics.recordParse(getFormulaId(), System.nanoTime() - start);
         }
         return reversePolishNotation;
     }
 
+    /**
+     * Cached access to the syntax tree of this expression parsed by {@link AstParser} in a single pass,
+     * the tree is validated and shared by the copies of the expression.
+     *
+     * @return The cached root of the syntax tree.
+     */
+    public Node getSyntaxTree() {
+        if (syntaxTree != null) {
+            return syntaxTree;
+        }
+
+        long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        EventScope event = ExpressionEvents.beginParse();
+        try {
+            syntaxTree = new AstParser(expressionString, operatorTrie, functions, mc).parse();
+            inferredTypes = new InferredTypes(syntaxTree);
+        } catch (RuntimeException ex) {
+            event.complete(this, 0, ex);
+            throw ex;
+        }
+
+        event.complete(this, syntaxTree.getIndex() + 1, null);
+        if (metrics.isEnabled()) {
+            metrics.recordParse(getFormulaId(), System.nanoTime() - start);
+        }
+        return syntaxTree;
+    }
+
+    /**
+     * Static type of the result inferred from the syntax tree without the evaluation. The variables set
+     * to the expression have the types of their values, nested expressions and unknown variables can be anything.
+     *
+     * @return the type of the result, the result can also be an error
+     */
+    public StaticType getStaticType() {
+        Node tree = program == null || program.tree == null ? getSyntaxTree() : program.tree;
+        return getNodeTypes(tree).getType(tree);
+    }
+
+    /**
+     * Cached static types of the syntax tree nodes, they are looked up again when the type of a variable is changed.
+     * Variables which are not set to the expression (e.g. resolved during the evaluation) can be anything.
+     */
+    private TypeInference getNodeTypes(Node tree) {
+        if (nodeTypes == null || nodeTypesVersion != variables.typesVersion) {
+            InferredTypes inferred = inferredTypes;
+            if (inferred == null || inferred.tree != tree) {
+                inferred = new InferredTypes(tree);
+                inferredTypes = inferred;
+            }
+            nodeTypes = inferred.get(name -> StaticType.of(variables.vars.get(name)));
+            nodeTypesVersion = variables.typesVersion;
+        }
+        return nodeTypes;
+    }
+
+    /**
+     * Drop the cached RPN and syntax tree, so they are parsed again on the next access
+     */
+    private void evictReversePolishNotation() {
+        if (reversePolishNotation != null) {
+            ExpressionEvents.cacheEviction(this, reversePolishNotation.size());
+            reversePolishNotation = null;
+            rpnLiterals = null;
+        }
+        if (syntaxTree != null) {
+            ExpressionEvents.cacheEviction(this, syntaxTree.getIndex() + 1);
+            syntaxTree = null;
+            nodeTypes = null;
+            inferredTypes = null;
+        }
+    }
+
     /**
      * Returns a list of the variables in the expression.
      *
@@ -387,12 +1135,13 @@ public class Expression {
      */
     public Set<String> getUsedVariables() {
         Set<String> result = new HashSet<>();
-        Tokenizer tokenizer = new Tokenizer(expressionString, operators);
-        while (tokenizer.hasNext()) {
-            Token nextToken = tokenizer.next();
-            String token = nextToken.getSurface();
-            if (nextToken.getType() == VARIABLE
-                    && !token.equalsIgnoreCase(NULL_CONST)
+        Lexer lexer = new Lexer(expressionString, operatorTrie);
+        while (lexer.hasNext()) {
+            if (lexer.next() != VARIABLE) {
+                continue;
+            }
+            String token = lexer.getSurface();
+            if (!token.equalsIgnoreCase(NULL_CONST)
                     && !token.equalsIgnoreCase(TRUE_CONST)
                     && !token.equalsIgnoreCase(FALSE_CONST)) {
                 result.add(token);
@@ -410,7 +1159,7 @@ public class Expression {
      * then the IF is also considered boolean, else non-boolean.
      */
     public boolean isBoolean() {
-        List<Token> rpnList = getReversePolishNotation();
+        List<Token> rpnList = getProgramRpn();
         for (int i = rpnList.size() - 1; i >= 0; i--) {
             Token token = rpnList.get(i);
             if (!IF_FUNC.equalsIgnoreCase(token.getSurface())) {
@@ -428,10 +1177,189 @@ public class Expression {
      * Check if the expression contains required (not null) arguments {@link Operator#isAssertArgs()}
      */
     public boolean hasRequiredArgs() {
-        return getReversePolishNotation().stream()
+        return getProgramRpn().stream()
                 .filter(t -> OPERATOR == t.getType())
                 .map(Token::getSurface)
                 .map(this::getOperator)
                 .anyMatch(Operator::isAssertArgs);
     }
+
+    /**
+     * RPN of the formula or of the shared program: the tokens of the prototype differ from the ones of this formula
+     * only in the literals and positions, so they have the same operators, functions and variables
+     */
+    private List<Token> getProgramRpn() {
+        SharedProgram shared = program;
+        return shared == null ? getReversePolishNotation() : shared.getRpn();
+    }
+
+    /**
+     * Parsed program of the prototype formula with the literals and positions of the tokens of another formula
+     * of the same shape
+     */
+    @RequiredArgsConstructor
+    private static final class SharedProgram {
+        /**
+         * The expression which parsed the program, the profiler reports the RPN tokens in its formula
+         */
+        private final Expression prototype;
+        private final FormulaShape shape;
+        private final List<Token> rpn;
+        private final Node tree;
+        /**
+         * The literals of the formula in the order of the formula
+         */
+        private final WrappedValue[] literals;
+        /**
+         * The positions of the RPN tokens or of the syntax tree nodes in the formula by their indexes
+         */
+        private final int[] positions;
+
+        /**
+         * @return the RPN of the program, the syntax tree programs use the RPN parsed once by the prototype
+         */
+        private List<Token> getRpn() {
+            return rpn != null ? rpn : prototype.getReversePolishNotation();
+        }
+    }
+
+    /**
+     * Static types of a syntax tree by the types of its variables, so the copies of an expression (e.g. handed out
+     * by a cache for every request) infer the types once for the same types of the variables
+     */
+    private static final class InferredTypes {
+        private static final int CAPACITY = 16;
+
+        private final Node tree;
+        private final Map<List<StaticType>, TypeInference> inferences = new ConcurrentHashMap<>();
+        /**
+         * Variables of the tree, the types are inferred for their types in this order, found on the first inference
+         */
+        private volatile String[] names;
+
+        private InferredTypes(Node tree) {
+            this.tree = tree;
+        }
+
+        private String[] getNames() {
+            String[] result = names;
+            if (result == null) {
+                Set<String> found = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+                Deque<Node> pending = new ArrayDeque<>();
+                pending.push(tree);
+                while (!pending.isEmpty()) {
+                    Node node = pending.pop();
+                    if (node instanceof VariableNode) {
+                        found.add(((VariableNode) node).getName());
+                    }
+                    node.getChildren().forEach(pending::push);
+                }
+                result = found.toArray(new String[0]);
+                names = result;
+            }
+            return result;
+        }
+
+        private TypeInference get(java.util.function.Function<String, StaticType> types) {
+            String[] names = getNames();
+            StaticType[] key = new StaticType[names.length];
+            for (int i = 0; i < names.length; i++) {
+                key[i] = types.apply(names[i]);
+            }
+            List<StaticType> signature = Arrays.asList(key);
+            TypeInference inference = inferences.get(signature);
+            if (inference == null) {
+                // the inference does not keep the variables of the expression
+                Map<String, StaticType> variables = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                for (int i = 0; i < names.length; i++) {
+                    variables.put(names[i], key[i]);
+                }
+                inference = new TypeInference(node -> variables.get(node.getName()));
+                inference.infer(tree);
+                if (inferences.size() < CAPACITY) {
+                    inferences.put(signature, inference);
+                }
+            }
+            return inference;
+        }
+    }
+
+    /**
+     * Root of the nested expression graph which records metrics, events and audit of the nested evaluation
+     */
+    private final class ObservedGraph extends AbstractedWrapper {
+        private final WrappedValue graph;
+        private final ResolvedVariables resolved;
+        private EventScope event;
+        private long start;
+        private WrappedValue result;
+
+        private ObservedGraph(WrappedValue graph, ResolvedVariables resolved) {
+            this.graph = graph;
+            this.resolved = resolved;
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return false;
+        }
+
+        /**
+         * The evaluation is started before the graph is evaluated by the outer stack
+         */
+        @Override
+        public WrappedValue nextDependency() {
+            if (result != null || event != null) {
+                return null;
+            }
+            begin();
+            return graph.isPrimitive() ? null : graph;
+        }
+
+        @Override
+        public WrappedValue eval() {
+            if (result == null) {
+                if (event == null) {
+                    begin();
+                }
+                AuditJournal auditJournal = settings.getAuditJournal();
+                WrappedValue value;
+                try {
+                    value = unwrapEval(graph.eval());
+                } catch (RuntimeException ex) {
+                    metrics.recordEvaluation(getFormulaId(), System.nanoTime() - start);
+                    reportError(event, auditJournal, resolved, ex);
+                    throw ex;
+                }
+                completeObserved(event, auditJournal, resolved, start, value);
+                result = value;
+            }
+            return result;
+        }
+
+        private void begin() {
+            event = ExpressionEvents.beginEvaluation();
+            start = System.nanoTime();
+        }
+
+        @Override
+        public Optional<BigDecimal> unwrap() {
+            return eval().unwrap();
+        }
+
+        @Override
+        public String getExpression() {
+            return expressionString;
+        }
+
+        @Override
+        public WrappedValue copy() {
+            return new ObservedGraph(graph.copy(), resolved);
+        }
+
+        @Override
+        public String toString() {
+            return "Observed{" + expressionString + '}';
+        }
+    }
 }
@@ -1,15 +1,22 @@
 package io.github.ngsandbox.math.expressions;
 
 /**
- * The expression evaluators exception class.
+ * The expression evaluators exception class. Stack traces are not filled in, the message describes the failed
+ * formula, set the system property {@value #STACK_TRACE_PROPERTY} to <code>true</code> to fill them in.
  */
 public class ExpressionException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
+    public static final String STACK_TRACE_PROPERTY = "io.github.ngsandbox.math.expressions.stackTrace";
+
+    private static final boolean STACK_TRACE = Boolean.getBoolean(STACK_TRACE_PROPERTY);
+
     public ExpressionException(String message) {
-        super(message);
+        super(message, null, true, STACK_TRACE);
     }
 
     public ExpressionException(String message, int characterPosition) {
-        super(message + " at character position " + characterPosition);
+        this(message + " at character position " + characterPosition);
     }
 }
@@ -6,6 +6,11 @@ import java.util.Date;
 import java.util.function.Supplier;
 
 import lombok.Builder;
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.audit.AuditJournal;
+import io.github.ngsandbox.math.expressions.metrics.ExpressionMetrics;
+import io.github.ngsandbox.math.expressions.profiler.NodeProfiler;
 
 import static java.math.MathContext.DECIMAL32;
 
@@ -47,12 +52,47 @@ public final class ExpressionSettings {
      */
     private final Supplier<Date> currentDateSupplier;
 
+    /**
+     * Parsing and evaluation metrics. Default is {@link ExpressionMetrics#NOOP}.
+     */
+    private final ExpressionMetrics metrics;
+
+    /**
+     * Sampling profiler of the evaluation graph nodes. Default is {@link NodeProfiler#DISABLED}.
+     */
+    private final NodeProfiler profiler;
+
+    /**
+     * Journal of every evaluation with its variables and result. Default is none.
+     */
+    @Getter
+    private final AuditJournal auditJournal;
+
+    /**
+     * Parse formulas to the syntax tree by the single pass {@link io.github.ngsandbox.math.expressions.ast.AstParser}
+     * and build the evaluation graphs from it instead of the RPN. Default is false.
+     */
+    @Getter
+    private final boolean syntaxTree;
+
     public Supplier<Date> getCurrentDateSupplier() {
         return currentDateSupplier == null
                 ? Date::new
                 : currentDateSupplier;
     }
 
+    public ExpressionMetrics getMetrics() {
+        return metrics == null
+                ? ExpressionMetrics.NOOP
+                : metrics;
+    }
+
+    public NodeProfiler getProfiler() {
+        return profiler == null
+                ? NodeProfiler.DISABLED
+                : profiler;
+    }
+
     public MathContext buildMathContext() {
         if (mathContext != null) {
             return mathContext;
@@ -1,6 +1,10 @@
 package io.github.ngsandbox.math.expressions;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.function.Predicate;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,6 +25,26 @@ public final class ExpressionUtils {
         return result;
     }
 
+    /**
+     * Pop the parameters of a function off the stack down to the start of its parameter list, the start is popped too.
+     * Parameters are collected in linear time, so variadic calls with thousands of parameters are not quadratic.
+     *
+     * @param stack       stack with the parameters on top, the last parameter is the top one
+     * @param paramsStart checks if the element is the start of the parameter list
+     * @return parameters in the order of the formula
+     */
+    public static <T> List<T> popParams(Deque<T> stack, Predicate<? super T> paramsStart) {
+        List<T> params = new ArrayList<>();
+        while (!stack.isEmpty() && !paramsStart.test(stack.peek())) {
+            params.add(stack.pop());
+        }
+        if (!stack.isEmpty()) {
+            stack.pop();
+        }
+        Collections.reverse(params);
+        return params;
+    }
+
     public static <T> boolean isNull(T v1) {
         return v1 == null || WRAPPED_NULL.equals(v1);
     }
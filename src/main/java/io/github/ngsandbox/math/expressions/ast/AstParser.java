@@ -0,0 +1,317 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.functions.Function;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.tokens.Lexer;
+import io.github.ngsandbox.math.expressions.tokens.OperatorTrie;
+import io.github.ngsandbox.math.expressions.tokens.TokenType;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.MISSING_PARAMETERS_FOR_OPERATOR;
+
+/**
+ * Single pass precedence climbing parser of the formula to the syntax tree. Operators are bound by their
+ * {@link Operator#getPriority()} and {@link Operator#isLeftAssoc()} exactly as by the
+ * {@link io.github.ngsandbox.math.expressions.tokens.ShuntingYardParser}, the count of the function arguments is
+ * validated when the call is closed, errors are reported at the position of the token which caused them.
+ * <br>
+ * Pending operators, parentheses and calls are kept on an explicit stack instead of the recursion,
+ * so the nesting of the formula does not depend on the thread stack size. Not thread safe, parses a single formula.
+ */
+@Slf4j
+public final class AstParser {
+
+    private final String formula;
+    private final OperatorTrie trie;
+    private final Map<String, Operator> operators;
+    private final Map<String, Function> functions;
+    private final MathContext mc;
+    private final List<Node> operands = new ArrayList<>();
+    /**
+     * Nodes in the order they are created, which is the post-order of the tree
+     */
+    private final List<Node> nodes = new ArrayList<>();
+    /**
+     * Stack of the pending frames, popped frames are reused by the next push
+     */
+    private final List<Frame> frames = new ArrayList<>();
+    private int depth;
+    /**
+     * Index of the next token in the Reverse Polish notation, argument lists of the functions take one
+     */
+    private int index;
+
+    public AstParser(@NonNull String formula,
+                     @NonNull Map<String, Operator> operators,
+                     @NonNull Map<String, Function> functions,
+                     @NonNull MathContext mc) {
+        this(formula, OperatorTrie.of(operators), functions, mc);
+    }
+
+    public AstParser(@NonNull String formula,
+                     @NonNull OperatorTrie operators,
+                     @NonNull Map<String, Function> functions,
+                     @NonNull MathContext mc) {
+        this.formula = formula;
+        this.trie = operators;
+        this.operators = operators.getOperators();
+        this.functions = functions;
+        this.mc = mc;
+    }
+
+    /**
+     * @return root of the syntax tree
+     * @throws ExpressionException if the formula is not valid
+     */
+    public Node parse() {
+        log.debug("Parse syntax tree of expression {}", formula);
+        Lexer lexer = new Lexer(formula, trie);
+        boolean expectOperand = true;
+        while (lexer.hasNext()) {
+            TokenType type = lexer.next();
+            String surface = lexer.getSurface();
+            int position = lexer.getStart();
+            switch (type) {
+            case LITERAL:
+                requireOperand(expectOperand, position);
+                add(new LiteralNode(surface, parseLiteral(surface, position), position, index++));
+                expectOperand = false;
+                break;
+            case STRINGPARAM:
+                requireOperand(expectOperand, position);
+                add(new StringNode(surface, position, index++));
+                expectOperand = false;
+                break;
+            case VARIABLE:
+                requireOperand(expectOperand, position);
+                add(new VariableNode(surface, position, index++));
+                expectOperand = false;
+                break;
+            case FUNCTION:
+                requireOperand(expectOperand, position);
+                // the lexer reads a function only if the open parenthesis follows
+                lexer.next();
+                push(Frame.CALL, position).call(surface, getFunction(surface, position), operands.size());
+                index++;
+                break;
+            case UNARY_OPERATOR:
+                push(Frame.OPERATOR, position).operator(getOperator(surface, "Unknown unary operator ", position), true);
+                break;
+            case OPERATOR:
+                if (expectOperand) {
+                    throw new ExpressionException(MISSING_PARAMETERS_FOR_OPERATOR + surface, position);
+                }
+                Operator operator = getOperator(surface, "Unknown operator ", position);
+                reduceOperators(operator);
+                push(Frame.OPERATOR, position).operator(operator, false);
+                expectOperand = true;
+                break;
+            case OPEN_PAREN:
+                if (!expectOperand) {
+                    // Implicit multiplication, e.g. 23(a+b) or (a+b)(a-b), binds tighter than the operators before it
+                    push(Frame.OPERATOR, position).operator(getOperator("*", "Unknown operator ", position), false);
+                }
+                push(Frame.PAREN, position);
+                expectOperand = true;
+                break;
+            case COMMA:
+                if (expectOperand) {
+                    throw missingOperand(type, position);
+                }
+                reduceOperators(null);
+                Frame call = peek();
+                if (call == null || call.kind != Frame.CALL) {
+                    throw new ExpressionException("Unexpected comma", position);
+                }
+                call.commas++;
+                expectOperand = true;
+                break;
+            case CLOSE_PAREN:
+                closeParenthesis(expectOperand, position);
+                expectOperand = false;
+                break;
+            default:
+                throw new ExpressionException("Unknown token type: " + type, position);
+            }
+        }
+
+        if (expectOperand) {
+            Frame top = peek();
+            if (top == null) {
+                throw new ExpressionException("Empty expression", 0);
+            }
+            if (top.kind == Frame.OPERATOR) {
+                throw missingOperand(TokenType.OPERATOR, top.position);
+            }
+        }
+        reduceOperators(null);
+        if (depth > 0) {
+            throw new ExpressionException("Mismatched parentheses", peek().position);
+        }
+        Node root = operands.get(0);
+        root.setPostOrder(nodes.toArray(new Node[0]));
+        return root;
+    }
+
+    private void add(Node node) {
+        operands.add(node);
+        nodes.add(node);
+    }
+
+    private void closeParenthesis(boolean expectOperand, int position) {
+        Frame top = peek();
+        boolean emptyCall = top != null && top.kind == Frame.CALL && top.commas == 0 && operands.size() == top.base;
+        if (expectOperand && !emptyCall) {
+            throw missingOperand(TokenType.CLOSE_PAREN, position);
+        }
+        reduceOperators(null);
+        Frame frame = pop();
+        if (frame == null) {
+            throw new ExpressionException("Mismatched parentheses", position);
+        }
+        if (frame.kind == Frame.CALL) {
+            List<Node> arguments = operands.subList(frame.base, operands.size());
+            Function function = frame.function;
+            if (!function.numParamsVaries() && arguments.size() != function.getNumParams()) {
+                throw new ExpressionException("Function " + frame.name + " expected " + function.getNumParams()
+                        + " parameters, got " + arguments.size(), frame.position);
+            }
+            FunctionNode node = new FunctionNode(frame.name, function, arguments, frame.position, index++);
+            arguments.clear();
+            add(node);
+        }
+    }
+
+    /**
+     * Build the nodes of the pending operators which bind tighter than the next operator
+     *
+     * @param next the next operator, null to build all of them up to the nearest parenthesis or call
+     */
+    private void reduceOperators(Operator next) {
+        for (Frame top = peek(); top != null && top.kind == Frame.OPERATOR; top = peek()) {
+            int priority = top.operator.getPriority();
+            if (next != null && !(next.isLeftAssoc() && next.getPriority() <= priority || next.getPriority() < priority)) {
+                return;
+            }
+            pop();
+            Node right = operands.remove(operands.size() - 1);
+            if (top.unary) {
+                add(new UnaryNode(top.operator, right, top.position, index++));
+            } else {
+                Node left = operands.remove(operands.size() - 1);
+                add(new BinaryNode(top.operator, left, right, top.position, index++));
+            }
+        }
+    }
+
+    /**
+     * Error of the missing operand before the comma or the parenthesis, the pending operator is reported
+     * if it misses the operand
+     */
+    private ExpressionException missingOperand(TokenType type, int position) {
+        Frame top = peek();
+        if (top != null && top.kind == Frame.OPERATOR) {
+            return new ExpressionException(MISSING_PARAMETERS_FOR_OPERATOR + top.operator.getOper(), top.position);
+        }
+        if (top != null && top.kind == Frame.CALL) {
+            return new ExpressionException("Missing parameter for function " + top.name, position);
+        }
+        if (type == TokenType.COMMA) {
+            return new ExpressionException("Unexpected comma", position);
+        }
+        return new ExpressionException(top == null ? "Mismatched parentheses" : "Empty expression", position);
+    }
+
+    private static void requireOperand(boolean expectOperand, int position) {
+        if (!expectOperand) {
+            throw new ExpressionException("Missing operator", position);
+        }
+    }
+
+    private BigDecimal parseLiteral(String surface, int position) {
+        try {
+            return new BigDecimal(surface, mc);
+        } catch (NumberFormatException ex) {
+            throw new ExpressionException("Invalid number " + surface, position);
+        }
+    }
+
+    private Operator getOperator(String surface, String error, int position) {
+        Operator operator = operators.get(surface);
+        if (operator == null) {
+            throw new ExpressionException(error + surface, position);
+        }
+        return operator;
+    }
+
+    private Function getFunction(String name, int position) {
+        // the registries of the expressions are case insensitive
+        Function function = functions.get(name);
+        if (function == null) {
+            log.debug("Function `{}` not found. Available list: ```{}```", name, functions.keySet());
+            throw new ExpressionException("Function does not exist " + name.toUpperCase(Locale.ROOT), position);
+        }
+        return function;
+    }
+
+    private Frame push(int kind, int position) {
+        if (depth == frames.size()) {
+            frames.add(new Frame());
+        }
+        Frame frame = frames.get(depth++);
+        frame.kind = kind;
+        frame.position = position;
+        frame.commas = 0;
+        return frame;
+    }
+
+    private Frame peek() {
+        return depth == 0 ? null : frames.get(depth - 1);
+    }
+
+    private Frame pop() {
+        return depth == 0 ? null : frames.get(--depth);
+    }
+
+    /**
+     * Pending operator, parenthesis or function call
+     */
+    private static final class Frame {
+        private static final int OPERATOR = 0;
+        private static final int PAREN = 1;
+        private static final int CALL = 2;
+
+        private int kind;
+        private int position;
+        private Operator operator;
+        private boolean unary;
+        private String name;
+        private Function function;
+        /**
+         * Count of the operands before the arguments of the call
+         */
+        private int base;
+        private int commas;
+
+        void operator(Operator operator, boolean unary) {
+            this.operator = operator;
+            this.unary = unary;
+        }
+
+        void call(String name, Function function, int base) {
+            this.name = name;
+            this.function = function;
+            this.base = base;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.operators.Operator;
+
+/**
+ * Infix operator with its operands
+ */
+@Getter
+public final class BinaryNode extends Node {
+
+    private final Operator operator;
+    private final Node left;
+    private final Node right;
+    @Getter(AccessLevel.NONE)
+    private final List<Node> children;
+    /**
+     * Junction chain with this node as its root, built by the first compilation of the chain.
+     * A race only builds the chain twice and loses the statistics of one of them.
+     */
+    @Getter(AccessLevel.NONE)
+    private JunctionChain junctionChain;
+
+    public BinaryNode(@NonNull Operator operator, @NonNull Node left, @NonNull Node right, int position, int index) {
+        super(position, index);
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.children = Collections.unmodifiableList(Arrays.asList(left, right));
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    /**
+     * @return statistics of the junction chain with this node as its root, null if it is not compiled yet
+     * @see TreeCompiler
+     */
+    public JunctionStatistics getJunctionStatistics() {
+        JunctionChain chain = junctionChain;
+        return chain == null ? null : chain.getStatistics();
+    }
+
+    JunctionChain getJunctionChain() {
+        JunctionChain chain = junctionChain;
+        if (chain == null) {
+            chain = JunctionChain.of(this);
+            junctionChain = chain;
+        }
+        return chain;
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.binary(this, results[offset], results[offset + 1]);
+    }
+}
@@ -0,0 +1,43 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.functions.Function;
+
+/**
+ * Function call, the count of the arguments is validated by the parser
+ */
+@Getter
+public final class FunctionNode extends Node {
+
+    /**
+     * Name of the function as it is written in the formula
+     */
+    private final String name;
+    private final Function function;
+    private final List<Node> arguments;
+
+    public FunctionNode(@NonNull String name, @NonNull Function function, @NonNull List<Node> arguments,
+                        int position, int index) {
+        super(position, index);
+        this.name = name;
+        this.function = function;
+        this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return arguments;
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.function(this, new ArrayList<>(Arrays.asList(results).subList(offset, offset + arguments.size())));
+    }
+}
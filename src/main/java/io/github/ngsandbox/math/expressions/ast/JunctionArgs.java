@@ -0,0 +1,201 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+
+import io.github.ngsandbox.math.expressions.operators.Junction;
+import io.github.ngsandbox.math.expressions.wrappers.AbstractedWrapper;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedEvaluator;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedOperatorArgs;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Chain of the operators of the same junction, e.g. <code>a &gt; 1 &amp;&amp; b &lt; 2 &amp;&amp; c</code>,
+ * see {@link JunctionChain}. The operators evaluate all their operands from left to right, the chain evaluates
+ * the operands which can fail (see {@link TypeInference#canFail}) the same way first, then the numbers which can not
+ * fail in the order of the {@link JunctionStatistics} until one of them decides the chain. If some operand is not
+ * a number (NULL, string or error), all the operands are evaluated and the operators of the nodes are applied to them,
+ * so the result and the positions of the errors are the same as without the chain.
+ */
+final class JunctionArgs extends AbstractedWrapper {
+
+    private final BinaryNode root;
+    /**
+     * Positions of the nodes by their indexes, null for the positions of the nodes
+     */
+    private final int[] positions;
+    /**
+     * Compiled operands by the indexes of their nodes and the types of the nodes, they are released
+     * when the chain is resolved
+     */
+    private WrappedValue[] compiled;
+    private TypeInference types;
+    private JunctionChain chain;
+    private WrappedValue[] operands;
+    /**
+     * Operands which are numbers and can not fail, they are evaluated only until the chain is decided
+     */
+    private boolean[] safe;
+
+    private WrappedValue[] values;
+    private int[] order;
+    private boolean timed;
+    private int step;
+    private int pending = -1;
+    private long started;
+    private boolean decided;
+    private boolean failed;
+    private WrappedValue result;
+
+    /**
+     * @param root      root of the chain, the chains of the nested nodes of the same junction are never resolved
+     * @param compiled  compiled operands by the indexes of their nodes, it is filled while the tree is compiled
+     * @param types     static types of the nodes
+     * @param positions positions of the nodes by their indexes, null for the positions of the nodes
+     */
+    JunctionArgs(BinaryNode root, WrappedValue[] compiled, TypeInference types, int[] positions) {
+        this.root = root;
+        this.compiled = compiled;
+        this.types = types;
+        this.positions = positions;
+    }
+
+    private JunctionArgs(BinaryNode root, int[] positions, JunctionChain chain, WrappedValue[] operands, boolean[] safe) {
+        this.root = root;
+        this.positions = positions;
+        this.chain = chain;
+        this.operands = operands;
+        this.safe = safe;
+    }
+
+    private void resolve() {
+        if (chain == null) {
+            chain = root.getJunctionChain();
+            Node[] nodes = chain.getOperands();
+            operands = new WrappedValue[nodes.length];
+            safe = new boolean[nodes.length];
+            for (int i = 0; i < nodes.length; i++) {
+                operands[i] = compiled[nodes[i].getIndex()];
+                safe[i] = types.getType(nodes[i]).isNumber() && !types.canFail(nodes[i]);
+            }
+            compiled = null;
+            types = null;
+        }
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    public WrappedValue eval() {
+        if (result == null) {
+            WrappedEvaluator.evaluate(this);
+        }
+        return result;
+    }
+
+    /**
+     * The operands which can fail in the order of the formula, then the rest of them by the statistics
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        if (values == null) {
+            resolve();
+            values = new WrappedValue[operands.length];
+            order = chain.getStatistics().order();
+            timed = chain.getStatistics().start();
+        }
+        if (pending >= 0) {
+            complete(pending, timed ? System.nanoTime() - started : -1);
+            pending = -1;
+        }
+
+        int size = operands.length;
+        while (result == null) {
+            if (step == size && decided && !failed) {
+                result = chain.getJunction().getDecided();
+            } else if (step == 2 * size) {
+                Junction junction = chain.getJunction();
+                result = failed ? fold() : decided ? junction.getDecided() : junction.getUndecided();
+            } else {
+                boolean first = step < size;
+                int operand = first ? step : order[step - size];
+                step++;
+                if (safe[operand] != first) {
+                    WrappedValue value = operands[operand];
+                    if (!value.isPrimitive()) {
+                        pending = operand;
+                        started = timed ? System.nanoTime() : 0;
+                        return value;
+                    }
+                    complete(operand, timed ? 0 : -1);
+                }
+            }
+        }
+        return null;
+    }
+
+    private void complete(int operand, long elapsed) {
+        WrappedValue value = operands[operand].eval();
+        values[operand] = value;
+        BigDecimal number = value instanceof WrappedError ? null : value.decimalValue();
+        boolean decisive = number != null && chain.getJunction().isDecisive(number);
+        failed |= number == null;
+        decided |= decisive;
+        if (safe[operand]) {
+            chain.getStatistics().record(operand, decisive, elapsed);
+            if (decisive && !failed) {
+                result = chain.getJunction().getDecided();
+            }
+        }
+    }
+
+    /**
+     * @return result of the operators of the nodes applied to all the operands in post-order
+     */
+    private WrappedValue fold() {
+        Deque<WrappedValue> stack = new ArrayDeque<>();
+        for (int item : chain.getProgram()) {
+            if (item >= 0) {
+                stack.push(values[item]);
+            } else {
+                BinaryNode node = chain.getNodes()[-1 - item];
+                WrappedValue right = stack.pop();
+                WrappedValue left = stack.pop();
+                int position = positions == null ? node.getPosition() : positions[node.getIndex()];
+                stack.push(new WrappedOperatorArgs(node.getOperator(), left, right, position).eval());
+            }
+        }
+        return stack.pop();
+    }
+
+    @Override
+    public Optional<BigDecimal> unwrap() {
+        return eval().unwrap();
+    }
+
+    @Override
+    public String getExpression() {
+        return root.getOperator().getOper();
+    }
+
+    @Override
+    public WrappedValue copy() {
+        resolve();
+        WrappedValue[] copies = new WrappedValue[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            copies[i] = operands[i].copy();
+        }
+        return new JunctionArgs(root, positions, chain, copies, safe);
+    }
+
+    @Override
+    public String toString() {
+        return "Junction{" + root.getOperator().getOper() + " of " + (operands == null ? "?" : operands.length) + "}";
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.operators.Junction;
+
+/**
+ * Nodes of the same junction joined into one chain, e.g. <code>a &amp;&amp; (b &amp;&amp; c) &amp;&amp; d</code>
+ * has the operands a, b, c, d. The chain is built once per root node, it is shared by all evaluations of the tree.
+ */
+@Getter(AccessLevel.PACKAGE)
+final class JunctionChain {
+
+    private final Junction junction;
+    /**
+     * Operands of the chain from left to right
+     */
+    private final Node[] operands;
+    /**
+     * Nodes of the chain in post-order, the root is the last one
+     */
+    private final BinaryNode[] nodes;
+    /**
+     * Post-order of the chain: index of an operand or <code>-1 - k</code> for the node k
+     */
+    private final int[] program;
+    private final JunctionStatistics statistics;
+
+    private JunctionChain(Junction junction, List<Node> operands, List<BinaryNode> nodes, int[] program) {
+        this.junction = junction;
+        this.operands = operands.toArray(new Node[0]);
+        this.nodes = nodes.toArray(new BinaryNode[0]);
+        this.program = program;
+        this.statistics = new JunctionStatistics(operands.size());
+    }
+
+    /**
+     * @return <code>true</code> if the node is a part of the chain of the junction, not its operand
+     */
+    static boolean isLink(Node node, Junction junction) {
+        return node instanceof BinaryNode && ((BinaryNode) node).getOperator().getJunction() == junction;
+    }
+
+    static JunctionChain of(BinaryNode root) {
+        Junction junction = root.getOperator().getJunction();
+        // pre-order with the right child first is the reversed post-order
+        List<Node> reversed = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            reversed.add(node);
+            if (isLink(node, junction)) {
+                pending.push(((BinaryNode) node).getLeft());
+                pending.push(((BinaryNode) node).getRight());
+            }
+        }
+
+        List<Node> operands = new ArrayList<>();
+        List<BinaryNode> nodes = new ArrayList<>();
+        int[] program = new int[reversed.size()];
+        for (int i = reversed.size() - 1, step = 0; i >= 0; i--, step++) {
+            Node node = reversed.get(i);
+            if (isLink(node, junction)) {
+                program[step] = -1 - nodes.size();
+                nodes.add((BinaryNode) node);
+            } else {
+                program[step] = operands.size();
+                operands.add(node);
+            }
+        }
+        return new JunctionChain(junction, operands, nodes, program);
+    }
+}
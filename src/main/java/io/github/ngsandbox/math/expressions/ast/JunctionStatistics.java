@@ -0,0 +1,118 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Statistics of the operands of a junction chain (e.g. <code>a &gt; 1 &amp;&amp; b &lt; 2 &amp;&amp; c == 3</code>)
+ * shared by all evaluations of the syntax tree: how often an operand decides the chain and how long it takes
+ * to evaluate it (timed in one of {@value #TIMING_PERIOD} evaluations). Every {@value #REORDER_PERIOD} evaluations
+ * the operands are ranked by their cost divided by the probability to decide the chain, so cheap and selective
+ * operands are evaluated first.
+ * <br>
+ * Counters are updated without synchronization: concurrent evaluations can lose some updates, it only delays
+ * the reordering, the result of the chain does not depend on the order of its operands.
+ */
+public final class JunctionStatistics {
+
+    static final int TIMING_PERIOD = 16;
+    static final int REORDER_PERIOD = 256;
+
+    private final long[] evaluated;
+    private final long[] decided;
+    private final long[] nanos;
+    private final long[] timed;
+    private long evaluations;
+    /**
+     * Indexes of the operands from the best ranked one, the order of the formula until the first reordering
+     */
+    private volatile int[] order;
+
+    JunctionStatistics(int operands) {
+        evaluated = new long[operands];
+        decided = new long[operands];
+        nanos = new long[operands];
+        timed = new long[operands];
+        int[] initial = new int[operands];
+        Arrays.setAll(initial, i -> i);
+        order = initial;
+    }
+
+    /**
+     * @return indexes of the operands in the order of their evaluation
+     */
+    public int[] getOrder() {
+        return order.clone();
+    }
+
+    /**
+     * @return approximate count of the evaluations of the chain
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * Starts the evaluation of the chain, the operands are reordered every {@value #REORDER_PERIOD} evaluations
+     *
+     * @return <code>true</code> if the operands of the evaluation have to be timed
+     */
+    boolean start() {
+        long count = ++evaluations;
+        if (count % REORDER_PERIOD == 0) {
+            reorder();
+        }
+        return count % TIMING_PERIOD == 0;
+    }
+
+    /**
+     * @return indexes of the operands from the best ranked one, the array is not modified
+     */
+    int[] order() {
+        return order;
+    }
+
+    /**
+     * @param operand  index of the evaluated operand
+     * @param decisive <code>true</code> if the operand decided the chain
+     * @param elapsed  evaluation time in nanoseconds, negative if it was not timed
+     */
+    void record(int operand, boolean decisive, long elapsed) {
+        evaluated[operand]++;
+        if (decisive) {
+            decided[operand]++;
+        }
+        if (elapsed >= 0) {
+            nanos[operand] += elapsed;
+            timed[operand]++;
+        }
+    }
+
+    private void reorder() {
+        int size = evaluated.length;
+        long totalNanos = 0;
+        long totalTimed = 0;
+        for (int i = 0; i < size; i++) {
+            totalNanos += nanos[i];
+            totalTimed += timed[i];
+        }
+        // operands which are not timed yet (e.g. always skipped) cost as an average one
+        double average = totalTimed == 0 ? 0 : (double) totalNanos / totalTimed;
+        double[] ranks = new double[size];
+        Integer[] operands = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            double cost = timed[i] == 0 ? average : (double) nanos[i] / timed[i];
+            // Laplace smoothing keeps the operands which never decided the chain comparable
+            double probability = (decided[i] + 1.0) / (evaluated[i] + 2.0);
+            ranks[i] = (cost + 1) / probability;
+            operands[i] = i;
+        }
+        // the sort is stable, the operands with the same rank keep the order of the formula
+        Arrays.sort(operands, Comparator.comparingDouble(operand -> ranks[operand]));
+        int[] next = new int[size];
+        for (int i = 0; i < size; i++) {
+            next[i] = operands[i];
+        }
+        order = next;
+    }
+}
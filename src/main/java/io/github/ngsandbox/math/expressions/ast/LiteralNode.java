@@ -0,0 +1,37 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Numeric literal, parsed with the math context of the expression once
+ */
+@Getter
+public final class LiteralNode extends Node {
+
+    /**
+     * Text of the literal as it is written in the formula
+     */
+    private final String text;
+    private final BigDecimal value;
+
+    public LiteralNode(@NonNull String text, @NonNull BigDecimal value, int position, int index) {
+        super(position, index);
+        this.text = text;
+        this.value = value;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.literal(this);
+    }
+}
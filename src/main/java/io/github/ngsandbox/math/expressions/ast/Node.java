@@ -0,0 +1,104 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+/**
+ * Node of the syntax tree built by {@link AstParser}. Nodes are immutable and can be shared by copies
+ * of the expression and between threads.
+ */
+@Getter
+public abstract class Node {
+
+    /**
+     * Position of the first character of the node token, relative to the first non blank character of the formula
+     */
+    private final int position;
+
+    /**
+     * Index of the node token in the Reverse Polish notation of the formula, the root has the last one
+     */
+    private final int index;
+
+    /**
+     * Nodes of the subtree in post-order, set by the parser to the root or built by the first fold.
+     * Nodes are immutable, so a race only builds the same array twice.
+     */
+    @Getter(AccessLevel.NONE)
+    private Node[] postOrder;
+
+    Node(int position, int index) {
+        this.position = position;
+        this.index = index;
+    }
+
+    /**
+     * @return operands of the node from left to right, empty for leaves
+     */
+    public abstract List<Node> getChildren();
+
+    /**
+     * @param results results of the folded nodes, the ones of the children start at the offset
+     */
+    abstract <R> R accept(NodeFolder<R> folder, R[] results, int offset);
+
+    /**
+     * Fold the tree bottom up, every node is visited after its children from left to right.
+     * The tree is traversed by an explicit stack, so the depth of the tree does not depend on the thread stack size.
+     *
+     * @param folder function of the node and the results of its children
+     * @return result of the root
+     */
+    @SuppressWarnings("unchecked")
+    public final <R> R fold(NodeFolder<R> folder) {
+        Node[] nodes = getPostOrder();
+        R[] results = (R[]) new Object[nodes.length];
+        int size = 0;
+        for (Node node : nodes) {
+            int count = node.getChildren().size();
+            size -= count;
+            results[size] = node.accept(folder, results, size);
+            size++;
+        }
+        return results[0];
+    }
+
+    void setPostOrder(Node[] nodes) {
+        postOrder = nodes;
+    }
+
+    private Node[] getPostOrder() {
+        Node[] nodes = postOrder;
+        if (nodes == null) {
+            // pre-order with the right child first is the reversed post-order
+            List<Node> order = new ArrayList<>();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(this);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                order.add(node);
+                for (Node child : node.getChildren()) {
+                    pending.push(child);
+                }
+            }
+            Collections.reverse(order);
+            nodes = order.toArray(new Node[0]);
+            postOrder = nodes;
+        }
+        return nodes;
+    }
+
+    /**
+     * @return the formula of the tree with every binary operator in parentheses, it is parsed to the same tree
+     */
+    @Override
+    public String toString() {
+        return fold(NodeFormatter.INSTANCE);
+    }
+}
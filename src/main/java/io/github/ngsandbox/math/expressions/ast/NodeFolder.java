@@ -0,0 +1,26 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.List;
+
+/**
+ * Function of a syntax tree node and the results of its children, see {@link Node#fold(NodeFolder)}
+ *
+ * @param <R> type of the result
+ */
+public interface NodeFolder<R> {
+
+    R literal(LiteralNode node);
+
+    R string(StringNode node);
+
+    R variable(VariableNode node);
+
+    R unary(UnaryNode node, R operand);
+
+    R binary(BinaryNode node, R left, R right);
+
+    /**
+     * @param arguments results of the arguments, the list is owned by the caller
+     */
+    R function(FunctionNode node, List<R> arguments);
+}
@@ -0,0 +1,46 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.List;
+
+/**
+ * Formula of the syntax tree, binary operators are put in parentheses, so the priorities of the operators
+ * do not have to be known to read it back
+ */
+final class NodeFormatter implements NodeFolder<String> {
+
+    static final NodeFormatter INSTANCE = new NodeFormatter();
+
+    private NodeFormatter() {
+    }
+
+    @Override
+    public String literal(LiteralNode node) {
+        return node.getText();
+    }
+
+    @Override
+    public String string(StringNode node) {
+        char quote = node.getValue().indexOf('"') < 0 ? '"' : '\'';
+        return quote + node.getValue() + quote;
+    }
+
+    @Override
+    public String variable(VariableNode node) {
+        return node.getName();
+    }
+
+    @Override
+    public String unary(UnaryNode node, String operand) {
+        return node.getOperator().getOper() + operand;
+    }
+
+    @Override
+    public String binary(BinaryNode node, String left, String right) {
+        return '(' + left + ' ' + node.getOperator().getOper() + ' ' + right + ')';
+    }
+
+    @Override
+    public String function(FunctionNode node, List<String> arguments) {
+        return node.getName() + '(' + String.join(", ", arguments) + ')';
+    }
+}
@@ -0,0 +1,195 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedEvaluator;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedFunctionArgs;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedOperatorArgs;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.NULL_CONST;
+
+/**
+ * Partial evaluation of the syntax tree against the known values of some variables, e.g. the constants of a tenant:
+ * every node which depends only on these values and literals is evaluated once and replaced by the literal
+ * of its value, IF with such a condition is replaced by the chosen branch. The result is the residual formula,
+ * it is parsed as any other formula.
+ * <br>
+ * Operators and functions are expected to be pure. Nodes evaluated to errors are kept, so the errors are reported
+ * by the evaluation of the residual formula at their positions. Values which can not be written as literals
+ * without a loss (e.g. decimals with more digits than the math context keeps, strings with both quotes)
+ * are kept as their variables, see {@link #getReferencedBindings()}.
+ */
+public final class PartialEvaluator implements NodeFolder<String> {
+
+    private final java.util.function.Function<String, WrappedValue> bindings;
+    private final MathContext mc;
+    private final Set<String> referenced = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    /**
+     * Values of the evaluated nodes by their indexes, null if the node depends on unknown variables
+     */
+    private WrappedValue[] values;
+
+    /**
+     * @param bindings known values of the variables, null for the unknown ones
+     * @param mc       math context of the literals of the residual formula
+     */
+    public PartialEvaluator(@NonNull java.util.function.Function<String, WrappedValue> bindings,
+                            @NonNull MathContext mc) {
+        this.bindings = bindings;
+        this.mc = mc;
+    }
+
+    /**
+     * @param root root of the syntax tree
+     * @return formula of the residual tree
+     */
+    public String residual(@NonNull Node root) {
+        values = new WrappedValue[root.getIndex() + 1];
+        referenced.clear();
+        return root.fold(this);
+    }
+
+    /**
+     * @return known variables which are still used by the residual formula, they have to be set to its expression
+     */
+    public Set<String> getReferencedBindings() {
+        return Collections.unmodifiableSet(referenced);
+    }
+
+    @Override
+    public String literal(LiteralNode node) {
+        values[node.getIndex()] = WrappedBigDecimal.wrapBigDecimal(node.getText(), node.getValue());
+        return node.getText();
+    }
+
+    @Override
+    public String string(StringNode node) {
+        values[node.getIndex()] = new WrappedString(node.getValue());
+        return NodeFormatter.INSTANCE.string(node);
+    }
+
+    @Override
+    public String variable(VariableNode node) {
+        WrappedValue value = bindings.apply(node.getName());
+        if (value != null && value.isPrimitive() && !value.isError()) {
+            values[node.getIndex()] = value;
+            String text = format(value);
+            if (text != null) {
+                return text;
+            }
+        }
+        if (value != null) {
+            referenced.add(node.getName());
+        }
+        return node.getName();
+    }
+
+    @Override
+    public String unary(UnaryNode node, String operand) {
+        String residual = NodeFormatter.INSTANCE.unary(node, operand);
+        WrappedValue value = values[node.getOperand().getIndex()];
+        return value == null
+                ? residual
+                : fold(node, residual, new WrappedOperatorArgs(node.getOperator(), value, null, node.getPosition()));
+    }
+
+    @Override
+    public String binary(BinaryNode node, String left, String right) {
+        String residual = NodeFormatter.INSTANCE.binary(node, left, right);
+        WrappedValue leftValue = values[node.getLeft().getIndex()];
+        WrappedValue rightValue = values[node.getRight().getIndex()];
+        return leftValue == null || rightValue == null
+                ? residual
+                : fold(node, residual, new WrappedOperatorArgs(node.getOperator(), leftValue, rightValue, node.getPosition()));
+    }
+
+    @Override
+    public String function(FunctionNode node, List<String> arguments) {
+        List<Node> nodes = node.getArguments();
+        if (IF_FUNC.equals(node.getFunction().getName())) {
+            // the condition chooses the branch, the other one is not a part of the residual formula
+            WrappedValue condition = values[nodes.get(0).getIndex()];
+            BigDecimal chosen = condition == null ? null : condition.decimalValue();
+            if (chosen != null) {
+                int branch = chosen.signum() != 0 ? 1 : 2;
+                values[node.getIndex()] = values[nodes.get(branch).getIndex()];
+                return arguments.get(branch);
+            }
+        }
+
+        String residual = NodeFormatter.INSTANCE.function(node, arguments);
+        List<WrappedValue> params = new ArrayList<>(nodes.size());
+        for (Node argument : nodes) {
+            WrappedValue value = values[argument.getIndex()];
+            if (value == null) {
+                return residual;
+            }
+            params.add(value);
+        }
+        return fold(node, residual, new WrappedFunctionArgs(node.getFunction(), params, node.getPosition()));
+    }
+
+    /**
+     * @param residual formula of the node if it is not evaluated
+     * @param graph    node with the values of its operands
+     * @return literal of the value of the node, the residual formula if the node failed
+     */
+    private String fold(Node node, String residual, WrappedValue graph) {
+        WrappedValue value;
+        try {
+            value = WrappedEvaluator.evaluate(graph);
+        } catch (ExpressionException ex) {
+            return residual;
+        }
+        if (value == null || !value.isPrimitive() || value.isError()) {
+            return residual;
+        }
+        values[node.getIndex()] = value;
+        String text = format(value);
+        return text == null ? residual : text;
+    }
+
+    /**
+     * @return literal which is parsed to the same value, null if there is no such literal
+     */
+    private String format(WrappedValue value) {
+        switch (value.getKind()) {
+        case NULL:
+            return NULL_CONST;
+        case NUMBER:
+            String text = value.getExpression();
+            boolean negative = text.startsWith("-");
+            // negative numbers are written with the unary minus, its result has no trailing zeros
+            if (negative && !text.equals(value.decimalValue().toPlainString())) {
+                return null;
+            }
+            try {
+                BigDecimal parsed = new BigDecimal(negative ? text.substring(1) : text, mc);
+                return parsed.compareTo(value.decimalValue().abs()) == 0 ? text : null;
+            } catch (NumberFormatException ex) {
+                return null;
+            }
+        case STRING:
+            String string = value.getExpression();
+            if (string.indexOf('"') < 0) {
+                return '"' + string + '"';
+            }
+            return string.indexOf('\'') < 0 ? '\'' + string + '\'' : null;
+        default:
+            return null;
+        }
+    }
+}
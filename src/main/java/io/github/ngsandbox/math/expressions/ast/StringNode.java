@@ -0,0 +1,31 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Quoted string parameter, the value is without quotes
+ */
+@Getter
+public final class StringNode extends Node {
+
+    private final String value;
+
+    public StringNode(@NonNull String value, int position, int index) {
+        super(position, index);
+        this.value = value;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.string(this);
+    }
+}
@@ -0,0 +1,171 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.List;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.operators.Junction;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.profiler.ProfilingSession;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedFunctionArgs;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedOperatorArgs;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedVariable;
+
+/**
+ * Builds the graph of wrapped values from the syntax tree, the same graph is built from the RPN of the formula.
+ * Literals are parsed by {@link AstParser} already, so only the wrappers are created.
+ * <br>
+ * If the static types of the nodes are inferred, every operator is replaced by the one specialized for the types
+ * of its operands, see {@link Operator#specialize}, e.g. the comparison of two numbers does not check NULL operands
+ * and compares the decimals directly.
+ * <br>
+ * Chains of the same junction (<code>&amp;&amp;</code>, <code>||</code>) of evaluations which are not profiled
+ * are compiled to {@link JunctionArgs}: the operands proven to be numbers which can not fail are evaluated
+ * in the order learned by {@link JunctionStatistics} and only until the chain is decided.
+ */
+public final class TreeCompiler implements NodeFolder<WrappedValue> {
+
+    private final java.util.function.Function<VariableNode, WrappedValue> variables;
+    private final TypeInference types;
+    /**
+     * Literals and positions of another formula of the same shape, the tree is shared by such formulas,
+     * see {@link io.github.ngsandbox.math.expressions.tokens.FormulaShape}
+     */
+    private final WrappedValue[] literals;
+    private final int[] positions;
+    private final ProfilingSession session;
+    /**
+     * Compiled operands of the junction chains by the indexes of their nodes, allocated by the first chain
+     */
+    private WrappedValue[] operands;
+    private int size;
+    /**
+     * Count of the compiled literals, the literals of the tree are folded in the order of the formula
+     */
+    private int literal;
+
+    /**
+     * @param variables values of the variables
+     * @param session   profiling session of the evaluation, null if it is not profiled
+     */
+    public TreeCompiler(@NonNull java.util.function.Function<VariableNode, WrappedValue> variables,
+                        ProfilingSession session) {
+        this(variables, null, session);
+    }
+
+    /**
+     * @param variables values of the variables
+     * @param types     static types of the tree inferred for the types of the same values, null to keep the operators
+     * @param session   profiling session of the evaluation, null if it is not profiled
+     */
+    public TreeCompiler(@NonNull java.util.function.Function<VariableNode, WrappedValue> variables,
+                        TypeInference types,
+                        ProfilingSession session) {
+        this(variables, types, null, null, session);
+    }
+
+    /**
+     * @param variables values of the variables
+     * @param types     static types of the tree inferred for the types of the same values, null to keep the operators
+     * @param literals  values of the literals in the order of the formula, null for the literals of the tree
+     * @param positions positions of the nodes by their indexes, null for the positions of the tree
+     * @param session   profiling session of the evaluation, null if it is not profiled
+     */
+    public TreeCompiler(@NonNull java.util.function.Function<VariableNode, WrappedValue> variables,
+                        TypeInference types,
+                        WrappedValue[] literals,
+                        int[] positions,
+                        ProfilingSession session) {
+        this.variables = variables;
+        this.types = types;
+        this.literals = literals;
+        this.positions = positions;
+        this.session = session;
+    }
+
+    /**
+     * @param root root of the syntax tree
+     * @return root of the graph to evaluate
+     */
+    public WrappedValue compile(@NonNull Node root) {
+        operands = null;
+        size = root.getIndex() + 1;
+        literal = 0;
+        return root.fold(this);
+    }
+
+    @Override
+    public WrappedValue literal(LiteralNode node) {
+        if (literals != null) {
+            return literals[literal++];
+        }
+        return WrappedBigDecimal.wrapBigDecimal(node.getText(), node.getValue());
+    }
+
+    @Override
+    public WrappedValue string(StringNode node) {
+        return new WrappedString(node.getValue());
+    }
+
+    @Override
+    public WrappedValue variable(VariableNode node) {
+        WrappedValue value = variables.apply(node);
+        WrappedValue variable = new WrappedVariable(node.getName(), value);
+        // variables are timed by the profiler if they are evaluated, e.g. nested expressions
+        return value != null && !value.isPrimitive() ? profile(node, variable) : variable;
+    }
+
+    @Override
+    public WrappedValue unary(UnaryNode node, WrappedValue operand) {
+        Operator operator = types == null
+                ? node.getOperator()
+                : node.getOperator().specialize(types.getType(node.getOperand()), StaticType.NULL);
+        return profile(node, new WrappedOperatorArgs(operator, operand, null, position(node)));
+    }
+
+    @Override
+    public WrappedValue binary(BinaryNode node, WrappedValue left, WrappedValue right) {
+        Junction junction = node.getOperator().getJunction();
+        if (junction != null && types != null && session == null) {
+            if (operands == null) {
+                operands = new WrappedValue[size];
+            }
+            keep(node.getLeft(), left, junction);
+            keep(node.getRight(), right, junction);
+            return new JunctionArgs(node, operands, types, positions);
+        }
+        Operator operator = types == null
+                ? node.getOperator()
+                : node.getOperator().specialize(types.getType(node.getLeft()), types.getType(node.getRight()));
+        return profile(node, new WrappedOperatorArgs(operator, left, right, position(node)));
+    }
+
+    @Override
+    public WrappedValue function(FunctionNode node, List<WrappedValue> arguments) {
+        return profile(node, new WrappedFunctionArgs(node.getFunction(), arguments, position(node)));
+    }
+
+    /**
+     * Keeps the compiled operand of the junction chain, the nested nodes of the same junction are the links of the chain
+     */
+    private void keep(Node child, WrappedValue value, Junction junction) {
+        if (!JunctionChain.isLink(child, junction)) {
+            operands[child.getIndex()] = value;
+        }
+    }
+
+    /**
+     * @return position of the node in the compiled formula
+     */
+    private int position(Node node) {
+        return positions == null ? node.getPosition() : positions[node.getIndex()];
+    }
+
+    private WrappedValue profile(Node node, WrappedValue value) {
+        return session == null ? value : session.profile(node.getIndex(), value);
+    }
+}
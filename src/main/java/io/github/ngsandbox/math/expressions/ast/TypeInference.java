@@ -0,0 +1,106 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.List;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+
+/**
+ * Infers the static type of the syntax tree bottom up: literals are numbers, strings are strings,
+ * operators and functions declare the types of their results, see
+ * {@link io.github.ngsandbox.math.expressions.operators.Operator#getResultType} and
+ * {@link io.github.ngsandbox.math.expressions.functions.Function#getResultType}.
+ * The types of all nodes are kept after the inference, see {@link #getType(Node)}.
+ * <br>
+ * Errors are not a part of the types, but the inference also proves which nodes can not be evaluated to errors,
+ * see {@link #canFail(Node)}: literals, strings, variables set to primitive values and the operators which can not
+ * fail for the types of their operands.
+ */
+public final class TypeInference implements NodeFolder<StaticType> {
+
+    private final java.util.function.Function<VariableNode, StaticType> variables;
+    /**
+     * Static types of the nodes by their indexes
+     */
+    private StaticType[] types;
+    /**
+     * Nodes which can be evaluated to errors by their indexes
+     */
+    private boolean[] failing;
+
+    /**
+     * @param variables declared types of the variables, {@link StaticType#ANY} for unknown ones
+     */
+    public TypeInference(@NonNull java.util.function.Function<VariableNode, StaticType> variables) {
+        this.variables = variables;
+    }
+
+    /**
+     * @param root root of the syntax tree
+     * @return static type of the result of the tree
+     */
+    public StaticType infer(@NonNull Node root) {
+        types = new StaticType[root.getIndex() + 1];
+        failing = new boolean[root.getIndex() + 1];
+        return root.fold(this);
+    }
+
+    /**
+     * @param node node of the inferred tree
+     * @return static type of the node
+     */
+    public StaticType getType(@NonNull Node node) {
+        return types[node.getIndex()];
+    }
+
+    /**
+     * @param node node of the inferred tree
+     * @return <code>false</code> if the node is never evaluated to an error
+     */
+    public boolean canFail(@NonNull Node node) {
+        return failing[node.getIndex()];
+    }
+
+    @Override
+    public StaticType literal(LiteralNode node) {
+        return set(node, StaticType.NUMBER);
+    }
+
+    @Override
+    public StaticType string(StringNode node) {
+        return set(node, StaticType.STRING);
+    }
+
+    @Override
+    public StaticType variable(VariableNode node) {
+        StaticType type = variables.apply(node);
+        // the values which have to be evaluated or resolved can be anything
+        failing[node.getIndex()] = type == null || type == StaticType.ANY;
+        return set(node, type == null ? StaticType.ANY : type);
+    }
+
+    @Override
+    public StaticType unary(UnaryNode node, StaticType operand) {
+        failing[node.getIndex()] = canFail(node.getOperand()) || node.getOperator().canFail(operand, StaticType.NULL);
+        return set(node, node.getOperator().getResultType(operand, StaticType.NULL));
+    }
+
+    @Override
+    public StaticType binary(BinaryNode node, StaticType left, StaticType right) {
+        failing[node.getIndex()] = canFail(node.getLeft()) || canFail(node.getRight())
+                || node.getOperator().canFail(left, right);
+        return set(node, node.getOperator().getResultType(left, right));
+    }
+
+    @Override
+    public StaticType function(FunctionNode node, List<StaticType> arguments) {
+        failing[node.getIndex()] = true;
+        return set(node, node.getFunction().getResultType(arguments));
+    }
+
+    private StaticType set(Node node, StaticType type) {
+        types[node.getIndex()] = type;
+        return type;
+    }
+}
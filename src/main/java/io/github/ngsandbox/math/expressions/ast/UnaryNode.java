@@ -0,0 +1,39 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.operators.Operator;
+
+/**
+ * Prefix operator with its operand
+ */
+@Getter
+public final class UnaryNode extends Node {
+
+    private final Operator operator;
+    private final Node operand;
+    @Getter(AccessLevel.NONE)
+    private final List<Node> children;
+
+    public UnaryNode(@NonNull Operator operator, @NonNull Node operand, int position, int index) {
+        super(position, index);
+        this.operator = operator;
+        this.operand = operand;
+        this.children = Collections.singletonList(operand);
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return children;
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.unary(this, results[offset]);
+    }
+}
@@ -0,0 +1,31 @@
+package io.github.ngsandbox.math.expressions.ast;
+
+import java.util.Collections;
+import java.util.List;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Variable or one of the constants (<code>NULL</code>, <code>TRUE</code>, <code>FALSE</code>)
+ */
+@Getter
+public final class VariableNode extends Node {
+
+    private final String name;
+
+    public VariableNode(@NonNull String name, int position, int index) {
+        super(position, index);
+        this.name = name;
+    }
+
+    @Override
+    public List<Node> getChildren() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    <R> R accept(NodeFolder<R> folder, R[] results, int offset) {
+        return folder.variable(this);
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+/**
+ * Binary layout of the audit segment files.
+ * <pre>
+ * segment: MAGIC(int) VERSION(int) record* 0(int)
+ * record:  length(int) timestamp(long) formulaId(string) result(value) count(varint) (name(string) value(value))*
+ * string:  length(varint) UTF-8 bytes
+ * value:   type(byte) payload, see {@link AuditValueType}
+ * </pre>
+ * Segments are zero filled, so a zero length marks the end of written records.
+ */
+final class AuditFormat {
+
+    static final int MAGIC = 0x4D584A41;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int LENGTH_SIZE = 4;
+
+    static final String SEGMENT_PREFIX = "audit-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    /**
+     * Number with unscaled value which does not fit to long: scale(varint) length(varint) bytes
+     */
+    static final byte BIG_NUMBER = 100;
+
+    private AuditFormat() {
+    }
+}
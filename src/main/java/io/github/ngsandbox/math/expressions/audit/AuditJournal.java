@@ -0,0 +1,195 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Opt-in journal of every evaluation: formula id, variables, result (or error) and timestamp.
+ * <br>
+ * Evaluating threads encode records into preallocated slots of a lock free ring buffer,
+ * a background thread drains them into memory mapped segment files (see {@link AuditFormat}).
+ * Records are never dropped: when the ring buffer is full evaluating threads wait for the writer.
+ * Segments are decoded by {@link AuditJournalReader}.
+ */
+@Slf4j
+public final class AuditJournal implements AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 4096;
+    private static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+    private static final int MIN_SEGMENT_SIZE = 4096;
+    private static final int SLOT_SIZE = 256;
+    private static final int SPINS = 100;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+
+    private final RecordBuffer[] slots;
+    private final int mask;
+
+    /**
+     * Sequence of the published record per slot, -1 if the slot is free
+     */
+    private final AtomicLongArray published;
+
+    /**
+     * Next sequence to claim by producers
+     */
+    private final AtomicLong claimed = new AtomicLong();
+
+    /**
+     * Next sequence to write by the writer thread
+     */
+    private final AtomicLong consumed = new AtomicLong();
+
+    private final SegmentWriter writer;
+    private final long flushIntervalNanos;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Throwable failure;
+
+    /**
+     * @param directory     directory of the segment files, created if missing
+     * @param capacity      count of records in the ring buffer, rounded up to a power of two. Default is 4096
+     * @param segmentSize   size of a segment file in bytes. Default is 64MB
+     * @param flushInterval max time written records may stay in the page cache only. Default is 1 second
+     */
+    @Builder
+    private AuditJournal(@NonNull Path directory, Integer capacity, Integer segmentSize, Duration flushInterval) {
+        int requested = capacity == null ? DEFAULT_CAPACITY : capacity;
+        if (requested <= 0 || requested > 1 << 24) {
+            throw new ExpressionException("Audit journal capacity is out of range " + requested);
+        }
+
+        int size = 1;
+        while (size < requested) {
+            size <<= 1;
+        }
+        this.slots = new RecordBuffer[size];
+        this.published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new RecordBuffer(SLOT_SIZE);
+            published.set(i, -1);
+        }
+        this.mask = size - 1;
+        this.flushIntervalNanos = (flushInterval == null ? DEFAULT_FLUSH_INTERVAL : flushInterval).toNanos();
+        try {
+            this.writer = new SegmentWriter(directory, Math.max(MIN_SEGMENT_SIZE, segmentSize == null ? DEFAULT_SEGMENT_SIZE : segmentSize));
+        } catch (IOException ex) {
+            throw new ExpressionException("Unable to open audit journal " + directory + ": " + ex.getMessage());
+        }
+
+        this.thread = new Thread(this::drain, "expression-audit-writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Append evaluation to the journal, waits if the ring buffer is full
+     *
+     * @param formulaId id of the evaluated formula
+     * @param variables variables of the expression
+     * @param result    result of the evaluation, ignored if there is an error
+     * @param error     evaluation error, <code>null</code> if the evaluation succeeded
+     */
+    public void append(String formulaId, Map<String, WrappedValue> variables, WrappedValue result, Throwable error) {
+        long timestamp = System.currentTimeMillis();
+        checkState();
+        long sequence = claimed.getAndIncrement();
+        int spins = 0;
+        while (sequence - consumed.get() >= slots.length) {
+            // a claimed sequence is written even if the journal is closed meanwhile, the writer waits for it.
+            // Only the sequences claimed after the writer stopped are never written
+            if (failure != null || closed && !thread.isAlive()) {
+                checkState();
+            }
+            if (++spins < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+
+        int index = (int) sequence & mask;
+        slots[index].encode(timestamp, formulaId, variables, result, error);
+        published.set(index, sequence);
+    }
+
+    /**
+     * @return count of records written to the segments so far
+     */
+    public long getWritten() {
+        return consumed.get();
+    }
+
+    private void checkState() {
+        if (failure != null) {
+            throw new ExpressionException("Audit journal failed: " + failure.getMessage());
+        }
+        if (closed) {
+            throw new ExpressionException("Audit journal is closed");
+        }
+    }
+
+    private void drain() {
+        long lastFlush = System.nanoTime();
+        try {
+            while (true) {
+                long sequence = consumed.get();
+                int index = (int) sequence & mask;
+                if (published.get(index) == sequence) {
+                    RecordBuffer slot = slots[index];
+                    writer.append(slot.getData(), slot.getLength());
+                    published.set(index, -1);
+                    consumed.lazySet(sequence + 1);
+                    continue;
+                }
+
+                // everything claimed is written, late producers get sequences beyond the ring and fail on the closed state
+                if (closed && claimed.compareAndSet(sequence, sequence + slots.length)) {
+                    break;
+                }
+
+                if (System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                    writer.force();
+                    lastFlush = System.nanoTime();
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.error("Audit journal writer failed", ex);
+            failure = ex;
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * Write all appended records and release segment files
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            thread.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ExpressionException("Interrupted while closing audit journal");
+        }
+    }
+}
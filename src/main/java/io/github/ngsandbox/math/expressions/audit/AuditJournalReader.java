@@ -0,0 +1,179 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.BIG_NUMBER;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.MAGIC;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.SEGMENT_PREFIX;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.SEGMENT_SUFFIX;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.VERSION;
+
+/**
+ * Decoder of the {@link AuditJournal} segments, prints records of the provided directories or segment files:
+ * <pre>
+ * java -cp math-expressions.jar io.github.ngsandbox.math.expressions.audit.AuditJournalReader ./audit
+ * </pre>
+ */
+public final class AuditJournalReader {
+
+    private AuditJournalReader() {
+    }
+
+    /**
+     * @param directory directory of the journal
+     * @return segment files of the journal in the order they are written
+     */
+    public static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * @param directory directory of the journal
+     * @return all records of the journal
+     */
+    public static List<AuditRecord> readAll(Path directory) throws IOException {
+        List<AuditRecord> result = new ArrayList<>();
+        for (Path segment : segments(directory)) {
+            read(segment, result::add);
+        }
+        return result;
+    }
+
+    /**
+     * Decode records of a single segment, a partially written segment is read up to the last complete record
+     *
+     * @param segment  segment file
+     * @param consumer consumer of the decoded records
+     */
+    public static void read(Path segment, Consumer<AuditRecord> consumer) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.remaining() < AuditFormat.HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new ExpressionException("Not an audit segment " + segment);
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new ExpressionException("Unsupported audit segment version " + version + " of " + segment);
+        }
+
+        while (buffer.remaining() >= AuditFormat.LENGTH_SIZE) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            buffer.position(buffer.position() + length);
+            try {
+                consumer.accept(decode(record));
+            } catch (BufferUnderflowException ex) {
+                throw new ExpressionException("Corrupted audit record in " + segment);
+            }
+        }
+    }
+
+    private static AuditRecord decode(ByteBuffer buffer) {
+        Instant timestamp = Instant.ofEpochMilli(buffer.getLong());
+        String formulaId = getString(buffer);
+        AuditValue result = getValue(buffer);
+        int count = (int) getVarint(buffer);
+        Map<String, AuditValue> variables = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = getString(buffer);
+            variables.put(name, getValue(buffer));
+        }
+        return new AuditRecord(timestamp, formulaId, result, Collections.unmodifiableMap(variables));
+    }
+
+    private static AuditValue getValue(ByteBuffer buffer) {
+        byte code = buffer.get();
+        if (code == BIG_NUMBER) {
+            int scale = (int) unzigzag(getVarint(buffer));
+            byte[] bytes = new byte[(int) getVarint(buffer)];
+            buffer.get(bytes);
+            return new AuditValue(AuditValueType.NUMBER, new BigDecimal(new BigInteger(bytes), scale).toPlainString());
+        }
+
+        AuditValueType type = AuditValueType.of(code);
+        switch (type) {
+        case NUMBER:
+            int scale = (int) unzigzag(getVarint(buffer));
+            return new AuditValue(type, BigDecimal.valueOf(unzigzag(getVarint(buffer)), scale).toPlainString());
+        case NULL:
+            return new AuditValue(type, null);
+        default:
+            return new AuditValue(type, getString(buffer));
+        }
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) getVarint(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long getVarint(ByteBuffer buffer) {
+        long result = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            byte b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new ExpressionException("Malformed varint in audit record");
+    }
+
+    private static long unzigzag(long value) {
+        return value >>> 1 ^ -(value & 1);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AuditJournalReader <journal directory or segment file>...");
+            return;
+        }
+
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            List<Path> files = Files.isDirectory(path) ? segments(path) : Collections.singletonList(path);
+            for (Path file : files) {
+                read(file, r -> System.out.println(r.format()));
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.Data;
+
+/**
+ * Evaluation decoded from the audit journal
+ */
+@Data
+public final class AuditRecord {
+    private final Instant timestamp;
+    private final String formulaId;
+    private final AuditValue result;
+    private final Map<String, AuditValue> variables;
+
+    /**
+     * @return tab separated timestamp, formula id, result and <code>name=value</code> variables
+     */
+    public String format() {
+        StringBuilder result = new StringBuilder()
+                .append(timestamp).append('\t')
+                .append(formulaId).append('\t')
+                .append(this.result);
+        variables.forEach((name, value) -> result.append('\t').append(name).append('=').append(value));
+        return result.toString();
+    }
+}
@@ -0,0 +1,32 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import lombok.Data;
+
+/**
+ * Value decoded from the audit journal
+ */
+@Data
+public final class AuditValue {
+    private final AuditValueType type;
+
+    /**
+     * Plain decimal, string, nested expression or error message, <code>null</code> for NULL values
+     */
+    private final String text;
+
+    @Override
+    public String toString() {
+        switch (type) {
+        case NULL:
+            return "NULL";
+        case STRING:
+            return '"' + text + '"';
+        case EXPRESSION:
+            return "=" + text;
+        case ERROR:
+            return "ERROR(" + text + ")";
+        default:
+            return text;
+        }
+    }
+}
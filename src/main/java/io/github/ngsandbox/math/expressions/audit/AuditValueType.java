@@ -0,0 +1,53 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.util.Arrays;
+
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Type of the value stored in the audit journal
+ */
+public enum AuditValueType {
+    /**
+     * NULL value without payload
+     */
+    NULL(0),
+    /**
+     * Decimal number: scale(zigzag varint) unscaled value(zigzag varint)
+     */
+    NUMBER(1),
+    /**
+     * String value
+     */
+    STRING(2),
+    /**
+     * Variable with a nested expression, payload is the expression itself
+     */
+    EXPRESSION(3),
+    /**
+     * Failed evaluation, payload is the error message
+     */
+    ERROR(4);
+
+    private static final AuditValueType[] BY_CODE = new AuditValueType[5];
+
+    static {
+        Arrays.stream(values()).forEach(t -> BY_CODE[t.code] = t);
+    }
+
+    @Getter
+    private final byte code;
+
+    AuditValueType(int code) {
+        this.code = (byte) code;
+    }
+
+    static AuditValueType of(byte code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new ExpressionException("Unknown audit value type " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Map;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedExpression;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.FALSE_CONST;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.NULL_CONST;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.TRUE_CONST;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.BIG_NUMBER;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ZERO;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedNull.WRAPPED_NULL;
+
+/**
+ * Reusable slot of the ring buffer, encodes a single audit record (see {@link AuditFormat})
+ */
+final class RecordBuffer {
+
+    private byte[] data;
+    private int length;
+
+    RecordBuffer(int capacity) {
+        this.data = new byte[capacity];
+    }
+
+    byte[] getData() {
+        return data;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    void encode(long timestamp, String formulaId, Map<String, WrappedValue> variables, WrappedValue result, Throwable error) {
+        length = 0;
+        putLong(timestamp);
+        putString(formulaId);
+        if (error != null) {
+            putByte(AuditValueType.ERROR.getCode());
+            putString(String.valueOf(error.getMessage()));
+        } else {
+            putValue(result);
+        }
+        int count = 0;
+        for (Map.Entry<String, WrappedValue> variable : variables.entrySet()) {
+            count += isPredefined(variable.getKey(), variable.getValue()) ? 0 : 1;
+        }
+        putVarint(count);
+        for (Map.Entry<String, WrappedValue> variable : variables.entrySet()) {
+            if (!isPredefined(variable.getKey(), variable.getValue())) {
+                putString(variable.getKey());
+                putValue(variable.getValue());
+            }
+        }
+    }
+
+    /**
+     * Constants every expression defines (TRUE, FALSE, NULL) are not journaled
+     */
+    private static boolean isPredefined(String name, WrappedValue value) {
+        return value == WRAPPED_NULL && NULL_CONST.equalsIgnoreCase(name)
+                || value == WRAPPED_ONE && TRUE_CONST.equalsIgnoreCase(name)
+                || value == WRAPPED_ZERO && FALSE_CONST.equalsIgnoreCase(name);
+    }
+
+    private void putValue(WrappedValue value) {
+        if (value instanceof WrappedBigDecimal && ((WrappedBigDecimal) value).getValue() != null) {
+            putNumber(((WrappedBigDecimal) value).getValue());
+        } else if (value instanceof WrappedString) {
+            putByte(AuditValueType.STRING.getCode());
+            putString(value.getExpression());
+        } else if (value instanceof WrappedExpression) {
+            putByte(AuditValueType.EXPRESSION.getCode());
+            putString(value.getExpression());
+        } else {
+            putByte(AuditValueType.NULL.getCode());
+        }
+    }
+
+    private void putNumber(BigDecimal value) {
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            putByte(AuditValueType.NUMBER.getCode());
+            putVarint(zigzag(value.scale()));
+            putVarint(zigzag(unscaled.longValue()));
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            putByte(BIG_NUMBER);
+            putVarint(zigzag(value.scale()));
+            putVarint(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, data, length, bytes.length);
+            length += bytes.length;
+        }
+    }
+
+    /**
+     * UTF-8 encoding without intermediate byte arrays, unpaired surrogates are replaced with '?'
+     */
+    private void putString(String value) {
+        int size = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                size++;
+            } else {
+                size += 3;
+            }
+        }
+
+        putVarint(size);
+        ensure(size);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                data[length++] = (byte) c;
+            } else if (c < 0x800) {
+                data[length++] = (byte) (0xC0 | c >> 6);
+                data[length++] = (byte) (0x80 | c & 0x3F);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int code = Character.toCodePoint(c, value.charAt(++i));
+                data[length++] = (byte) (0xF0 | code >> 18);
+                data[length++] = (byte) (0x80 | code >> 12 & 0x3F);
+                data[length++] = (byte) (0x80 | code >> 6 & 0x3F);
+                data[length++] = (byte) (0x80 | code & 0x3F);
+            } else if (Character.isSurrogate(c)) {
+                data[length++] = '?';
+            } else {
+                data[length++] = (byte) (0xE0 | c >> 12);
+                data[length++] = (byte) (0x80 | c >> 6 & 0x3F);
+                data[length++] = (byte) (0x80 | c & 0x3F);
+            }
+        }
+    }
+
+    private void putVarint(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            data[length++] = (byte) (value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        data[length++] = (byte) value;
+    }
+
+    private void putLong(long value) {
+        ensure(Long.BYTES);
+        for (int shift = Long.SIZE - Byte.SIZE; shift >= 0; shift -= Byte.SIZE) {
+            data[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void putByte(byte value) {
+        ensure(1);
+        data[length++] = value;
+    }
+
+    private void ensure(int size) {
+        if (length + size > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + size));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return value << 1 ^ value >> 63;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.ngsandbox.math.expressions.audit;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Locale;
+
+import lombok.extern.slf4j.Slf4j;
+
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.HEADER_SIZE;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.LENGTH_SIZE;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.MAGIC;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.SEGMENT_PREFIX;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.SEGMENT_SUFFIX;
+import static io.github.ngsandbox.math.expressions.audit.AuditFormat.VERSION;
+
+/**
+ * Appends records to memory mapped segment files, a new segment is started when the current one is full.
+ * Used by the single writer thread only.
+ */
+@Slf4j
+final class SegmentWriter implements AutoCloseable {
+
+    private final Path directory;
+    private final int segmentSize;
+    private long segmentIndex;
+    private MappedByteBuffer segment;
+    private boolean dirty;
+
+    SegmentWriter(Path directory, int segmentSize) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        // never overwrite segments of the previous runs
+        List<Path> existing = AuditJournalReader.segments(directory);
+        this.segmentIndex = existing.isEmpty() ? 0 : parseIndex(existing.get(existing.size() - 1)) + 1;
+    }
+
+    void append(byte[] data, int length) throws IOException {
+        if (segment == null || segment.remaining() < LENGTH_SIZE + length + LENGTH_SIZE) {
+            rotate(length);
+        }
+        segment.putInt(length);
+        segment.put(data, 0, length);
+        dirty = true;
+    }
+
+    /**
+     * Write changes of the current segment to the storage device
+     */
+    void force() {
+        if (dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    private void rotate(int length) throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+
+        // a record bigger than the segment gets a segment of its own
+        int size = Math.max(segmentSize, HEADER_SIZE + LENGTH_SIZE + length + LENGTH_SIZE);
+        Path file = directory.resolve(String.format(Locale.ROOT, "%s%010d%s", SEGMENT_PREFIX, segmentIndex++, SEGMENT_SUFFIX));
+        log.debug("Start audit segment {} of {} bytes", file, size);
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        segment.putInt(MAGIC);
+        segment.putInt(VERSION);
+        dirty = true;
+    }
+
+    @Override
+    public void close() {
+        if (segment != null) {
+            force();
+            segment = null;
+        }
+    }
+
+    static long parseIndex(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
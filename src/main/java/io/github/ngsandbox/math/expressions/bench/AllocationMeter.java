@@ -0,0 +1,58 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import lombok.NonNull;
+
+/**
+ * Measures heap bytes allocated by the current thread with {@link com.sun.management.ThreadMXBean}.
+ * Counters are precise (TLAB based), so the result does not depend on GC activity.
+ */
+public final class AllocationMeter {
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+    /**
+     * @return <code>true</code> if the running JVM exposes per thread allocation counters
+     */
+    public static boolean isSupported() {
+        return THREAD_MX_BEAN instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemorySupported()
+                && ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN).isThreadAllocatedMemoryEnabled();
+    }
+
+    /**
+     * @return total amount of bytes allocated by the current thread since its start
+     */
+    public static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) THREAD_MX_BEAN)
+                .getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Run the operation and measure how many bytes a single invocation allocates.
+     *
+     * @param operation  measured operation
+     * @param warmup     count of invocations before the measurement (lets JIT settle)
+     * @param iterations count of invocations per measurement round
+     * @param rounds     count of measurement rounds, the smallest one is taken to filter out noise
+     * @return bytes allocated per invocation
+     */
+    public static long bytesPerOperation(@NonNull Runnable operation, int warmup, int iterations, int rounds) {
+        for (int i = 0; i < warmup; i++) {
+            operation.run();
+        }
+
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < rounds; round++) {
+            long before = allocatedBytes();
+            for (int i = 0; i < iterations; i++) {
+                operation.run();
+            }
+            long after = allocatedBytes();
+            best = Math.min(best, (after - before) / iterations);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * The way a recorded formula is evaluated by the {@link ReplayHarness}.
+ */
+public interface BenchmarkEngine {
+
+    /**
+     * @return short name of the engine used in the reports
+     */
+    String getName();
+
+    /**
+     * Evaluate the formula with its variables
+     *
+     * @param record formula with variables
+     * @return result of the evaluation
+     */
+    WrappedValue evaluate(FormulaRecord record);
+
+    /**
+     * Engine which parses the formula for every evaluation (no caches at all)
+     */
+    static BenchmarkEngine parsing(@NonNull ExpressionSettings settings) {
+        return new BenchmarkEngine() {
+            @Override
+            public String getName() {
+                return "parsing";
+            }
+
+            @Override
+            public WrappedValue evaluate(FormulaRecord record) {
+                return record.applyTo(new Expression(record.getFormula(), settings)).eval();
+            }
+        };
+    }
+
+    /**
+     * Engine which keeps one parsed {@link Expression} per formula and only updates its variables.
+     * Not thread safe.
+     */
+    static BenchmarkEngine cached(@NonNull ExpressionSettings settings) {
+        Map<String, Expression> expressions = new HashMap<>();
+        return new BenchmarkEngine() {
+            @Override
+            public String getName() {
+                return "cached";
+            }
+
+            @Override
+            public WrappedValue evaluate(FormulaRecord record) {
+                Expression expression = expressions.computeIfAbsent(record.getFormula(), f -> new Expression(f, settings));
+                return record.applyTo(expression).eval();
+            }
+        };
+    }
+
+    /**
+     * Engine which evaluates copies of the parsed formulas shared through the thread safe {@link ExpressionCache}
+     */
+    static BenchmarkEngine shared(@NonNull ExpressionSettings settings) {
+        ExpressionCache cache = new ExpressionCache(settings);
+        return new BenchmarkEngine() {
+            @Override
+            public String getName() {
+                return "shared";
+            }
+
+            @Override
+            public WrappedValue evaluate(FormulaRecord record) {
+                return record.applyTo(cache.get(record.getFormula())).eval();
+            }
+        };
+    }
+
+    /**
+     * @return all available engines
+     */
+    static List<BenchmarkEngine> all(@NonNull ExpressionSettings settings) {
+        return Arrays.asList(parsing(settings), cached(settings), shared(settings));
+    }
+}
@@ -0,0 +1,295 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.functions.Function;
+import io.github.ngsandbox.math.expressions.functions.Functions;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.operators.Operators;
+import io.github.ngsandbox.math.expressions.operators.UnaryOperator;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.NULL_CONST;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_AND;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_COMPARISON;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_EQUALITY;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_OR;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_POWER;
+
+/**
+ * Generator of random but valid formulas built from the registered {@link Operators} and {@link Functions}.
+ * <br>
+ * Generated formulas are type consistent: arithmetic is applied to numbers only, divisors and exponents are never
+ * zero or negative, strings and NULL values appear in equality checks only. So every formula has to parse and
+ * evaluate without errors when evaluated with the generated variables.
+ */
+@Slf4j
+public final class FormulaGenerator {
+
+    private static final String[] STRINGS = {"ABC", "XYZ", "QWE"};
+
+    /**
+     * Functions with an integer parameter (e.g. the scale of ROUND) and its index.
+     */
+    private static final Map<String, Integer> INTEGER_PARAMS = Collections.singletonMap("ROUND", 1);
+
+    private final Random random;
+    private final int maxDepth;
+    private final int variableCount;
+    private final double functionRatio;
+    private final double ifRatio;
+    private final double stringRatio;
+    private final double nullRatio;
+
+    private final List<String> arithmetic = new ArrayList<>();
+    private final List<Integer> arithmeticWeights = new ArrayList<>();
+    private final List<String> comparisons = new ArrayList<>();
+    private final List<String> equalities = new ArrayList<>();
+    private final List<String> logical = new ArrayList<>();
+    private final List<String> unary = new ArrayList<>();
+    private final Set<String> powers = new HashSet<>();
+    private final List<Function> numericFunctions = new ArrayList<>();
+    private final List<Function> booleanFunctions = new ArrayList<>();
+
+    private Map<String, String> variables;
+
+    /**
+     * @param seed            seed of the random generator, the same seed produces the same formulas
+     * @param maxDepth        maximum depth of the generated expression tree, default 4
+     * @param variableCount   count of distinct numeric variables, default 4
+     * @param functionRatio   probability of a function call instead of an operator, default 0.2
+     * @param ifRatio         probability of an IF instead of an operator, default 0.1
+     * @param stringRatio     probability of a string comparison instead of a numeric one, default 0.1
+     * @param nullRatio       probability of a NULL check instead of a numeric comparison, default 0.05
+     * @param operatorWeights weights of binary arithmetic operators by name, operators without weight are not used.
+     *                        All registered arithmetic operators have the same weight by default.
+     * @param settings        settings to build the registries of operators and functions
+     */
+    @Builder
+    private FormulaGenerator(Long seed,
+                             Integer maxDepth,
+                             Integer variableCount,
+                             Double functionRatio,
+                             Double ifRatio,
+                             Double stringRatio,
+                             Double nullRatio,
+                             Map<String, Integer> operatorWeights,
+                             ExpressionSettings settings) {
+        this.random = new Random(seed == null ? 42 : seed);
+        this.maxDepth = maxDepth == null ? 4 : maxDepth;
+        this.variableCount = variableCount == null ? 4 : Math.max(1, variableCount);
+        this.functionRatio = functionRatio == null ? 0.2 : functionRatio;
+        this.ifRatio = ifRatio == null ? 0.1 : ifRatio;
+        this.stringRatio = stringRatio == null ? 0.1 : stringRatio;
+        this.nullRatio = nullRatio == null ? 0.05 : nullRatio;
+        ExpressionSettings registrySettings = settings == null ? ExpressionSettings.builder().build() : settings;
+        collectOperators(Operators.buildOperators(registrySettings), operatorWeights);
+        collectFunctions(Functions.buildFunctions(registrySettings));
+    }
+
+    /**
+     * Generate the next formula with values for all of its variables
+     */
+    public FormulaRecord next() {
+        variables = new LinkedHashMap<>();
+        String formula = numeric(0);
+        return new FormulaRecord(formula, variables);
+    }
+
+    /**
+     * Generate list of formulas
+     *
+     * @param count count of formulas
+     */
+    public List<FormulaRecord> next(int count) {
+        List<FormulaRecord> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(next());
+        }
+        return result;
+    }
+
+    private void collectOperators(Map<String, Operator> operators, Map<String, Integer> weights) {
+        // sorted to generate the same formulas for the same seed
+        for (Operator operator : new TreeMap<>(operators).values()) {
+            String name = operator.getOper();
+            if (operator instanceof UnaryOperator) {
+                unary.add(name);
+            } else if (operator.getPriority() == OPERATOR_PRIORITY_AND || operator.getPriority() == OPERATOR_PRIORITY_OR) {
+                logical.add(name);
+            } else if (operator.getPriority() == OPERATOR_PRIORITY_EQUALITY) {
+                equalities.add(name);
+            } else if (operator.getPriority() == OPERATOR_PRIORITY_COMPARISON) {
+                comparisons.add(name);
+            } else {
+                int weight = weights == null || weights.isEmpty() ? 1 : weights.getOrDefault(name, 0);
+                if (weight > 0) {
+                    if (operator.getPriority() == OPERATOR_PRIORITY_POWER) {
+                        powers.add(name);
+                    }
+                    arithmetic.add(name);
+                    arithmeticWeights.add(weight);
+                }
+            }
+        }
+    }
+
+    private void collectFunctions(Map<String, Function> functions) {
+        functions.values().stream()
+                .filter(f -> !IF_FUNC.equalsIgnoreCase(f.getName()))
+                .sorted((f1, f2) -> f1.getName().compareTo(f2.getName()))
+                .forEach(f -> (f.isBooleanFunction() ? booleanFunctions : numericFunctions).add(f));
+    }
+
+    private String numeric(int depth) {
+        if (depth >= maxDepth || (depth > 0 && random.nextDouble() < 0.25)) {
+            return numericLeaf();
+        }
+
+        double choice = random.nextDouble();
+        if (choice < ifRatio) {
+            return IF_FUNC + "(" + bool(depth + 1) + ", " + numeric(depth + 1) + ", " + numeric(depth + 1) + ")";
+        }
+        if (choice < ifRatio + functionRatio && !numericFunctions.isEmpty()) {
+            return function(pick(numericFunctions), depth);
+        }
+        if (!unary.isEmpty() && random.nextDouble() < 0.05) {
+            return pick(unary) + "(" + numeric(depth + 1) + ")";
+        }
+        if (arithmetic.isEmpty()) {
+            return numericLeaf();
+        }
+
+        String operator = pickWeighted();
+        // remainder fails when the quotient does not fit the precision, so the dividend is kept small
+        String left = "%".equals(operator) ? numericLeaf() : numeric(depth + 1);
+        String right;
+        if ("/".equals(operator) || "%".equals(operator)) {
+            right = positiveLeaf();
+        } else if (powers.contains(operator)) {
+            right = String.valueOf(random.nextInt(4));
+        } else {
+            right = numeric(depth + 1);
+        }
+        return "(" + left + " " + operator + " " + right + ")";
+    }
+
+    private String bool(int depth) {
+        double choice = random.nextDouble();
+        if (choice < stringRatio && !equalities.isEmpty()) {
+            return stringVariable() + " " + pick(equalities) + " \"" + pick(STRINGS) + "\"";
+        }
+        if (choice < stringRatio + nullRatio && !equalities.isEmpty()) {
+            return nullVariable() + " " + pick(equalities) + " " + (random.nextBoolean() ? NULL_CONST : numericLeaf());
+        }
+        if (depth < maxDepth && !logical.isEmpty() && random.nextDouble() < 0.3) {
+            return "(" + bool(depth + 1) + " " + pick(logical) + " " + bool(depth + 1) + ")";
+        }
+        if (depth < maxDepth && !booleanFunctions.isEmpty() && random.nextDouble() < 0.1) {
+            return pick(booleanFunctions).getName() + "(" + bool(depth + 1) + ")";
+        }
+        List<String> operators = comparisons.isEmpty() ? equalities : comparisons;
+        return numeric(depth + 1) + " " + pick(operators) + " " + numeric(depth + 1);
+    }
+
+    private String function(Function function, int depth) {
+        int count = function.numParamsVaries() ? 1 + random.nextInt(5) : function.getNumParams();
+        Integer integerParam = INTEGER_PARAMS.get(function.getName());
+        StringBuilder result = new StringBuilder(function.getName()).append('(');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                result.append(", ");
+            }
+            result.append(integerParam != null && integerParam == i
+                    ? String.valueOf(random.nextInt(5))
+                    : numeric(depth + 1));
+        }
+        return result.append(')').toString();
+    }
+
+    private String numericLeaf() {
+        return random.nextBoolean() ? numericVariable() : literal();
+    }
+
+    private String positiveLeaf() {
+        return random.nextBoolean() ? numericVariable() : String.valueOf(1 + random.nextInt(9));
+    }
+
+    private String literal() {
+        return random.nextBoolean()
+                ? String.valueOf(1 + random.nextInt(99))
+                : String.format(Locale.ROOT, "%d.%02d", random.nextInt(100), 1 + random.nextInt(99));
+    }
+
+    private String numericVariable() {
+        String name = "x" + random.nextInt(variableCount);
+        variables.computeIfAbsent(name, n -> String.format(Locale.ROOT, "%d.%02d", 1 + random.nextInt(99), random.nextInt(100)));
+        return name;
+    }
+
+    private String stringVariable() {
+        String name = "s" + random.nextInt(variableCount);
+        variables.computeIfAbsent(name, n -> "'" + pick(STRINGS) + "'");
+        return name;
+    }
+
+    private String nullVariable() {
+        String name = "n" + random.nextInt(variableCount);
+        variables.computeIfAbsent(name, n -> NULL_CONST);
+        return name;
+    }
+
+    private String pickWeighted() {
+        int total = 0;
+        for (Integer weight : arithmeticWeights) {
+            total += weight;
+        }
+        int value = random.nextInt(total);
+        for (int i = 0; i < arithmetic.size(); i++) {
+            value -= arithmeticWeights.get(i);
+            if (value < 0) {
+                return arithmetic.get(i);
+            }
+        }
+        return arithmetic.get(arithmetic.size() - 1);
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    private <T> T pick(T[] values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Print generated formulas in the {@link FormulaRecord} format, one per line.
+     *
+     * @param args count of formulas, optional seed and optional maximum depth
+     */
+    public static void main(String... args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        FormulaGenerator generator = FormulaGenerator.builder()
+                .seed(args.length > 1 ? Long.parseLong(args[1]) : null)
+                .maxDepth(args.length > 2 ? Integer.parseInt(args[2]) : null)
+                .build();
+        log.debug("Generate {} formulas", count);
+        for (int i = 0; i < count; i++) {
+            System.out.println(generator.next().format());
+        }
+    }
+}
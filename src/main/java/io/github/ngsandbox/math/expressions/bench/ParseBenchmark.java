@@ -0,0 +1,132 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.util.Iterator;
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.tokens.Token;
+
+/**
+ * Measures parse time and allocated memory of the large generated formulas, the time and memory per kilobyte
+ * have to stay flat from the smallest formula to the largest one. Both front ends are measured: the RPN of
+ * the <i>Shunting Yard</i> parser with its validation pass and the syntax tree of the single pass parser.
+ * <pre>
+ * java -cp math-expressions.jar io.github.ngsandbox.math.expressions.bench.ParseBenchmark 1024 10485760
+ * </pre>
+ */
+public final class ParseBenchmark {
+
+    /**
+     * Chunk of the generated formulas with operators, functions, literals and parentheses
+     */
+    private static final String CHUNK = "(a%d + 2.5) * b - MAX(c, 3, IF(d >= 1, d, 0)) / 4 + ";
+
+    private ParseBenchmark() {
+    }
+
+    /**
+     * @param size approximate length of the formula in characters
+     * @return formula of the size
+     */
+    public static String formula(int size) {
+        StringBuilder formula = new StringBuilder(size + CHUNK.length() * 2);
+        for (int i = 0; formula.length() < size; i++) {
+            formula.append(String.format(Locale.ROOT, CHUNK, i % 100));
+        }
+        return formula.append('1').toString();
+    }
+
+    /**
+     * Parse the formula, the best of the rounds is taken to filter out noise
+     *
+     * @param formula parsed formula
+     * @param rounds  count of parsing rounds
+     * @return the best round
+     */
+    public static Result run(@NonNull String formula, int rounds) {
+        return run(formula, rounds, ExpressionSettings.builder().build());
+    }
+
+    /**
+     * Parse the formula with the settings, the best of the rounds is taken to filter out noise
+     *
+     * @param formula  parsed formula
+     * @param rounds   count of parsing rounds
+     * @param settings settings of the parsed expressions, e.g. {@link ExpressionSettings#isSyntaxTree()}
+     * @return the best round
+     */
+    public static Result run(@NonNull String formula, int rounds, @NonNull ExpressionSettings settings) {
+        long bestNanos = Long.MAX_VALUE;
+        long bestBytes = Long.MAX_VALUE;
+        int tokens = 0;
+        for (int round = 0; round < rounds; round++) {
+            long bytes = AllocationMeter.isSupported() ? AllocationMeter.allocatedBytes() : 0;
+            long start = System.nanoTime();
+            Expression expression = new Expression(formula, settings).parse();
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            if (AllocationMeter.isSupported()) {
+                bestBytes = Math.min(bestBytes, AllocationMeter.allocatedBytes() - bytes);
+            }
+            tokens = 0;
+            for (Iterator<Token> tokenizer = expression.getExpressionTokenizer(); tokenizer.hasNext(); tokenizer.next()) {
+                tokens++;
+            }
+        }
+        return new Result(formula.length(), tokens, bestNanos, AllocationMeter.isSupported() ? bestBytes : -1);
+    }
+
+    /**
+     * Parse time and memory of a single formula
+     */
+    @Getter
+    public static final class Result {
+        private final int length;
+        private final int tokens;
+        private final long nanos;
+        /**
+         * Bytes allocated by the parsing, -1 if the JVM does not count them
+         */
+        private final long bytes;
+
+        Result(int length, int tokens, long nanos, long bytes) {
+            this.length = length;
+            this.tokens = tokens;
+            this.nanos = nanos;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return parse time per kilobyte of the formula in nanoseconds
+         */
+        public double getNanosPerKilobyte() {
+            return nanos * 1024.0 / length;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "length=%-10d tokens=%-9d time=%.2fms (%.1fus/KB) allocated=%.1fKB (%.1fKB/KB)",
+                    length, tokens, nanos / 1e6, getNanosPerKilobyte() / 1e3,
+                    bytes / 1024.0, bytes * 1.0 / length);
+        }
+    }
+
+    public static void main(String... args) {
+        int from = args.length > 0 ? Integer.parseInt(args[0]) : 1024;
+        int to = args.length > 1 ? Integer.parseInt(args[1]) : 10 * 1024 * 1024;
+        ExpressionSettings rpn = ExpressionSettings.builder().build();
+        ExpressionSettings tree = ExpressionSettings.builder().syntaxTree(true).build();
+        // warm up the parsers on a middle sized formula
+        run(formula(64 * 1024), 20, rpn);
+        run(formula(64 * 1024), 20, tree);
+        for (int size = from; size <= to; size *= 4) {
+            String formula = formula(size);
+            int rounds = size >= 1024 * 1024 ? 3 : 10;
+            System.out.println("rpn  " + run(formula, rounds, rpn));
+            System.out.println("tree " + run(formula, rounds, tree));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+/**
+ * Replays recorded formulas with their variables through the evaluation engines and reports throughput,
+ * latency percentiles and allocation rate of each engine.
+ * <br>
+ * File format is one {@link FormulaRecord} per line, empty lines and lines started with <code>#</code> are skipped.
+ */
+@Slf4j
+public class ReplayHarness {
+
+    private final List<FormulaRecord> records;
+    private final int warmupPasses;
+    private final int passes;
+
+    /**
+     * @param records      recorded formulas with variables
+     * @param warmupPasses count of passes over all records before the measurement
+     * @param passes       count of measured passes over all records
+     */
+    public ReplayHarness(@NonNull List<FormulaRecord> records, int warmupPasses, int passes) {
+        this.records = records;
+        this.warmupPasses = warmupPasses;
+        this.passes = passes;
+    }
+
+    /**
+     * Read recorded formulas from the file
+     */
+    public static List<FormulaRecord> read(@NonNull Path file) throws IOException {
+        List<FormulaRecord> result = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) {
+                    result.add(FormulaRecord.parse(line));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replay all records with the engine
+     */
+    public ReplayReport run(@NonNull BenchmarkEngine engine) {
+        log.debug("Warmup engine {} with {} passes over {} records", engine.getName(), warmupPasses, records.size());
+        for (int pass = 0; pass < warmupPasses; pass++) {
+            replay(engine, null, 0);
+        }
+
+        boolean measureAllocations = AllocationMeter.isSupported();
+        long[] latencies = new long[records.size() * passes];
+        long allocatedBefore = measureAllocations ? AllocationMeter.allocatedBytes() : 0;
+        long start = System.nanoTime();
+        int errors = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            errors += replay(engine, latencies, pass * records.size());
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = measureAllocations ? AllocationMeter.allocatedBytes() - allocatedBefore : -1;
+        return new ReplayReport(engine.getName(), errors, elapsed, allocated, latencies);
+    }
+
+    private int replay(BenchmarkEngine engine, long[] latencies, int offset) {
+        int errors = 0;
+        for (int i = 0; i < records.size(); i++) {
+            FormulaRecord record = records.get(i);
+            long start = System.nanoTime();
+            try {
+                engine.evaluate(record);
+            } catch (RuntimeException ex) {
+                log.trace("Evaluation of `{}` failed", record.getFormula(), ex);
+                errors++;
+            }
+            if (latencies != null) {
+                latencies[offset + i] = System.nanoTime() - start;
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Replay the file with all (or one selected) engines and print reports.
+     *
+     * @param args path to the file, optional count of passes, warmup passes and the name of the engine
+     */
+    public static void main(String... args) throws IOException {
+        if (args.length == 0) {
+            System.out.println("Usage: ReplayHarness <file> [passes=5] [warmupPasses=3] [engine]");
+            return;
+        }
+
+        List<FormulaRecord> records = read(Paths.get(args[0]));
+        int passes = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        ReplayHarness harness = new ReplayHarness(records, warmup, passes);
+        for (BenchmarkEngine engine : BenchmarkEngine.all(ExpressionSettings.builder().build())) {
+            if (args.length <= 3 || args[3].equalsIgnoreCase(engine.getName())) {
+                System.out.println(harness.run(engine));
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Result of a replay of recorded formulas with a single {@link BenchmarkEngine}.
+ */
+@Getter
+public class ReplayReport {
+
+    private final String engine;
+    private final int evaluations;
+    private final int errors;
+    private final long elapsedNanos;
+    private final long allocatedBytes;
+    /**
+     * Sorted latencies of every evaluation in nanoseconds
+     */
+    private final long[] latencies;
+
+    public ReplayReport(@NonNull String engine, int errors, long elapsedNanos, long allocatedBytes, @NonNull long[] latencies) {
+        this.engine = engine;
+        this.evaluations = latencies.length;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+        this.allocatedBytes = allocatedBytes;
+        this.latencies = latencies.clone();
+        Arrays.sort(this.latencies);
+    }
+
+    /**
+     * @return evaluations per second
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : evaluations * 1_000_000_000d / elapsedNanos;
+    }
+
+    /**
+     * @param percentile percentile from 0 to 100, e.g. 99.9
+     * @return latency of the evaluation in nanoseconds
+     */
+    public long getLatency(double percentile) {
+        if (latencies.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latencies.length) - 1;
+        return latencies[Math.min(latencies.length - 1, Math.max(0, index))];
+    }
+
+    /**
+     * @return bytes allocated by a single evaluation in average, <code>-1</code> if allocations are not measured
+     */
+    public long getBytesPerEvaluation() {
+        return allocatedBytes < 0 || evaluations == 0 ? -1 : allocatedBytes / evaluations;
+    }
+
+    /**
+     * @return megabytes allocated per second, <code>-1</code> if allocations are not measured
+     */
+    public double getAllocationRate() {
+        return allocatedBytes < 0 || elapsedNanos == 0 ? -1 : allocatedBytes * 1_000d / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT,
+                "%-10s evals=%d errors=%d throughput=%.0f/s p50=%.2fus p90=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus alloc=%dB/eval (%.1fMB/s)",
+                engine, evaluations, errors, getThroughput(),
+                getLatency(50) / 1000d, getLatency(90) / 1000d, getLatency(99) / 1000d, getLatency(99.9) / 1000d,
+                getLatency(100) / 1000d, getBytesPerEvaluation(), getAllocationRate());
+    }
+}
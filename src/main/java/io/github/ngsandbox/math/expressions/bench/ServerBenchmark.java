@@ -0,0 +1,172 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.metrics.LatencyHistogram;
+import io.github.ngsandbox.math.expressions.service.EvaluationServer;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+/**
+ * Load generator of the {@link EvaluationServer}: every connection sends single evaluation requests one after another
+ * over a keep-alive HTTP/1.1 connection. Minimal HTTP client over plain sockets is used, so the client does not
+ * take most of the CPU. Runs the embedded server on a free loopback port if no address is provided:
+ * <pre>
+ * java -cp math-expressions.jar io.github.ngsandbox.math.expressions.bench.ServerBenchmark [connections=16] [seconds=10] [host:port]
+ * </pre>
+ */
+public final class ServerBenchmark {
+
+    private final InetSocketAddress address;
+    private final List<byte[]> requests;
+
+    /**
+     * @param address address of the server
+     * @param records formulas to send, in a round robin
+     */
+    public ServerBenchmark(@NonNull InetSocketAddress address, @NonNull List<FormulaRecord> records) {
+        this.address = address;
+        this.requests = records.stream()
+                .map(r -> request(address, r.format()))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Send requests from all connections in parallel during the duration
+     *
+     * @param connections count of parallel connections
+     * @param millis      duration in milliseconds
+     * @return client side latency of the requests
+     */
+    public LatencyHistogram run(int connections, long millis) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder failures = new LongAdder();
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        CountDownLatch done = new CountDownLatch(connections);
+        for (int i = 0; i < connections; i++) {
+            int offset = i * 31;
+            Thread client = new Thread(() -> {
+                try {
+                    send(offset, deadline, latency);
+                } catch (IOException ex) {
+                    failures.increment();
+                } finally {
+                    done.countDown();
+                }
+            }, "server-benchmark-" + i);
+            client.setDaemon(true);
+            client.start();
+        }
+        done.await();
+        if (failures.sum() > 0) {
+            throw new ExpressionException(failures.sum() + " connections of the benchmark failed");
+        }
+        return latency;
+    }
+
+    private void send(int offset, long deadline, LatencyHistogram latency) throws IOException {
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            socket.setTcpNoDelay(true);
+            OutputStream output = socket.getOutputStream();
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            for (int i = offset; System.nanoTime() < deadline; i++) {
+                long start = System.nanoTime();
+                output.write(requests.get(i % requests.size()));
+                output.flush();
+                readResponse(input);
+                latency.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static byte[] request(InetSocketAddress address, String line) {
+        byte[] body = line.getBytes(StandardCharsets.UTF_8);
+        byte[] head = ("POST " + EvaluationServer.EVAL_PATH + " HTTP/1.1\r\n"
+                + "Host: " + address.getHostString() + ':' + address.getPort() + "\r\n"
+                + "Content-Type: text/plain; charset=utf-8\r\n"
+                + "Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        byte[] result = new byte[head.length + body.length];
+        System.arraycopy(head, 0, result, 0, head.length);
+        System.arraycopy(body, 0, result, head.length, body.length);
+        return result;
+    }
+
+    /**
+     * Skip the status line and headers, then the body of <code>Content-length</code> bytes
+     */
+    private static void readResponse(InputStream input) throws IOException {
+        long length = -1;
+        String header;
+        while (!(header = readLine(input)).isEmpty()) {
+            int colon = header.indexOf(':');
+            if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                length = Long.parseLong(header.substring(colon + 1).trim());
+            }
+        }
+        if (length < 0) {
+            throw new IOException("Response without Content-Length");
+        }
+        while (length > 0) {
+            long skipped = input.skip(length);
+            if (skipped <= 0) {
+                throw new IOException("Connection is closed");
+            }
+            length -= skipped;
+        }
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int value;
+        while ((value = input.read()) != '\n') {
+            if (value < 0) {
+                throw new IOException("Connection is closed");
+            }
+            if (value != '\r') {
+                line.append((char) value);
+            }
+        }
+        return line.toString();
+    }
+
+    public static void main(String... args) throws IOException, InterruptedException {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 10;
+        List<FormulaRecord> records = FormulaGenerator.builder().maxDepth(3).build().next(1000);
+
+        EvaluationServer server = null;
+        InetSocketAddress address;
+        if (args.length > 2) {
+            String[] hostPort = args[2].split(":");
+            address = new InetSocketAddress(hostPort[0], Integer.parseInt(hostPort[1]));
+        } else {
+            server = EvaluationServer.builder().address(new InetSocketAddress("127.0.0.1", 0)).build().start();
+            address = server.getAddress();
+        }
+
+        try {
+            ServerBenchmark benchmark = new ServerBenchmark(address, records);
+            System.out.println("Warm up...");
+            benchmark.run(connections, Math.min(5, seconds) * 1000);
+            LatencyHistogram latency = benchmark.run(connections, seconds * 1000);
+            System.out.printf("%d connections: %.0f requests/s, latency %s%n",
+                    connections, latency.getCount() / (double) seconds, latency);
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ApplicationMain;
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Measures time to the first result of the command line application: every run starts a new JVM
+ * and the time is taken from the process start till the result line is printed.
+ * <pre>
+ * java -cp math-expressions.jar io.github.ngsandbox.math.expressions.bench.StartupBenchmark 20 build/libs/math-expressions.jsa
+ * </pre>
+ */
+public final class StartupBenchmark {
+
+    public static final String RESULT_MARKER = "Result:";
+    public static final List<String> DEFAULT_ARGUMENTS = Collections.unmodifiableList(Arrays.asList(
+            "IF(a > b, MAX(a, b) * 2, ROUND(c / 3, 2)) + ABS(-d)", "a", "10", "b", "20", "c", "30", "d", "40"));
+
+    private final String java;
+    private final String classpath;
+    private final List<String> arguments;
+
+    public StartupBenchmark(@NonNull String classpath, @NonNull List<String> arguments) {
+        this.java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        this.classpath = classpath;
+        this.arguments = arguments;
+    }
+
+    /**
+     * @param name    name of the configuration
+     * @param jvmArgs JVM options of the configuration
+     * @param runs    count of JVM starts
+     * @return sorted times to the first result
+     */
+    public Result run(String name, List<String> jvmArgs, int runs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(ApplicationMain.class.getName());
+        command.addAll(arguments);
+
+        long[] samples = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            samples[i] = measure(command);
+        }
+        return new Result(name, samples);
+    }
+
+    private static long measure(List<String> command) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long elapsed = -1;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (elapsed < 0 && line.contains(RESULT_MARKER)) {
+                    elapsed = System.nanoTime() - start;
+                }
+                output.append(line).append(System.lineSeparator());
+            }
+        }
+
+        int exitCode = process.waitFor();
+        if (elapsed < 0 || exitCode != 0) {
+            throw new ExpressionException("No result from " + command + ", exit code " + exitCode + ": " + output);
+        }
+        return elapsed;
+    }
+
+    /**
+     * Times to the first result of a single JVM configuration
+     */
+    @Getter
+    public static final class Result {
+        private final String name;
+        /**
+         * Sorted times in nanoseconds
+         */
+        private final long[] samples;
+
+        Result(String name, long[] samples) {
+            this.name = name;
+            this.samples = samples.clone();
+            Arrays.sort(this.samples);
+        }
+
+        /**
+         * @param percentile percentile from 0 to 100
+         * @return time in nanoseconds
+         */
+        public long getPercentile(double percentile) {
+            int index = (int) Math.ceil(percentile / 100 * samples.length) - 1;
+            return samples[Math.min(samples.length - 1, Math.max(0, index))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-12s runs=%d min=%.1fms p50=%.1fms p90=%.1fms max=%.1fms",
+                    name, samples.length, samples[0] / 1e6, getPercentile(50) / 1e6, getPercentile(90) / 1e6,
+                    samples[samples.length - 1] / 1e6);
+        }
+    }
+
+    public static void main(String... args) throws IOException, InterruptedException {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        Map<String, List<String>> configurations = new LinkedHashMap<>();
+        configurations.put("default", Collections.emptyList());
+        configurations.put("c1", Collections.singletonList("-XX:TieredStopAtLevel=1"));
+        if (args.length > 1 && Files.exists(Paths.get(args[1]))) {
+            String archive = "-XX:SharedArchiveFile=" + args[1];
+            configurations.put("appcds", Arrays.asList(archive, "-Xshare:auto"));
+            configurations.put("appcds+c1", Arrays.asList(archive, "-Xshare:auto", "-XX:TieredStopAtLevel=1"));
+        }
+
+        StartupBenchmark benchmark = new StartupBenchmark(System.getProperty("java.class.path"), DEFAULT_ARGUMENTS);
+        // the first start warms up the file system cache
+        benchmark.run("warmup", Collections.emptyList(), 1);
+        for (Map.Entry<String, List<String>> configuration : configurations.entrySet()) {
+            System.out.println(benchmark.run(configuration.getKey(), configuration.getValue(), runs));
+        }
+    }
+}
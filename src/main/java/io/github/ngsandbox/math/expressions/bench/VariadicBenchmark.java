@@ -0,0 +1,93 @@
+package io.github.ngsandbox.math.expressions.bench;
+
+import java.util.Locale;
+
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.Expression;
+
+/**
+ * Measures parse and evaluation time of the variadic function calls (<code>MAX(...)</code>) from ten to a hundred
+ * thousand arguments, the time per argument has to stay flat.
+ * <pre>
+ * java -cp math-expressions.jar io.github.ngsandbox.math.expressions.bench.VariadicBenchmark 10 100000
+ * </pre>
+ */
+public final class VariadicBenchmark {
+
+    private VariadicBenchmark() {
+    }
+
+    /**
+     * @param arguments count of the arguments
+     * @return <code>MAX</code> call with the arguments, every one of them is a small expression
+     */
+    public static String formula(int arguments) {
+        StringBuilder formula = new StringBuilder(arguments * 12).append("MAX(");
+        for (int i = 0; i < arguments; i++) {
+            if (i > 0) {
+                formula.append(", ");
+            }
+            formula.append(i % 1000).append(" * a");
+        }
+        return formula.append(')').toString();
+    }
+
+    /**
+     * Parse and evaluate the call, the best of the rounds is taken to filter out noise
+     *
+     * @param arguments count of the arguments
+     * @param rounds    count of the rounds
+     * @return the best round
+     */
+    public static Result run(int arguments, int rounds) {
+        String formula = formula(arguments);
+        long bestParse = Long.MAX_VALUE;
+        long bestEval = Long.MAX_VALUE;
+        String value = null;
+        for (int round = 0; round < rounds; round++) {
+            long start = System.nanoTime();
+            Expression expression = new Expression(formula).with("a", 2).parse();
+            long parsed = System.nanoTime();
+            value = expression.eval().getExpression();
+            bestParse = Math.min(bestParse, parsed - start);
+            bestEval = Math.min(bestEval, System.nanoTime() - parsed);
+        }
+        return new Result(arguments, bestParse, bestEval, value);
+    }
+
+    /**
+     * Parse and evaluation time of a single call
+     */
+    @Getter
+    public static final class Result {
+        private final int arguments;
+        private final long parseNanos;
+        private final long evalNanos;
+        private final String value;
+
+        Result(int arguments, long parseNanos, long evalNanos, String value) {
+            this.arguments = arguments;
+            this.parseNanos = parseNanos;
+            this.evalNanos = evalNanos;
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "arguments=%-8d parse=%.2fms (%.0fns/arg) eval=%.2fms (%.0fns/arg) value=%s",
+                    arguments, parseNanos / 1e6, parseNanos * 1.0 / arguments,
+                    evalNanos / 1e6, evalNanos * 1.0 / arguments, value);
+        }
+    }
+
+    public static void main(String... args) {
+        int from = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int to = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        // warm up on a middle sized call
+        run(10_000, 20);
+        for (int arguments = from; arguments <= to; arguments *= 10) {
+            System.out.println(run(arguments, arguments >= 100_000 ? 3 : 10));
+        }
+    }
+}
@@ -30,6 +30,11 @@ public abstract class AbstractFunction implements Function {
      */
     private final boolean booleanFunction;
 
+    /**
+     * Whether this function evaluates all its parameters.
+     */
+    private final boolean strict;
+
     /**
      * Creates a new function with given name and parameter count.
      *
@@ -39,9 +44,23 @@ public abstract class AbstractFunction implements Function {
      * @param booleanFunction Whether this function is a boolean function.
      */
     protected AbstractFunction(String name, int numParams, boolean booleanFunction) {
+        this(name, numParams, booleanFunction, false);
+    }
+
+    /**
+     * Creates a new function with given name and parameter count.
+     *
+     * @param name            The name of the function.
+     * @param numParams       The number of parameters for this function.
+     *                        <code>-1</code> denotes a variable number of parameters.
+     * @param booleanFunction Whether this function is a boolean function.
+     * @param strict          Whether this function evaluates all its parameters, see {@link Function#isStrict()}.
+     */
+    protected AbstractFunction(String name, int numParams, boolean booleanFunction, boolean strict) {
         this.name = name.toUpperCase(Locale.ROOT);
         this.numParams = numParams;
         this.booleanFunction = booleanFunction;
+        this.strict = strict;
     }
 
     public boolean numParamsVaries() {
@@ -3,6 +3,9 @@ package io.github.ngsandbox.math.expressions.functions;
 import java.util.List;
 import java.util.function.Function;
 
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
 /**
@@ -11,6 +14,7 @@ import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
  */
 public final class ExpressionFunction extends AbstractFunction {
     private final Function<List<WrappedValue>, WrappedValue> eval;
+    private final Function<List<StaticType>, StaticType> resultType;
 
     public ExpressionFunction(String name, int numParams,
                               Function<List<WrappedValue>, WrappedValue> eval) {
@@ -19,8 +23,35 @@ public final class ExpressionFunction extends AbstractFunction {
 
     public ExpressionFunction(String name, int numParams, boolean booleanFunction,
                               Function<List<WrappedValue>, WrappedValue> eval) {
-        super(name, numParams, booleanFunction);
+        this(name, numParams, booleanFunction, false, eval);
+    }
+
+    public ExpressionFunction(String name, int numParams, boolean booleanFunction, boolean strict,
+                              Function<List<WrappedValue>, WrappedValue> eval) {
+        this(name, numParams, booleanFunction, strict, eval, types -> StaticType.ANY);
+    }
+
+    private ExpressionFunction(String name, int numParams, boolean booleanFunction, boolean strict,
+                               Function<List<WrappedValue>, WrappedValue> eval,
+                               Function<List<StaticType>, StaticType> resultType) {
+        super(name, numParams, booleanFunction, strict);
         this.eval = eval;
+        this.resultType = resultType;
+    }
+
+    /**
+     * Copy of the function with the static type of its result
+     *
+     * @param resultType type of the result for the types of the parameters, see {@link #getResultType(List)}
+     * @return the new function
+     */
+    public ExpressionFunction withResultType(@NonNull Function<List<StaticType>, StaticType> resultType) {
+        return new ExpressionFunction(getName(), getNumParams(), isBooleanFunction(), isStrict(), eval, resultType);
+    }
+
+    @Override
+    public StaticType getResultType(List<StaticType> parameterTypes) {
+        return resultType.apply(parameterTypes);
     }
 
     @Override
@@ -2,6 +2,7 @@ package io.github.ngsandbox.math.expressions.functions;
 
 import java.util.List;
 
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
 /**
@@ -44,6 +45,29 @@ public interface Function {
      */
     boolean isBooleanFunction();
 
+    /**
+     * Gets whether this function evaluates all its parameters (up to the first error).<br>
+     * <br>
+     * Parameters of strict functions are evaluated before {@link #calc(List)} by an explicit stack,
+     * so deeply nested calls do not overflow the thread stack. Parameters of the other functions
+     * (e.g. IF) are evaluated by the function itself when it needs them.
+     *
+     * @return <code>true</code> if the function is strict.
+     */
+    default boolean isStrict() {
+        return false;
+    }
+
+    /**
+     * Gets the static type of the result for the static types of the parameters.
+     *
+     * @param parameterTypes The types of the parameters.
+     * @return The type of the result, {@link StaticType#ANY} if it is not known.
+     */
+    default StaticType getResultType(List<StaticType> parameterTypes) {
+        return StaticType.ANY;
+    }
+
     /**
      * Evaluate this function.
      *
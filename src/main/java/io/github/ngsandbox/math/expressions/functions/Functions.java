@@ -3,19 +3,25 @@ package io.github.ngsandbox.math.expressions.functions;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import io.github.ngsandbox.math.expressions.ExpressionException;
 import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedIfArgs;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
-import static io.github.ngsandbox.math.expressions.ExpressionConstants.ARG_NULL_ERROR;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
 import static io.github.ngsandbox.math.expressions.ExpressionUtils.getByIndex;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
@@ -25,11 +31,31 @@ import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.wr
 @Slf4j
 public final class Functions {
 
+    private static final ConcurrentMap<MathContext, Map<String, Function>> DEFAULT_FUNCTIONS = new ConcurrentHashMap<>();
+
     public static Map<String, Function> buildFunctions(@NonNull ExpressionSettings settings) {
         return new FunctionsBuilder(settings).build();
     }
 
+    /**
+     * Read only case insensitive registry of the functions shared by all expressions with the same math context,
+     * it is built on the first request.
+     */
+    public static Map<String, Function> defaultFunctions(@NonNull ExpressionSettings settings) {
+        return DEFAULT_FUNCTIONS.computeIfAbsent(settings.buildMathContext(), mc -> {
+            Map<String, Function> functions = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            functions.putAll(buildFunctions(settings));
+            return Collections.unmodifiableMap(functions);
+        });
+    }
+
     private static final class FunctionsBuilder {
+        /**
+         * The built-in functions return numbers or errors
+         */
+        private static final java.util.function.Function<List<StaticType>, StaticType> NUMBER_RESULT =
+                types -> StaticType.NUMBER;
+
         /**
          * The {@link MathContext} to use for calculations.
          */
@@ -42,82 +68,132 @@ public final class Functions {
         }
 
         private Map<String, Function> build() {
-            addFunction(new ExpressionFunction("NOT", 1, true, this::processNot));
-
-            addFunction(new ExpressionFunction(IF_FUNC, 3, WrappedIfArgs::new));
-            addFunction(new ExpressionFunction("MAX", -1, this::processMax));
-            addFunction(new ExpressionFunction("MIN", -1, this::processMin));
-            addFunction(new ExpressionFunction("ABS", 1, this::processAbs));
-            addFunction(new ExpressionFunction("ROUND", 2, this::processRound));
-            addFunction(new ExpressionFunction("FLOOR", 1, this::processFloor));
-            addFunction(new ExpressionFunction("CEILING", 1, this::processCeiling));
+            addFunction(new ExpressionFunction("NOT", 1, true, true, this::processNot).withResultType(NUMBER_RESULT));
+
+            // the value of the chosen branch
+            addFunction(new ExpressionFunction(IF_FUNC, 3, WrappedIfArgs::new)
+                    .withResultType(types -> types.get(1).union(types.get(2))));
+            addFunction(new ExpressionFunction("MAX", -1, false, true, this::processMax).withResultType(NUMBER_RESULT));
+            addFunction(new ExpressionFunction("MIN", -1, false, true, this::processMin).withResultType(NUMBER_RESULT));
+            addFunction(new ExpressionFunction("ABS", 1, false, true, this::processAbs).withResultType(NUMBER_RESULT));
+            addFunction(new ExpressionFunction("ROUND", 2, false, true, this::processRound).withResultType(NUMBER_RESULT));
+            addFunction(new ExpressionFunction("FLOOR", 1, false, true, this::processFloor).withResultType(NUMBER_RESULT));
+            addFunction(new ExpressionFunction("CEILING", 1, false, true, this::processCeiling).withResultType(NUMBER_RESULT));
             return functions;
         }
 
         private WrappedValue processRound(List<WrappedValue> parameters) {
             log.debug("Round first parameter of list: {}", parameters);
+            WrappedValue error = checkNumbers(parameters);
+            if (error != null) {
+                return error;
+            }
             BigDecimal toRound = unwrap(parameters, 0);
             int precision = unwrap(parameters, 1).intValue();
             return wrapBigDecimal(toRound.setScale(precision, mc.getRoundingMode()));
         }
 
         private WrappedValue processMin(List<WrappedValue> parameters) {
-            log.debug("Get min value from parameters: {}", parameters);
+            log.debug("Get min value from {} parameters", parameters.size());
             if (parameters.isEmpty()) {
                 throw new ExpressionException("MIN requires at least one parameter");
             }
-            BigDecimal min = null;
-            for (int i = 0; i < parameters.size(); i++) {
-                BigDecimal parameter = unwrap(parameters, i);
-                if (min == null || parameter.compareTo(min) < 0) {
-                    min = parameter;
-                }
-            }
-            return wrapBigDecimal(min);
+            return extremum(parameters, -1);
         }
 
         private WrappedValue processMax(List<WrappedValue> parameters) {
-            log.debug("Get max value from parameters: {}", parameters);
+            log.debug("Get max value from {} parameters", parameters.size());
             if (parameters.isEmpty()) {
                 throw new ExpressionException("MAX requires at least one parameter");
             }
-            BigDecimal max = null;
-            for (int i = 0; i < parameters.size(); i++) {
-                BigDecimal parameter = unwrap(parameters, i);
-                if (max == null || parameter.compareTo(max) > 0) {
-                    max = parameter;
+            return extremum(parameters, 1);
+        }
+
+        /**
+         * Evaluate and compare the parameters in a single pass over them
+         *
+         * @param sign 1 for the maximum, -1 for the minimum
+         * @return the extreme parameter, error of the first parameter which is not a number
+         */
+        private WrappedValue extremum(List<WrappedValue> parameters, int sign) {
+            BigDecimal extremum = null;
+            int index = 0;
+            for (WrappedValue value : parameters) {
+                WrappedValue result = value.eval();
+                if (result instanceof WrappedError) {
+                    return result;
                 }
+                BigDecimal parameter = result.decimalValue();
+                if (parameter == null) {
+                    return WrappedError.of(ErrorCode.ARGUMENT_NOT_NUMERIC, null, index, value);
+                }
+                if (extremum == null || parameter.compareTo(extremum) * sign > 0) {
+                    extremum = parameter;
+                }
+                index++;
             }
-
-            return wrapBigDecimal(max);
+            return wrapBigDecimal(extremum);
         }
 
         private WrappedValue processAbs(List<WrappedValue> parameters) {
+            WrappedValue error = checkNumbers(parameters);
+            if (error != null) {
+                return error;
+            }
             return wrapBigDecimal(unwrap(parameters, 0).abs(mc));
         }
 
         private WrappedValue processFloor(List<WrappedValue> parameters) {
+            WrappedValue error = checkNumbers(parameters);
+            if (error != null) {
+                return error;
+            }
             BigDecimal result = unwrap(parameters, 0).setScale(0, RoundingMode.FLOOR);
             log.trace("Floor function result from {}: {}", parameters, result);
             return wrapBigDecimal(result);
         }
 
         private WrappedValue processCeiling(List<WrappedValue> parameters) {
+            WrappedValue error = checkNumbers(parameters);
+            if (error != null) {
+                return error;
+            }
             BigDecimal result = unwrap(parameters, 0).setScale(0, RoundingMode.CEILING);
             log.trace("Ceiling function result from {}: {}", parameters, result);
             return wrapBigDecimal(result);
         }
 
         private WrappedValue processNot(List<WrappedValue> parameters) {
+            WrappedValue error = checkNumbers(parameters);
+            if (error != null) {
+                return error;
+            }
             boolean result = unwrap(parameters, 0).compareTo(BigDecimal.ZERO) == 0;
             log.trace("NOT function result from {}: {}", parameters, result);
             return result ? WRAPPED_ONE : WRAPPED_ZERO;
         }
 
         private BigDecimal unwrap(List<WrappedValue> parameters, int index) {
-            WrappedValue value = getByIndex(parameters, index);
-            return value.unwrap()
-                    .orElseThrow(() -> new ExpressionException(index + ARG_NULL_ERROR + " `" + value + "`"));
+            return getByIndex(parameters, index).decimalValue();
+        }
+
+        /**
+         * Evaluate the parameters
+         *
+         * @return error of the first parameter which is not a number, null if all of them are numbers
+         */
+        private WrappedValue checkNumbers(List<WrappedValue> parameters) {
+            for (int i = 0; i < parameters.size(); i++) {
+                WrappedValue value = getByIndex(parameters, i);
+                WrappedValue result = value.eval();
+                if (result instanceof WrappedError) {
+                    return result;
+                }
+                if (result.decimalValue() == null) {
+                    return WrappedError.of(ErrorCode.ARGUMENT_NOT_NUMERIC, null, i, value);
+                }
+            }
+            return null;
         }
 
         /**
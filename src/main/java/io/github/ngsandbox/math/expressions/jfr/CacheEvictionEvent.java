@@ -0,0 +1,14 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsed formula is removed from the cache and has to be parsed again
+ */
+@Name("io.github.ngsandbox.math.expressions.CacheEviction")
+@Label("Expression Cache Eviction")
+@Description("Parsed formula is removed from the cache and has to be parsed again")
+public class CacheEvictionEvent extends ExpressionEvent {
+}
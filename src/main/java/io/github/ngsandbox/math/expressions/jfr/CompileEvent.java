@@ -0,0 +1,14 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Building of the evaluation graph from the parsed formula
+ */
+@Name("io.github.ngsandbox.math.expressions.Compile")
+@Label("Expression Compile")
+@Description("Building of the evaluation graph from the parsed formula")
+public class CompileEvent extends ExpressionEvent {
+}
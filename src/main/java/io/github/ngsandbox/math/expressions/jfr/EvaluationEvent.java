@@ -0,0 +1,14 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evaluation of the formula, includes parsing and compilation when they are not cached
+ */
+@Name("io.github.ngsandbox.math.expressions.Evaluation")
+@Label("Expression Evaluation")
+@Description("Evaluation of the formula, includes parsing and compilation when they are not cached")
+public class EvaluationEvent extends ExpressionEvent {
+}
@@ -0,0 +1,24 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import io.github.ngsandbox.math.expressions.Expression;
+
+/**
+ * Started phase of the expression processing which is reported to Java Flight Recorder when completed
+ */
+public interface EventScope {
+
+    /**
+     * Scope of a phase which is not recorded
+     */
+    EventScope NONE = (expression, tokenCount, error) -> {
+    };
+
+    /**
+     * Finish the phase
+     *
+     * @param expression processed expression
+     * @param tokenCount count of tokens in the parsed expression, 0 if unknown
+     * @param error      processing error, <code>null</code> if it is finished successfully
+     */
+    void complete(Expression expression, int tokenCount, Throwable error);
+}
@@ -0,0 +1,62 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+import io.github.ngsandbox.math.expressions.Expression;
+
+/**
+ * Base Java Flight Recorder event of the expression processing.
+ * <br>
+ * Events are disabled by default and have to be enabled through JFR settings
+ * (see <code>jfr/math-expressions.jfc</code>), so they cost almost nothing when not recorded.
+ * Events are created through {@link ExpressionEvents} only.
+ */
+@Category("Math Expressions")
+@Enabled(false)
+@StackTrace(false)
+public abstract class ExpressionEvent extends Event implements EventScope {
+
+    public static final String OUTCOME_OK = "OK";
+
+    /**
+     * Max length of the formula text stored in the event
+     */
+    private static final int MAX_FORMULA_LENGTH = 1024;
+
+    // fields are not private, JFR ignores private fields of the super classes
+    @Label("Formula Id")
+    String formulaId;
+
+    @Label("Formula")
+    String formula;
+
+    @Label("Token Count")
+    int tokenCount;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Error Message")
+    String message;
+
+    /**
+     * Fill the event and commit it if it passes the recording settings (enabled, threshold)
+     */
+    @Override
+    public void complete(Expression expression, int tokenCount, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            String text = expression.getExpressionString();
+            this.formulaId = expression.getFormulaId();
+            this.formula = text != null && text.length() > MAX_FORMULA_LENGTH ? text.substring(0, MAX_FORMULA_LENGTH) : text;
+            this.tokenCount = tokenCount;
+            this.outcome = error == null ? OUTCOME_OK : error.getClass().getSimpleName();
+            this.message = error == null ? null : error.getMessage();
+            commit();
+        }
+    }
+}
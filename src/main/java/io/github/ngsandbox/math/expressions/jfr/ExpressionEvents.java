@@ -0,0 +1,83 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+
+import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Factory of the expression events and access to their JFR settings for programmatic recordings, e.g.:
+ * <code>new Recording(ExpressionEvents.configuration())</code>
+ * <br>
+ * Event classes are not touched until Flight Recorder is started in the JVM: loading them initializes
+ * JFR internals, which adds hundreds of milliseconds to the startup of short-lived processes.
+ */
+public final class ExpressionEvents {
+
+    public static final String SETTINGS_RESOURCE = "/jfr/math-expressions.jfc";
+
+    private ExpressionEvents() {
+    }
+
+    /**
+     * @return <code>true</code> if Flight Recorder is started in the JVM, so events may be recorded
+     */
+    public static boolean isRecorderActive() {
+        return FlightRecorder.isInitialized();
+    }
+
+    public static EventScope beginParse() {
+        return isRecorderActive() ? begin(new ParseEvent()) : EventScope.NONE;
+    }
+
+    public static EventScope beginCompile() {
+        return isRecorderActive() ? begin(new CompileEvent()) : EventScope.NONE;
+    }
+
+    public static EventScope beginEvaluation() {
+        return isRecorderActive() ? begin(new EvaluationEvent()) : EventScope.NONE;
+    }
+
+    /**
+     * Record eviction of the parsed expression from the cache
+     */
+    public static void cacheEviction(Expression expression, int tokenCount) {
+        if (isRecorderActive()) {
+            new CacheEvictionEvent().complete(expression, tokenCount, null);
+        }
+    }
+
+    private static EventScope begin(ExpressionEvent event) {
+        if (!event.isEnabled()) {
+            return EventScope.NONE;
+        }
+
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @return settings which enable all expression events
+     */
+    public static Configuration configuration() {
+        try (InputStream stream = ExpressionEvents.class.getResourceAsStream(SETTINGS_RESOURCE)) {
+            if (stream == null) {
+                throw new ExpressionException("JFR settings not found " + SETTINGS_RESOURCE);
+            }
+
+            try (Reader reader = new InputStreamReader(stream, StandardCharsets.UTF_8)) {
+                return Configuration.create(reader);
+            }
+        } catch (IOException | ParseException ex) {
+            throw new ExpressionException("Unable to read JFR settings " + SETTINGS_RESOURCE + ": " + ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package io.github.ngsandbox.math.expressions.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Parsing of the infix formula to the Reverse Polish notation
+ */
+@Name("io.github.ngsandbox.math.expressions.Parse")
+@Label("Expression Parse")
+@Description("Parsing of the infix formula to the Reverse Polish notation")
+public class ParseEvent extends ExpressionEvent {
+}
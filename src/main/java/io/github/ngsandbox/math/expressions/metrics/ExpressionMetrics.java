@@ -0,0 +1,66 @@
+package io.github.ngsandbox.math.expressions.metrics;
+
+/**
+ * Instrumentation SPI of the expressions parsing and evaluation.
+ * <br>
+ * Implementations have to be thread safe. Nothing is measured (not even the clock is read) when
+ * {@link #isEnabled()} returns <code>false</code>, so the default {@link #NOOP} costs nothing on the hot path.
+ */
+public interface ExpressionMetrics {
+
+    /**
+     * Metrics which record nothing, used by default
+     */
+    ExpressionMetrics NOOP = new NoopExpressionMetrics();
+
+    /**
+     * @return <code>false</code> if nothing has to be measured and recorded
+     */
+    boolean isEnabled();
+
+    /**
+     * Record parsing of the formula (infix to RPN)
+     *
+     * @param formulaId id of the formula, see {@link io.github.ngsandbox.math.expressions.Expression#getFormulaId()}
+     * @param nanos     duration of the parsing
+     */
+    void recordParse(String formulaId, long nanos);
+
+    /**
+     * Record evaluation of the formula (including failed ones)
+     *
+     * @param formulaId id of the formula
+     * @param nanos     duration of the evaluation
+     */
+    void recordEvaluation(String formulaId, long nanos);
+
+    /**
+     * Record failed evaluation of the formula
+     *
+     * @param formulaId id of the formula
+     * @param errorType type of the error, e.g. the simple name of the exception class
+     */
+    void recordError(String formulaId, String errorType);
+
+    /**
+     * Record the formula found in the cache of parsed formulas, see
+     * {@link io.github.ngsandbox.math.expressions.service.ExpressionCache}
+     *
+     * @param formulaId id of the formula, the formula itself
+     */
+    void recordCacheHit(String formulaId);
+
+    /**
+     * Record the formula which has to be parsed because it is not found in the cache of parsed formulas
+     *
+     * @param formulaId id of the formula, the formula itself
+     */
+    void recordCacheMiss(String formulaId);
+
+    /**
+     * Record the parsed formula dropped from the cache of parsed formulas because of its capacity
+     *
+     * @param formulaId id of the formula, the formula itself
+     */
+    void recordCacheEviction(String formulaId);
+}
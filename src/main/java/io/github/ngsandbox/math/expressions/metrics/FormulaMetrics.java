@@ -0,0 +1,56 @@
+package io.github.ngsandbox.math.expressions.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Metrics of a single formula collected by {@link InMemoryExpressionMetrics}
+ */
+@Getter
+public final class FormulaMetrics {
+
+    private final String formulaId;
+    private final LatencyHistogram parsing = new LatencyHistogram();
+    private final LatencyHistogram evaluations = new LatencyHistogram();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LongAdder cacheEvictions = new LongAdder();
+    private final ConcurrentMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    FormulaMetrics(String formulaId) {
+        this.formulaId = formulaId;
+    }
+
+    void recordError(String errorType) {
+        errors.computeIfAbsent(errorType, t -> new LongAdder()).increment();
+    }
+
+    /**
+     * @return count of errors by type
+     */
+    public Map<String, Long> getErrorCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        errors.forEach((type, count) -> result.put(type, count.sum()));
+        return result;
+    }
+
+    /**
+     * @return total count of failed evaluations
+     */
+    public long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    @Override
+    public String toString() {
+        return "Formula{" + formulaId + "} evaluation: " + evaluations
+                + ", parsing: " + parsing
+                + ", cache hits=" + cacheHits.sum() + " misses=" + cacheMisses.sum() + " evictions=" + cacheEvictions.sum()
+                + ", errors=" + getErrorCounts();
+    }
+}
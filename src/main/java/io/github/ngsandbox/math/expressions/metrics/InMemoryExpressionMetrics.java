@@ -0,0 +1,120 @@
+package io.github.ngsandbox.math.expressions.metrics;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Thread safe metrics which keep latency histograms and counters for every formula in memory.
+ * The count of formulas is limited: the id of a formula defaults to its text, so generated formulas would grow
+ * the memory without a limit. Formulas recorded after the limit is reached are recorded as {@link #OTHER_FORMULAS},
+ * set explicit ids ({@link io.github.ngsandbox.math.expressions.Expression#withFormulaId}) to group them.
+ */
+public class InMemoryExpressionMetrics implements ExpressionMetrics {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Id of the metrics of the formulas recorded after the capacity is reached
+     */
+    public static final String OTHER_FORMULAS = "<other>";
+
+    private final int capacity;
+    private final ConcurrentMap<String, FormulaMetrics> formulas = new ConcurrentHashMap<>();
+
+    public InMemoryExpressionMetrics() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity max count of the formulas with own metrics, the other formulas share one more
+     */
+    public InMemoryExpressionMetrics(int capacity) {
+        if (capacity <= 0) {
+            throw new ExpressionException("Capacity of the metrics has to be positive, but got " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public void recordParse(String formulaId, long nanos) {
+        record(formulaId).getParsing().record(nanos);
+    }
+
+    @Override
+    public void recordEvaluation(String formulaId, long nanos) {
+        record(formulaId).getEvaluations().record(nanos);
+    }
+
+    @Override
+    public void recordError(String formulaId, String errorType) {
+        record(formulaId).recordError(errorType);
+    }
+
+    @Override
+    public void recordCacheHit(String formulaId) {
+        record(formulaId).getCacheHits().increment();
+    }
+
+    @Override
+    public void recordCacheMiss(String formulaId) {
+        record(formulaId).getCacheMisses().increment();
+    }
+
+    @Override
+    public void recordCacheEviction(String formulaId) {
+        record(formulaId).getCacheEvictions().increment();
+    }
+
+    /**
+     * @param formulaId id of the formula
+     * @return metrics of the formula, empty ones if nothing is recorded yet
+     */
+    public FormulaMetrics get(@NonNull String formulaId) {
+        FormulaMetrics metrics = formulas.get(formulaId);
+        return metrics == null ? new FormulaMetrics(formulaId) : metrics;
+    }
+
+    private FormulaMetrics record(String formulaId) {
+        FormulaMetrics metrics = formulas.get(formulaId);
+        if (metrics == null) {
+            // the limit can be exceeded by the concurrently recorded new formulas only
+            metrics = formulas.computeIfAbsent(formulas.size() < capacity ? formulaId : OTHER_FORMULAS, FormulaMetrics::new);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return metrics of all recorded formulas
+     */
+    public Collection<FormulaMetrics> getFormulas() {
+        return Collections.unmodifiableCollection(formulas.values());
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        formulas.clear();
+    }
+
+    @Override
+    public String toString() {
+        return formulas.values().stream()
+                .sorted(Comparator.comparing(FormulaMetrics::getFormulaId))
+                .map(FormulaMetrics::toString)
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.ngsandbox.math.expressions.metrics;
+
+/**
+ * Disabled metrics, see {@link ExpressionMetrics#NOOP}
+ */
+final class NoopExpressionMetrics implements ExpressionMetrics {
+
+    @Override
+    public boolean isEnabled() {
+        return false;
+    }
+
+    @Override
+    public void recordParse(String formulaId, long nanos) {
+        // nothing to record
+    }
+
+    @Override
+    public void recordEvaluation(String formulaId, long nanos) {
+        // nothing to record
+    }
+
+    @Override
+    public void recordError(String formulaId, String errorType) {
+        // nothing to record
+    }
+
+    @Override
+    public void recordCacheHit(String formulaId) {
+        // nothing to record
+    }
+
+    @Override
+    public void recordCacheMiss(String formulaId) {
+        // nothing to record
+    }
+
+    @Override
+    public void recordCacheEviction(String formulaId) {
+        // nothing to record
+    }
+
+    @Override
+    public String toString() {
+        return "NOOP";
+    }
+}
@@ -5,12 +5,12 @@ import java.util.function.BinaryOperator;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
-import io.github.ngsandbox.math.expressions.ExpressionException;
 import io.github.ngsandbox.math.expressions.ExpressionUtils;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
-import static java.lang.String.format;
-
 /**
  * Abstract definition of a supported operator. An operator is defined by its name (pattern),
  * priority and if it is left- or right associative.
@@ -20,6 +20,32 @@ public final class ExpressionOperator extends AbstractOperator {
 
     private final BinaryOperator<WrappedValue> internalEval;
 
+    /**
+     * Static type of the result, see {@link #withTypes}
+     */
+    private final StaticType resultType;
+
+    /**
+     * Operators evaluating the operands which are proven to be numbers (strings), null if there are no such kernels
+     */
+    private final ExpressionOperator numbersOperator;
+    private final ExpressionOperator stringsOperator;
+
+    /**
+     * The operator is specialized, the kernel is called directly without the checks and tracing
+     */
+    private final boolean specialized;
+
+    /**
+     * The kernels never return errors, see {@link #total()}
+     */
+    private final boolean total;
+
+    /**
+     * Junction of the boolean operator, see {@link #withJunction}
+     */
+    private final Junction junction;
+
     /**
      * Creates a new operator.
      *
@@ -35,8 +61,30 @@ public final class ExpressionOperator extends AbstractOperator {
                               boolean booleanOperator,
                               boolean assertArgs,
                               @NonNull BinaryOperator<WrappedValue> internalEval) {
+        this(oper, priority, leftAssoc, booleanOperator, assertArgs, internalEval, StaticType.ANY, null, null, false,
+                false, null);
+    }
+
+    private ExpressionOperator(String oper,
+                               int priority,
+                               boolean leftAssoc,
+                               boolean booleanOperator,
+                               boolean assertArgs,
+                               @NonNull BinaryOperator<WrappedValue> internalEval,
+                               @NonNull StaticType resultType,
+                               BinaryOperator<WrappedValue> numbers,
+                               BinaryOperator<WrappedValue> strings,
+                               boolean specialized,
+                               boolean total,
+                               Junction junction) {
         super(oper, priority, leftAssoc, booleanOperator, assertArgs);
         this.internalEval = internalEval;
+        this.resultType = resultType;
+        this.specialized = specialized;
+        this.total = total;
+        this.junction = junction;
+        this.numbersOperator = numbers == null ? null : kernel(numbers);
+        this.stringsOperator = strings == null ? null : kernel(strings);
     }
 
     /**
@@ -86,19 +134,100 @@ public final class ExpressionOperator extends AbstractOperator {
         this(String.valueOf(oper), priority, leftAssoc, false, true, internalEval);
     }
 
+    /**
+     * Copy of the operator with the static type of its result and the kernels for the operands of known types.
+     * The kernels are called without the checks of NULL operands, they get evaluated values which are not errors.
+     *
+     * @param resultType type of the result, see {@link Operator#getResultType}
+     * @param numbers    kernel of two numbers, null if the operator has no such kernel
+     * @param strings    kernel of two strings, null if the operator has no such kernel
+     * @return the new operator
+     */
+    public ExpressionOperator withTypes(@NonNull StaticType resultType,
+                                        BinaryOperator<WrappedValue> numbers,
+                                        BinaryOperator<WrappedValue> strings) {
+        return new ExpressionOperator(getOper(), getPriority(), isLeftAssoc(), isBooleanOperator(), isAssertArgs(),
+                internalEval, resultType, numbers, strings, false, total, junction);
+    }
+
+    /**
+     * Copy of the operator whose kernels never return errors (e.g. comparisons), so the operator can not fail
+     * for the operands of its kernels, see {@link Operator#canFail}
+     *
+     * @return the new operator
+     */
+    public ExpressionOperator total() {
+        return new ExpressionOperator(getOper(), getPriority(), isLeftAssoc(), isBooleanOperator(), isAssertArgs(),
+                internalEval, resultType, kernelOf(numbersOperator), kernelOf(stringsOperator), false, true, junction);
+    }
+
+    /**
+     * Copy of the boolean operator which evaluates its operands as the junction, see {@link Operator#getJunction}
+     *
+     * @param junction the junction
+     * @return the new operator
+     */
+    public ExpressionOperator withJunction(@NonNull Junction junction) {
+        return new ExpressionOperator(getOper(), getPriority(), isLeftAssoc(), isBooleanOperator(), isAssertArgs(),
+                internalEval, resultType, kernelOf(numbersOperator), kernelOf(stringsOperator), false, total, junction);
+    }
+
+    private ExpressionOperator kernel(BinaryOperator<WrappedValue> eval) {
+        return new ExpressionOperator(getOper(), getPriority(), isLeftAssoc(), isBooleanOperator(), false,
+                eval, resultType, null, null, true, total, null);
+    }
+
+    private static BinaryOperator<WrappedValue> kernelOf(ExpressionOperator operator) {
+        return operator == null ? null : operator.internalEval;
+    }
+
+    @Override
+    public StaticType getResultType(StaticType left, StaticType right) {
+        return resultType;
+    }
+
+    @Override
+    public Operator specialize(StaticType left, StaticType right) {
+        if (numbersOperator != null && left.isNumber() && right.isNumber()) {
+            return numbersOperator;
+        }
+        if (stringsOperator != null && left.isString() && right.isString()) {
+            return stringsOperator;
+        }
+        return this;
+    }
+
+    @Override
+    public boolean canFail(StaticType left, StaticType right) {
+        return !total || specialize(left, right) == this;
+    }
+
+    @Override
+    public Junction getJunction() {
+        return junction;
+    }
+
     @Override
     public WrappedValue eval(WrappedValue v1, WrappedValue v2) {
-        log.trace("Evaluate {} for values: `{}`, `{}`", getOper(), v1, v2);
+        if (specialized) {
+            return internalEval.apply(v1, v2);
+        }
+        // the arguments are not allocated on the hot path if the tracing is disabled
+        if (log.isTraceEnabled()) {
+            log.trace("Evaluate {} for values: `{}`, `{}`", getOper(), v1, v2);
+        }
         if (isAssertArgs()) {
             if (ExpressionUtils.isNull(v1) || ExpressionUtils.isNull(v1.eval())) {
-                throw new ExpressionException(format("First operand of `%s` must not be null", getOper()));
+                return WrappedError.of(ErrorCode.FIRST_OPERAND_NULL, getOper(), getOper());
             }
             if (ExpressionUtils.isNull(v2) || ExpressionUtils.isNull(v2.eval())) {
-                throw new ExpressionException(format("Second operand of `%s` must not be null", getOper()));
+                return WrappedError.of(ErrorCode.SECOND_OPERAND_NULL, getOper(), getOper());
             }
         }
         WrappedValue result = internalEval.apply(v1, v2);
-        log.trace("Evaluation result for operator {} with values: `{}`, `{}`: '{}'", getOper(), v1, v2, result);
+        if (log.isTraceEnabled()) {
+            log.trace("Evaluation result for operator {} with values: `{}`, `{}`: '{}'", getOper(), v1, v2, result);
+        }
         return result;
     }
 }
@@ -0,0 +1,56 @@
+package io.github.ngsandbox.math.expressions.operators;
+
+import java.math.BigDecimal;
+
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ZERO;
+
+/**
+ * Boolean junction of the default operators (<code>&amp;&amp;</code>, <code>AND</code>, <code>||</code>,
+ * <code>OR</code>). The chain of the operands which are numbers (not NULL and not errors) is decided by any decisive
+ * operand, so such operands can be evaluated in any order and the rest of them can be skipped.
+ */
+public enum Junction {
+
+    /**
+     * Zero decides zero, otherwise the result is one
+     */
+    AND(BigDecimal.ZERO, WRAPPED_ZERO, WRAPPED_ONE),
+
+    /**
+     * One decides one, otherwise the result is zero
+     */
+    OR(BigDecimal.ONE, WRAPPED_ONE, WRAPPED_ZERO);
+
+    private final BigDecimal decisive;
+
+    /**
+     * Result of the chain with a decisive operand
+     */
+    @Getter
+    private final WrappedValue decided;
+
+    /**
+     * Result of the chain without decisive operands
+     */
+    @Getter
+    private final WrappedValue undecided;
+
+    Junction(BigDecimal decisive, WrappedValue decided, WrappedValue undecided) {
+        this.decisive = decisive;
+        this.decided = decided;
+        this.undecided = undecided;
+    }
+
+    /**
+     * @param value decimal value of the operand (without trailing zeros)
+     * @return <code>true</code> if the operand decides the result of the chain
+     */
+    public boolean isDecisive(BigDecimal value) {
+        return decisive.equals(value);
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.ngsandbox.math.expressions.operators;
 
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
 /**
@@ -42,6 +43,53 @@ public interface Operator {
      */
     boolean isAssertArgs();
 
+    /**
+     * Gets the static type of the result for the static types of the operands.
+     *
+     * @param left  type of the first operand.
+     * @param right type of the second operand, {@link StaticType#NULL} for unary operators.
+     * @return the type of the result, {@link StaticType#ANY} if it is not known.
+     */
+    default StaticType getResultType(StaticType left, StaticType right) {
+        return StaticType.ANY;
+    }
+
+    /**
+     * Gets the operator specialized for the static types of the operands, e.g. the one which compares
+     * proven numbers without the checks of NULL and non numeric operands. The specialized operator
+     * must return the same results as this one for the operands of these types.
+     *
+     * @param left  type of the first operand.
+     * @param right type of the second operand, {@link StaticType#NULL} for unary operators.
+     * @return the specialized operator, this operator if there is no specialization.
+     */
+    default Operator specialize(StaticType left, StaticType right) {
+        return this;
+    }
+
+    /**
+     * Gets whether the operator can return an error (e.g. for NULL operands or division by zero)
+     * for the evaluated operands of the static types which are not errors.
+     *
+     * @param left  type of the first operand.
+     * @param right type of the second operand, {@link StaticType#NULL} for unary operators.
+     * @return <code>false</code> if the result is never an error, <code>true</code> if it is not known.
+     */
+    default boolean canFail(StaticType left, StaticType right) {
+        return true;
+    }
+
+    /**
+     * Gets the junction of the boolean operator, the chains of the operators of the same junction
+     * (e.g. <code>a &amp;&amp; b &amp;&amp; c</code>) are evaluated in the order of the runtime statistics
+     * of their operands.
+     *
+     * @return the junction, null if the operator is not a junction.
+     */
+    default Junction getJunction() {
+        return null;
+    }
+
     /**
      * Implementation for this operator.
      *
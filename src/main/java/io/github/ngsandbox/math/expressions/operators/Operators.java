@@ -3,17 +3,24 @@ package io.github.ngsandbox.math.expressions.operators;
 import java.math.BigDecimal;
 import java.math.MathContext;
 import java.math.RoundingMode;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
 import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
-import static io.github.ngsandbox.math.expressions.ExpressionConstants.FIRST_ARG_NULL_ERROR;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.MINUS_SIGN;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_ADDITIVE;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_AND;
@@ -24,22 +31,35 @@ import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_POWER;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.OPERATOR_PRIORITY_UNARY;
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.PLUS_SIGN;
-import static io.github.ngsandbox.math.expressions.ExpressionConstants.SECOND_ARG_NULL_ERROR;
 import static io.github.ngsandbox.math.expressions.operators.UnaryOperator.UNARY_OPERATOR_SUFFIX;
+import static io.github.ngsandbox.math.expressions.wrappers.StaticType.NUMBER;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_MINUS_ONE;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ZERO;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.wrapBigDecimal;
 import static java.math.BigDecimal.ONE;
-import static java.math.BigDecimal.ZERO;
 
 @Slf4j
 public final class Operators {
 
+    private static final ConcurrentMap<MathContext, Map<String, Operator>> DEFAULT_OPERATORS = new ConcurrentHashMap<>();
+
     public static Map<String, Operator> buildOperators(@NonNull ExpressionSettings settings) {
         return new OperatorsBuilder(settings).build();
     }
 
+    /**
+     * Read only case insensitive registry of the operators shared by all expressions with the same math context,
+     * it is built on the first request.
+     */
+    public static Map<String, Operator> defaultOperators(@NonNull ExpressionSettings settings) {
+        return DEFAULT_OPERATORS.computeIfAbsent(settings.buildMathContext(), mc -> {
+            Map<String, Operator> operators = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            operators.putAll(buildOperators(settings));
+            return Collections.unmodifiableMap(operators);
+        });
+    }
+
     public static class OperatorsBuilder {
 
         /**
@@ -54,32 +74,76 @@ public final class Operators {
         }
 
         private Map<String, Operator> build() {
-            addOperator(new ExpressionOperator(PLUS_SIGN, OPERATOR_PRIORITY_ADDITIVE, true, this::plusOperator));
-            addOperator(new ExpressionOperator(MINUS_SIGN, OPERATOR_PRIORITY_ADDITIVE, true, this::minusOperator));
-            addOperator(new ExpressionOperator("*", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::multiplyOperator));
-            addOperator(new ExpressionOperator("/", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::divideOperator));
-            addOperator(new ExpressionOperator("%", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::remaiderOperator));
-            addOperator(new ExpressionOperator("^", OPERATOR_PRIORITY_POWER, false, this::powerOperator));
-            addOperator(new ExpressionOperator("&&", OPERATOR_PRIORITY_AND, false, true, this::priorityAnd));
-            addOperator(new ExpressionOperator("AND", OPERATOR_PRIORITY_AND, false, true, this::priorityAnd));
-            addOperator(new ExpressionOperator("||", OPERATOR_PRIORITY_OR, false, true, this::priorityOr));
-            addOperator(new ExpressionOperator("OR", OPERATOR_PRIORITY_OR, false, true, this::priorityOr));
+            addOperator(new ExpressionOperator(PLUS_SIGN, OPERATOR_PRIORITY_ADDITIVE, true, this::plusOperator)
+                    .withTypes(NUMBER, this::plusNumbers, null).total());
+            addOperator(new ExpressionOperator(MINUS_SIGN, OPERATOR_PRIORITY_ADDITIVE, true, this::minusOperator)
+                    .withTypes(NUMBER, this::minusNumbers, null).total());
+            addOperator(new ExpressionOperator("*", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::multiplyOperator)
+                    .withTypes(NUMBER, this::multiplyNumbers, null).total());
+            addOperator(new ExpressionOperator("/", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::divideOperator)
+                    .withTypes(NUMBER, this::divideNumbers, null));
+            addOperator(new ExpressionOperator("%", OPERATOR_PRIORITY_MULTIPLICATIVE, true, this::remaiderOperator)
+                    .withTypes(NUMBER, this::remainderNumbers, null));
+            addOperator(new ExpressionOperator("^", OPERATOR_PRIORITY_POWER, false, this::powerOperator)
+                    .withTypes(NUMBER, this::powerNumbers, null));
+            addOperator(new ExpressionOperator("&&", OPERATOR_PRIORITY_AND, false, true, this::priorityAnd)
+                    .withTypes(NUMBER, this::priorityAnd, null).total().withJunction(Junction.AND));
+            addOperator(new ExpressionOperator("AND", OPERATOR_PRIORITY_AND, false, true, this::priorityAnd)
+                    .withTypes(NUMBER, this::priorityAnd, null).total().withJunction(Junction.AND));
+            addOperator(new ExpressionOperator("||", OPERATOR_PRIORITY_OR, false, true, this::priorityOr)
+                    .withTypes(NUMBER, this::priorityOr, null).total().withJunction(Junction.OR));
+            addOperator(new ExpressionOperator("OR", OPERATOR_PRIORITY_OR, false, true, this::priorityOr)
+                    .withTypes(NUMBER, this::priorityOr, null).total().withJunction(Junction.OR));
             addOperator(new ExpressionOperator(">", OPERATOR_PRIORITY_COMPARISON, false, true, true,
-                    (v1, v2) -> v1.compareTo(v2) > 0 ? WRAPPED_ONE : WRAPPED_ZERO));
+                    (v1, v2) -> v1.compareTo(v2) > 0 ? WRAPPED_ONE : WRAPPED_ZERO)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) > 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) > 0)).total());
             addOperator(new ExpressionOperator(">=", OPERATOR_PRIORITY_COMPARISON, false, true, true,
-                    (v1, v2) -> v1.compareTo(v2) >= 0 ? WRAPPED_ONE : WRAPPED_ZERO));
+                    (v1, v2) -> v1.compareTo(v2) >= 0 ? WRAPPED_ONE : WRAPPED_ZERO)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) >= 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) >= 0)).total());
             addOperator(new ExpressionOperator("<", OPERATOR_PRIORITY_COMPARISON, false, true, true,
-                    (v1, v2) -> v1.compareTo(v2) < 0 ? WRAPPED_ONE : WRAPPED_ZERO));
+                    (v1, v2) -> v1.compareTo(v2) < 0 ? WRAPPED_ONE : WRAPPED_ZERO)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) < 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) < 0)).total());
             addOperator(new ExpressionOperator("<=", OPERATOR_PRIORITY_COMPARISON, false, true, true,
-                    (v1, v2) -> v1.compareTo(v2) <= 0 ? WRAPPED_ONE : WRAPPED_ZERO));
-            addOperator(new ExpressionOperator("==", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityEquality));
-            addOperator(new ExpressionOperator("!=", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityNotEquality));
-            addOperator(new ExpressionOperator("<>", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityNotEquality));
-            addOperator(new UnaryOperator(PLUS_SIGN, OPERATOR_PRIORITY_UNARY, v -> multiplyOperator(v, WRAPPED_ONE)));
-            addOperator(new UnaryOperator(MINUS_SIGN, OPERATOR_PRIORITY_UNARY, v -> multiplyOperator(v, WRAPPED_MINUS_ONE)));
+                    (v1, v2) -> v1.compareTo(v2) <= 0 ? WRAPPED_ONE : WRAPPED_ZERO)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) <= 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) <= 0)).total());
+            addOperator(new ExpressionOperator("==", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityEquality)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) == 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) == 0)).total());
+            addOperator(new ExpressionOperator("!=", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityNotEquality)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) != 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) != 0)).total());
+            addOperator(new ExpressionOperator("<>", OPERATOR_PRIORITY_EQUALITY, false, true, this::priorityNotEquality)
+                    .withTypes(NUMBER, (v1, v2) -> bool(compareNumbers(v1, v2) != 0),
+                            (v1, v2) -> bool(compareStrings(v1, v2) != 0)).total());
+            addOperator(new UnaryOperator(PLUS_SIGN, OPERATOR_PRIORITY_UNARY, v -> multiplyOperator(v, WRAPPED_ONE))
+                    .withTypes(NUMBER, v -> multiplyNumbers(v, WRAPPED_ONE)).total());
+            addOperator(new UnaryOperator(MINUS_SIGN, OPERATOR_PRIORITY_UNARY, v -> multiplyOperator(v, WRAPPED_MINUS_ONE))
+                    .withTypes(NUMBER, v -> multiplyNumbers(v, WRAPPED_MINUS_ONE)).total());
             return operators;
         }
 
+        /**
+         * The order of {@link WrappedBigDecimal#COMPARATOR} without boxing and stripping the zeros of the decimals
+         */
+        private static int compareNumbers(WrappedValue v1, WrappedValue v2) {
+            return Double.compare(v1.doubleValue(), v2.doubleValue());
+        }
+
+        /**
+         * The order of {@link WrappedString#COMPARATOR}
+         */
+        private static int compareStrings(WrappedValue v1, WrappedValue v2) {
+            return v1.getExpression().compareTo(v2.getExpression());
+        }
+
+        private static WrappedValue bool(boolean value) {
+            return value ? WRAPPED_ONE : WRAPPED_ZERO;
+        }
+
         private WrappedValue priorityNotEquality(WrappedValue v1, WrappedValue v2) {
             return Objects.equals(priorityEquality(v1, v2), WRAPPED_ONE) ? WRAPPED_ZERO : WRAPPED_ONE;
         }
@@ -95,13 +159,19 @@ public final class Operators {
         }
 
         private WrappedValue priorityOr(WrappedValue v1, WrappedValue v2) {
-            BigDecimal var1 = unwrap(v1, true);
-            if (ONE.equals(var1)) {
+            BigDecimal var1 = v1.decimalValue();
+            if (var1 == null) {
+                return notNumeric(v1, true);
+            }
+            if (Junction.OR.isDecisive(var1)) {
                 return WRAPPED_ONE;
             }
 
-            BigDecimal var2 = unwrap(v2, true);
-            if (ONE.equals(var2)) {
+            BigDecimal var2 = v2.decimalValue();
+            if (var2 == null) {
+                return notNumeric(v2, true);
+            }
+            if (Junction.OR.isDecisive(var2)) {
                 return WRAPPED_ONE;
             }
 
@@ -109,13 +179,19 @@ public final class Operators {
         }
 
         private WrappedValue priorityAnd(WrappedValue v1, WrappedValue v2) {
-            BigDecimal var1 = unwrap(v1, true);
-            if (ZERO.equals(var1)) {
+            BigDecimal var1 = v1.decimalValue();
+            if (var1 == null) {
+                return notNumeric(v1, true);
+            }
+            if (Junction.AND.isDecisive(var1)) {
                 return WRAPPED_ZERO;
             }
 
-            BigDecimal var2 = unwrap(v2, true);
-            if (ZERO.equals(var2)) {
+            BigDecimal var2 = v2.decimalValue();
+            if (var2 == null) {
+                return notNumeric(v2, true);
+            }
+            if (Junction.AND.isDecisive(var2)) {
                 return WRAPPED_ZERO;
             }
 
@@ -123,8 +199,16 @@ public final class Operators {
         }
 
         private WrappedValue powerOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal var1 = unwrap(v1.eval(), true);
-            BigDecimal var2 = unwrap(v2.eval(), false);
+            WrappedValue error = checkNumbers(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
+            }
+            return powerNumbers(v1.eval(), v2.eval());
+        }
+
+        private WrappedValue powerNumbers(WrappedValue v1, WrappedValue v2) {
+            BigDecimal var1 = v1.decimalValue();
+            BigDecimal var2 = v2.decimalValue();
             int signOf2 = var2.signum();
             double dn1 = var1.doubleValue();
             var2 = var2.multiply(BigDecimal.valueOf(signOf2)); // n2 is now positive
@@ -154,45 +238,98 @@ public final class Operators {
         }
 
         private WrappedValue plusOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal value = unwrap(v1.eval(), true)
-                    .add(unwrap(v2.eval(), false));
-            return wrapBigDecimal(value);
+            WrappedValue error = checkNumbers(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
+            }
+            return wrapBigDecimal(v1.eval().decimalValue().add(v2.eval().decimalValue()));
+        }
+
+        private WrappedValue plusNumbers(WrappedValue v1, WrappedValue v2) {
+            return wrapBigDecimal(v1.decimalValue().add(v2.decimalValue()));
         }
 
         private WrappedValue minusOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal value = unwrap(v1.eval(), true)
-                    .subtract(unwrap(v2.eval(), false));
-            return wrapBigDecimal(value);
+            WrappedValue error = checkNumbers(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
+            }
+            return wrapBigDecimal(v1.eval().decimalValue().subtract(v2.eval().decimalValue()));
+        }
+
+        private WrappedValue minusNumbers(WrappedValue v1, WrappedValue v2) {
+            return wrapBigDecimal(v1.decimalValue().subtract(v2.decimalValue()));
         }
 
         private WrappedValue multiplyOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal value = unwrap(v1.eval(), true)
-                    .multiply(unwrap(v2.eval(), false));
-            return wrapBigDecimal(value);
+            WrappedValue error = checkNumbers(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
+            }
+            return wrapBigDecimal(v1.eval().decimalValue().multiply(v2.eval().decimalValue()));
+        }
+
+        private WrappedValue multiplyNumbers(WrappedValue v1, WrappedValue v2) {
+            return wrapBigDecimal(v1.decimalValue().multiply(v2.decimalValue()));
         }
 
         private WrappedValue divideOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal var1 = unwrap(v1.eval(), true);
-            BigDecimal var2 = unwrap(v2.eval(), false);
-            if (BigDecimal.ZERO.equals(var2)) {
-                throw new io.github.ngsandbox.math.expressions.ExpressionException("Division by zero from the second argument " + v2);
+            WrappedValue error = checkDivisor(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
             }
-            return wrapBigDecimal(var1.divide(var2, mc));
+            return wrapBigDecimal(v1.eval().decimalValue().divide(v2.eval().decimalValue(), mc));
+        }
+
+        private WrappedValue divideNumbers(WrappedValue v1, WrappedValue v2) {
+            BigDecimal divisor = v2.decimalValue();
+            return divisor.signum() == 0
+                    ? WrappedError.of(ErrorCode.DIVISION_BY_ZERO, null, v2)
+                    : wrapBigDecimal(v1.decimalValue().divide(divisor, mc));
         }
 
         private WrappedValue remaiderOperator(WrappedValue v1, WrappedValue v2) {
-            BigDecimal var1 = unwrap(v1.eval(), true);
-            BigDecimal var2 = unwrap(v2.eval(), false);
-            if (BigDecimal.ZERO.equals(var2)) {
-                throw new io.github.ngsandbox.math.expressions.ExpressionException("Division by zero from the second argument " + v2);
+            WrappedValue error = checkDivisor(v1.eval(), v2.eval());
+            if (error != null) {
+                return error;
             }
-            return wrapBigDecimal(var1.remainder(var2, mc));
+            return wrapBigDecimal(v1.eval().decimalValue().remainder(v2.eval().decimalValue(), mc));
+        }
+
+        private WrappedValue remainderNumbers(WrappedValue v1, WrappedValue v2) {
+            BigDecimal divisor = v2.decimalValue();
+            return divisor.signum() == 0
+                    ? WrappedError.of(ErrorCode.DIVISION_BY_ZERO, null, v2)
+                    : wrapBigDecimal(v1.decimalValue().remainder(divisor, mc));
         }
 
-        private BigDecimal unwrap(WrappedValue value, boolean first) {
-            return value.unwrap()
-                    .orElseThrow(() -> new io.github.ngsandbox.math.expressions.ExpressionException(
-                            (first ? FIRST_ARG_NULL_ERROR : SECOND_ARG_NULL_ERROR) + " `" + value + "`"));
+        /**
+         * @return error if one of the evaluated arguments is not a number, null otherwise
+         */
+        private WrappedValue checkNumbers(WrappedValue v1, WrappedValue v2) {
+            if (v1.decimalValue() == null) {
+                return notNumeric(v1, true);
+            }
+            if (v2.decimalValue() == null) {
+                return notNumeric(v2, false);
+            }
+            return null;
+        }
+
+        private WrappedValue checkDivisor(WrappedValue v1, WrappedValue v2) {
+            WrappedValue error = checkNumbers(v1, v2);
+            if (error == null && v2.decimalValue().signum() == 0) {
+                return WrappedError.of(ErrorCode.DIVISION_BY_ZERO, null, v2);
+            }
+            return error;
+        }
+
+        private WrappedValue notNumeric(WrappedValue value, boolean first) {
+            if (value instanceof WrappedError) {
+                return value;
+            }
+            return WrappedError.of(first ? ErrorCode.FIRST_ARGUMENT_NOT_NUMERIC : ErrorCode.SECOND_ARGUMENT_NOT_NUMERIC,
+                    null, value);
         }
     }
 }
@@ -5,6 +5,9 @@ import lombok.extern.slf4j.Slf4j;
 
 import io.github.ngsandbox.math.expressions.ExpressionException;
 import io.github.ngsandbox.math.expressions.ExpressionUtils;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
 import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
 
 import static java.lang.String.format;
@@ -20,6 +23,21 @@ public final class UnaryOperator extends AbstractOperator {
 
     private final java.util.function.UnaryOperator<WrappedValue> internalEval;
 
+    /**
+     * Static type of the result, see {@link #withTypes}
+     */
+    private final StaticType resultType;
+
+    /**
+     * Operator evaluating the operand which is proven to be a number, null if there is no such kernel
+     */
+    private final UnaryOperator numberOperator;
+
+    /**
+     * The kernel never returns errors, see {@link #total()}
+     */
+    private final boolean total;
+
     /**
      * Creates a new unary operator.
      *
@@ -29,19 +47,77 @@ public final class UnaryOperator extends AbstractOperator {
     public UnaryOperator(char oper,
                          int priority,
                          @NonNull java.util.function.UnaryOperator<WrappedValue> internalEval) {
-        super(String.valueOf(oper), priority, false, false, true);
+        this(String.valueOf(oper), priority, true, internalEval, StaticType.ANY, null, false);
+    }
+
+    private UnaryOperator(String oper,
+                          int priority,
+                          boolean assertArgs,
+                          @NonNull java.util.function.UnaryOperator<WrappedValue> internalEval,
+                          @NonNull StaticType resultType,
+                          java.util.function.UnaryOperator<WrappedValue> number,
+                          boolean total) {
+        super(oper, priority, false, false, assertArgs);
         this.internalEval = internalEval;
+        this.resultType = resultType;
+        this.total = total;
+        this.numberOperator = number == null
+                ? null
+                : new UnaryOperator(oper, priority, false, number, resultType, null, total);
+    }
+
+    /**
+     * Copy of the operator with the static type of its result and the kernel for the operand proven
+     * to be a number. The kernel is called without the checks of NULL operands.
+     *
+     * @param resultType type of the result, see {@link Operator#getResultType}
+     * @param number     kernel of a number, null if the operator has no such kernel
+     * @return the new operator
+     */
+    public UnaryOperator withTypes(@NonNull StaticType resultType,
+                                   java.util.function.UnaryOperator<WrappedValue> number) {
+        return new UnaryOperator(getOper(), getPriority(), isAssertArgs(), internalEval, resultType, number, total);
+    }
+
+    /**
+     * Copy of the operator whose kernel never returns errors, so the operator can not fail for numbers,
+     * see {@link Operator#canFail}
+     *
+     * @return the new operator
+     */
+    public UnaryOperator total() {
+        return new UnaryOperator(getOper(), getPriority(), isAssertArgs(), internalEval, resultType,
+                numberOperator == null ? null : numberOperator.internalEval, true);
+    }
+
+    @Override
+    public StaticType getResultType(StaticType left, StaticType right) {
+        return resultType;
+    }
+
+    @Override
+    public Operator specialize(StaticType left, StaticType right) {
+        return numberOperator != null && left.isNumber() ? numberOperator : this;
+    }
+
+    @Override
+    public boolean canFail(StaticType left, StaticType right) {
+        return !total || specialize(left, right) == this;
     }
 
     @Override
     public WrappedValue eval(WrappedValue v1, WrappedValue v2) {
+        if (!isAssertArgs()) {
+            // specialized operator, the kernel is called without the checks
+            return internalEval.apply(v1);
+        }
         log.trace("Unary evaluation {} for values: `{}`, `{}`", getOper(), v1, v2);
         if (!ExpressionUtils.isNull(v2)) {
             throw new ExpressionException(format("Second operand of `%s` must not be provided for unary operation", getOper()));
         }
 
         if (ExpressionUtils.isNull(v1) || ExpressionUtils.isNull(v1.eval())) {
-            throw new ExpressionException(format("First operand of `%s` must not be null", getOper()));
+            return WrappedError.of(ErrorCode.FIRST_OPERAND_NULL, getOper(), getOper());
         }
 
         WrappedValue result = internalEval.apply(v1);
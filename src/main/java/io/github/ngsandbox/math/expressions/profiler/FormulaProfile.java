@@ -0,0 +1,162 @@
+package io.github.ngsandbox.math.expressions.profiler;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.ExpressionUtils;
+import io.github.ngsandbox.math.expressions.tokens.Token;
+
+import static io.github.ngsandbox.math.expressions.operators.UnaryOperator.UNARY_OPERATOR_SUFFIX;
+
+/**
+ * Node timings of a single formula collected by {@link NodeProfiler}
+ */
+public final class FormulaProfile {
+
+    private static final String PARAMS_START = "(";
+
+    @Getter
+    private final String formulaId;
+
+    @Getter
+    private final String formula;
+
+    private final NodeStats[] nodes;
+
+    FormulaProfile(String formulaId, String formula, List<Token> rpn) {
+        this.formulaId = formulaId;
+        this.formula = formula;
+        this.nodes = buildNodes(rpn);
+    }
+
+    int getNodeCount() {
+        return nodes.length;
+    }
+
+    NodeStats getNode(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @return evaluated nodes, the most expensive by self time first
+     */
+    public List<NodeStats> getNodes() {
+        return Arrays.stream(nodes)
+                .filter(Objects::nonNull)
+                .filter(n -> n.getCalls().sum() > 0)
+                .sorted(Comparator.comparingLong((NodeStats n) -> n.getSelfNanos().sum()).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return the node with the biggest self time, <code>null</code> if nothing is recorded yet
+     */
+    public NodeStats getHotNode() {
+        List<NodeStats> result = getNodes();
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    /**
+     * @return self time of all nodes of the formula
+     */
+    public long getSelfNanos() {
+        return Arrays.stream(nodes)
+                .filter(Objects::nonNull)
+                .mapToLong(n -> n.getSelfNanos().sum())
+                .sum();
+    }
+
+    /**
+     * @return formula and its evaluated nodes with share of the self time, the most expensive first
+     */
+    public String report() {
+        long total = Math.max(1, getSelfNanos());
+        StringBuilder result = new StringBuilder("Formula{").append(formulaId).append("} self=")
+                .append(String.format(Locale.ROOT, "%.2fus", total / 1000d));
+        for (NodeStats node : getNodes()) {
+            long self = node.getSelfNanos().sum();
+            result.append(System.lineSeparator())
+                    .append(String.format(Locale.ROOT, "  %5.1f%% self=%.2fus calls=%d mean=%.2fus  %s",
+                            100d * self / total, self / 1000d, node.getCalls().sum(),
+                            node.getMeanSelfNanos() / 1000, node.getLabel()));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return report();
+    }
+
+    /**
+     * Render infix labels of the operator, function and variable nodes from the Reverse Polish notation
+     */
+    private static NodeStats[] buildNodes(List<Token> rpn) {
+        NodeStats[] result = new NodeStats[rpn.size()];
+        Deque<Part> stack = new ArrayDeque<>();
+        for (int i = 0; i < rpn.size(); i++) {
+            Token token = rpn.get(i);
+            String surface = token.getSurface();
+            switch (token.getType()) {
+            case UNARY_OPERATOR:
+                String sign = surface.endsWith(UNARY_OPERATOR_SUFFIX)
+                        ? surface.substring(0, surface.length() - UNARY_OPERATOR_SUFFIX.length())
+                        : surface;
+                stack.push(new Part(sign + pop(stack).nested(), false));
+                break;
+            case OPERATOR:
+                Part right = pop(stack);
+                Part left = pop(stack);
+                stack.push(new Part(left.nested() + " " + surface + " " + right.nested(), true));
+                break;
+            case FUNCTION:
+                String params = ExpressionUtils.popParams(stack, part -> part.text == PARAMS_START).stream()
+                        .map(part -> part.text)
+                        .collect(Collectors.joining(", "));
+                stack.push(new Part(surface + "(" + params + ")", false));
+                break;
+            case OPEN_PAREN:
+                stack.push(new Part(PARAMS_START, false));
+                continue;
+            case STRINGPARAM:
+                stack.push(new Part("\"" + surface + "\"", false));
+                continue;
+            case VARIABLE:
+                stack.push(new Part(surface, false));
+                break;
+            default:
+                stack.push(new Part(surface, false));
+                continue;
+            }
+            result[i] = new NodeStats(i, stack.peek().text);
+        }
+        return result;
+    }
+
+    private static Part pop(Deque<Part> stack) {
+        return stack.isEmpty() ? new Part("?", false) : stack.pop();
+    }
+
+    private static final class Part {
+        private final String text;
+        private final boolean compound;
+
+        private Part(String text, boolean compound) {
+            this.text = text;
+            this.compound = compound;
+        }
+
+        private String nested() {
+            return compound ? "(" + text + ")" : text;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.ngsandbox.math.expressions.profiler;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.tokens.Token;
+
+/**
+ * Opt-in sampling profiler which times every operator, function and nested expression variable
+ * of a sampled evaluation and aggregates self time and call count per node of each formula.
+ * <br>
+ * Not sampled evaluations are not affected, the sampled ones are slower because of the timing of every node.
+ * The count of profiled formulas is limited as the id of a formula defaults to its text: the formulas sampled
+ * after the limit is reached are not profiled.
+ */
+public final class NodeProfiler {
+
+    /**
+     * Profiler which never samples, used by default
+     */
+    public static final NodeProfiler DISABLED = new NodeProfiler(0);
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Fraction of evaluations to profile, from 0 (never) to 1 (every evaluation)
+     */
+    @Getter
+    private final double sampleRate;
+
+    private final int capacity;
+    private final ConcurrentMap<String, FormulaProfile> formulas = new ConcurrentHashMap<>();
+
+    public NodeProfiler(double sampleRate) {
+        this(sampleRate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param sampleRate fraction of evaluations to profile, from 0 (never) to 1 (every evaluation)
+     * @param capacity   max count of the profiled formulas
+     */
+    public NodeProfiler(double sampleRate, int capacity) {
+        if (!(sampleRate >= 0 && sampleRate <= 1)) {
+            throw new ExpressionException("Sample rate has to be between 0 and 1, got " + sampleRate);
+        }
+        if (capacity <= 0) {
+            throw new ExpressionException("Capacity of the profiler has to be positive, but got " + capacity);
+        }
+        this.sampleRate = sampleRate;
+        this.capacity = capacity;
+    }
+
+    public boolean isEnabled() {
+        return sampleRate > 0;
+    }
+
+    /**
+     * Decide whether the current evaluation of the formula is profiled
+     *
+     * @param formulaId id of the formula
+     * @param formula   the formula itself
+     * @param rpn       parsed formula, index of the token is the id of the node
+     * @return session to profile nodes of the evaluation, <code>null</code> if the evaluation is not sampled
+     */
+    public ProfilingSession sample(@NonNull String formulaId, String formula, List<Token> rpn) {
+        if (sampleRate <= 0 || sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return null;
+        }
+
+        FormulaProfile profile = formulas.get(formulaId);
+        if (profile == null || profile.getNodeCount() != rpn.size()) {
+            if (profile == null && formulas.size() >= capacity) {
+                // the limit can be exceeded by the concurrently sampled new formulas only
+                return null;
+            }
+            // concurrent samples of the formula share one profile, it is replaced only if the formula is changed
+            profile = formulas.compute(formulaId, (id, current) -> current != null && current.getNodeCount() == rpn.size()
+                    ? current : new FormulaProfile(id, formula, rpn));
+        }
+        return new ProfilingSession(profile);
+    }
+
+    /**
+     * @param formulaId id of the formula
+     * @return profile of the formula, <code>null</code> if it has not been sampled yet
+     */
+    public FormulaProfile get(String formulaId) {
+        return formulas.get(formulaId);
+    }
+
+    /**
+     * @return profiles of all sampled formulas
+     */
+    public Collection<FormulaProfile> getFormulas() {
+        return Collections.unmodifiableCollection(formulas.values());
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void reset() {
+        formulas.clear();
+    }
+
+    /**
+     * @return report of all sampled formulas, the most expensive ones first
+     */
+    public String report() {
+        return formulas.values().stream()
+                .sorted(Comparator.comparingLong(FormulaProfile::getSelfNanos).reversed())
+                .map(FormulaProfile::report)
+                .collect(Collectors.joining(System.lineSeparator()));
+    }
+
+    @Override
+    public String toString() {
+        return "NodeProfiler{sampleRate=" + sampleRate + ", formulas=" + formulas.size() + '}';
+    }
+}
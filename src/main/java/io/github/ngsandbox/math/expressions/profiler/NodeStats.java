@@ -0,0 +1,48 @@
+package io.github.ngsandbox.math.expressions.profiler;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+/**
+ * Aggregated timings of a single node (operator, function or nested expression variable) of a formula
+ */
+@Getter
+public final class NodeStats {
+
+    /**
+     * Index of the node token in the Reverse Polish notation of the formula
+     */
+    private final int index;
+
+    /**
+     * Infix representation of the subexpression calculated by the node
+     */
+    private final String label;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder selfNanos = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    NodeStats(int index, String label) {
+        this.index = index;
+        this.label = label;
+    }
+
+    void record(long total, long self) {
+        calls.increment();
+        totalNanos.add(total);
+        selfNanos.add(Math.max(0, self));
+    }
+
+    public double getMeanSelfNanos() {
+        long count = calls.sum();
+        return count == 0 ? 0 : (double) selfNanos.sum() / count;
+    }
+
+    @Override
+    public String toString() {
+        return "Node{" + index + ": " + label + "} calls=" + calls.sum()
+                + " self=" + selfNanos.sum() + "ns total=" + totalNanos.sum() + "ns";
+    }
+}
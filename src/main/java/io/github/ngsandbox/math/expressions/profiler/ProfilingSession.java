@@ -0,0 +1,53 @@
+package io.github.ngsandbox.math.expressions.profiler;
+
+import java.util.Arrays;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Profiling of a single sampled evaluation. Nodes of the evaluation graph are wrapped with timers,
+ * child time is tracked on a stack to calculate self time of every node.
+ * <br>
+ * Not thread safe, an evaluation is done by a single thread.
+ */
+public final class ProfilingSession {
+
+    private final FormulaProfile profile;
+    private long[] childNanos = new long[16];
+    private int depth;
+
+    ProfilingSession(FormulaProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Wrap the node of the evaluation graph with timer
+     *
+     * @param index index of the node token in the Reverse Polish notation
+     * @param node  node to profile
+     * @return profiled node or the node itself if it is not a profiled one (literal, parameters start, etc)
+     */
+    public WrappedValue profile(int index, WrappedValue node) {
+        NodeStats stats = index < profile.getNodeCount() ? profile.getNode(index) : null;
+        return stats == null ? node : new WrappedProfiledNode(this, stats, node);
+    }
+
+    void enter() {
+        if (depth == childNanos.length) {
+            childNanos = Arrays.copyOf(childNanos, depth * 2);
+        }
+        childNanos[depth++] = 0;
+    }
+
+    /**
+     * @param total time of the node including children
+     * @return time of the children of the node
+     */
+    long exit(long total) {
+        long children = childNanos[--depth];
+        if (depth > 0) {
+            childNanos[depth - 1] += total;
+        }
+        return children;
+    }
+}
@@ -0,0 +1,83 @@
+package io.github.ngsandbox.math.expressions.profiler;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import io.github.ngsandbox.math.expressions.wrappers.AbstractedWrapper;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Decorator which times the first evaluation of the wrapped node
+ */
+final class WrappedProfiledNode extends AbstractedWrapper {
+    private final ProfilingSession session;
+    private final NodeStats stats;
+    private final WrappedValue node;
+    private WrappedValue result;
+    private long start = -1;
+
+    WrappedProfiledNode(ProfilingSession session, NodeStats stats, WrappedValue node) {
+        this.session = session;
+        this.stats = stats;
+        this.node = node;
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return false;
+    }
+
+    @Override
+    public WrappedValue eval() {
+        return getResult();
+    }
+
+    /**
+     * The timer is started before the node dependencies are evaluated, so they are timed as children of the node
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        if (result != null || start >= 0) {
+            return null;
+        }
+        start = System.nanoTime();
+        session.enter();
+        return node.isPrimitive() ? null : node;
+    }
+
+    @Override
+    public Optional<BigDecimal> unwrap() {
+        return getResult().unwrap();
+    }
+
+    @Override
+    public String getExpression() {
+        return node.getExpression();
+    }
+
+    @Override
+    public WrappedValue copy() {
+        return node.copy();
+    }
+
+    @Override
+    public String toString() {
+        return "Profiled{" + node + '}';
+    }
+
+    private WrappedValue getResult() {
+        if (result == null) {
+            if (start < 0) {
+                start = System.nanoTime();
+                session.enter();
+            }
+            try {
+                result = node.eval();
+            } finally {
+                long total = System.nanoTime() - start;
+                stats.record(total, total - session.exit(total));
+            }
+        }
+        return result;
+    }
+}
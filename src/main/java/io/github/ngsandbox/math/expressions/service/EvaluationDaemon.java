@@ -0,0 +1,272 @@
+package io.github.ngsandbox.math.expressions.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+/**
+ * Resident evaluation process for the callers which are not on JVM: requests are read line by line
+ * (the {@link FormulaRecord} text format: formula and tab separated <code>name=value</code> variables)
+ * from the standard input or connections of a Unix domain socket, and the result of every request is written back
+ * as a single line in the order of the requests (see {@link RequestLines}).
+ * <br>
+ * Requests are pipelined: they are evaluated in parallel by the worker threads while next ones are read,
+ * formulas are parsed once and shared through the {@link ExpressionCache}, and the output is flushed
+ * only when there are no more evaluated requests to write.
+ */
+@Slf4j
+public class EvaluationDaemon implements Closeable {
+
+    public static final int DEFAULT_PIPELINE_DEPTH = 1024;
+
+    private static final CompletableFuture<String> END_OF_INPUT = CompletableFuture.completedFuture(null);
+
+    @Getter
+    private final ExpressionCache cache;
+    private final int pipelineDepth;
+    private final ExecutorService workers;
+    private final ExecutorService connections;
+    private volatile ServerSocketChannel server;
+    private volatile Path socketPath;
+
+    /**
+     * @param settings      settings of the expressions, defaults if not set
+     * @param cacheCapacity count of parsed formulas to keep, {@link ExpressionCache#DEFAULT_CAPACITY} by default
+     * @param threads       count of worker threads, count of processors by default
+     * @param pipelineDepth count of requests read ahead of the written results, {@link #DEFAULT_PIPELINE_DEPTH} by default
+     */
+    @Builder
+    private EvaluationDaemon(ExpressionSettings settings, Integer cacheCapacity, Integer threads, Integer pipelineDepth) {
+        this.cache = new ExpressionCache(cacheCapacity == null ? ExpressionCache.DEFAULT_CAPACITY : cacheCapacity,
+                settings == null ? ExpressionSettings.builder().build() : settings);
+        this.pipelineDepth = pipelineDepth == null ? DEFAULT_PIPELINE_DEPTH : pipelineDepth;
+        if (this.pipelineDepth <= 0) {
+            throw new ExpressionException("Pipeline depth has to be positive, but got " + pipelineDepth);
+        }
+        this.workers = Executors.newFixedThreadPool(threads == null ? Runtime.getRuntime().availableProcessors() : threads,
+                daemonThreads("expression-daemon-worker"));
+        this.connections = Executors.newCachedThreadPool(daemonThreads("expression-daemon-connection"));
+    }
+
+    /**
+     * Evaluate a single request
+     *
+     * @param line formula and tab separated variables
+     * @return result of the evaluation or error line
+     */
+    public String evaluate(@NonNull String line) {
+        return RequestLines.evaluate(cache, line);
+    }
+
+    /**
+     * Serve requests of the stream until its end, the results are written in the order of requests.
+     *
+     * @param input  requests, one per line
+     * @param output results, one per line
+     */
+    public void serve(@NonNull InputStream input, @NonNull OutputStream output) throws IOException {
+        BlockingQueue<CompletableFuture<String>> pending = new ArrayBlockingQueue<>(pipelineDepth);
+        Thread reader = new Thread(() -> readRequests(input, pending), "expression-daemon-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            CompletableFuture<String> result;
+            while ((result = pending.take()) != END_OF_INPUT) {
+                writer.write(result.join());
+                writer.write('\n');
+                if (pending.isEmpty()) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Serving of the requests is interrupted", ex);
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw ex;
+        } finally {
+            // the reader does not wait for the room in the queue if the results are not written (e.g. the client is gone)
+            reader.interrupt();
+            CompletableFuture<String> queued;
+            while ((queued = pending.poll()) != null) {
+                queued.cancel(false);
+            }
+        }
+    }
+
+    private void readRequests(InputStream input, BlockingQueue<CompletableFuture<String>> pending) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String request = line;
+                    pending.put(CompletableFuture.supplyAsync(() -> evaluate(request), workers));
+                }
+            } catch (IOException ex) {
+                CompletableFuture<String> failed = new CompletableFuture<>();
+                failed.completeExceptionally(new UncheckedIOException(ex));
+                pending.put(failed);
+            }
+            pending.put(END_OF_INPUT);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Listen to the Unix domain socket (requires Java 16 or newer) and serve every connection by {@link #serve},
+     * blocks until the daemon is closed. The socket file is replaced if exists and removed on close.
+     *
+     * @param path path of the socket file
+     */
+    public void serveSocket(@NonNull Path path) throws IOException {
+        Files.deleteIfExists(path);
+        server = openUnixServer(path);
+        socketPath = path;
+        log.info("Listen to the socket {}", path);
+        try {
+            while (true) {
+                SocketChannel channel = server.accept();
+                connections.execute(() -> serveConnection(channel));
+            }
+        } catch (ClosedChannelException ex) {
+            log.info("Stop listening to the socket {}", path);
+        }
+    }
+
+    /**
+     * Streams of {@link java.nio.channels.Channels} lock the whole channel on every read or write,
+     * so they can not be used to read the next requests while the results are written
+     */
+    private void serveConnection(SocketChannel channel) {
+        try (SocketChannel connection = channel) {
+            InputStream input = new InputStream() {
+                @Override
+                public int read() throws IOException {
+                    byte[] single = new byte[1];
+                    return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+                }
+
+                @Override
+                public int read(byte[] bytes, int offset, int length) throws IOException {
+                    return length == 0 ? 0 : connection.read(ByteBuffer.wrap(bytes, offset, length));
+                }
+            };
+            OutputStream output = new OutputStream() {
+                @Override
+                public void write(int value) throws IOException {
+                    write(new byte[] {(byte) value}, 0, 1);
+                }
+
+                @Override
+                public void write(byte[] bytes, int offset, int length) throws IOException {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+                    while (buffer.hasRemaining()) {
+                        connection.write(buffer);
+                    }
+                }
+            };
+            serve(input, output);
+        } catch (IOException ex) {
+            if (Thread.currentThread().isInterrupted()) {
+                // the daemon is closed while the connection is open
+                log.debug("Connection is closed by the daemon: {}", ex.toString());
+            } else {
+                log.warn("Connection failed", ex);
+            }
+        }
+    }
+
+    /**
+     * <code>UnixDomainSocketAddress</code> and <code>ServerSocketChannel.open(ProtocolFamily)</code> are newer
+     * than the Java version of the project, so they are resolved at runtime
+     */
+    private static ServerSocketChannel openUnixServer(Path path) throws IOException {
+        ProtocolFamily unix;
+        SocketAddress address;
+        ServerSocketChannel channel;
+        try {
+            unix = StandardProtocolFamily.valueOf("UNIX");
+            address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                    .getMethod("of", Path.class)
+                    .invoke(null, path);
+            channel = (ServerSocketChannel) ServerSocketChannel.class
+                    .getMethod("open", ProtocolFamily.class)
+                    .invoke(null, unix);
+        } catch (IllegalArgumentException | ReflectiveOperationException ex) {
+            if (ex instanceof InvocationTargetException && ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new ExpressionException("Unix domain sockets require Java 16 or newer: " + ex);
+        }
+
+        try {
+            channel.bind(address);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+        return channel;
+    }
+
+    @Override
+    public void close() throws IOException {
+        ServerSocketChannel channel = server;
+        if (channel != null) {
+            channel.close();
+            Files.deleteIfExists(socketPath);
+        }
+        connections.shutdownNow();
+        workers.shutdown();
+    }
+
+    static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
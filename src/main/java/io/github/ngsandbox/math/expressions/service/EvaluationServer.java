@@ -0,0 +1,261 @@
+package io.github.ngsandbox.math.expressions.service;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.utils.VirtualThreads;
+
+/**
+ * Embedded HTTP evaluation service of the JDK {@link HttpServer}, listens to the loopback interface by default.
+ * Requests and responses are plain text lines of {@link RequestLines}:
+ * <ul>
+ * <li><code>POST /eval</code> - single request line, the result line is returned with status 200
+ * or the error line with status 422</li>
+ * <li><code>POST /batch</code> - request lines, result lines are returned in the same order with status 200</li>
+ * <li><code>GET /stats</code> - <code>name value</code> lines of the {@link ServerStats} and the cache counters</li>
+ * </ul>
+ * Parsed formulas are shared by all connections through the {@link ExpressionCache}.
+ * Requests are handled by virtual threads if the JVM supports them (Java 21), by a fixed pool of threads otherwise.
+ */
+@Slf4j
+public class EvaluationServer implements Closeable {
+
+    public static final String EVAL_PATH = "/eval";
+    public static final String BATCH_PATH = "/batch";
+    public static final String STATS_PATH = "/stats";
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_MAX_BODY_SIZE = 1 << 20;
+
+    /**
+     * Max time to complete the requests in progress when the server is closed
+     */
+    public static final int STOP_DELAY_SECONDS = 5;
+
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+    private static final String CONTENT_TYPE = "text/plain; charset=utf-8";
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int UNPROCESSABLE = 422;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final long STOP_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    static {
+        // headers and body of a response are written separately, with Nagle's algorithm every response
+        // of a keep-alive connection waits for the delayed ACK of the client (~40ms),
+        // the property is read once when the JDK server is loaded
+        if (System.getProperty(NO_DELAY_PROPERTY) == null) {
+            System.setProperty(NO_DELAY_PROPERTY, "true");
+        }
+    }
+
+    @Getter
+    private final ExpressionCache cache;
+    @Getter
+    private final ServerStats stats = new ServerStats();
+    private final int maxBodySize;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    /**
+     * Count of the requests in the handlers, {@link #close()} waits for them
+     */
+    private final AtomicInteger inProgress = new AtomicInteger();
+    private volatile boolean closing;
+
+    /**
+     * @param settings      settings of the expressions, defaults if not set
+     * @param cacheCapacity count of parsed formulas to keep, {@link ExpressionCache#DEFAULT_CAPACITY} by default
+     * @param address       address to listen, loopback with {@link #DEFAULT_PORT} by default (port 0 picks a free one)
+     * @param threads       count of the request threads if virtual threads are not supported, twice the processors by default
+     * @param maxBodySize   max size of the request body in bytes, {@link #DEFAULT_MAX_BODY_SIZE} by default
+     */
+    @Builder
+    private EvaluationServer(ExpressionSettings settings,
+                             Integer cacheCapacity,
+                             InetSocketAddress address,
+                             Integer threads,
+                             Integer maxBodySize) throws IOException {
+        this.cache = new ExpressionCache(cacheCapacity == null ? ExpressionCache.DEFAULT_CAPACITY : cacheCapacity,
+                settings == null ? ExpressionSettings.builder().build() : settings);
+        this.maxBodySize = maxBodySize == null ? DEFAULT_MAX_BODY_SIZE : maxBodySize;
+        this.executor = newExecutor(threads == null ? Runtime.getRuntime().availableProcessors() * 2 : threads);
+        this.server = HttpServer.create(address == null
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), DEFAULT_PORT)
+                : address, 0);
+        this.server.setExecutor(executor);
+        this.server.createContext(EVAL_PATH, handler("POST", this::evaluate));
+        this.server.createContext(BATCH_PATH, handler("POST", this::evaluateBatch));
+        this.server.createContext(STATS_PATH, handler("GET", exchange -> send(exchange, OK, stats.format(cache))));
+    }
+
+    /**
+     * Start to accept the requests in the background
+     *
+     * @return the server, allows to chain methods
+     */
+    public EvaluationServer start() {
+        server.start();
+        log.info("Evaluation server listens to {}", getAddress());
+        return this;
+    }
+
+    /**
+     * @return address the server listens to, with the real port if it was picked by the system
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    private void evaluate(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String line = readBody(exchange);
+        if (line == null) {
+            return;
+        }
+
+        String result = RequestLines.evaluate(cache, stripLineEnd(line));
+        boolean failed = RequestLines.isError(result);
+        stats.record(1, failed ? 1 : 0, System.nanoTime() - start);
+        send(exchange, failed ? UNPROCESSABLE : OK, result + '\n');
+    }
+
+    private void evaluateBatch(HttpExchange exchange) throws IOException {
+        long start = System.nanoTime();
+        String body = readBody(exchange);
+        if (body == null) {
+            return;
+        }
+
+        StringBuilder results = new StringBuilder();
+        int evaluated = 0;
+        int failed = 0;
+        try (BufferedReader reader = new BufferedReader(new StringReader(body))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String result = RequestLines.evaluate(cache, line);
+                evaluated++;
+                if (RequestLines.isError(result)) {
+                    failed++;
+                }
+                results.append(result).append('\n');
+            }
+        }
+        stats.record(evaluated, failed, System.nanoTime() - start);
+        send(exchange, OK, results.toString());
+    }
+
+    /**
+     * @return body of the request or null if it is too large and the response is already sent
+     */
+    private String readBody(HttpExchange exchange) throws IOException {
+        byte[] buffer = new byte[Math.min(maxBodySize + 1, 8192)];
+        int size = 0;
+        try (InputStream input = exchange.getRequestBody()) {
+            int read;
+            while ((read = input.read(buffer, size, buffer.length - size)) >= 0) {
+                size += read;
+                if (size > maxBodySize) {
+                    stats.getRejected().increment();
+                    send(exchange, PAYLOAD_TOO_LARGE, "Request body is larger than " + maxBodySize + " bytes\n");
+                    return null;
+                }
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, Math.min(maxBodySize + 1, buffer.length * 2));
+                }
+            }
+        }
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+
+    private static String stripLineEnd(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private HttpHandler handler(String method, HttpHandler handler) {
+        return exchange -> {
+            inProgress.incrementAndGet();
+            try {
+                if (closing) {
+                    stats.getRejected().increment();
+                    send(exchange, SERVICE_UNAVAILABLE, "Server is closing\n");
+                } else if (!exchange.getRequestURI().getPath().equals(exchange.getHttpContext().getPath())) {
+                    stats.getRejected().increment();
+                    send(exchange, NOT_FOUND, "Not found\n");
+                } else if (!method.equals(exchange.getRequestMethod())) {
+                    stats.getRejected().increment();
+                    exchange.getResponseHeaders().set("Allow", method);
+                    send(exchange, METHOD_NOT_ALLOWED, "Method " + method + " is expected\n");
+                } else {
+                    handler.handle(exchange);
+                }
+            } finally {
+                exchange.close();
+                inProgress.decrementAndGet();
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static ExecutorService newExecutor(int threads) {
+        if (threads <= 0) {
+            throw new ExpressionException("Count of threads has to be positive, but got " + threads);
+        }
+        return VirtualThreads.newVirtualThreadPerTaskExecutor()
+                .orElseGet(() -> Executors.newFixedThreadPool(threads, EvaluationDaemon.daemonThreads("expression-server")));
+    }
+
+    /**
+     * Stop the server: new requests are rejected with status 503, the requests in progress are completed
+     * within {@link #STOP_DELAY_SECONDS}, their connections are closed after it
+     */
+    @Override
+    public void close() {
+        // HttpServer.stop(delay) of older JDKs waits for the whole delay even if there are no requests
+        closing = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STOP_DELAY_SECONDS);
+        while (inProgress.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(STOP_PARK_NANOS);
+        }
+        if (inProgress.get() > 0) {
+            log.warn("Requests are still in progress after {} seconds", STOP_DELAY_SECONDS);
+        }
+        server.stop(0);
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,254 @@
+package io.github.ngsandbox.math.expressions.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.EqualsAndHashCode;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.ExpressionSettings;
+import io.github.ngsandbox.math.expressions.jfr.ExpressionEvents;
+import io.github.ngsandbox.math.expressions.tokens.FormulaShape;
+import io.github.ngsandbox.math.expressions.variables.VariableScope;
+
+/**
+ * Thread safe cache of parsed expressions shared by all requests, the least recently used formulas are dropped
+ * when the capacity is reached. Every request gets its own {@link Expression#copy()} with own variables,
+ * which shares the parsed RPN with the cached one.
+ * <br>
+ * Formulas which differ only in blanks, numeric literals and the case of functions and operators have the same
+ * {@link FormulaShape}: a new formula of a known shape is not parsed, it shares the parsed program of the first formula
+ * of the shape with its own literals, see {@link Expression#parse(Expression)}.
+ * <br>
+ * Formulas evaluated with the constants of a tenant are cached partially evaluated against them per tenant,
+ * see {@link #get(String, String, VariableScope)}.
+ */
+public class ExpressionCache {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    private final ExpressionSettings settings;
+    private final Map<String, Expression> expressions;
+    private final Map<FormulaShape, Expression> shapes;
+    private final Map<ResidualKey, Residual> residuals;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder specializations = new LongAdder();
+
+    public ExpressionCache(@NonNull ExpressionSettings settings) {
+        this(DEFAULT_CAPACITY, settings);
+    }
+
+    public ExpressionCache(int capacity, @NonNull ExpressionSettings settings) {
+        if (capacity <= 0) {
+            throw new ExpressionException("Capacity of the cache has to be positive, but got " + capacity);
+        }
+        this.settings = settings;
+        this.expressions = new LinkedHashMap<String, Expression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest) {
+                return size() > capacity && evicted(eldest.getValue());
+            }
+        };
+        this.shapes = new LinkedHashMap<FormulaShape, Expression>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<FormulaShape, Expression> eldest) {
+                return size() > capacity && evicted(eldest.getValue());
+            }
+        };
+        this.residuals = new LinkedHashMap<ResidualKey, Residual>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ResidualKey, Residual> eldest) {
+                return size() > capacity && evicted(eldest.getValue().expression);
+            }
+        };
+    }
+
+    /**
+     * Get the parsed formula, the formula is parsed on the first request unless a formula of the same shape is cached.
+     * Formulas which can not be parsed are not cached.
+     *
+     * @param formula formula to evaluate
+     * @return new copy of the parsed expression without variables
+     */
+    public Expression get(@NonNull String formula) {
+        Expression expression;
+        synchronized (expressions) {
+            expression = expressions.get(formula);
+        }
+
+        if (expression != null) {
+            hits.increment();
+            if (settings.getMetrics().isEnabled()) {
+                settings.getMetrics().recordCacheHit(formula);
+            }
+        } else {
+            misses.increment();
+            if (settings.getMetrics().isEnabled()) {
+                settings.getMetrics().recordCacheMiss(formula);
+            }
+            // parse outside of the lock, the same formula parsed twice by concurrent requests is harmless
+            expression = parse(formula);
+            synchronized (expressions) {
+                expressions.put(formula, expression);
+            }
+        }
+        return expression.copy();
+    }
+
+    /**
+     * Record the formula, shape or residual formula dropped because of the capacity
+     *
+     * @return <code>true</code> to remove the eldest entry
+     */
+    private boolean evicted(Expression expression) {
+        evictions.increment();
+        if (settings.getMetrics().isEnabled()) {
+            settings.getMetrics().recordCacheEviction(expression.getFormulaId());
+        }
+        ExpressionEvents.cacheEviction(expression, expression.getTokenCount());
+        return true;
+    }
+
+    private Expression parse(String formula) {
+        Expression expression = new Expression(formula, settings);
+        FormulaShape shape;
+        try {
+            shape = expression.getShape();
+        } catch (ExpressionException ex) {
+            // the parser reports the error at its position
+            return expression.parse();
+        }
+
+        Expression prototype;
+        synchronized (shapes) {
+            prototype = shapes.get(shape);
+        }
+        if (prototype != null && expression.parse(prototype).isProgramShared()) {
+            shared.increment();
+            return expression;
+        }
+
+        expression.parse();
+        if (prototype == null) {
+            synchronized (shapes) {
+                shapes.put(shape, expression);
+            }
+        }
+        return expression;
+    }
+
+    /**
+     * Get the formula partially evaluated against the constants of the tenant, see {@link Expression#specialize}.
+     * The residual formula is cached per tenant and specialized again only when the tenant has other constants:
+     * the scopes are immutable, so a new scope of the tenant is a change of its constants.
+     *
+     * @param formula   formula to evaluate
+     * @param tenant    id of the tenant
+     * @param constants current constants of the tenant
+     * @return new copy of the residual expression with the constants which it still uses
+     */
+    public Expression get(@NonNull String formula, @NonNull String tenant, @NonNull VariableScope constants) {
+        ResidualKey key = new ResidualKey(tenant, formula);
+        Residual residual;
+        synchronized (residuals) {
+            residual = residuals.get(key);
+        }
+
+        if (residual == null || residual.constants != constants) {
+            specializations.increment();
+            residual = new Residual(constants, get(formula).specialize(constants));
+            synchronized (residuals) {
+                residuals.put(key, residual);
+            }
+        }
+        return residual.expression.copy();
+    }
+
+    /**
+     * @return count of cached formulas
+     */
+    public int size() {
+        synchronized (expressions) {
+            return expressions.size();
+        }
+    }
+
+    /**
+     * @return count of requests served by already parsed formulas
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return count of requests of new formulas, including the ones which share the program of a cached shape
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return count of the formulas, shapes and residual formulas dropped from the cache because of its capacity
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return count of new formulas which were not parsed, but share the program of a formula of the same shape
+     */
+    public long getSharedPrograms() {
+        return shared.sum();
+    }
+
+    /**
+     * @return count of cached shapes of the formulas
+     */
+    public int getShapes() {
+        synchronized (shapes) {
+            return shapes.size();
+        }
+    }
+
+    /**
+     * @return count of residual formulas built for the first request of the tenant or for its changed constants
+     */
+    public long getSpecializations() {
+        return specializations.sum();
+    }
+
+    /**
+     * Forget all parsed formulas
+     */
+    public void clear() {
+        synchronized (expressions) {
+            expressions.clear();
+        }
+        synchronized (shapes) {
+            shapes.clear();
+        }
+        synchronized (residuals) {
+            residuals.clear();
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class ResidualKey {
+        private final String tenant;
+        private final String formula;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Residual {
+        private final VariableScope constants;
+        private final Expression expression;
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.ngsandbox.math.expressions.service;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import io.github.ngsandbox.math.expressions.ExpressionConstants;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Text protocol of the evaluation services: a request is a single {@link FormulaRecord} line
+ * (formula and tab separated <code>name=value</code> variables), the response is a single line with the result
+ * (<code>NULL</code> for null) or <code>ERROR&#9;message</code> if the request failed.
+ */
+@Slf4j
+public final class RequestLines {
+
+    public static final String ERROR_PREFIX = "ERROR\t";
+
+    private RequestLines() {
+    }
+
+    /**
+     * Evaluate a single request line
+     *
+     * @param cache parsed formulas
+     * @param line  formula and tab separated variables
+     * @return result of the evaluation or error line
+     */
+    public static String evaluate(@NonNull ExpressionCache cache, @NonNull String line) {
+        try {
+            FormulaRecord record = FormulaRecord.parse(line);
+            WrappedValue result = record.applyTo(cache.get(record.getFormula())).tryEval();
+            if (result.isError()) {
+                return ERROR_PREFIX + clean(result.getExpression());
+            }
+            String text = result.getExpression();
+            return text == null ? ExpressionConstants.NULL_CONST : clean(text);
+        } catch (RuntimeException ex) {
+            log.debug("Request `{}` failed", line, ex);
+            return ERROR_PREFIX + clean(ex.getMessage() == null ? ex.getClass().getSimpleName() : ex.getMessage());
+        }
+    }
+
+    /**
+     * @param response response line
+     * @return true if the request failed
+     */
+    public static boolean isError(@NonNull String response) {
+        return response.startsWith(ERROR_PREFIX);
+    }
+
+    private static String clean(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
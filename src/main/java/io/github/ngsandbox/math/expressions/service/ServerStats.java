@@ -0,0 +1,79 @@
+package io.github.ngsandbox.math.expressions.service;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import io.github.ngsandbox.math.expressions.metrics.LatencyHistogram;
+
+/**
+ * Throughput and latency counters of the {@link EvaluationServer}
+ */
+@Getter
+public final class ServerStats {
+
+    @Getter(AccessLevel.NONE)
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Served HTTP requests, single and batch ones
+     */
+    private final LongAdder requests = new LongAdder();
+
+    /**
+     * Evaluated formulas
+     */
+    private final LongAdder evaluations = new LongAdder();
+
+    /**
+     * Evaluated formulas which failed
+     */
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Requests which are not valid HTTP calls of the service (unknown method, too large body, etc)
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Time to serve the HTTP requests
+     */
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    void record(int evaluated, int failed, long nanos) {
+        requests.increment();
+        evaluations.add(evaluated);
+        errors.add(failed);
+        latency.record(nanos);
+    }
+
+    /**
+     * @return evaluated formulas per second since the start of the server
+     */
+    public double getThroughput() {
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        return seconds <= 0 ? 0 : evaluations.sum() / seconds;
+    }
+
+    /**
+     * @param cache cache of the server
+     * @return <code>name value</code> lines of all counters
+     */
+    String format(ExpressionCache cache) {
+        return "requests " + requests.sum() + '\n'
+                + "evaluations " + evaluations.sum() + '\n'
+                + "errors " + errors.sum() + '\n'
+                + "rejected " + rejected.sum() + '\n'
+                + "throughput " + Math.round(getThroughput()) + '\n'
+                + "latency_mean_ns " + Math.round(latency.getMean()) + '\n'
+                + "latency_p50_ns " + latency.getPercentile(50) + '\n'
+                + "latency_p99_ns " + latency.getPercentile(99) + '\n'
+                + "latency_max_ns " + latency.getMax() + '\n'
+                + "cache_size " + cache.size() + '\n'
+                + "cache_hits " + cache.getHits() + '\n'
+                + "cache_misses " + cache.getMisses() + '\n'
+                + "cache_evictions " + cache.getEvictions() + '\n'
+                + "cache_shared_programs " + cache.getSharedPrograms() + '\n';
+    }
+}
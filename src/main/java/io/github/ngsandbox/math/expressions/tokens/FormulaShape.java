@@ -0,0 +1,125 @@
+package io.github.ngsandbox.math.expressions.tokens;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import io.github.ngsandbox.math.expressions.operators.Operator;
+
+/**
+ * Canonical shape of a formula: its tokens without the blank characters, functions and operators in upper case
+ * and numeric literals replaced by parameters. Formulas of the same shape (e.g. <code>a*1.05+max(b,1)</code> and
+ * <code>a * 1.070 + MAX(b, 2)</code>) are parsed to the same RPN and syntax tree except their literals,
+ * so they can share one parsed program and differ only in the vectors of their literals.
+ * <br>
+ * Variables keep their case: they are case insensitive in the expression, but resolvers and bindings get
+ * their names as written in the formula.
+ */
+@EqualsAndHashCode(of = "key")
+@ToString(of = "key")
+public final class FormulaShape {
+
+    /**
+     * Canonical tokens, every one starts with its type and ends with a blank, string parameters start with their length
+     */
+    @Getter
+    private final String key;
+
+    /**
+     * Numeric literals in the order of the formula
+     */
+    @Getter
+    private final List<String> literals;
+
+    /**
+     * Positions of the tokens including the blank characters before them, the positions of the RPN tokens
+     */
+    private final int[] positions;
+
+    /**
+     * Positions of the first characters of the tokens, the positions of the syntax tree nodes
+     */
+    private final int[] starts;
+
+    private FormulaShape(String key, List<String> literals, int[] positions, int[] starts) {
+        this.key = key;
+        this.literals = literals;
+        this.positions = positions;
+        this.starts = starts;
+    }
+
+    /**
+     * @param formula   formula to read
+     * @param operators operators of the expression
+     * @return shape of the formula
+     * @throws io.github.ngsandbox.math.expressions.ExpressionException if the formula can not be read, e.g. an unclosed string
+     */
+    public static FormulaShape of(@NonNull CharSequence formula, @NonNull Map<String, Operator> operators) {
+        return of(formula, OperatorTrie.of(operators));
+    }
+
+    /**
+     * @param formula   formula to read
+     * @param operators trie of the operators of the expression
+     * @return shape of the formula
+     * @throws io.github.ngsandbox.math.expressions.ExpressionException if the formula can not be read, e.g. an unclosed string
+     */
+    public static FormulaShape of(@NonNull CharSequence formula, @NonNull OperatorTrie operators) {
+        Lexer lexer = new Lexer(formula, operators);
+        StringBuilder key = new StringBuilder(formula.length() + 16);
+        List<String> literals = new ArrayList<>();
+        int[] positions = new int[16];
+        int[] starts = new int[16];
+        int count = 0;
+        while (lexer.hasNext()) {
+            TokenType type = lexer.next();
+            String surface = lexer.getSurface();
+            if (count == positions.length) {
+                positions = Arrays.copyOf(positions, count * 2);
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            positions[count] = lexer.getPosition();
+            starts[count++] = lexer.getStart();
+
+            key.append((char) ('A' + type.ordinal()));
+            switch (type) {
+            case LITERAL:
+                literals.add(surface);
+                key.append('?');
+                break;
+            case FUNCTION:
+            case OPERATOR:
+            case UNARY_OPERATOR:
+                key.append(surface.toUpperCase(Locale.ROOT));
+                break;
+            case STRINGPARAM:
+                key.append(surface.length()).append(':').append(surface);
+                break;
+            default:
+                key.append(surface);
+            }
+            key.append(' ');
+        }
+        return new FormulaShape(key.toString(), Collections.unmodifiableList(literals),
+                Arrays.copyOf(positions, count), Arrays.copyOf(starts, count));
+    }
+
+    /**
+     * @param position   position of a token of this formula, e.g. of an operator
+     * @param target     other formula of the same shape
+     * @param syntaxTree <code>true</code> for the position of a syntax tree node, <code>false</code> for an RPN token
+     * @return position of the same token in the other formula, the same position if it is not a position of a token
+     */
+    public int relocate(int position, @NonNull FormulaShape target, boolean syntaxTree) {
+        int token = Arrays.binarySearch(syntaxTree ? starts : positions, position);
+        return token < 0 ? position : (syntaxTree ? target.starts : target.positions)[token];
+    }
+}
@@ -0,0 +1,243 @@
+package io.github.ngsandbox.math.expressions.tokens;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.DECIMAL_SEPARATOR;
+import static io.github.ngsandbox.math.expressions.operators.UnaryOperator.UNARY_OPERATOR_SUFFIX;
+import static io.github.ngsandbox.math.expressions.tokens.TokenType.COMMA;
+import static io.github.ngsandbox.math.expressions.tokens.TokenType.OPEN_PAREN;
+import static io.github.ngsandbox.math.expressions.tokens.TokenType.OPERATOR;
+import static io.github.ngsandbox.math.expressions.tokens.TokenType.UNARY_OPERATOR;
+
+/**
+ * Cursor over the tokens of the expression which works on offsets into the input: operators are matched by
+ * the {@link OperatorTrie}, identifiers and literals are taken from the {@link SurfaceCache}, ASCII characters are
+ * classified by a table. Reading a token allocates nothing unless its surface is new, {@link Tokenizer} wraps
+ * the current token into {@link Token}. Blank characters are skipped, positions are relative to the first
+ * non blank character.
+ */
+public final class Lexer {
+
+    private static final byte LETTER = 1;
+    private static final byte DIGIT = 2;
+    private static final byte WHITESPACE = 4;
+    private static final byte[] ASCII = new byte[128];
+
+    static {
+        for (char ch = 0; ch < ASCII.length; ch++) {
+            ASCII[ch] = (byte) ((Character.isLetter(ch) ? LETTER : 0)
+                    | (Character.isDigit(ch) ? DIGIT : 0)
+                    | (Character.isWhitespace(ch) ? WHITESPACE : 0));
+        }
+    }
+
+    private final CharSequence input;
+    private final OperatorTrie operators;
+    private final int start;
+    private final int end;
+    /**
+     * Absolute position of the next character in the input
+     */
+    private int position;
+    private TokenType type;
+    private String surface;
+    private int tokenPosition;
+    private int tokenStart;
+
+    public Lexer(@NonNull CharSequence input, @NonNull Map<String, Operator> operators) {
+        this(input, OperatorTrie.of(operators));
+    }
+
+    public Lexer(@NonNull CharSequence input, @NonNull OperatorTrie operators) {
+        this.input = input;
+        this.operators = operators;
+        int from = 0;
+        int to = input.length();
+        while (from < to && input.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && (input.charAt(to - 1) <= ' ' || isWhitespace(input.charAt(to - 1)))) {
+            to--;
+        }
+        this.start = from;
+        this.end = to;
+        this.position = from;
+    }
+
+    public boolean hasNext() {
+        return position < end;
+    }
+
+    /**
+     * Move to the next token
+     *
+     * @return type of the token
+     */
+    public TokenType next() {
+        if (position >= end) {
+            throw new NoSuchElementException("No more tokens available");
+        }
+
+        TokenType previous = type;
+        tokenPosition = position - start;
+        while (isWhitespace(input.charAt(position))) {
+            position++;
+        }
+        tokenStart = position - start;
+
+        char ch = input.charAt(position);
+        if (isDigit(ch) || (ch == DECIMAL_SEPARATOR && position + 1 < end && isDigit(input.charAt(position + 1)))) {
+            readLiteral();
+        } else if (ch == '"' || ch == '\'') {
+            readString(ch);
+        } else if (isLetter(ch)) {
+            readIdentifier();
+        } else if (ch == '(' || ch == ')' || ch == ',') {
+            readParenthesisOrComma(ch);
+        } else {
+            readOperator(previous);
+        }
+        return type;
+    }
+
+    /**
+     * @return type of the current token, null before the first one
+     */
+    public TokenType getType() {
+        return type;
+    }
+
+    /**
+     * @return surface of the current token, unary operators have {@link io.github.ngsandbox.math.expressions.operators.UnaryOperator#UNARY_OPERATOR_SUFFIX}
+     */
+    public String getSurface() {
+        return surface;
+    }
+
+    /**
+     * @return position of the current token including the blank characters before it
+     */
+    public int getPosition() {
+        return tokenPosition;
+    }
+
+    /**
+     * @return position of the first character of the current token
+     */
+    public int getStart() {
+        return tokenStart;
+    }
+
+    public static boolean isAllowedTypeForOperator(TokenType type) {
+        return type != OPERATOR && type != COMMA && type != OPEN_PAREN && type != UNARY_OPERATOR;
+    }
+
+    private void readLiteral() {
+        int from = position;
+        while (position < end && (isDigit(input.charAt(position)) || input.charAt(position) == DECIMAL_SEPARATOR)) {
+            position++;
+        }
+        surface = SurfaceCache.get(input, from, position);
+        type = TokenType.LITERAL;
+    }
+
+    private void readString(char quote) {
+        int from = ++position;
+        while (position < end && input.charAt(position) != quote) {
+            position++;
+        }
+        if (position == end) {
+            throw new ExpressionException("Missing closing quote " + quote, from - 1 - start);
+        }
+        surface = SurfaceCache.get(input, from, position++);
+        type = TokenType.STRINGPARAM;
+    }
+
+    private void readIdentifier() {
+        int from = position;
+        while (position < end && (isLetter(input.charAt(position)) || isDigit(input.charAt(position)))) {
+            position++;
+        }
+        surface = SurfaceCache.get(input, from, position);
+        // optional white spaces after function or variable name
+        while (position < end && isWhitespace(input.charAt(position))) {
+            position++;
+        }
+
+        if (operators.isOperator(surface)) {
+            type = OPERATOR;
+        } else if (position < end && input.charAt(position) == '(') {
+            type = TokenType.FUNCTION;
+        } else {
+            type = TokenType.VARIABLE;
+        }
+    }
+
+    private void readParenthesisOrComma(char ch) {
+        if (ch == '(') {
+            surface = "(";
+            type = OPEN_PAREN;
+        } else if (ch == ')') {
+            surface = ")";
+            type = TokenType.CLOSE_PAREN;
+        } else {
+            surface = ",";
+            type = COMMA;
+        }
+        position++;
+    }
+
+    /**
+     * The longest operator of the trie is matched, a run of the operator characters up to the length
+     * of the longest operator is the surface of an unknown operator
+     */
+    private void readOperator(TokenType previous) {
+        int from = position;
+        int limit = Math.min(end, from + operators.getMaxLength());
+        OperatorTrie.Node node = operators.getRoot();
+        OperatorTrie.Node matched = null;
+        int matchedEnd = -1;
+        int scan = from;
+        while (scan < limit && isOperatorChar(input.charAt(scan))) {
+            node = node == null ? null : node.child(input.charAt(scan));
+            scan++;
+            if (node != null && node.getOperator() != null) {
+                matched = node;
+                matchedEnd = scan;
+            }
+        }
+
+        boolean unary = previous == null || !isAllowedTypeForOperator(previous);
+        if (matched != null) {
+            position = matchedEnd;
+            surface = unary ? matched.getUnary() : matched.getOperator();
+        } else {
+            position = scan;
+            String operator = input.subSequence(from, scan).toString();
+            surface = unary ? operator + UNARY_OPERATOR_SUFFIX : operator;
+        }
+        type = unary ? UNARY_OPERATOR : OPERATOR;
+    }
+
+    private static boolean isOperatorChar(char ch) {
+        return !isLetter(ch) && !isDigit(ch) && !isWhitespace(ch) && ch != '(' && ch != ')' && ch != ',';
+    }
+
+    private static boolean isLetter(char ch) {
+        return ch < ASCII.length ? (ASCII[ch] & LETTER) != 0 : Character.isLetter(ch);
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch < ASCII.length ? (ASCII[ch] & DIGIT) != 0 : Character.isDigit(ch);
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch < ASCII.length ? (ASCII[ch] & WHITESPACE) != 0 : Character.isWhitespace(ch);
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.ngsandbox.math.expressions.tokens;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.operators.Operator;
+
+import static io.github.ngsandbox.math.expressions.operators.UnaryOperator.UNARY_OPERATOR_SUFFIX;
+
+/**
+ * Prefix tree of the operators of the registry, the lexer walks it character by character instead of looking up
+ * the growing surface in the registry. Nodes keep the surfaces of the operators and of their unary forms,
+ * so matching an operator does not allocate. Immutable after it is built.
+ */
+public final class OperatorTrie {
+
+    private static final int RECENT = 8;
+
+    /**
+     * Tries of the recently used registries, the most recent first. Expressions keep the trie of their registry,
+     * the recent ones are reused for the few shared registries (the default one per math context)
+     * and for the tokenizers built from the registries
+     */
+    private static volatile OperatorTrie[] recent = new OperatorTrie[0];
+
+    private final Map<String, Operator> operators;
+    private final Node root = new Node();
+    /**
+     * Operators by their case folded characters, identifiers are matched against it before the registry
+     */
+    private final Node folded = new Node();
+    private final int maxLength;
+
+    private OperatorTrie(Map<String, Operator> operators) {
+        this.operators = operators;
+        int length = 1;
+        for (String operator : operators.keySet()) {
+            Node node = root;
+            for (int i = 0; i < operator.length(); i++) {
+                node = node.add(operator.charAt(i));
+            }
+            node.operator = operator;
+            node.unary = operator + UNARY_OPERATOR_SUFFIX;
+            node = folded;
+            for (int i = 0; i < operator.length(); i++) {
+                node = node.add(fold(operator.charAt(i)));
+            }
+            node.operator = operator;
+            length = Math.max(length, operator.length());
+        }
+        this.maxLength = length;
+    }
+
+    /**
+     * @param operators read only registry of the operators
+     * @return trie of the registry, registries are compared by identity
+     */
+    public static OperatorTrie of(@NonNull Map<String, Operator> operators) {
+        OperatorTrie[] tries = recent;
+        for (OperatorTrie trie : tries) {
+            if (trie.operators == operators) {
+                return trie;
+            }
+        }
+
+        OperatorTrie trie = new OperatorTrie(operators);
+        OperatorTrie[] updated = new OperatorTrie[Math.min(tries.length + 1, RECENT)];
+        updated[0] = trie;
+        System.arraycopy(tries, 0, updated, 1, updated.length - 1);
+        // a trie lost by a concurrent update is only built again
+        recent = updated;
+        return trie;
+    }
+
+    /**
+     * @return registry of the operators
+     */
+    public Map<String, Operator> getOperators() {
+        return operators;
+    }
+
+    /**
+     * @return length of the longest operator
+     */
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    Node getRoot() {
+        return root;
+    }
+
+    /**
+     * Check the identifier without the lookup in the registry, the registries are case insensitive,
+     * so the identifier is matched by its case folded characters and only a match is confirmed by the registry
+     *
+     * @param identifier surface of the identifier
+     * @return true if the identifier is an operator of the registry
+     */
+    boolean isOperator(String identifier) {
+        if (identifier.length() > maxLength) {
+            return false;
+        }
+        Node node = folded;
+        for (int i = 0; i < identifier.length() && node != null; i++) {
+            node = node.child(fold(identifier.charAt(i)));
+        }
+        return node != null && node.operator != null && operators.containsKey(identifier);
+    }
+
+    /**
+     * The same folding as {@link String#CASE_INSENSITIVE_ORDER} does
+     */
+    private static char fold(char ch) {
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        /**
+         * Surface of the operator which ends at the node, null if no operator ends here
+         */
+        private String operator;
+        private String unary;
+
+        Node child(char ch) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == ch) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private Node add(char ch) {
+            Node child = child(ch);
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = ch;
+                children[children.length - 1] = child;
+            }
+            return child;
+        }
+
+        String getOperator() {
+            return operator;
+        }
+
+        String getUnary() {
+            return unary;
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package io.github.ngsandbox.math.expressions.tokens;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Stack;
 
 import lombok.Getter;
 import lombok.NonNull;
@@ -15,7 +17,7 @@ import io.github.ngsandbox.math.expressions.functions.Function;
 import io.github.ngsandbox.math.expressions.operators.Operator;
 
 import static io.github.ngsandbox.math.expressions.ExpressionConstants.MISSING_PARAMETERS_FOR_OPERATOR;
-import static io.github.ngsandbox.math.expressions.tokens.TokenParser.isAllowedTypeForOperator;
+import static io.github.ngsandbox.math.expressions.tokens.Lexer.isAllowedTypeForOperator;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.CLOSE_PAREN;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.COMMA;
 import static io.github.ngsandbox.math.expressions.tokens.TokenType.FUNCTION;
@@ -27,7 +29,8 @@ import static io.github.ngsandbox.math.expressions.tokens.TokenType.VARIABLE;
 
 /**
  * Implementation of the <i>Shunting Yard</i> algorithm to transform an infix expression to a RPN
- * expression.
+ * expression. Every token is pushed to and popped from the stacks at most once, so parsing and validation
+ * take linear time of the expression length.
  */
 @Slf4j
 public class ShuntingYardParser {
@@ -40,7 +43,7 @@ public class ShuntingYardParser {
     private final Map<String, Operator> operators;
     private final Map<String, Function> functions;
     private final Tokenizer tokenizer;
-    private final Stack<Token> parserStack = new Stack<>();
+    private final Deque<Token> parserStack = new ArrayDeque<>();
     private final List<Token> tokens = new ArrayList<>();
     private Token lastFunction = null;
     private Token prevToken = null;
@@ -48,8 +51,14 @@ public class ShuntingYardParser {
     public ShuntingYardParser(@NonNull String expressionString,
                               @NonNull Map<String, Operator> operators,
                               @NonNull Map<String, Function> functions) {
+        this(expressionString, OperatorTrie.of(operators), functions);
+    }
+
+    public ShuntingYardParser(@NonNull String expressionString,
+                              @NonNull OperatorTrie operators,
+                              @NonNull Map<String, Function> functions) {
         this.expressionString = expressionString;
-        this.operators = operators;
+        this.operators = operators.getOperators();
         this.functions = functions;
         tokenizer = new Tokenizer(this.expressionString, operators);
     }
@@ -65,7 +74,7 @@ public class ShuntingYardParser {
             Token token = tokenizer.next();
             switch (token.getType()) {
             case STRINGPARAM:
-                parserStack.push(token);
+                tokens.add(token);
                 break;
             case LITERAL:
                 if (prevToken != null && prevToken.getType() == LITERAL) {
@@ -216,12 +225,12 @@ public class ShuntingYardParser {
      */
     private void validate() {
         log.debug("Run validation or expression {}", expressionString);
-        Stack<Integer> stack = new Stack<>();
-        // push the 'global' scope
-        stack.push(0);
+        // count of values per parameter list, the first one is the 'global' scope
+        int[] scopes = new int[16];
+        int depth = 0;
 
         for (final Token token : tokens) {
-            Integer value = stack.peek();
+            int value = scopes[depth];
             switch (token.getType()) {
             case UNARY_OPERATOR:
                 if (value < 1) {
@@ -233,40 +242,43 @@ public class ShuntingYardParser {
                     throw new ExpressionException(MISSING_PARAMETERS_FOR_OPERATOR + token);
                 }
                 // pop the operator's 2 parameters and add the result
-                stack.set(stack.size() - 1, value - 2 + 1);
+                scopes[depth] = value - 2 + 1;
                 break;
             case FUNCTION:
-                validateFunctionToken(stack, token);
+                validateFunctionToken(token, value, depth);
+                // push the result of the function
+                depth--;
+                scopes[depth]++;
                 break;
             case OPEN_PAREN:
-                stack.push(0);
+                depth++;
+                if (depth == scopes.length) {
+                    scopes = Arrays.copyOf(scopes, depth * 2);
+                }
+                scopes[depth] = 0;
                 break;
             default:
-                stack.set(stack.size() - 1, value + 1);
+                scopes[depth] = value + 1;
             }
         }
 
-        if (stack.size() > 1) {
+        if (depth > 0) {
             throw new ExpressionException("Too many unhandled function parameter lists");
-        } else if (stack.peek() > 1) {
+        } else if (scopes[0] > 1) {
             throw new ExpressionException("Too many numbers or variables");
-        } else if (stack.peek() < 1) {
+        } else if (scopes[0] < 1) {
             throw new ExpressionException("Empty expression");
         }
     }
 
-    private void validateFunctionToken(Stack<Integer> stack, //NOSONAR
-                                       Token token) {
+    private void validateFunctionToken(Token token, int numParams, int depth) {
         Function func = getFunction(token.getSurface().toUpperCase(Locale.ROOT));
-        int numParams = stack.pop();
         if (!func.numParamsVaries() && numParams != func.getNumParams()) {
             throw new ExpressionException("Function " + token + " expected " + func.getNumParams() + " parameters, got " + numParams);
         }
-        if (stack.isEmpty()) {
+        if (depth == 0) {
             throw new ExpressionException("Too many function calls, maximum scope exceeded");
         }
-        // push the result of the function
-        stack.set(stack.size() - 1, stack.peek() + 1);
     }
 
     private Function getFunction(String key) {
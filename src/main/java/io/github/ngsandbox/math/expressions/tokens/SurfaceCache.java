@@ -0,0 +1,56 @@
+package io.github.ngsandbox.math.expressions.tokens;
+
+/**
+ * Direct mapped cache of the token surfaces shared by all lexers, so tokenizing the same formula again
+ * (used variables, cache misses) finds its identifiers and literals instead of allocating them. A slot keeps
+ * the last surface hashed to it. Slots are written without locks: a reader sees either some complete string
+ * (strings are safely published by their final fields) or null, and the content is compared anyway.
+ */
+final class SurfaceCache {
+
+    private static final int SIZE = 4096;
+    /**
+     * Longer surfaces (e.g. string parameters) are rarely repeated, they are not cached
+     */
+    private static final int MAX_LENGTH = 64;
+    private static final String[] SURFACES = new String[SIZE];
+
+    private SurfaceCache() {
+    }
+
+    /**
+     * @param input input of the lexer
+     * @param from  start of the surface in the input
+     * @param to    end of the surface in the input, exclusive
+     * @return the cached surface if it is equal to the range of the input, the new one otherwise
+     */
+    static String get(CharSequence input, int from, int to) {
+        int length = to - from;
+        if (length > MAX_LENGTH) {
+            return input.subSequence(from, to).toString();
+        }
+
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + input.charAt(i);
+        }
+        int slot = (hash ^ (hash >>> 16)) & (SIZE - 1);
+        String surface = SURFACES[slot];
+        if (surface != null && surface.length() == length && matches(surface, input, from)) {
+            return surface;
+        }
+
+        surface = input.subSequence(from, to).toString();
+        SURFACES[slot] = surface;
+        return surface;
+    }
+
+    private static boolean matches(String surface, CharSequence input, int from) {
+        for (int i = 0; i < surface.length(); i++) {
+            if (surface.charAt(i) != input.charAt(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -2,61 +2,47 @@ package io.github.ngsandbox.math.expressions.tokens;
 
 import java.util.Iterator;
 import java.util.Map;
-import java.util.NoSuchElementException;
-
-import lombok.extern.slf4j.Slf4j;
 
 import io.github.ngsandbox.math.expressions.ExpressionException;
 import io.github.ngsandbox.math.expressions.operators.Operator;
 
 /**
  * Expression tokenizer that allows to iterate over a {@link String} expression token by token.
- * Blank characters will be skipped.
+ * Blank characters will be skipped. See {@link Lexer} to read the tokens without creating them.
  */
-@Slf4j
 public class Tokenizer implements Iterator<Token> {
 
-    /**
-     * The original input expression.
-     */
-    private final String input;
-    private final Map<String, Operator> operators;
-    /**
-     * Actual position in expression string.
-     */
-    private int pos = 0;
-    /**
-     * The previous token or <code>null</code> if none.
-     */
-    private Token previousToken;
+    private final Lexer lexer;
 
     /**
      * Creates a new tokenizer for an expression.
      *
      * @param input The expression string.
      */
-    public Tokenizer(String input,
+    public Tokenizer(CharSequence input,
                      Map<String, Operator> operators) {
-        this.input = input.trim();
-        this.operators = operators;
+        this(input, OperatorTrie.of(operators));
+    }
+
+    /**
+     * Creates a new tokenizer for an expression.
+     *
+     * @param input     The expression string.
+     * @param operators The trie of the operators.
+     */
+    public Tokenizer(CharSequence input, OperatorTrie operators) {
+        this.lexer = new Lexer(input, operators);
     }
 
     @Override
     public boolean hasNext() {
-        return pos < input.length();
+        return lexer.hasNext();
     }
 
     @Override
     public Token next() {
-        if (pos >= input.length()) {
-            throw new NoSuchElementException("No more tokens available");
-        }
-
-        TokenParser parser = new TokenParser(input, previousToken, operators, pos, this::next);
-        Token token = parser.parse();
-        pos = parser.getCurrentPosition();
-        previousToken = token;
-        return token;
+        TokenType type = lexer.next();
+        return new Token(lexer.getSurface(), type, lexer.getPosition());
     }
 
     @Override
@@ -0,0 +1,93 @@
+package io.github.ngsandbox.math.expressions.utils;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.Data;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Formula with the list of variable values as they come from the command line or a recorded file.
+ * <br>
+ * Text format is a single line: the formula followed by tab separated <code>name=value</code> pairs, e.g.
+ * <code>(a+b)/c&#9;a=10&#9;b=20&#9;c=3</code>
+ */
+@Data
+public class FormulaRecord {
+
+    private static final char SEPARATOR = '\t';
+    private static final char ASSIGNMENT = '=';
+
+    private final String formula;
+    private final Map<String, String> variables;
+
+    public FormulaRecord(@NonNull String formula, @NonNull Map<String, String> variables) {
+        this.formula = formula;
+        this.variables = Collections.unmodifiableMap(new LinkedHashMap<>(variables));
+    }
+
+    /**
+     * Parse record from the single text line
+     *
+     * @param line formula and tab separated variables
+     * @return parsed record
+     */
+    public static FormulaRecord parse(@NonNull String line) {
+        int end = line.indexOf(SEPARATOR);
+        String formula = end < 0 ? line : line.substring(0, end);
+        Map<String, String> variables = new LinkedHashMap<>();
+        while (end >= 0) {
+            int start = end + 1;
+            end = line.indexOf(SEPARATOR, start);
+            String pair = end < 0 ? line.substring(start) : line.substring(start, end);
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int assignment = pair.indexOf(ASSIGNMENT);
+            if (assignment <= 0) {
+                throw new ExpressionException("Variable has to be defined as name=value, but got `" + pair + "`");
+            }
+            variables.put(pair.substring(0, assignment), pair.substring(assignment + 1));
+        }
+        return new FormulaRecord(formula, variables);
+    }
+
+    /**
+     * @return single line text representation which can be read back by {@link #parse(String)}
+     */
+    public String format() {
+        StringBuilder line = new StringBuilder(clean(formula));
+        variables.forEach((name, value) -> line.append(SEPARATOR)
+                .append(clean(name))
+                .append(ASSIGNMENT)
+                .append(clean(value)));
+        return line.toString();
+    }
+
+    /**
+     * Set all variables of the record to the expression.
+     * Values which look like numbers are set as decimals, all others as strings (sub expressions, quoted strings, NULL).
+     *
+     * @param expression expression to fill
+     * @return the same expression, allows to chain methods
+     */
+    public Expression applyTo(@NonNull Expression expression) {
+        variables.forEach((name, value) -> {
+            try {
+                double dbl = Double.parseDouble(value);
+                expression.with(name, dbl);
+            } catch (NumberFormatException ex) {
+                expression.with(name, value);
+            }
+        });
+        return expression;
+    }
+
+    private static String clean(String text) {
+        return text.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.ngsandbox.math.expressions.utils;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.Configurator;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.ConsoleAppender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.ContextAwareBase;
+
+/**
+ * Default logback configuration (INFO level to the console) created in code instead of parsing <code>logback.xml</code>,
+ * which is a noticeable part of the JVM startup. The console output is initialized on the first logged event.
+ * Registered through <code>META-INF/services</code> and used by logback only when there is no configuration file,
+ * so <code>-Dlogback.configurationFile</code> still overrides it.
+ */
+public class LoggingConfigurator extends ContextAwareBase implements Configurator {
+
+    public static final String APPENDER_NAME = "STDOUT";
+    public static final String PATTERN = "%d{HH:mm:ss.SSS} [%thread] %-5level %logger{36} - %msg%n";
+
+    @Override
+    public void configure(LoggerContext loggerContext) {
+        LazyConsoleAppender appender = new LazyConsoleAppender();
+        appender.setContext(loggerContext);
+        appender.setName(APPENDER_NAME);
+        appender.start();
+
+        Logger root = loggerContext.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.INFO);
+        root.addAppender(appender);
+    }
+
+    /**
+     * Console appender which compiles the pattern (date formats, locale data, etc) on the first logged event,
+     * so processes which log nothing do not pay for it
+     */
+    private static final class LazyConsoleAppender extends UnsynchronizedAppenderBase<ILoggingEvent> {
+        private volatile ConsoleAppender<ILoggingEvent> console;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            getConsole().doAppend(event);
+        }
+
+        private ConsoleAppender<ILoggingEvent> getConsole() {
+            ConsoleAppender<ILoggingEvent> result = console;
+            if (result == null) {
+                synchronized (this) {
+                    result = console;
+                    if (result == null) {
+                        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+                        encoder.setContext(getContext());
+                        encoder.setPattern(PATTERN);
+                        encoder.start();
+
+                        result = new ConsoleAppender<>();
+                        result.setContext(getContext());
+                        result.setName(getName());
+                        result.setEncoder(encoder);
+                        result.start();
+                        console = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void stop() {
+            ConsoleAppender<ILoggingEvent> result = console;
+            if (result != null) {
+                result.stop();
+            }
+            super.stop();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.ngsandbox.math.expressions.utils;
+
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Access to the virtual threads (Java 21) which are newer than the Java version of the project,
+ * so they are resolved at runtime
+ */
+@Slf4j
+public final class VirtualThreads {
+
+    private static volatile Executor shared;
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return new executor which starts a virtual thread for every task, empty if the JVM does not support them
+     */
+    public static Optional<ExecutorService> newVirtualThreadPerTaskExecutor() {
+        try {
+            return Optional.of((ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        } catch (ReflectiveOperationException ex) {
+            log.debug("Virtual threads are not supported: {}", ex.toString());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return shared executor of virtual threads, the common fork join pool if the JVM does not support them
+     */
+    public static Executor sharedExecutor() {
+        Executor result = shared;
+        if (result == null) {
+            synchronized (VirtualThreads.class) {
+                result = shared;
+                if (result == null) {
+                    result = newVirtualThreadPerTaskExecutor().<Executor>map(e -> e).orElse(ForkJoinPool.commonPool());
+                    shared = result;
+                }
+            }
+        }
+        return result;
+    }
+}
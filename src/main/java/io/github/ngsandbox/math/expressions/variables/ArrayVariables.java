@@ -0,0 +1,65 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Layout of the rows stored as arrays of values (e.g. rows of a table or columns of a CSV file): the index of every
+ * variable is computed once, then every row is bound to a {@link VariableResolver} without copying its values.
+ * Names are case insensitive. Thread safe.
+ */
+public final class ArrayVariables {
+
+    private final List<String> names;
+    private final Map<String, Integer> indexes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public ArrayVariables(@NonNull String... names) {
+        this.names = Collections.unmodifiableList(asList(names.clone()));
+        for (int i = 0; i < names.length; i++) {
+            if (indexes.put(names[i], i) != null) {
+                throw new ExpressionException("Variable " + names[i] + " is defined twice");
+            }
+        }
+    }
+
+    /**
+     * @return names of the variables in the order of the row values
+     */
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * @param name name of the variable
+     * @return index of the variable in the rows, -1 if it is unknown
+     */
+    public int indexOf(@NonNull String name) {
+        Integer index = indexes.get(name);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param row values of the variables in the order of the names, the array is not copied
+     * @return resolver of the row values
+     */
+    public VariableResolver bind(@NonNull Object[] row) {
+        if (row.length != names.size()) {
+            throw new ExpressionException("Row has " + row.length + " values, but " + names.size() + " are expected");
+        }
+        return name -> {
+            int index = indexOf(name);
+            if (index < 0) {
+                throw new ExpressionException("Variable does not exist " + name);
+            }
+            return row[index];
+        };
+    }
+}
@@ -0,0 +1,96 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValues;
+
+/**
+ * Variables of a single evaluation fetched by the {@link AsyncVariableResolver}, thread safe
+ */
+public final class AsyncResolvedVariables extends ResolvedVariables {
+
+    private final AsyncVariableResolver resolver;
+    /**
+     * Fetched variables by the lower case name
+     */
+    private final ConcurrentMap<String, Fetch> values = new ConcurrentHashMap<>();
+
+    public AsyncResolvedVariables(@NonNull AsyncVariableResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    /**
+     * Start fetching all the variables in parallel
+     *
+     * @param names names of the variables
+     * @return future completed when all the variables are fetched
+     */
+    public CompletableFuture<Void> prefetch(@NonNull Collection<String> names) {
+        return CompletableFuture.allOf(names.stream().map(this::fetch).toArray(CompletableFuture[]::new));
+    }
+
+    /**
+     * Get value of the variable, waits for it if it is still fetched
+     *
+     * @param name name of the variable
+     * @return value of the variable
+     */
+    @Override
+    public WrappedValue get(@NonNull String name) {
+        try {
+            return fetch(name).join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ExpressionException("Variable " + name + " can not be resolved: " + cause);
+        }
+    }
+
+    /**
+     * @return variables fetched successfully so far
+     */
+    @Override
+    public Map<String, WrappedValue> getResolved() {
+        Map<String, WrappedValue> result = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        values.values().forEach(fetch -> {
+            if (fetch.value.isDone() && !fetch.value.isCompletedExceptionally()) {
+                result.put(fetch.name, fetch.value.join());
+            }
+        });
+        return result;
+    }
+
+    private CompletableFuture<WrappedValue> fetch(String name) {
+        // variables are case insensitive like the ones set to the expression
+        return values.computeIfAbsent(name.toLowerCase(Locale.ROOT), n -> {
+            CompletableFuture<?> value = resolver.resolve(name);
+            if (value == null) {
+                throw new ExpressionException("Resolver returned no value for variable " + name);
+            }
+            return new Fetch(name, value.thenApply(WrappedValues::wrap));
+        }).value;
+    }
+
+    private static final class Fetch {
+        private final String name;
+        private final CompletableFuture<WrappedValue> value;
+
+        private Fetch(String name, CompletableFuture<WrappedValue> value) {
+            this.name = name;
+            this.value = value;
+        }
+    }
+}
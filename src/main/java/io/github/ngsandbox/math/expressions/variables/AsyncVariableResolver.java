@@ -0,0 +1,21 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of the variable values which are fetched asynchronously (remote caches, feature stores, etc.),
+ * see {@link io.github.ngsandbox.math.expressions.Expression#evalAsync(AsyncVariableResolver)}.
+ */
+@FunctionalInterface
+public interface AsyncVariableResolver {
+
+    /**
+     * Start fetching value of the variable, it is called at most once per variable and evaluation
+     * and only for the variables which are not set to the expression.
+     *
+     * @param name name of the variable as it is written in the formula
+     * @return future value of the variable converted by {@link io.github.ngsandbox.math.expressions.wrappers.WrappedValues#wrap(Object)},
+     * completed exceptionally if the variable can not be fetched
+     */
+    CompletableFuture<?> resolve(String name);
+}
@@ -0,0 +1,187 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Variables of the objects of a class: components of records, getters of beans (<code>getName()</code>,
+ * <code>isName()</code>) and public fields. Accessors are found once per class and converted to {@link MethodHandle}s,
+ * so reading the variable is not a reflective call. Names are case insensitive. Thread safe.
+ *
+ * @param <T> type of the objects
+ */
+public final class ObjectVariables<T> {
+
+    private static final MethodType ACCESSOR_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final String GET_PREFIX = "get";
+    private static final String IS_PREFIX = "is";
+
+    private static final ClassValue<ObjectVariables<?>> CACHE = new ClassValue<ObjectVariables<?>>() {
+        @Override
+        protected ObjectVariables<?> computeValue(Class<?> type) {
+            return new ObjectVariables<>(type);
+        }
+    };
+
+    private final Class<T> type;
+    private final Map<String, MethodHandle> accessors = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    private ObjectVariables(Class<T> type) {
+        this.type = type;
+        Method[] components = recordAccessors(type);
+        if (components != null) {
+            for (Method accessor : components) {
+                accessors.put(accessor.getName(), unreflect(accessor));
+            }
+        } else {
+            for (Field field : type.getFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    accessors.put(field.getName(), unreflect(field));
+                }
+            }
+            // getters win over the fields with the same name
+            for (Method method : type.getMethods()) {
+                String property = getProperty(method);
+                if (property != null) {
+                    accessors.put(property, unreflect(method));
+                }
+            }
+        }
+    }
+
+    /**
+     * @param type type of the objects
+     * @return variables of the type, they are computed once per type
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> ObjectVariables<T> of(@NonNull Class<T> type) {
+        return (ObjectVariables<T>) CACHE.get(type);
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * @return names of all the variables of the type
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(accessors.keySet());
+    }
+
+    /**
+     * @param name name of the variable
+     * @return true if the type has the variable
+     */
+    public boolean contains(@NonNull String name) {
+        return accessors.containsKey(name);
+    }
+
+    /**
+     * @param name name of the variable
+     * @return accessor of the variable with <code>(Object)Object</code> type
+     */
+    public MethodHandle getAccessor(@NonNull String name) {
+        MethodHandle accessor = accessors.get(name);
+        if (accessor == null) {
+            throw new ExpressionException("Variable does not exist " + name + " in " + type.getName());
+        }
+        return accessor;
+    }
+
+    /**
+     * Read the variable of the object
+     *
+     * @param accessor accessor of the variable, see {@link #getAccessor(String)}
+     * @param object   object to read
+     * @return value of the variable
+     */
+    public static Object read(@NonNull MethodHandle accessor, Object object) {
+        try {
+            return (Object) accessor.invokeExact(object);
+        } catch (RuntimeException | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new ExpressionException("Variable can not be read from " + object + ": " + ex);
+        }
+    }
+
+    /**
+     * @param object object to read the variables from
+     * @return resolver of the object variables
+     */
+    public VariableResolver bind(@NonNull T object) {
+        return name -> read(getAccessor(name), object);
+    }
+
+    private static String getProperty(Method method) {
+        if (method.getParameterCount() != 0
+                || Modifier.isStatic(method.getModifiers())
+                || method.getDeclaringClass() == Object.class) {
+            return null;
+        }
+
+        String name = method.getName();
+        if (name.startsWith(GET_PREFIX) && name.length() > GET_PREFIX.length() && method.getReturnType() != void.class) {
+            return name.substring(GET_PREFIX.length());
+        }
+        if (name.startsWith(IS_PREFIX) && name.length() > IS_PREFIX.length()
+                && (method.getReturnType() == boolean.class || method.getReturnType() == Boolean.class)) {
+            return name.substring(IS_PREFIX.length());
+        }
+        return null;
+    }
+
+    /**
+     * Records (Java 16) are newer than the Java version of the project, so they are inspected by reflection
+     *
+     * @return accessors of the record components, null if the type is not a record
+     */
+    private static Method[] recordAccessors(Class<?> type) {
+        try {
+            if (!(Boolean) Class.class.getMethod("isRecord").invoke(type)) {
+                return null;
+            }
+            Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+            Method[] result = new Method[components.length];
+            for (int i = 0; i < components.length; i++) {
+                result[i] = (Method) components[i].getClass().getMethod("getAccessor").invoke(components[i]);
+            }
+            return result;
+        } catch (NoSuchMethodException ex) {
+            return null;
+        } catch (ReflectiveOperationException ex) {
+            throw new ExpressionException("Components of the record " + type.getName() + " can not be read: " + ex);
+        }
+    }
+
+    private static MethodHandle unreflect(Method method) {
+        try {
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw new ExpressionException("Accessor " + method + " is not accessible: " + ex);
+        }
+    }
+
+    private static MethodHandle unreflect(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup().unreflectGetter(field).asType(ACCESSOR_TYPE);
+        } catch (IllegalAccessException | RuntimeException ex) {
+            throw new ExpressionException("Field " + field + " is not accessible: " + ex);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Optional;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.wrappers.AbstractedWrapper;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Variables of a single evaluation which are not set to the expression, every variable is requested
+ * from the resolver at most once and only when it is needed.
+ */
+public abstract class ResolvedVariables {
+
+    /**
+     * @param name name of the variable
+     * @return value which resolves the variable on the first evaluation
+     */
+    public WrappedValue lazy(@NonNull String name) {
+        return new LazyVariable(name);
+    }
+
+    /**
+     * Get value of the variable, it is resolved on the first request
+     *
+     * @param name name of the variable
+     * @return value of the variable
+     */
+    public abstract WrappedValue get(@NonNull String name);
+
+    /**
+     * @return variables resolved successfully so far
+     */
+    public abstract Map<String, WrappedValue> getResolved();
+
+    private final class LazyVariable extends AbstractedWrapper {
+        private final String name;
+
+        private LazyVariable(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public boolean isPrimitive() {
+            return false;
+        }
+
+        @Override
+        public WrappedValue eval() {
+            return unwrapEval(get(name));
+        }
+
+        @Override
+        public Optional<BigDecimal> unwrap() {
+            return eval().unwrap();
+        }
+
+        @Override
+        public String getExpression() {
+            return name;
+        }
+
+        @Override
+        public WrappedValue copy() {
+            return this;
+        }
+
+        @Override
+        public String toString() {
+            return "Resolved{" + name + '}';
+        }
+    }
+}
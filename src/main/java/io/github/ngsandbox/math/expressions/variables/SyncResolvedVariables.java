@@ -0,0 +1,41 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValues;
+
+/**
+ * Variables of a single evaluation resolved by the {@link VariableResolver} in the evaluating thread
+ */
+public final class SyncResolvedVariables extends ResolvedVariables {
+
+    private final VariableResolver resolver;
+
+    /**
+     * Resolved variables, case insensitive like the ones set to the expression
+     */
+    private final Map<String, WrappedValue> values = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+
+    public SyncResolvedVariables(@NonNull VariableResolver resolver) {
+        this.resolver = resolver;
+    }
+
+    @Override
+    public WrappedValue get(@NonNull String name) {
+        WrappedValue value = values.get(name);
+        if (value == null) {
+            value = WrappedValues.wrap(resolver.resolve(name));
+            values.put(name, value);
+        }
+        return value;
+    }
+
+    @Override
+    public Map<String, WrappedValue> getResolved() {
+        return new TreeMap<>(values);
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Map;
+import java.util.Objects;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Source of the variable values which are consulted by {@link io.github.ngsandbox.math.expressions.Expression#eval(VariableResolver)}
+ * only for the variables the evaluation reaches, so the records with lots of fields do not have to be copied to the expression.
+ */
+@FunctionalInterface
+public interface VariableResolver {
+
+    /**
+     * Get value of the variable, it is called at most once per variable and evaluation
+     * and only for the variables which are not set to the expression.
+     *
+     * @param name name of the variable as it is written in the formula
+     * @return value of the variable converted by {@link io.github.ngsandbox.math.expressions.wrappers.WrappedValues#wrap(Object)}
+     * @throws ExpressionException if the variable is unknown
+     */
+    Object resolve(String name);
+
+    /**
+     * Resolver of the map values, names are looked up as they are written in the formula
+     * (use the map with case insensitive keys to ignore the case)
+     *
+     * @param values values by variable name
+     * @return resolver backed by the map
+     */
+    static VariableResolver of(Map<String, ?> values) {
+        Objects.requireNonNull(values, "values");
+        return name -> {
+            Object value = values.get(name);
+            if (value == null && !values.containsKey(name)) {
+                throw new ExpressionException("Variable does not exist " + name);
+            }
+            return value;
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValues;
+
+/**
+ * Immutable layer of variables on top of the parent scope, e.g. global constants, tenant variables and
+ * request variables. Variables are looked up from the top layer to the bottom one, so the upper layers override
+ * the lower ones. A new layer keeps only its own variables and shares the parent, so it costs the number
+ * of its variables rather than a copy of the whole scope. Names are case insensitive. Thread safe.
+ */
+public final class VariableScope implements VariableResolver {
+
+    public static final VariableScope EMPTY = new VariableScope(null, Collections.emptyMap());
+
+    /**
+     * Top layers with less variables are copied by {@link #with}, on top of the larger ones a new layer is created
+     */
+    private static final int MAX_COPIED_VARIABLES = 8;
+
+    private final VariableScope parent;
+    private final Map<String, WrappedValue> values;
+
+    private VariableScope(VariableScope parent, Map<String, WrappedValue> values) {
+        this.parent = parent;
+        this.values = values;
+    }
+
+    /**
+     * @param values variables of the scope, converted by {@link WrappedValues#wrap(Object)}
+     * @return scope with a single layer
+     */
+    public static VariableScope of(@NonNull Map<String, ?> values) {
+        return EMPTY.layer(values);
+    }
+
+    /**
+     * @param values wrapped variables, the map is not copied and must not be changed
+     * @return scope with a single layer
+     */
+    static VariableScope ofWrapped(Map<String, WrappedValue> values) {
+        return new VariableScope(EMPTY, values);
+    }
+
+    /**
+     * @return variables of the top layer
+     */
+    Map<String, WrappedValue> getLayerValues() {
+        return values;
+    }
+
+    /**
+     * @param values variables of the new layer, converted by {@link WrappedValues#wrap(Object)}
+     * @return new scope with the layer on top of this one
+     */
+    public VariableScope layer(@NonNull Map<String, ?> values) {
+        Map<String, WrappedValue> layer = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        values.forEach((name, value) -> layer.put(name, WrappedValues.wrap(value)));
+        return new VariableScope(this, Collections.unmodifiableMap(layer));
+    }
+
+    /**
+     * @return new empty layer on top of this scope
+     */
+    public VariableScope layer() {
+        return new VariableScope(this, Collections.emptyMap());
+    }
+
+    /**
+     * Creates the scope which differs from this one by the variable. A small top layer (e.g. the request variables)
+     * is copied with the variable, a large one (e.g. the global or tenant variables) is shared and the variable
+     * is set in a new layer on top of it, so the new scope costs only the changed variables.
+     *
+     * @param name  name of the variable
+     * @param value value of the variable, converted by {@link WrappedValues#wrap(Object)}
+     * @return new scope
+     */
+    public VariableScope with(@NonNull String name, Object value) {
+        boolean copied = parent != null && values.size() < MAX_COPIED_VARIABLES;
+        Map<String, WrappedValue> layer = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (copied) {
+            layer.putAll(values);
+        }
+        layer.put(name, WrappedValues.wrap(value));
+        return new VariableScope(copied ? parent : this, Collections.unmodifiableMap(layer));
+    }
+
+    /**
+     * @return scope below the top layer, null for the {@link #EMPTY} scope
+     */
+    public VariableScope getParent() {
+        return parent;
+    }
+
+    /**
+     * @return number of the layers
+     */
+    public int getDepth() {
+        int depth = 0;
+        for (VariableScope scope = this; scope.parent != null; scope = scope.parent) {
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * @param name name of the variable
+     * @return value of the variable from the top most layer which has it, null if no layer has it
+     */
+    public WrappedValue get(@NonNull String name) {
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            WrappedValue value = scope.values.get(name);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param name name of the variable
+     * @return true if some layer has the variable
+     */
+    public boolean contains(@NonNull String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * @return names of the variables of all the layers
+     */
+    public Set<String> getNames() {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        for (VariableScope scope = this; scope != null; scope = scope.parent) {
+            names.addAll(scope.values.keySet());
+        }
+        return names;
+    }
+
+    @Override
+    public WrappedValue resolve(String name) {
+        WrappedValue value = get(name);
+        if (value == null) {
+            throw new ExpressionException("Variable does not exist " + name);
+        }
+        return value;
+    }
+}
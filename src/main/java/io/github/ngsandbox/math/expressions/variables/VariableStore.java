@@ -0,0 +1,122 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValues;
+
+/**
+ * Variables shared by the evaluations and updated concurrently (e.g. rates and prices of market data).
+ * Every update publishes a new immutable version of all the variables, so readers never block and
+ * an evaluation of a {@link #snapshot()} sees one consistent version of all the variables it uses.
+ * Updates are serialized and copy the variables, they suit hundreds of variables updated by few writers.
+ */
+public final class VariableStore {
+
+    private final Object writeLock = new Object();
+    private volatile Snapshot current = new Snapshot(0, VariableScope.EMPTY);
+
+    /**
+     * @return current version of the variables, it can be evaluated while the store is being updated
+     */
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    /**
+     * @return number of the updates published so far
+     */
+    public long getVersion() {
+        return current.getVersion();
+    }
+
+    /**
+     * Publish the new value of the variable
+     *
+     * @param name  name of the variable
+     * @param value value of the variable, converted by {@link WrappedValues#wrap(Object)}
+     * @return version of the store with the value
+     */
+    public long set(@NonNull String name, Object value) {
+        return setAll(Collections.singletonMap(name, value));
+    }
+
+    /**
+     * Publish the new values of the variables atomically, readers see either all or none of them
+     *
+     * @param values values of the variables, converted by {@link WrappedValues#wrap(Object)}
+     * @return version of the store with the values
+     */
+    public long setAll(@NonNull Map<String, ?> values) {
+        Map<String, WrappedValue> wrapped = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        values.forEach((name, value) -> wrapped.put(name, WrappedValues.wrap(value)));
+        synchronized (writeLock) {
+            Map<String, WrappedValue> next = copyCurrent();
+            next.putAll(wrapped);
+            return publish(next);
+        }
+    }
+
+    /**
+     * Remove the variable
+     *
+     * @param name name of the variable
+     * @return version of the store without the variable
+     */
+    public long remove(@NonNull String name) {
+        synchronized (writeLock) {
+            Map<String, WrappedValue> next = copyCurrent();
+            next.remove(name);
+            return publish(next);
+        }
+    }
+
+    private Map<String, WrappedValue> copyCurrent() {
+        Map<String, WrappedValue> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        copy.putAll(current.getScope().getLayerValues());
+        return copy;
+    }
+
+    private long publish(Map<String, WrappedValue> values) {
+        Snapshot next = new Snapshot(current.getVersion() + 1, VariableScope.ofWrapped(Collections.unmodifiableMap(values)));
+        current = next;
+        return next.getVersion();
+    }
+
+    /**
+     * Immutable version of the store variables
+     */
+    @Getter
+    public static final class Snapshot implements VariableResolver {
+        private final long version;
+
+        /**
+         * Variables of the version, request variables can be layered on top of them,
+         * see {@link VariableScope#layer(Map)}
+         */
+        private final VariableScope scope;
+
+        private Snapshot(long version, VariableScope scope) {
+            this.version = version;
+            this.scope = scope;
+        }
+
+        /**
+         * @param name name of the variable
+         * @return value of the variable, null if it is not set
+         */
+        public WrappedValue get(@NonNull String name) {
+            return scope.get(name);
+        }
+
+        @Override
+        public WrappedValue resolve(String name) {
+            return scope.resolve(name);
+        }
+    }
+}
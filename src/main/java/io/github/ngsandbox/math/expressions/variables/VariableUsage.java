@@ -0,0 +1,77 @@
+package io.github.ngsandbox.math.expressions.variables;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionUtils;
+import io.github.ngsandbox.math.expressions.tokens.Token;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
+
+/**
+ * Static analysis of the variables used by the parsed formula
+ */
+public final class VariableUsage {
+
+    /**
+     * Marker of the function parameters start, compared by reference
+     */
+    private static final Set<String> PARAMS_START = Collections.unmodifiableSet(new LinkedHashSet<>());
+
+    private VariableUsage() {
+    }
+
+    /**
+     * Variables which are evaluated by every evaluation of the formula, i.e. the ones which are not
+     * only in the lazily evaluated branches of IF functions
+     *
+     * @param rpn parsed formula
+     * @return names of the variables in the order of the formula
+     */
+    public static Set<String> unconditional(@NonNull List<Token> rpn) {
+        Deque<Set<String>> stack = new ArrayDeque<>();
+        for (Token token : rpn) {
+            switch (token.getType()) {
+            case VARIABLE:
+                Set<String> variable = new LinkedHashSet<>();
+                variable.add(token.getSurface());
+                stack.push(variable);
+                break;
+            case OPERATOR:
+                Set<String> second = stack.pop();
+                Set<String> first = stack.pop();
+                first.addAll(second);
+                stack.push(first);
+                break;
+            case UNARY_OPERATOR:
+                break;
+            case OPEN_PAREN:
+                stack.push(PARAMS_START);
+                break;
+            case FUNCTION:
+                List<Set<String>> params = ExpressionUtils.popParams(stack, set -> set == PARAMS_START);
+
+                Set<String> result = new LinkedHashSet<>();
+                if (IF_FUNC.equalsIgnoreCase(token.getSurface())) {
+                    // only the condition is always evaluated
+                    if (!params.isEmpty()) {
+                        result.addAll(params.get(0));
+                    }
+                } else {
+                    params.forEach(result::addAll);
+                }
+                stack.push(result);
+                break;
+            default:
+                stack.push(new LinkedHashSet<>());
+            }
+        }
+        return stack.isEmpty() ? new LinkedHashSet<>() : stack.pop();
+    }
+}
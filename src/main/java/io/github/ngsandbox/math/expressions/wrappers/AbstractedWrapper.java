@@ -10,15 +10,10 @@ public abstract class AbstractedWrapper implements WrappedValue {
     }
 
     protected WrappedValue unwrapEval(WrappedValue value) {
-        if (value == null) {
-            return WRAPPED_NULL;
+        while (value != null && !value.isPrimitive()) {
+            value = value.eval();
         }
-
-        if (value.isPrimitive()) {
-            return value;
-        }
-
-        return unwrapEval(value.eval());
+        return value == null ? WRAPPED_NULL : value;
     }
 
     @Override
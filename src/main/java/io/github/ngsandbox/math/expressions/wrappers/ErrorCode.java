@@ -0,0 +1,33 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.ARG_NULL_ERROR;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.FIRST_ARG_NULL_ERROR;
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.SECOND_ARG_NULL_ERROR;
+
+/**
+ * Codes of the evaluation errors returned as values, see {@link WrappedError}
+ */
+public enum ErrorCode {
+    DIVISION_BY_ZERO("Division by zero from the second argument %s"),
+    FIRST_ARGUMENT_NOT_NUMERIC(FIRST_ARG_NULL_ERROR + " `%s`"),
+    SECOND_ARGUMENT_NOT_NUMERIC(SECOND_ARG_NULL_ERROR + " `%s`"),
+    ARGUMENT_NOT_NUMERIC("%d" + ARG_NULL_ERROR + " `%s`"),
+    FIRST_OPERAND_NULL("First operand of `%s` must not be null"),
+    SECOND_OPERAND_NULL("Second operand of `%s` must not be null"),
+    CONDITION_NULL("First argument of IF expression (%s) must not be NULL"),
+    UNKNOWN_VARIABLE("Variable does not exist %s"),
+    /**
+     * Any other error, it is reported by an exception and converted to the value
+     */
+    EVALUATION_ERROR("%s");
+
+    private final String template;
+
+    ErrorCode(String template) {
+        this.template = template;
+    }
+
+    String format(Object... arguments) {
+        return String.format(template, arguments);
+    }
+}
@@ -0,0 +1,112 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+import java.util.StringJoiner;
+
+import lombok.NonNull;
+
+/**
+ * Static type of a formula node inferred before the evaluation: the kinds ({@link ValueKind#NULL},
+ * {@link ValueKind#NUMBER}, {@link ValueKind#STRING}) the evaluated value can have.
+ * <br>
+ * Errors are not a part of the type: any value can be an error, errors of the operands are returned
+ * before the operator sees them. The types are canonical, so they can be compared by the identity.
+ */
+public final class StaticType {
+
+    private static final int NULL_KIND = 1;
+    private static final int NUMBER_KIND = 2;
+    private static final int STRING_KIND = 4;
+
+    private static final StaticType[] TYPES = new StaticType[8];
+
+    static {
+        for (int kinds = 0; kinds < TYPES.length; kinds++) {
+            TYPES[kinds] = new StaticType(kinds);
+        }
+    }
+
+    public static final StaticType NULL = TYPES[NULL_KIND];
+    public static final StaticType NUMBER = TYPES[NUMBER_KIND];
+    public static final StaticType STRING = TYPES[STRING_KIND];
+    public static final StaticType ANY = TYPES[NULL_KIND | NUMBER_KIND | STRING_KIND];
+
+    private final int kinds;
+
+    private StaticType(int kinds) {
+        this.kinds = kinds;
+    }
+
+    /**
+     * Type of the value which is known before the evaluation
+     *
+     * @return kind of the primitive value, {@link #ANY} for the values which have to be evaluated and errors
+     */
+    public static StaticType of(WrappedValue value) {
+        if (value == null || !value.isPrimitive()) {
+            return ANY;
+        }
+        switch (value.getKind()) {
+        case NULL:
+            return NULL;
+        case NUMBER:
+            return NUMBER;
+        case STRING:
+            return STRING;
+        default:
+            return ANY;
+        }
+    }
+
+    /**
+     * @return type of the values of both types, e.g. of the branches of IF
+     */
+    public StaticType union(@NonNull StaticType other) {
+        return TYPES[kinds | other.kinds];
+    }
+
+    public boolean canBe(@NonNull ValueKind kind) {
+        switch (kind) {
+        case NULL:
+            return (kinds & NULL_KIND) != 0;
+        case NUMBER:
+            return (kinds & NUMBER_KIND) != 0;
+        case STRING:
+            return (kinds & STRING_KIND) != 0;
+        default:
+            return true;
+        }
+    }
+
+    public boolean isNullable() {
+        return (kinds & NULL_KIND) != 0;
+    }
+
+    /**
+     * @return <code>true</code> if the value is proven to be a number (or an error)
+     */
+    public boolean isNumber() {
+        return kinds == NUMBER_KIND;
+    }
+
+    /**
+     * @return <code>true</code> if the value is proven to be a string (or an error)
+     */
+    public boolean isString() {
+        return kinds == STRING_KIND;
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner("|");
+        if ((kinds & NUMBER_KIND) != 0) {
+            joiner.add(ValueKind.NUMBER.name());
+        }
+        if ((kinds & STRING_KIND) != 0) {
+            joiner.add(ValueKind.STRING.name());
+        }
+        if ((kinds & NULL_KIND) != 0) {
+            joiner.add(ValueKind.NULL.name());
+        }
+        return joiner.toString();
+    }
+}
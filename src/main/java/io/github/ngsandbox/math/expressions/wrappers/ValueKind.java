@@ -0,0 +1,14 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+/**
+ * Kind of the evaluated value, see {@link WrappedValue#getKind()}
+ */
+public enum ValueKind {
+    NULL,
+    NUMBER,
+    STRING,
+    /**
+     * Error returned as a value, see {@link WrappedError}
+     */
+    ERROR
+}
@@ -9,7 +9,6 @@ import lombok.Getter;
 import static io.github.ngsandbox.math.expressions.wrappers.WrappedNull.WRAPPED_NULL;
 import static java.util.Comparator.comparing;
 import static java.util.Comparator.nullsLast;
-import static java.util.Optional.ofNullable;
 
 public final class WrappedBigDecimal extends AbstractedWrapper {
 
@@ -17,12 +16,17 @@ public final class WrappedBigDecimal extends AbstractedWrapper {
     public static final WrappedValue WRAPPED_ZERO = new WrappedBigDecimal("0", BigDecimal.ZERO);
     public static final WrappedValue WRAPPED_ONE = new WrappedBigDecimal("1", BigDecimal.ONE);
     public static final WrappedValue WRAPPED_MINUS_ONE = new WrappedBigDecimal("-1", BigDecimal.valueOf(-1));
+    private static final BigDecimal MINUS_ONE = BigDecimal.valueOf(-1);
 
-    @Getter
-    private final String expression;
     @Getter
     private final BigDecimal value;
 
+    /**
+     * Text and value without trailing zeros are computed on the first request, intermediate results need neither
+     */
+    private String expression;
+    private BigDecimal stripped;
+
     private WrappedBigDecimal(String expression, BigDecimal value) {
         this.expression = expression;
         this.value = value;
@@ -40,20 +44,44 @@ public final class WrappedBigDecimal extends AbstractedWrapper {
 
     @Override
     public Optional<BigDecimal> unwrap() {
-        return ofNullable(value).map(BigDecimal::stripTrailingZeros);
+        return Optional.of(decimalValue());
+    }
+
+    @Override
+    public ValueKind getKind() {
+        return ValueKind.NUMBER;
+    }
+
+    @Override
+    public BigDecimal decimalValue() {
+        if (stripped == null) {
+            stripped = value.stripTrailingZeros();
+        }
+        return stripped;
+    }
+
+    @Override
+    public double doubleValue() {
+        return value.doubleValue();
+    }
+
+    @Override
+    public String getExpression() {
+        if (expression == null) {
+            expression = value.toPlainString();
+        }
+        return expression;
     }
 
     @Override
     public String toString() {
-        return "Decimal{" + expression + '}';
+        return "Decimal{" + getExpression() + '}';
     }
 
     @Override
     public int compareToValues(WrappedValue wrapper) {
-        return ofNullable(wrapper)
-                .flatMap(WrappedValue::unwrap)
-                .map(t -> COMPARATOR.compare(value, t))
-                .orElse(1);
+        BigDecimal other = wrapper == null ? null : wrapper.decimalValue();
+        return other == null ? 1 : COMPARATOR.compare(value, other);
     }
 
     @Override
@@ -66,7 +94,7 @@ public final class WrappedBigDecimal extends AbstractedWrapper {
             return WRAPPED_NULL;
         } else if (BigDecimal.ZERO.equals(value)) {
             return WRAPPED_ZERO;
-        } else if (BigDecimal.valueOf(-1).equals(value)) {
+        } else if (MINUS_ONE.equals(value)) {
             return WRAPPED_MINUS_ONE;
         } else if (BigDecimal.ONE.equals(value)) {
             return WRAPPED_ONE;
@@ -75,8 +103,11 @@ public final class WrappedBigDecimal extends AbstractedWrapper {
         return new WrappedBigDecimal(text, value);
     }
 
+    /**
+     * @param value the value, its text is rendered when it is requested
+     */
     public static WrappedValue wrapBigDecimal(BigDecimal value) {
-        return wrapBigDecimal(value == null ? null : value.toPlainString(), value);
+        return wrapBigDecimal(null, value);
     }
 
     public static WrappedValue wrapBigDecimal(Double value) {
@@ -0,0 +1,131 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+/**
+ * Error of the evaluation returned as a value instead of an exception (division by zero, NULL operands, etc.).
+ * Operators and functions return the errors of their arguments, so the error of the first failed node becomes
+ * the result of the expression. The message is rendered only when it is requested.
+ */
+public final class WrappedError extends AbstractedWrapper {
+
+    @Getter
+    private final ErrorCode code;
+
+    /**
+     * Operator, function or variable which failed, null if it is unknown
+     */
+    @Getter
+    private final String source;
+
+    /**
+     * Character position of the failed node in the formula, -1 if it is unknown
+     */
+    @Getter
+    private final int position;
+
+    private final Object[] arguments;
+    private String message;
+
+    private WrappedError(ErrorCode code, String source, int position, Object[] arguments, String message) {
+        this.code = code;
+        this.source = source;
+        this.position = position;
+        this.arguments = arguments;
+        this.message = message;
+    }
+
+    /**
+     * @param code      code of the error
+     * @param source    operator, function or variable which failed
+     * @param arguments arguments of the {@link ErrorCode} message
+     * @return the error
+     */
+    public static WrappedError of(@NonNull ErrorCode code, String source, Object... arguments) {
+        return new WrappedError(code, source, -1, arguments, null);
+    }
+
+    /**
+     * @param ex exception thrown by the evaluation
+     * @return the error with the exception message
+     */
+    public static WrappedError of(@NonNull ExpressionException ex) {
+        return new WrappedError(ErrorCode.EVALUATION_ERROR, null, -1, null, ex.getMessage());
+    }
+
+    /**
+     * @param source   operator or function of the failed node
+     * @param position character position of the failed node
+     * @return the error with the source and position if they are not known yet
+     */
+    public WrappedError at(String source, int position) {
+        if ((this.source != null || source == null) && (this.position >= 0 || position < 0)) {
+            return this;
+        }
+        return new WrappedError(code, this.source == null ? source : this.source,
+                this.position >= 0 ? this.position : position, arguments, message);
+    }
+
+    /**
+     * @return message of the error
+     */
+    public String getMessage() {
+        if (message == null) {
+            message = code.format(arguments);
+        }
+        return message;
+    }
+
+    /**
+     * @return exception to report the error in the throwing mode
+     */
+    public ExpressionException toException() {
+        return new ExpressionException(getMessage());
+    }
+
+    @Override
+    public boolean isPrimitive() {
+        return true;
+    }
+
+    @Override
+    public WrappedValue eval() {
+        return this;
+    }
+
+    @Override
+    public Optional<BigDecimal> unwrap() {
+        return Optional.empty();
+    }
+
+    @Override
+    public ValueKind getKind() {
+        return ValueKind.ERROR;
+    }
+
+    @Override
+    public BigDecimal decimalValue() {
+        return null;
+    }
+
+    @Override
+    public String getExpression() {
+        return getMessage();
+    }
+
+    @Override
+    public WrappedValue copy() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "ERROR{" + code + (position < 0 ? "" : " at " + position) + '}';
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import lombok.NonNull;
+
+/**
+ * Evaluation of the graph of wrapped values by an explicit stack: dependencies of every value
+ * ({@link WrappedValue#nextDependency()}) are evaluated before the value itself, so {@link WrappedValue#eval()}
+ * finds them already evaluated and does not recurse. Depth of the graph is bounded by the heap instead of
+ * the thread stack.
+ */
+public final class WrappedEvaluator {
+
+    private WrappedEvaluator() {
+    }
+
+    /**
+     * @param root root of the graph
+     * @return evaluated value of the root
+     */
+    public static WrappedValue evaluate(@NonNull WrappedValue root) {
+        if (root.isPrimitive()) {
+            return root;
+        }
+
+        Deque<WrappedValue> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            WrappedValue dependency = stack.peek().nextDependency();
+            if (dependency != null) {
+                stack.push(dependency);
+            } else {
+                stack.pop().eval();
+            }
+        }
+        return root.eval();
+    }
+}
@@ -6,14 +6,47 @@ import java.util.Optional;
 import lombok.NonNull;
 
 import io.github.ngsandbox.math.expressions.Expression;
+import io.github.ngsandbox.math.expressions.variables.ResolvedVariables;
 
 public class WrappedExpression extends AbstractedWrapper {
     private final Expression value;
+    /**
+     * Variables resolved by the outer evaluation and its mode of the errors, the nested formula is evaluated the same way
+     */
+    private final ResolvedVariables resolved;
+    private final boolean errorsAsValues;
 
     private WrappedValue result;
+    private WrappedValue graph;
+    private boolean dependency;
 
     public WrappedExpression(@NonNull Expression expression) {
+        this(expression, null, false);
+    }
+
+    private WrappedExpression(Expression expression, ResolvedVariables resolved, boolean errorsAsValues) {
         this.value = expression;
+        this.resolved = resolved;
+        this.errorsAsValues = errorsAsValues;
+    }
+
+    /**
+     * @return the nested formula
+     */
+    public Expression getNested() {
+        return value;
+    }
+
+    /**
+     * @param resolved       variables resolved by the outer evaluation, null if all of them are set to the expression
+     * @param errorsAsValues the outer evaluation returns the errors as values
+     * @return the nested formula evaluated with the variables and errors of the outer evaluation
+     */
+    public WrappedExpression within(ResolvedVariables resolved, boolean errorsAsValues) {
+        if (resolved == this.resolved && errorsAsValues == this.errorsAsValues) {
+            return this;
+        }
+        return new WrappedExpression(value, resolved, errorsAsValues);
     }
 
     @Override
@@ -26,6 +59,20 @@ public class WrappedExpression extends AbstractedWrapper {
         return getResult();
     }
 
+    /**
+     * Graph of the nested expression, so it is evaluated by the same stack as the outer one,
+     * see {@link Expression#compileNested(ResolvedVariables, boolean)}
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        if (result != null || dependency) {
+            return null;
+        }
+        dependency = true;
+        graph = value.compileNested(resolved, errorsAsValues);
+        return graph.isPrimitive() ? null : graph;
+    }
+
     @Override
     public Optional<BigDecimal> unwrap() {
         return getResult().unwrap();
@@ -38,7 +85,7 @@ public class WrappedExpression extends AbstractedWrapper {
 
     @Override
     public WrappedValue copy() {
-        return new WrappedExpression(value.copy());
+        return new WrappedExpression(value.copy(), resolved, errorsAsValues);
     }
 
     @Override
@@ -48,8 +95,20 @@ public class WrappedExpression extends AbstractedWrapper {
 
     private WrappedValue getResult() {
         if (result == null) {
-            result = unwrapEval(value.eval());
+            try {
+                result = unwrapEval(graph != null ? graph.eval() : evalNested());
+            } finally {
+                graph = null;
+                dependency = false;
+            }
         }
         return result;
     }
+
+    private WrappedValue evalNested() {
+        if (resolved == null && !errorsAsValues) {
+            return value.eval();
+        }
+        return WrappedEvaluator.evaluate(value.compileNested(resolved, errorsAsValues));
+    }
 }
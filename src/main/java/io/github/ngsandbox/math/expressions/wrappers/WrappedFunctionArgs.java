@@ -9,6 +9,7 @@ import lombok.extern.slf4j.Slf4j;
 
 import io.github.ngsandbox.math.expressions.functions.Function;
 
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedNull.WRAPPED_NULL;
 import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toList;
 
@@ -16,12 +17,25 @@ import static java.util.stream.Collectors.toList;
 public class WrappedFunctionArgs extends AbstractedWrapper {
     private final Function function;
     private final List<WrappedValue> params;
+    private final int position;
     private WrappedValue result;
+    private WrappedValue calculated;
+    private int dependency;
 
     public WrappedFunctionArgs(@NonNull Function function,
                                @NonNull List<WrappedValue> params) {
+        this(function, params, -1);
+    }
+
+    /**
+     * @param position character position of the function in the formula, it is reported by the errors
+     */
+    public WrappedFunctionArgs(@NonNull Function function,
+                               @NonNull List<WrappedValue> params,
+                               int position) {
         this.function = function;
         this.params = unmodifiableList(params);
+        this.position = position;
     }
 
     @Override
@@ -47,12 +61,38 @@ public class WrappedFunctionArgs extends AbstractedWrapper {
     @Override
     public WrappedValue copy() {
         return new WrappedFunctionArgs(function,
-                params.stream().map(WrappedValue::copy).collect(toList()));
+                params.stream().map(WrappedValue::copy).collect(toList()), position);
+    }
+
+    /**
+     * Parameters of the strict function up to the first error (see {@link Function#isStrict()}),
+     * then the lazy value calculated by the function, e.g. the chosen branch of IF
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        if (result != null || calculated != null) {
+            return null;
+        }
+        while (function.isStrict() && dependency < params.size()) {
+            if (dependency > 0 && params.get(dependency - 1).eval() instanceof WrappedError) {
+                break;
+            }
+            WrappedValue param = params.get(dependency++);
+            if (!param.isPrimitive()) {
+                return param;
+            }
+        }
+        WrappedValue value = function.calc(params);
+        calculated = value == null ? WRAPPED_NULL : value;
+        return calculated.isPrimitive() ? null : calculated;
     }
 
     private WrappedValue getResult() {
         if (result == null) {
-            result = unwrapEval(function.calc(params));
+            result = unwrapEval(calculated != null ? calculated : function.calc(params));
+            if (result instanceof WrappedError) {
+                result = ((WrappedError) result).at(function.getName(), position);
+            }
         }
         return result;
     }
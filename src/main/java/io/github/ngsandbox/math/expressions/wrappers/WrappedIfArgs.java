@@ -7,10 +7,9 @@ import java.util.Optional;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
-import io.github.ngsandbox.math.expressions.ExpressionException;
 
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.IF_FUNC;
 import static io.github.ngsandbox.math.expressions.ExpressionUtils.getByIndex;
-import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.toList;
 
@@ -21,6 +20,7 @@ import static java.util.stream.Collectors.toList;
 public class WrappedIfArgs extends AbstractedWrapper {
     private final List<WrappedValue> args;
     private WrappedValue result;
+    private int dependency;
 
     public WrappedIfArgs(@NonNull List<WrappedValue> args) {
         this.args = unmodifiableList(args);
@@ -41,15 +41,45 @@ public class WrappedIfArgs extends AbstractedWrapper {
         return getResult().unwrap();
     }
 
+    /**
+     * The condition and then only the branch chosen by it
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        while (result == null && dependency < 2) {
+            WrappedValue value = dependency++ == 0 ? getByIndex(args, 0) : getBranch();
+            if (value != null && !value.isPrimitive()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return branch chosen by the evaluated condition, null if the condition is not a number
+     */
+    private WrappedValue getBranch() {
+        BigDecimal first = getByIndex(args, 0).eval().decimalValue();
+        if (first == null) {
+            return null;
+        }
+        return getByIndex(args, first.signum() != 0 ? 1 : 2);
+    }
+
     private WrappedValue getResult() {
         if (result == null) {
             log.trace("Evaluate IF with parameters: {}", args);
-            BigDecimal first = getByIndex(args, 0).eval()
-                    .unwrap()
-                    .orElseThrow(() -> new ExpressionException(format("First argument of IF expression (%s) must not be NULL", args)));
-            result = unwrapEval(first.compareTo(BigDecimal.ZERO) != 0
-                    ? getByIndex(args, 1).eval()
-                    : getByIndex(args, 2).eval());
+            WrappedValue condition = getByIndex(args, 0).eval();
+            BigDecimal first = condition.decimalValue();
+            if (condition instanceof WrappedError) {
+                result = condition;
+            } else if (first == null) {
+                result = WrappedError.of(ErrorCode.CONDITION_NULL, IF_FUNC, args);
+            } else {
+                result = unwrapEval(first.signum() != 0
+                        ? getByIndex(args, 1).eval()
+                        : getByIndex(args, 2).eval());
+            }
             log.debug("Evaluation IF result with parameters: `{}`: `{}`", args, result);
         }
         return result;
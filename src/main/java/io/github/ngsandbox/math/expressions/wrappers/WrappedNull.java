@@ -27,6 +27,16 @@ public final class WrappedNull extends AbstractedWrapper {
         return Optional.empty();
     }
 
+    @Override
+    public ValueKind getKind() {
+        return ValueKind.NULL;
+    }
+
+    @Override
+    public BigDecimal decimalValue() {
+        return null;
+    }
+
     @Override
     public String getExpression() {
         return null;
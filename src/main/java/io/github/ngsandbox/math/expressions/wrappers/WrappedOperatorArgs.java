@@ -14,14 +14,27 @@ public class WrappedOperatorArgs extends AbstractedWrapper {
     private final Operator operator;
     private final WrappedValue value1;
     private final WrappedValue value2;
+    private final int position;
     private WrappedValue result;
+    private int dependency;
 
     public WrappedOperatorArgs(@NonNull Operator operator,
                                WrappedValue value1,
                                WrappedValue value2) {
+        this(operator, value1, value2, -1);
+    }
+
+    /**
+     * @param position character position of the operator in the formula, it is reported by the errors
+     */
+    public WrappedOperatorArgs(@NonNull Operator operator,
+                               WrappedValue value1,
+                               WrappedValue value2,
+                               int position) {
         this.operator = operator;
         this.value1 = value1;
         this.value2 = value2;
+        this.position = position;
     }
 
     @Override
@@ -34,6 +47,20 @@ public class WrappedOperatorArgs extends AbstractedWrapper {
         return getResult();
     }
 
+    /**
+     * Both operands are evaluated by the operator
+     */
+    @Override
+    public WrappedValue nextDependency() {
+        while (result == null && dependency < 2) {
+            WrappedValue value = dependency++ == 0 ? value1 : value2;
+            if (value != null && !value.isPrimitive()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
     @Override
     public Optional<BigDecimal> unwrap() {
         return getResult().unwrap();
@@ -41,9 +68,18 @@ public class WrappedOperatorArgs extends AbstractedWrapper {
 
     private WrappedValue getResult() {
         if (result == null) {
-            result = unwrapEval(operator.eval(
-                    ofNullable(value1).map(WrappedValue::eval).orElse(WRAPPED_NULL),
-                    ofNullable(value2).map(WrappedValue::eval).orElse(WRAPPED_NULL)));
+            WrappedValue arg1 = value1 == null ? WRAPPED_NULL : value1.eval();
+            WrappedValue arg2 = value2 == null ? WRAPPED_NULL : value2.eval();
+            if (arg1 instanceof WrappedError) {
+                result = arg1;
+            } else if (arg2 instanceof WrappedError) {
+                result = arg2;
+            } else {
+                result = unwrapEval(operator.eval(arg1, arg2));
+                if (result instanceof WrappedError) {
+                    result = ((WrappedError) result).at(operator.getOper(), position);
+                }
+            }
         }
         return result;
     }
@@ -57,7 +93,8 @@ public class WrappedOperatorArgs extends AbstractedWrapper {
     public WrappedValue copy() {
         return new WrappedOperatorArgs(operator,
                 ofNullable(value1).map(WrappedValue::copy).orElse(WRAPPED_NULL),
-                ofNullable(value2).map(WrappedValue::copy).orElse(WRAPPED_NULL)
+                ofNullable(value2).map(WrappedValue::copy).orElse(WRAPPED_NULL),
+                position
         );
     }
 
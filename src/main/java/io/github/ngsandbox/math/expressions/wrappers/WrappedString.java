@@ -32,6 +32,16 @@ public class WrappedString extends AbstractedWrapper {
         return Optional.empty();
     }
 
+    @Override
+    public ValueKind getKind() {
+        return ValueKind.STRING;
+    }
+
+    @Override
+    public BigDecimal decimalValue() {
+        return null;
+    }
+
     @Override
     public String getExpression() {
         return value;
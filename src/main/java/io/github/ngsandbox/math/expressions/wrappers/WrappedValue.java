@@ -16,12 +16,81 @@ public interface WrappedValue extends Comparable<WrappedValue> {
      */
     WrappedValue eval();
 
+    /**
+     * Next nested value which has to be evaluated before {@link #eval()} of this one, so deeply nested values
+     * are evaluated by an explicit stack instead of the recursion, see {@link WrappedEvaluator}.
+     * Every call moves to the next dependency in the evaluation order, it is called until null is returned.
+     *
+     * @return the dependency, null if there are no more dependencies or {@link #eval()} evaluates them itself
+     */
+    default WrappedValue nextDependency() {
+        return null;
+    }
+
     /**
      * Calculate and unwrap expression and return as as {@link BigDecimal } value
      * @implSpec for non numeric types the result will be {@link Optional#empty()}
      */
     Optional<BigDecimal> unwrap();
 
+    /**
+     * Kind of the evaluated value
+     */
+    default ValueKind getKind() {
+        WrappedValue value = eval();
+        if (value != this && value != null) {
+            return value.getKind();
+        }
+        return unwrap().isPresent() ? ValueKind.NUMBER : getExpression() == null ? ValueKind.NULL : ValueKind.STRING;
+    }
+
+    /**
+     * Check if the evaluated value is NULL
+     */
+    default boolean isNull() {
+        return getKind() == ValueKind.NULL;
+    }
+
+    /**
+     * Check if the evaluation failed, see {@link WrappedError}
+     */
+    default boolean isError() {
+        return getKind() == ValueKind.ERROR;
+    }
+
+    /**
+     * Calculate the expression and return the same value as {@link #unwrap()} without {@link Optional}
+     *
+     * @return the decimal value, null for non numeric types
+     */
+    default BigDecimal decimalValue() {
+        WrappedValue value = eval();
+        if (value != this && value != null) {
+            return value.decimalValue();
+        }
+        return unwrap().orElse(null);
+    }
+
+    /**
+     * Calculate the expression and return it as double value
+     *
+     * @return the double value, {@link Double#NaN} for non numeric types
+     */
+    default double doubleValue() {
+        BigDecimal value = decimalValue();
+        return value == null ? Double.NaN : value.doubleValue();
+    }
+
+    /**
+     * Calculate the expression and return its text (plain string for decimals)
+     *
+     * @return the text of the value, null for NULL
+     */
+    default String stringValue() {
+        WrappedValue value = eval();
+        return value != this && value != null ? value.stringValue() : getExpression();
+    }
+
     /**
      * Get string representation of the wrapped value
      */
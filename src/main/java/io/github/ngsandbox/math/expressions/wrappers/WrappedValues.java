@@ -0,0 +1,57 @@
+package io.github.ngsandbox.math.expressions.wrappers;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import io.github.ngsandbox.math.expressions.ExpressionException;
+
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ONE;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.WRAPPED_ZERO;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal.wrapBigDecimal;
+import static io.github.ngsandbox.math.expressions.wrappers.WrappedNull.WRAPPED_NULL;
+
+/**
+ * Conversion of plain java values to the wrappers
+ */
+public final class WrappedValues {
+
+    private WrappedValues() {
+    }
+
+    /**
+     * Wrap the value provided by the application (variable resolvers, bound objects, etc.):
+     * numbers are wrapped as decimals, booleans as 1 and 0, characters and strings as strings (they are not parsed
+     * as formulas unlike {@link io.github.ngsandbox.math.expressions.Expression#with(String, String)}),
+     * wrappers are returned as is and null is {@link WrappedNull#WRAPPED_NULL}.
+     *
+     * @param value value to wrap
+     * @return wrapped value
+     */
+    public static WrappedValue wrap(Object value) {
+        if (value == null) {
+            return WRAPPED_NULL;
+        } else if (value instanceof WrappedValue) {
+            return (WrappedValue) value;
+        } else if (value instanceof BigDecimal) {
+            return wrapBigDecimal((BigDecimal) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return wrapBigDecimal(BigDecimal.valueOf(((Number) value).longValue()));
+        } else if (value instanceof Double || value instanceof Float) {
+            double number = ((Number) value).doubleValue();
+            if (Double.isNaN(number) || Double.isInfinite(number)) {
+                throw new ExpressionException("Value " + value + " is not a finite number");
+            }
+            // the shortest decimal of the float (0.1f is 0.1), its double value is 0.10000000149011612
+            return wrapBigDecimal(value instanceof Float ? new BigDecimal(value.toString()) : BigDecimal.valueOf(number));
+        } else if (value instanceof BigInteger) {
+            return wrapBigDecimal(new BigDecimal((BigInteger) value));
+        } else if (value instanceof Number) {
+            return wrapBigDecimal(new BigDecimal(value.toString()));
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? WRAPPED_ONE : WRAPPED_ZERO;
+        } else if (value instanceof CharSequence || value instanceof Character || value instanceof Enum) {
+            return new WrappedString(value.toString());
+        }
+        throw new ExpressionException("Value of type " + value.getClass().getName() + " can not be used in the expression");
+    }
+}
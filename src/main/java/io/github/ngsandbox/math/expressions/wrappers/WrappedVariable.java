@@ -12,6 +12,7 @@ public class WrappedVariable extends AbstractedWrapper {
     private final String expression;
     private final WrappedValue variable;
     private WrappedValue result;
+    private boolean dependency;
 
     public WrappedVariable(@NonNull String expression,
                            WrappedValue variable) {
@@ -29,6 +30,15 @@ public class WrappedVariable extends AbstractedWrapper {
         return getResult();
     }
 
+    @Override
+    public WrappedValue nextDependency() {
+        if (result != null || dependency) {
+            return null;
+        }
+        dependency = true;
+        return variable == null || variable.isPrimitive() ? null : variable;
+    }
+
     @Override
     public Optional<BigDecimal> unwrap() {
         return getResult().unwrap();
@@ -59,9 +69,8 @@ public class WrappedVariable extends AbstractedWrapper {
 
     private WrappedValue getResult() {
         if (result == null) {
-            result = ofNullable(variable)
-                    .map(WrappedValue::eval)
-                    .orElse(WRAPPED_NULL);
+            WrappedValue value = variable == null ? null : variable.eval();
+            result = value == null ? WRAPPED_NULL : value;
         }
         return result;
     }
@@ -0,0 +1,44 @@
+package io.github.ngsandbox.math.expressions;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+/**
+ * Helpers of the tests which compare the results of the same formula evaluated in different ways
+ */
+final class ExpressionTests {
+
+    private ExpressionTests() {
+    }
+
+    /**
+     * Sets a variable of the test data: numbers as doubles, null as an empty nested formula (NULL)
+     */
+    static void set(Expression expression, String name, Object value) {
+        if (value == null) {
+            expression.with(name, "");
+        } else if (value instanceof Number) {
+            expression.with(name, ((Number) value).doubleValue());
+        } else if (value instanceof WrappedValue) {
+            expression.with(name, (WrappedValue) value);
+        } else {
+            expression.with(name, (String) value);
+        }
+    }
+
+    /**
+     * @return the value of the expression or its error with the position
+     */
+    static String result(Expression expression) {
+        WrappedValue value = expression.tryEval();
+        return value.isError() ? value.toString() : value.getExpression();
+    }
+
+    /**
+     * @return the value of the expression or the code of its error, for formulas which are rewritten
+     */
+    static String resultCode(Expression expression) {
+        WrappedValue value = expression.tryEval();
+        return value instanceof WrappedError ? ((WrappedError) value).getCode().name() : value.getExpression();
+    }
+}
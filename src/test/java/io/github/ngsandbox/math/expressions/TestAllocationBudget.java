@@ -0,0 +1,66 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import io.github.ngsandbox.math.expressions.bench.AllocationMeter;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation budget of a single {@link Expression#eval()} for the corpus of formulas.
+ * The budget is the amount of bytes recorded for the current implementation plus a small headroom;
+ * lower it when an optimization reduces allocations, never raise it to get the build green.
+ */
+public class TestAllocationBudget {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 2_000;
+    private static final int ROUNDS = 5;
+
+    private static final Budget[] CORPUS = {
+            new Budget("1+2*3", 750),
+            new Budget("(a+(b+c))/d", 950, "a", "10", "b", "20", "c", "30", "d", "40"),
+            new Budget("a^2+b^2", 1_500, "a", "2", "b", "4"),
+            new Budget("IF(a>b, a-b, b-a)", 1_000, "a", "3.5", "b", "1.25"),
+            new Budget("MAX(a,b,c,d)+MIN(a,b,c,d)", 1_200, "a", "1", "b", "2", "c", "3", "d", "4"),
+            new Budget("a>=b && c<d || NOT(a==c)", 1_100, "a", "1", "b", "2", "c", "3", "d", "4"),
+            new Budget("ROUND(a/b, 2)", 900, "a", "10", "b", "3"),
+            new Budget("ABS(a-b)*FLOOR(c)+CEILING(d)", 1_550, "a", "1", "b", "7", "c", "2.5", "d", "3.2"),
+            new Budget("y == \"ABC\"", 360, "y", "'ABC'"),
+    };
+
+    @TestFactory
+    public Stream<DynamicTest> testEvaluationAllocationBudget() {
+        return Arrays.stream(CORPUS)
+                .map(budget -> DynamicTest.dynamicTest(budget.formula, () -> assertBudget(budget)));
+    }
+
+    private void assertBudget(Budget budget) {
+        assumeTrue(AllocationMeter.isSupported(), "Thread allocation counters are not supported by the JVM");
+        Expression expression = new Expression(budget.formula);
+        for (int i = 0; i < budget.variables.length; i += 2) {
+            expression.with(budget.variables[i], budget.variables[i + 1]);
+        }
+
+        long bytes = AllocationMeter.bytesPerOperation(expression::eval, WARMUP, ITERATIONS, ROUNDS);
+        assertTrue(bytes <= budget.bytes, () -> String.format(
+                "Evaluation of `%s` allocates %d bytes, budget is %d bytes", budget.formula, bytes, budget.bytes));
+    }
+
+    private static final class Budget {
+        private final String formula;
+        private final long bytes;
+        private final String[] variables;
+
+        private Budget(String formula, long bytes, String... variables) {
+            this.formula = formula;
+            this.bytes = bytes;
+            this.variables = variables;
+        }
+    }
+}
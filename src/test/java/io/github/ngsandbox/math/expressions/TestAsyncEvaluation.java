@@ -0,0 +1,116 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.AsyncVariableResolver;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAsyncEvaluation {
+
+    @Test
+    public void testOnlyNeededVariablesAreFetched() throws Exception {
+        List<String> fetched = new CopyOnWriteArrayList<>();
+        Map<String, Object> source = Map.of("a", 1, "b", new BigDecimal("2.5"), "c", "never");
+        AsyncVariableResolver resolver = name -> {
+            fetched.add(name);
+            return CompletableFuture.completedFuture(source.get(name));
+        };
+
+        WrappedValue result = new Expression("IF(a > 0, b * 2, c)").evalAsync(resolver).get(5, TimeUnit.SECONDS);
+        assertEquals("5.0", result.getExpression());
+        assertEquals(asList("a", "b"), fetched);
+    }
+
+    @Test
+    public void testIndependentVariablesAreFetchedInParallel() throws Exception {
+        Map<String, CompletableFuture<Object>> requests = new ConcurrentHashMap<>();
+        AsyncVariableResolver resolver = name -> requests.computeIfAbsent(name, n -> new CompletableFuture<>());
+
+        CompletableFuture<WrappedValue> result = new Expression("a + b * c").evalAsync(resolver);
+        // all requests are sent before any of them is completed
+        for (int i = 0; i < 500 && requests.size() < 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, requests.size());
+        assertFalse(result.isDone());
+
+        requests.get("c").complete(3);
+        requests.get("b").complete(2L);
+        requests.get("a").complete(1.5);
+        assertEquals("7.5", result.get(5, TimeUnit.SECONDS).getExpression());
+    }
+
+    @Test
+    public void testVariableIsFetchedOnce() throws Exception {
+        List<String> fetched = new CopyOnWriteArrayList<>();
+        AsyncVariableResolver resolver = name -> {
+            fetched.add(name);
+            return CompletableFuture.completedFuture(2);
+        };
+
+        Expression expression = new Expression("a * A + IF(a > 1, a, 0) + b").with("b", 10);
+        assertEquals("16", expression.evalAsync(resolver).get(5, TimeUnit.SECONDS).getExpression());
+        assertEquals(asList("a"), fetched);
+    }
+
+    @Test
+    public void testNestedFormulaVariablesArePrefetched() throws Exception {
+        Map<String, CompletableFuture<Object>> requests = new ConcurrentHashMap<>();
+        AsyncVariableResolver resolver = name -> requests.computeIfAbsent(name, n -> new CompletableFuture<>());
+
+        Expression expression = new Expression("a + x").with("x", "b * y").with("y", "IF(c > 0, d, 1)");
+        CompletableFuture<WrappedValue> result = expression.evalAsync(resolver);
+        for (int i = 0; i < 500 && requests.size() < 3; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(Set.of("a", "b", "c"), requests.keySet());
+        assertFalse(result.isDone());
+
+        requests.get("a").complete(1);
+        requests.get("b").complete(2);
+        requests.get("c").complete(1);
+        // the branch of IF is fetched only when the nested formula reaches it
+        for (int i = 0; i < 500 && !requests.containsKey("d"); i++) {
+            Thread.sleep(10);
+        }
+        requests.get("d").complete(5);
+        assertEquals("11", result.get(5, TimeUnit.SECONDS).getExpression());
+    }
+
+    @Test
+    public void testStringsAndNulls() throws Exception {
+        Map<String, Object> source = new ConcurrentHashMap<>();
+        source.put("s", "ABC");
+        source.put("flag", true);
+        AsyncVariableResolver resolver = name -> CompletableFuture.completedFuture(source.get(name));
+        assertEquals("1", new Expression("s == \"ABC\" && flag && n == NULL").evalAsync(resolver).get().getExpression());
+    }
+
+    @Test
+    public void testFailedVariable() {
+        AsyncVariableResolver resolver = name -> "b".equals(name)
+                ? CompletableFuture.failedFuture(new ExpressionException("Unknown variable " + name))
+                : CompletableFuture.completedFuture(1);
+
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> new Expression("IF(a > 0, b, 0)").evalAsync(resolver).get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof ExpressionException);
+        assertEquals("Unknown variable b", ex.getCause().getMessage());
+    }
+}
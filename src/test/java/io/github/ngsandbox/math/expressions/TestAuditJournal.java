@@ -0,0 +1,182 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import io.github.ngsandbox.math.expressions.audit.AuditJournal;
+import io.github.ngsandbox.math.expressions.audit.AuditJournalReader;
+import io.github.ngsandbox.math.expressions.audit.AuditRecord;
+import io.github.ngsandbox.math.expressions.audit.AuditValueType;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestAuditJournal {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testRecords() throws IOException {
+        try (AuditJournal journal = AuditJournal.builder().directory(directory).build()) {
+            ExpressionSettings settings = ExpressionSettings.builder().auditJournal(journal).build();
+            new Expression("IF(a < 0, LEN, a * b)", settings).withFormulaId("mixed")
+                    .with("a", new BigDecimal("-12.345"))
+                    .with("b", new BigDecimal("123456789012345678901234567890"))
+                    .with("LEN", "NULL")
+                    .with("s", new WrappedString("Ünïcödé €𝄞"))
+                    .with("e", "'ABC'")
+                    .eval();
+            Expression division = new Expression("10/a", settings).withFormulaId("ratio").with("a", 0);
+            assertThrows(ExpressionException.class, division::eval);
+        }
+
+        List<AuditRecord> records = AuditJournalReader.readAll(directory);
+        assertEquals(2, records.size());
+
+        AuditRecord mixed = records.get(0);
+        assertEquals("mixed", mixed.getFormulaId());
+        assertEquals(AuditValueType.NULL, mixed.getResult().getType());
+        assertEquals("-12.345", mixed.getVariables().get("a").getText());
+        assertEquals("123456789012345678901234567890", mixed.getVariables().get("b").getText());
+        assertEquals(AuditValueType.NULL, mixed.getVariables().get("LEN").getType());
+        assertEquals(5, mixed.getVariables().size(), "predefined constants are not journaled");
+        assertEquals(AuditValueType.STRING, mixed.getVariables().get("s").getType());
+        assertEquals("Ünïcödé €𝄞", mixed.getVariables().get("s").getText());
+        assertEquals(AuditValueType.EXPRESSION, mixed.getVariables().get("e").getType());
+        assertEquals("'ABC'", mixed.getVariables().get("e").getText());
+
+        AuditRecord ratio = records.get(1);
+        assertEquals(AuditValueType.ERROR, ratio.getResult().getType());
+        assertTrue(ratio.getResult().getText().contains("Division by zero"));
+        assertTrue(ratio.format().startsWith(ratio.getTimestamp() + "\tratio\tERROR("));
+    }
+
+    @Test
+    public void testNestedExpressionAndResult() throws IOException {
+        try (AuditJournal journal = AuditJournal.builder().directory(directory).build()) {
+            new Expression("x + 1", ExpressionSettings.builder().auditJournal(journal).build())
+                    .with("y", 2).with("x", "y * 3")
+                    .eval();
+        }
+
+        Map<String, AuditRecord> records = AuditJournalReader.readAll(directory).stream()
+                .collect(Collectors.toMap(AuditRecord::getFormulaId, Function.identity()));
+        assertEquals("7", records.get("x + 1").getResult().getText());
+        assertEquals(AuditValueType.EXPRESSION, records.get("x + 1").getVariables().get("x").getType());
+        assertEquals("y * 3", records.get("x + 1").getVariables().get("x").getText());
+        assertEquals("6", records.get("y * 3").getResult().getText());
+    }
+
+    @Test
+    public void testConcurrentProducersWithRotation() throws Exception {
+        int threads = 4;
+        int evaluations = 2_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (AuditJournal journal = AuditJournal.builder().directory(directory).capacity(8).segmentSize(4096).build()) {
+            ExpressionSettings settings = ExpressionSettings.builder().auditJournal(journal).build();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String formulaId = "thread-" + t;
+                futures.add(executor.submit(() -> {
+                    Expression expression = new Expression("i * 2", settings).withFormulaId(formulaId);
+                    for (int i = 0; i < evaluations; i++) {
+                        expression.with("i", i).eval();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTrue(AuditJournalReader.segments(directory).size() > 1);
+        Map<String, List<AuditRecord>> records = AuditJournalReader.readAll(directory).stream()
+                .collect(Collectors.groupingBy(AuditRecord::getFormulaId));
+        assertEquals(threads, records.size());
+        for (List<AuditRecord> thread : records.values()) {
+            assertEquals(evaluations, thread.size());
+            for (int i = 0; i < evaluations; i++) {
+                // records of a thread keep the evaluation order
+                assertEquals(String.valueOf(i * 2), thread.get(i).getResult().getText());
+            }
+        }
+    }
+
+    @Test
+    public void testCloseWithBlockedProducers() throws Exception {
+        int threads = 16;
+        AtomicInteger appended = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AuditJournal journal = AuditJournal.builder().directory(directory).capacity(2).build();
+        try {
+            ExpressionSettings settings = ExpressionSettings.builder().auditJournal(journal).build();
+            CountDownLatch started = new CountDownLatch(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Expression expression = new Expression("1+2", settings);
+                    started.countDown();
+                    try {
+                        while (true) {
+                            expression.eval();
+                            appended.incrementAndGet();
+                        }
+                    } catch (ExpressionException ex) {
+                        assertEquals("Audit journal is closed", ex.getMessage());
+                    }
+                }));
+            }
+            started.await();
+            // the producers wait for the writer on the full ring buffer
+            assertTimeoutPreemptively(Duration.ofSeconds(10), journal::close);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(appended.get(), journal.getWritten());
+        assertEquals(appended.get(), AuditJournalReader.readAll(directory).size());
+    }
+
+    @Test
+    public void testReopenAndClose() throws IOException {
+        for (int run = 0; run < 2; run++) {
+            AuditJournal journal = AuditJournal.builder().directory(directory).build();
+            ExpressionSettings settings = ExpressionSettings.builder().auditJournal(journal).build();
+            new Expression("1+2", settings).eval();
+            journal.close();
+            assertThrows(ExpressionException.class, () -> new Expression("1+2", settings).eval());
+        }
+
+        assertEquals(2, AuditJournalReader.segments(directory).size());
+        assertEquals(2, AuditJournalReader.readAll(directory).size());
+        assertNull(ExpressionSettings.builder().build().getAuditJournal());
+        assertEquals(Collections.emptyList(), AuditJournalReader.segments(directory.resolve("missing")));
+    }
+}
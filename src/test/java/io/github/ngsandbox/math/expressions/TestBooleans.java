@@ -114,6 +114,14 @@ public class TestBooleans {
         assertEquals("1", new Expression("1.5 * 7 == 10.5").eval().unwrap().map(BigDecimal::toString).orElse(null));
     }
 
+    @Test
+    public void testStringsWithLogicalOperators() {
+        assertEquals("1", new Expression("s == \"ABC\" && x == 1").with("s", "'ABC'").with("x", "1")
+                .eval().unwrap().map(BigDecimal::toString).orElse(null));
+        assertEquals("0", new Expression("\"ABC\" == s || x > 1").with("s", "'XYZ'").with("x", "1")
+                .eval().unwrap().map(BigDecimal::toString).orElse(null));
+    }
+
     @Test
     public void testNot() {
         assertEquals("0", new Expression("not(1)").eval().unwrap().map(BigDecimal::toString).orElse(null));
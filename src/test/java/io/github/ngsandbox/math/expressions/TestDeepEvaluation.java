@@ -0,0 +1,100 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestDeepEvaluation {
+
+    /**
+     * Stack much smaller than the default one, the evaluations must not depend on it
+     */
+    private static final long STACK_SIZE = 256 * 1024;
+
+    @Test
+    public void testLongOperatorChain() throws Exception {
+        int terms = 100_000;
+        Expression expression = new Expression("a" + "+a".repeat(terms - 1)).with("a", 1).parse();
+        assertEquals("100000", onSmallStack(() -> expression.eval().getExpression()));
+        assertEquals("-100000", onSmallStack(() -> new Expression("0" + "-a".repeat(terms))
+                .with("a", 1).parse().eval().getExpression()));
+    }
+
+    @Test
+    public void testDeeplyNestedFunctions() throws Exception {
+        int depth = 20_000;
+        Expression expression = new Expression("ABS(".repeat(depth) + "-1" + ")".repeat(depth)).parse();
+        assertEquals("1", onSmallStack(() -> expression.eval().getExpression()));
+        Expression max = new Expression("MAX(1, ".repeat(depth) + "2" + ")".repeat(depth)).parse();
+        assertEquals("2", onSmallStack(() -> max.eval().getExpression()));
+    }
+
+    @Test
+    public void testDeeplyNestedIfs() throws Exception {
+        int depth = 20_000;
+        Expression expression = new Expression("IF(a > 0, ".repeat(depth) + "a" + ", 1/0)".repeat(depth))
+                .with("a", BigDecimal.valueOf(5)).parse();
+        assertEquals("5", onSmallStack(() -> expression.eval().getExpression()));
+
+        // the branches which are not chosen are not evaluated
+        Expression lazy = new Expression("IF(a > 0, ".repeat(depth) + "a" + ", b)".repeat(depth)).parse();
+        assertEquals("3", onSmallStack(() -> lazy.eval(name -> {
+            assertEquals("a", name);
+            return 3;
+        }).getExpression()));
+    }
+
+    @Test
+    public void testDeeplyNestedExpressions() throws Exception {
+        int depth = 2_000;
+        Expression expression = new Expression("x0").with("x" + depth, "1");
+        for (int i = 0; i < depth; i++) {
+            expression.with("x" + i, "x" + (i + 1) + " + 1");
+        }
+        assertEquals("2001", onSmallStack(() -> expression.eval().getExpression()));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        int depth = 10_000;
+        Expression expression = new Expression("a" + "+a".repeat(depth) + "/b").with("a", 1).with("b", 0).parse();
+        WrappedValue result = onSmallStack(expression::tryEval);
+        assertTrue(result.isError());
+        assertThrows(ExpressionException.class, expression::eval);
+
+        // the parameters after the first error are not evaluated
+        Expression max = new Expression("MAX(1/0, a + b)").with("a", 1);
+        assertTrue(max.tryEval(name -> {
+            throw new IllegalStateException("Variable is requested " + name);
+        }).isError());
+    }
+
+    private static <T> T onSmallStack(Callable<T> evaluation) throws Exception {
+        AtomicReference<T> result = new AtomicReference<>();
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread thread = new Thread(null, () -> {
+            try {
+                result.set(evaluation.call());
+            } catch (Throwable ex) {
+                error.set(ex);
+            }
+        }, "small-stack", STACK_SIZE);
+        thread.start();
+        thread.join();
+        if (error.get() instanceof Exception) {
+            throw (Exception) error.get();
+        }
+        if (error.get() != null) {
+            throw new AssertionError("Evaluation failed", error.get());
+        }
+        return result.get();
+    }
+}
@@ -0,0 +1,88 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.VariableResolver;
+import io.github.ngsandbox.math.expressions.wrappers.ErrorCode;
+import io.github.ngsandbox.math.expressions.wrappers.ValueKind;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static io.github.ngsandbox.math.expressions.ExpressionConstants.NULL_CONST;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestErrorValues {
+
+    @Test
+    public void testDivisionByZero() {
+        Expression expression = new Expression("IF(a / b > 1, 1, 2) + 3").with("a", 1).with("b", 0);
+        WrappedError error = (WrappedError) expression.tryEval();
+        assertEquals(ValueKind.ERROR, error.getKind());
+        assertEquals(ErrorCode.DIVISION_BY_ZERO, error.getCode());
+        assertEquals("/", error.getSource());
+        assertEquals(5, error.getPosition());
+        assertEquals("Division by zero from the second argument Decimal{0.0}", error.getMessage());
+
+        ExpressionException ex = assertThrows(ExpressionException.class, expression::eval);
+        assertEquals(error.getMessage(), ex.getMessage());
+        assertEquals(0, ex.getStackTrace().length);
+    }
+
+    @Test
+    public void testNotNumericArguments() {
+        WrappedValue operator = new Expression("1 + a * 2").with("a", NULL_CONST).tryEval();
+        assertTrue(operator.isError());
+        assertEquals("*", ((WrappedError) operator).getSource());
+        assertEquals(6, ((WrappedError) operator).getPosition());
+
+        WrappedError function = (WrappedError) new Expression("ABS(a)").with("a", NULL_CONST).tryEval();
+        assertEquals(ErrorCode.ARGUMENT_NOT_NUMERIC, function.getCode());
+        assertEquals("ABS", function.getSource());
+        assertEquals("0 argument must be numeric, but  `VAR{a}`", function.getMessage());
+
+        WrappedError condition = (WrappedError) new Expression("IF(a, 1, 2)").with("a", NULL_CONST).tryEval();
+        assertEquals(ErrorCode.CONDITION_NULL, condition.getCode());
+    }
+
+    @Test
+    public void testUnknownVariables() {
+        WrappedError error = (WrappedError) new Expression("a + missing").with("a", 1).tryEval();
+        assertEquals(ErrorCode.UNKNOWN_VARIABLE, error.getCode());
+        assertEquals("missing", error.getSource());
+        assertEquals(3, error.getPosition());
+        assertEquals("Variable does not exist missing", error.getMessage());
+
+        WrappedError nested = (WrappedError) new Expression("1 + x").with("x", "2 * missing").tryEval();
+        assertEquals(ErrorCode.UNKNOWN_VARIABLE, nested.getCode());
+        assertEquals("missing", nested.getSource());
+
+        // only the reached variables are errors
+        assertEquals("2", new Expression("IF(1, 2, missing)").tryEval().getExpression());
+        assertThrows(ExpressionException.class, () -> new Expression("IF(1, 2, missing)").eval());
+
+        WrappedValue resolved = new Expression("a + b").tryEval(VariableResolver.of(Map.of("a", 1)));
+        assertEquals(ErrorCode.EVALUATION_ERROR, ((WrappedError) resolved).getCode());
+        assertEquals("Variable does not exist b", resolved.getExpression());
+    }
+
+    @Test
+    public void testValidRows() {
+        Expression expression = new Expression("a / b");
+        int errors = 0;
+        for (int i = 0; i < 100; i++) {
+            WrappedValue result = expression.with("a", 1).with("b", i % 10).tryEval();
+            if (result.isError()) {
+                errors++;
+            } else {
+                assertFalse(result.isNull());
+            }
+        }
+        assertEquals(10, errors);
+        assertTrue(new Expression("1 +").tryEval().isError());
+    }
+}
@@ -0,0 +1,239 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ProtocolFamily;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.LoggerFactory;
+
+import io.github.ngsandbox.math.expressions.service.EvaluationDaemon;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+import io.github.ngsandbox.math.expressions.service.RequestLines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class TestEvaluationDaemon {
+
+    @Test
+    public void testCopyHasOwnVariables() {
+        Expression parsed = new Expression("a + b").with("a", 1).with("b", "a * 10").parse();
+        Expression copy = parsed.copy().with("a", 2);
+        assertEquals("22", copy.eval().getExpression());
+        assertEquals("11", parsed.eval().getExpression());
+        assertEquals("a + b", copy.getExpressionString());
+    }
+
+    @Test
+    public void testCache() {
+        ExpressionCache cache = new ExpressionCache(2, ExpressionSettings.builder().build());
+        Expression first = cache.get("a * 2");
+        Expression second = cache.get("a * 2");
+        assertNotSame(first, second);
+        assertEquals("6", second.with("a", 3).eval().getExpression());
+        assertEquals("8", first.with("a", 4).eval().getExpression());
+
+        cache.get("a * 3");
+        cache.get("a * 4");
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        // the formulas share one shape, only the formula is dropped
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    public void testResultsInRequestOrder() throws Exception {
+        List<String> requests = new ArrayList<>();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            if (i % 100 == 99) {
+                requests.add("a / b\ta=" + i + "\tb=0");
+                expected.add(RequestLines.ERROR_PREFIX);
+            } else {
+                requests.add("IF(a > 1000, a - 1000, a * 2)\ta=" + i);
+                expected.add(String.valueOf(i > 1000 ? i - 1000 : i * 2));
+            }
+        }
+
+        List<String> results;
+        try (EvaluationDaemon daemon = EvaluationDaemon.builder().threads(4).pipelineDepth(16).build()) {
+            results = serve(daemon, requests);
+            assertEquals(2, daemon.getCache().size());
+        }
+
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < requests.size(); i++) {
+            String result = results.get(i);
+            assertTrue(result.startsWith(expected.get(i)), () -> "Unexpected result " + result);
+        }
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        try (EvaluationDaemon daemon = EvaluationDaemon.builder().build()) {
+            List<String> results = serve(daemon, Arrays.asList("", "a +\ta=1", "UNKNOWN(1)", "NULL", "\"abc\"", "1 + 2\tb"));
+            assertEquals(6, results.size());
+            assertTrue(results.get(0).startsWith(RequestLines.ERROR_PREFIX));
+            assertTrue(results.get(1).startsWith(RequestLines.ERROR_PREFIX));
+            assertTrue(results.get(2).startsWith(RequestLines.ERROR_PREFIX));
+            assertEquals(ExpressionConstants.NULL_CONST, results.get(3));
+            assertEquals("abc", results.get(4));
+            assertTrue(results.get(5).startsWith(RequestLines.ERROR_PREFIX));
+            assertEquals(2, daemon.getCache().size());
+        }
+    }
+
+    @Test
+    public void testFailedOutput() throws Exception {
+        List<String> requests = new ArrayList<>();
+        // more results than the buffer of the output holds
+        for (int i = 0; i < 20_000; i++) {
+            requests.add("a * 2\ta=" + i);
+        }
+        OutputStream output = new OutputStream() {
+            @Override
+            public void write(int value) throws IOException {
+                throw new IOException("Broken pipe");
+            }
+        };
+        try (EvaluationDaemon daemon = EvaluationDaemon.builder().threads(2).pipelineDepth(4).build()) {
+            IOException ex = assertThrows(IOException.class, () -> daemon.serve(
+                    new ByteArrayInputStream(String.join("\n", requests).getBytes(StandardCharsets.UTF_8)), output));
+            assertEquals("Broken pipe", ex.getMessage());
+            // the reader does not wait for the results which are never written
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (thread.getName().equals("expression-daemon-reader")) {
+                    thread.join(5_000);
+                    assertFalse(thread.isAlive());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testUnixSocket(@TempDir Path directory) throws Exception {
+        assumeTrue(Runtime.version().feature() >= 16, "Unix domain sockets require Java 16");
+        Path socket = directory.resolve("daemon.sock");
+        EvaluationDaemon daemon = EvaluationDaemon.builder().build();
+        CompletableFuture<Void> server = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serveSocket(socket);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        try {
+            for (int connection = 1; connection <= 2; connection++) {
+                try (SocketChannel channel = connect(socket)) {
+                    OutputStream output = Channels.newOutputStream(channel);
+                    output.write(("a + b\ta=" + connection + "\tb=10\nMAX(a, 5)\ta=" + connection + "\n")
+                            .getBytes(StandardCharsets.UTF_8));
+                    output.flush();
+                    BufferedReader reader = new BufferedReader(
+                            new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+                    assertEquals(String.valueOf(10 + connection), reader.readLine());
+                    assertEquals("5", reader.readLine());
+                }
+            }
+        } finally {
+            daemon.close();
+        }
+        server.join();
+        assertFalse(Files.exists(socket));
+        assertEquals(2, daemon.getCache().getHits());
+    }
+
+    @Test
+    public void testCloseWithOpenConnection(@TempDir Path directory) throws Exception {
+        assumeTrue(Runtime.version().feature() >= 16, "Unix domain sockets require Java 16");
+        Logger logger = (Logger) LoggerFactory.getLogger(EvaluationDaemon.class);
+        ListAppender<ILoggingEvent> events = new ListAppender<>();
+        events.start();
+        logger.addAppender(events);
+        Level level = logger.getLevel();
+        logger.setLevel(Level.DEBUG);
+        Path socket = directory.resolve("daemon.sock");
+        EvaluationDaemon daemon = EvaluationDaemon.builder().build();
+        CompletableFuture<Void> server = CompletableFuture.runAsync(() -> {
+            try {
+                daemon.serveSocket(socket);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        try (SocketChannel channel = connect(socket)) {
+            Channels.newOutputStream(channel).write("1 + 2\n".getBytes(StandardCharsets.UTF_8));
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(Channels.newInputStream(channel), StandardCharsets.UTF_8));
+            assertEquals("3", reader.readLine());
+            daemon.close();
+            server.join();
+            // the connection ends with the daemon, it is not a failure
+            Predicate<ILoggingEvent> closed = event -> event.getFormattedMessage().startsWith("Connection is closed");
+            for (int i = 0; i < 500 && events.list.stream().noneMatch(closed); i++) {
+                Thread.sleep(10);
+            }
+            assertTrue(events.list.stream().anyMatch(closed.and(event -> event.getLevel() == Level.DEBUG)));
+            assertTrue(events.list.stream().noneMatch(event -> event.getLevel() == Level.WARN));
+        } finally {
+            daemon.close();
+            logger.detachAppender(events);
+            logger.setLevel(level);
+        }
+    }
+
+    private static List<String> serve(EvaluationDaemon daemon, List<String> requests) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        daemon.serve(new ByteArrayInputStream(String.join("\n", requests).getBytes(StandardCharsets.UTF_8)), output);
+        return Arrays.asList(output.toString(StandardCharsets.UTF_8.name()).split("\n", -1))
+                .subList(0, requests.size());
+    }
+
+    private static SocketChannel connect(Path socket) throws Exception {
+        SocketAddress address = (SocketAddress) Class.forName("java.net.UnixDomainSocketAddress")
+                .getMethod("of", Path.class)
+                .invoke(null, socket);
+        for (int attempt = 0; ; attempt++) {
+            SocketChannel channel = (SocketChannel) SocketChannel.class.getMethod("open", ProtocolFamily.class)
+                    .invoke(null, StandardProtocolFamily.valueOf("UNIX"));
+            try {
+                channel.connect(address);
+                return channel;
+            } catch (IOException ex) {
+                // the daemon is not listening yet
+                channel.close();
+                if (attempt == 100) {
+                    throw ex;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+}
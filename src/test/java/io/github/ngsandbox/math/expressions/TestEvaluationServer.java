@@ -0,0 +1,155 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.FormulaGenerator;
+import io.github.ngsandbox.math.expressions.bench.ServerBenchmark;
+import io.github.ngsandbox.math.expressions.metrics.LatencyHistogram;
+import io.github.ngsandbox.math.expressions.service.EvaluationServer;
+import io.github.ngsandbox.math.expressions.service.RequestLines;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestEvaluationServer {
+
+    private EvaluationServer server;
+
+    @BeforeEach
+    public void start() throws IOException {
+        server = EvaluationServer.builder()
+                .address(new InetSocketAddress("127.0.0.1", 0))
+                .maxBodySize(1024)
+                .build()
+                .start();
+    }
+
+    @AfterEach
+    public void stop() {
+        server.close();
+    }
+
+    @Test
+    public void testEvaluate() throws IOException {
+        Response response = call("POST", EvaluationServer.EVAL_PATH, "(a + b) / c\ta=10\tb=20\tc=3\n");
+        assertEquals(200, response.status);
+        assertEquals("10\n", response.body);
+
+        response = call("POST", EvaluationServer.EVAL_PATH, "(a + b) / c\ta=10\tb=20\tc=0");
+        assertEquals(422, response.status);
+        assertTrue(RequestLines.isError(response.body));
+        assertEquals(2, server.getStats().getEvaluations().sum());
+        assertEquals(1, server.getStats().getErrors().sum());
+        assertEquals(1, server.getCache().getHits());
+    }
+
+    @Test
+    public void testBatch() throws IOException {
+        Response response = call("POST", EvaluationServer.BATCH_PATH, "a * 2\ta=1\na * 2\ta=2\nMAX(\n\"x\"\n");
+        assertEquals(200, response.status);
+        String[] lines = response.body.split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("2", lines[0]);
+        assertEquals("4", lines[1]);
+        assertTrue(RequestLines.isError(lines[2]));
+        assertEquals("x", lines[3]);
+        assertEquals(1, server.getStats().getRequests().sum());
+        assertEquals(4, server.getStats().getEvaluations().sum());
+    }
+
+    @Test
+    public void testStats() throws IOException {
+        call("POST", EvaluationServer.EVAL_PATH, "1 + 1");
+        Response response = call("GET", EvaluationServer.STATS_PATH, null);
+        assertEquals(200, response.status);
+        assertTrue(response.body.contains("requests 1\n"), response.body);
+        assertTrue(response.body.contains("evaluations 1\n"), response.body);
+        assertTrue(response.body.contains("latency_p99_ns "), response.body);
+        assertTrue(response.body.contains("cache_evictions 0\n"), response.body);
+    }
+
+    @Test
+    public void testRejected() throws IOException {
+        assertEquals(405, call("GET", EvaluationServer.EVAL_PATH, null).status);
+        assertEquals(404, call("POST", EvaluationServer.EVAL_PATH + "/other", "1").status);
+        assertEquals(413, call("POST", EvaluationServer.BATCH_PATH, String.join("", Collections.nCopies(2048, "1"))).status);
+        assertEquals(3, server.getStats().getRejected().sum());
+        assertEquals(0, server.getStats().getRequests().sum());
+    }
+
+    @Test
+    public void testCloseCompletesRequests() throws Exception {
+        try (Socket socket = new Socket("127.0.0.1", server.getAddress().getPort())) {
+            OutputStream output = socket.getOutputStream();
+            output.write("POST /eval HTTP/1.1\r\nHost: localhost\r\nContent-Length: 5\r\n\r\n1 + ".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            // the request is in progress while its body is read
+            Thread.sleep(200);
+            CompletableFuture<Void> closed = CompletableFuture.runAsync(server::close);
+            Thread.sleep(200);
+            assertFalse(closed.isDone());
+            output.write("1".getBytes(StandardCharsets.UTF_8));
+            output.flush();
+
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            assertEquals("HTTP/1.1 200 OK", reader.readLine());
+            while (!reader.readLine().isEmpty()) {
+                // skip the headers
+            }
+            assertEquals("2", reader.readLine());
+            closed.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws InterruptedException {
+        ServerBenchmark benchmark = new ServerBenchmark(server.getAddress(), FormulaGenerator.builder().build().next(100));
+        LatencyHistogram latency = benchmark.run(4, 300);
+        assertTrue(latency.getCount() > 0);
+        assertEquals(latency.getCount(), server.getStats().getRequests().sum());
+        assertEquals(0, server.getStats().getErrors().sum());
+    }
+
+    private Response call(String method, String path, String body) throws IOException {
+        URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        try (InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            return new Response(status, input == null ? "" : new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+}
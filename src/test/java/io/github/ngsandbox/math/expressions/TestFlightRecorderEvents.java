@@ -0,0 +1,122 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.jfr.CacheEvictionEvent;
+import io.github.ngsandbox.math.expressions.jfr.CompileEvent;
+import io.github.ngsandbox.math.expressions.jfr.EvaluationEvent;
+import io.github.ngsandbox.math.expressions.jfr.ExpressionEvent;
+import io.github.ngsandbox.math.expressions.jfr.ExpressionEvents;
+import io.github.ngsandbox.math.expressions.jfr.ParseEvent;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFlightRecorderEvents {
+
+    private static final String PREFIX = "io.github.ngsandbox.math.expressions.";
+
+    @Test
+    public void testEvaluationEvents() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            Expression expression = new Expression("10/a").withFormulaId("ratio");
+            expression.with("a", BigDecimal.ONE).eval();
+            expression.with("a", BigDecimal.ZERO);
+            assertThrows(ExpressionException.class, expression::eval);
+        });
+
+        List<RecordedEvent> parse = filter(events, "Parse");
+        assertEquals(1, parse.size());
+        assertEquals("ratio", parse.get(0).getString("formulaId"));
+        assertEquals("10/a", parse.get(0).getString("formula"));
+        assertEquals(3, parse.get(0).getInt("tokenCount"));
+        assertEquals(ExpressionEvent.OUTCOME_OK, parse.get(0).getString("outcome"));
+
+        assertEquals(2, filter(events, "Compile").size());
+
+        List<RecordedEvent> evaluations = filter(events, "Evaluation");
+        assertEquals(2, evaluations.size());
+        assertEquals(ExpressionEvent.OUTCOME_OK, evaluations.get(0).getString("outcome"));
+        assertEquals(ExpressionException.class.getSimpleName(), evaluations.get(1).getString("outcome"));
+        assertTrue(evaluations.get(1).getString("message").contains("Division by zero"));
+    }
+
+    @Test
+    public void testParseErrorAndCacheEviction() throws IOException {
+        List<RecordedEvent> events = record(() -> {
+            Expression expression = new Expression("a+b").with("a", "1").with("b", "2");
+            expression.eval();
+            expression.with("b", "a*2").eval();
+            assertThrows(ExpressionException.class, () -> new Expression("1+").eval());
+        });
+
+        List<RecordedEvent> evictions = filter(events, "CacheEviction");
+        assertEquals(1, evictions.size());
+        assertEquals("a+b", evictions.get(0).getString("formula"));
+        assertTrue(filter(events, "Parse").stream()
+                .anyMatch(e -> "1+".equals(e.getString("formula"))
+                        && ExpressionException.class.getSimpleName().equals(e.getString("outcome"))));
+    }
+
+    @Test
+    public void testExpressionCacheEviction() throws IOException {
+        ExpressionCache cache = new ExpressionCache(1, ExpressionSettings.builder().build());
+        List<RecordedEvent> events = record(() -> {
+            cache.get("a + 1");
+            cache.get("b * 2");
+        });
+
+        // both the formula and its shape are dropped
+        List<RecordedEvent> evictions = filter(events, "CacheEviction");
+        assertEquals(2, evictions.size());
+        assertEquals("a + 1", evictions.get(0).getString("formula"));
+        assertEquals(3, evictions.get(0).getInt("tokenCount"));
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertEquals(false, new EvaluationEvent().isEnabled());
+        assertEquals(false, new ParseEvent().isEnabled());
+        assertEquals(false, new CompileEvent().isEnabled());
+        assertEquals(false, new CacheEvictionEvent().isEnabled());
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = Files.createTempFile("expressions", ".jfr");
+        try (Recording recording = new Recording(ExpressionEvents.configuration())) {
+            for (String name : new String[]{"Parse", "Compile", "Evaluation"}) {
+                recording.enable(PREFIX + name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(e -> e.getEventType().getName().startsWith(PREFIX))
+                    .filter(e -> e.getThread() != null && Thread.currentThread().getName().equals(e.getThread().getJavaName()))
+                    .collect(Collectors.toList());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<RecordedEvent> filter(List<RecordedEvent> events, String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(PREFIX + name))
+                .collect(Collectors.toList());
+    }
+}
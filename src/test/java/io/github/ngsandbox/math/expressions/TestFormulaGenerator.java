@@ -0,0 +1,74 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.BenchmarkEngine;
+import io.github.ngsandbox.math.expressions.bench.FormulaGenerator;
+import io.github.ngsandbox.math.expressions.bench.ReplayHarness;
+import io.github.ngsandbox.math.expressions.bench.ReplayReport;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFormulaGenerator {
+
+    @Test
+    public void testGeneratedFormulasAreValid() {
+        FormulaGenerator generator = FormulaGenerator.builder()
+                .seed(7L)
+                .maxDepth(6)
+                .ifRatio(0.3)
+                .stringRatio(0.2)
+                .nullRatio(0.2)
+                .build();
+        for (FormulaRecord record : generator.next(500)) {
+            assertDoesNotThrow(() -> record.applyTo(new Expression(record.getFormula())).eval(), record::format);
+        }
+    }
+
+    @Test
+    public void testSameSeedSameFormulas() {
+        List<FormulaRecord> first = FormulaGenerator.builder().seed(1L).build().next(50);
+        List<FormulaRecord> second = FormulaGenerator.builder().seed(1L).build().next(50);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testOperatorMix() {
+        FormulaGenerator generator = FormulaGenerator.builder()
+                .functionRatio(0d)
+                .ifRatio(0d)
+                .operatorWeights(Collections.singletonMap("*", 1))
+                .build();
+        for (FormulaRecord record : generator.next(100)) {
+            assertFalse(record.getFormula().contains(" + "), record.getFormula());
+            assertFalse(record.getFormula().contains(" / "), record.getFormula());
+        }
+    }
+
+    @Test
+    public void testRecordFormat() {
+        FormulaRecord record = FormulaRecord.parse("(a+b)/c\ta=10\tb='x=y'\tc=NULL");
+        assertEquals("(a+b)/c", record.getFormula());
+        assertEquals("'x=y'", record.getVariables().get("b"));
+        assertEquals(record, FormulaRecord.parse(record.format()));
+    }
+
+    @Test
+    public void testReplay() {
+        List<FormulaRecord> records = FormulaGenerator.builder().seed(3L).build().next(100);
+        ReplayHarness harness = new ReplayHarness(records, 1, 2);
+        for (BenchmarkEngine engine : BenchmarkEngine.all(ExpressionSettings.builder().build())) {
+            ReplayReport report = harness.run(engine);
+            assertEquals(200, report.getEvaluations());
+            assertEquals(0, report.getErrors());
+            assertTrue(report.getLatency(50) <= report.getLatency(99));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.FormulaGenerator;
+import io.github.ngsandbox.math.expressions.metrics.InMemoryExpressionMetrics;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+import io.github.ngsandbox.math.expressions.tokens.FormulaShape;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+import static io.github.ngsandbox.math.expressions.ExpressionTests.result;
+import static io.github.ngsandbox.math.expressions.operators.Operators.defaultOperators;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestFormulaShapes {
+
+    private static final ExpressionSettings[] SETTINGS = {
+            ExpressionSettings.builder().build(), ExpressionSettings.builder().syntaxTree(true).build()
+    };
+    private static final Pattern LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    @Test
+    public void testShapes() {
+        assertEquals(shape("a*1.05+b"), shape("  a * 1.070 +b "));
+        assertEquals(shape("max(a, 1) and b"), shape("MAX(a,2) AND b"));
+        assertEquals(shape("-a + 'x y'"), shape("- a+\"x y\""));
+        assertEquals(Arrays.asList("1.070", "2"), shape("a * 1.070 + MAX(b, 2)").getLiterals());
+        // variables keep their case, strings and the unary operators are a part of the shape
+        assertNotEquals(shape("a*1+b"), shape("A*1+b"));
+        assertNotEquals(shape("a + 'x'"), shape("a + 'y'"));
+        assertNotEquals(shape("a - 1"), shape("a * -1"));
+        assertNotEquals(shape("a + 1"), shape("a + b"));
+    }
+
+    @Test
+    public void testSharedProgram() {
+        for (ExpressionSettings settings : SETTINGS) {
+            ExpressionCache cache = new ExpressionCache(settings);
+            assertEquals("106", cache.get("a*1.05+b").with("a", 100).with("b", 1).eval().getExpression());
+            Expression shared = cache.get(" a * 1.070 + b");
+            assertTrue(shared.isProgramShared());
+            assertEquals(" a * 1.070 + b", shared.getExpressionString());
+            // the literals keep their scale as in the parsed formula
+            assertEquals(new Expression(" a * 1.070 + b", settings).with("a", 100).with("b", 1).eval().getExpression(),
+                    shared.with("a", 100).with("b", 1).eval().getExpression());
+            assertEquals("4", cache.get("MAX(a, 4)").with("a", 1).eval().getExpression());
+            assertEquals("3", cache.get("max(a,3)").copy().with("a", 1).eval().getExpression());
+            assertFalse(cache.get("A*2+b").isProgramShared());
+
+            assertEquals(5, cache.getMisses());
+            assertEquals(2, cache.getSharedPrograms());
+            assertEquals(3, cache.getShapes());
+            assertEquals(5, cache.size());
+        }
+    }
+
+    @Test
+    public void testSharedProgramIsNotParsed() throws Exception {
+        for (ExpressionSettings settings : SETTINGS) {
+            InMemoryExpressionMetrics metrics = new InMemoryExpressionMetrics();
+            ExpressionCache cache = new ExpressionCache(ExpressionSettings.builder()
+                    .syntaxTree(settings.isSyntaxTree()).metrics(metrics).build());
+            cache.get("a > 1 && b < 2");
+            Expression shared = cache.get("a > 3 && b < 4");
+            assertTrue(shared.isProgramShared());
+            assertTrue(shared.isBoolean());
+            assertTrue(shared.hasRequiredArgs());
+            assertEquals("1", shared.evalAsync(name -> CompletableFuture.completedFuture(name.equals("a") ? 5 : 1))
+                    .get(5, TimeUnit.SECONDS).getExpression());
+            assertEquals(0, metrics.get("a > 3 && b < 4").getParsing().getCount());
+        }
+    }
+
+    @Test
+    public void testErrorPositions() {
+        String[] formulas = {"a / b + 1", "  a/b +  2", "IF(a > 1, x, a / (b - 2))", "IF(a > 3,x,a/(b-0))"};
+        for (ExpressionSettings settings : SETTINGS) {
+            ExpressionCache cache = new ExpressionCache(settings);
+            for (String formula : formulas) {
+                Expression shared = cache.get(formula).with("a", 2).with("b", 0);
+                Expression parsed = new Expression(formula, settings).with("a", 2).with("b", 0);
+                assertEquals(result(parsed), result(shared), formula);
+                // errors of the nested formulas keep their positions
+                assertEquals(result(parsed.with("x", "1 / b").with("a", 5)), result(shared.with("x", "1 / b").with("a", 5)));
+            }
+            assertEquals(2, cache.getSharedPrograms());
+        }
+    }
+
+    @Test
+    public void testEquivalence() {
+        FormulaGenerator generator = FormulaGenerator.builder().seed(50L).maxDepth(6).build();
+        for (ExpressionSettings settings : SETTINGS) {
+            ExpressionCache cache = new ExpressionCache(settings);
+            for (FormulaRecord record : generator.next(500)) {
+                String variant = variant(record.getFormula());
+                cache.get(record.getFormula());
+                Expression shared = record.applyTo(cache.get(variant));
+                String expected = result(record.applyTo(new Expression(variant, settings)));
+                assertEquals(expected, result(shared), () -> record.format() + " -> " + variant);
+            }
+            assertTrue(cache.getSharedPrograms() > 0);
+        }
+    }
+
+    /**
+     * @return the formula with other blanks and literals
+     */
+    private static String variant(String formula) {
+        Matcher matcher = LITERAL.matcher(formula.replace(" ", "  "));
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            matcher.appendReplacement(result, new BigDecimal(matcher.group()).add(BigDecimal.ONE).toPlainString());
+        }
+        return matcher.appendTail(result).toString();
+    }
+
+    private static FormulaShape shape(String formula) {
+        return FormulaShape.of(formula, defaultOperators(SETTINGS[0]));
+    }
+}
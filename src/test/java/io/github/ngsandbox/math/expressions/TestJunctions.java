@@ -0,0 +1,96 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.ast.BinaryNode;
+import io.github.ngsandbox.math.expressions.ast.JunctionStatistics;
+import io.github.ngsandbox.math.expressions.profiler.NodeProfiler;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+
+import static io.github.ngsandbox.math.expressions.ExpressionTests.result;
+import static io.github.ngsandbox.math.expressions.ExpressionTests.set;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class TestJunctions {
+
+    private static final ExpressionSettings SETTINGS = ExpressionSettings.builder().syntaxTree(true).build();
+    /**
+     * Profiled evaluations are not reordered, every evaluation of the operators is profiled
+     */
+    private static final ExpressionSettings PROFILED = ExpressionSettings.builder().syntaxTree(true)
+            .profiler(new NodeProfiler(1)).build();
+    private static final int REORDER_PERIOD = 256;
+
+    private static final String[] OPERANDS = {
+            "a > 1", "b", "c == 2", "a + c < 4", "d", "s == 'x'", "1 / b", "(a || c)", "NOT(b)", "x", "e > d", "s"
+    };
+
+    @Test
+    public void testEquivalence() {
+        Random random = new Random(49L);
+        String[] junctions = {" && ", " || ", " AND ", " OR "};
+        for (int i = 0; i < 100; i++) {
+            StringBuilder formula = new StringBuilder(OPERANDS[random.nextInt(OPERANDS.length)]);
+            for (int j = random.nextInt(6); j >= 0; j--) {
+                formula.append(junctions[random.nextInt(junctions.length)]).append(OPERANDS[random.nextInt(OPERANDS.length)]);
+            }
+            Expression profiled = new Expression(formula.toString(), PROFILED);
+            Expression tree = new Expression(formula.toString(), SETTINGS);
+            // the statistics are reordered while the values change
+            for (int k = 0; k < REORDER_PERIOD + 50; k++) {
+                Object[] values = {random.nextInt(3), random.nextInt(2), random.nextInt(3),
+                        random.nextInt(4) == 0 ? null : random.nextInt(2), 2 - random.nextInt(2)};
+                for (Expression expression : new Expression[]{profiled, tree}) {
+                    set(expression, "a", values[0]);
+                    set(expression, "b", values[1]);
+                    set(expression, "c", values[2]);
+                    set(expression, "d", values[3]);
+                    set(expression, "e", values[4]);
+                    expression.with("s", new WrappedString(k % 2 == 0 ? "x" : "y"));
+                    if (k % 3 == 0) {
+                        expression.with("x", "a - 1");
+                    } else {
+                        expression.with("x", values[0].toString());
+                    }
+                }
+                String expected = result(profiled);
+                assertEquals(expected, result(tree), () -> formula + " with " + Arrays.toString(values));
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveOrder() {
+        String formula = "a + b + c < 100 && a * b * c > 10 && c == 1";
+        Expression expression = new Expression(formula, SETTINGS).with("a", 2).with("b", 3);
+        BinaryNode root = (BinaryNode) expression.getSyntaxTree();
+        assertNull(root.getJunctionStatistics());
+        assertArrayEquals(new int[]{0, 1, 2}, evaluate(expression, REORDER_PERIOD - 1).getOrder());
+        // the last operand is cheap and decides the chain most of the time, the first one never does
+        JunctionStatistics statistics = evaluate(expression, 1);
+        assertEquals(REORDER_PERIOD, statistics.getEvaluations());
+        assertEquals(2, statistics.getOrder()[0]);
+        assertEquals(0, statistics.getOrder()[2]);
+
+        // the order does not change the result
+        assertEquals("1", expression.with("a", 10).with("b", 10).with("c", 1).eval().getExpression());
+        assertEquals("0", expression.with("c", 0).eval().getExpression());
+        Expression profiled = new Expression(formula, PROFILED).with("a", 1).with("b", 1).with("c", "");
+        assertEquals(result(profiled), result(expression.with("c", "")));
+    }
+
+    /**
+     * @return statistics of the chain after the evaluations with c == 1 in every tenth of them
+     */
+    private static JunctionStatistics evaluate(Expression expression, int count) {
+        for (int i = 0; i < count; i++) {
+            assertEquals("0", expression.with("c", i % 10 == 0 ? 1 : 2).eval().getExpression());
+        }
+        return ((BinaryNode) expression.getSyntaxTree()).getJunctionStatistics();
+    }
+}
@@ -0,0 +1,41 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.ParseBenchmark;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLargeFormulas {
+
+    @Test
+    public void testLongOperatorRun() {
+        // every operator is matched greedily within the length of the longest operator, not till the end of the run
+        String formula = "-".repeat(200_000) + "1";
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> new Expression(formula).parse());
+        assertEquals("-1", new Expression("-" + "-".repeat(10) + "1").eval().getExpression());
+        assertThrows(ExpressionException.class, () -> new Expression("1 $$$$ 2").eval());
+    }
+
+    @Test
+    public void testLargeFormula() {
+        String formula = ParseBenchmark.formula(1024 * 1024);
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> new Expression(formula).parse());
+        ParseBenchmark.Result result = ParseBenchmark.run(ParseBenchmark.formula(64 * 1024), 1);
+        assertTrue(result.getTokens() > 30_000, result::toString);
+    }
+
+    @Test
+    public void testDeeplyNestedFunctions() {
+        int depth = 10_000;
+        String formula = "ABS(".repeat(depth) + "-1" + ")".repeat(depth);
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> new Expression(formula).parse());
+        ExpressionException ex = assertThrows(ExpressionException.class, () -> new Expression("ABS(1, 2)").eval());
+        assertTrue(ex.getMessage().endsWith("expected 1 parameters, got 2"), ex::getMessage);
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.AllocationMeter;
+import io.github.ngsandbox.math.expressions.bench.ParseBenchmark;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.tokens.Lexer;
+import io.github.ngsandbox.math.expressions.tokens.OperatorTrie;
+import io.github.ngsandbox.math.expressions.tokens.Token;
+import io.github.ngsandbox.math.expressions.tokens.TokenType;
+import io.github.ngsandbox.math.expressions.tokens.Tokenizer;
+
+import static io.github.ngsandbox.math.expressions.operators.Operators.defaultOperators;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestLexer {
+
+    private static final Map<String, Operator> OPERATORS = defaultOperators(ExpressionSettings.builder().build());
+
+    @Test
+    public void testTokens() {
+        assertEquals("[-u@0, a@1, +@4, b@5]", tokens("  -a  +  b "));
+        assertEquals("[a@0, >=@1, -u@3, b@4]", tokens("a>=-b"));
+        assertEquals("[a@0, <>@1, b@3]", tokens("a<>b"));
+        assertEquals("[x@0, $$@2, 2@4]", tokens("x $$ 2"));
+        assertEquals("[AND@0, (@3, a@4, )@5, and@6, b@11]", tokens("AND(a) and b"));
+        assertEquals("[max@0, (@4, 1@5, ,@6, 2@7, )@8]", tokens("max (1,2)"));
+        assertEquals("[a@0, ==@3, b@6]", tokens("'a' == \"b\""));
+        assertEquals("[.5@0, +@2, ünïcode@3]", tokens(".5+ünïcode"));
+
+        Lexer lexer = new Lexer("max (a)", OPERATORS);
+        assertEquals(TokenType.FUNCTION, lexer.next());
+        assertEquals(TokenType.OPEN_PAREN, lexer.next());
+        assertEquals(TokenType.VARIABLE, lexer.next());
+        assertEquals(TokenType.CLOSE_PAREN, lexer.next());
+        assertFalse(lexer.hasNext());
+    }
+
+    @Test
+    public void testOperatorTrie() {
+        OperatorTrie trie = OperatorTrie.of(OPERATORS);
+        assertSame(trie, OperatorTrie.of(OPERATORS));
+        assertEquals(3, trie.getMaxLength());
+
+        // the surfaces of the operators are kept by the trie
+        Tokenizer first = new Tokenizer("a >= b", OPERATORS);
+        Tokenizer second = new Tokenizer("1>=-2", OPERATORS);
+        first.next();
+        second.next();
+        assertSame(first.next().getSurface(), second.next().getSurface());
+        assertSame(first.next().getSurface(), new Tokenizer("b", OPERATORS).next().getSurface());
+        assertSame(second.next().getSurface(), new Tokenizer("-1", OPERATORS).next().getSurface());
+
+        // alternating registries keep their tries
+        Map<String, Operator> custom = Map.of("+", OPERATORS.get("+"));
+        OperatorTrie other = OperatorTrie.of(custom);
+        assertSame(trie, OperatorTrie.of(OPERATORS));
+        assertSame(other, OperatorTrie.of(custom));
+        assertEquals(1, other.getMaxLength());
+    }
+
+    @Test
+    public void testInternedSurfaces() {
+        Tokenizer first = new Tokenizer("price * quantity", OPERATORS);
+        Tokenizer second = new Tokenizer(new StringBuilder("price + 1"), OPERATORS);
+        assertSame(first.next().getSurface(), second.next().getSurface());
+
+        Expression expression = new Expression(ParseBenchmark.formula(64 * 1024));
+        Set<String> variables = expression.getUsedVariables();
+        assertEquals(103, variables.size());
+        if (AllocationMeter.isSupported()) {
+            long bytes = AllocationMeter.allocatedBytes();
+            expression.getUsedVariables();
+            // the result set only, the tokens of 64 KB formula are not allocated
+            assertTrue(AllocationMeter.allocatedBytes() - bytes < 64 * 1024);
+        }
+    }
+
+    @Test
+    public void testStrings() {
+        ExpressionException ex = assertThrows(ExpressionException.class, () -> new Expression("1 + \"abc").eval());
+        assertEquals("Missing closing quote \" at character position 4", ex.getMessage());
+        assertThrows(ExpressionException.class, () -> new Expression("\"a\"\"b\"").eval());
+        assertEquals("x", new Expression("IF(1, \"x\", 'y')").eval().getExpression());
+    }
+
+    private static String tokens(String formula) {
+        List<String> tokens = new ArrayList<>();
+        for (Tokenizer tokenizer = new Tokenizer(formula, OPERATORS); tokenizer.hasNext(); ) {
+            Token token = tokenizer.next();
+            tokens.add(token.getSurface() + "@" + token.getPos());
+        }
+        return tokens.toString();
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.metrics.ExpressionMetrics;
+import io.github.ngsandbox.math.expressions.metrics.FormulaMetrics;
+import io.github.ngsandbox.math.expressions.metrics.InMemoryExpressionMetrics;
+import io.github.ngsandbox.math.expressions.metrics.LatencyHistogram;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestMetrics {
+
+    @Test
+    public void testDisabledByDefault() {
+        assertSame(ExpressionMetrics.NOOP, ExpressionSettings.builder().build().getMetrics());
+        assertFalse(ExpressionMetrics.NOOP.isEnabled());
+    }
+
+    @Test
+    public void testEvaluationMetrics() {
+        InMemoryExpressionMetrics metrics = new InMemoryExpressionMetrics();
+        ExpressionSettings settings = ExpressionSettings.builder().metrics(metrics).build();
+        Expression expression = new Expression("10/a", settings).withFormulaId("ratio");
+        for (int i = 1; i <= 5; i++) {
+            expression.with("a", BigDecimal.valueOf(i)).eval();
+        }
+        expression.with("a", BigDecimal.ZERO);
+        assertThrows(ExpressionException.class, expression::eval);
+
+        FormulaMetrics formula = metrics.get("ratio");
+        assertEquals(1, formula.getParsing().getCount());
+        assertEquals(6, formula.getEvaluations().getCount());
+        // the cache of parsed formulas is not involved
+        assertEquals(0, formula.getCacheMisses().sum());
+        assertEquals(0, formula.getCacheHits().sum());
+        assertEquals(1, formula.getErrorCount());
+        assertEquals(1L, formula.getErrorCounts().get(ExpressionException.class.getSimpleName()));
+    }
+
+    @Test
+    public void testCacheMetrics() throws Exception {
+        InMemoryExpressionMetrics metrics = new InMemoryExpressionMetrics();
+        ExpressionCache cache = new ExpressionCache(ExpressionSettings.builder().metrics(metrics).build());
+        for (int i = 1; i <= 3; i++) {
+            cache.get("10/a").with("a", i).eval();
+            cache.get("10/a").with("a", i).evalAsync(name -> CompletableFuture.completedFuture(1)).get();
+        }
+        FormulaMetrics formula = metrics.get("10/a");
+        assertEquals(1, formula.getCacheMisses().sum());
+        assertEquals(5, formula.getCacheHits().sum());
+        assertEquals(1, formula.getParsing().getCount());
+        assertEquals(0, formula.getCacheEvictions().sum());
+
+        ExpressionCache small = new ExpressionCache(1, ExpressionSettings.builder().metrics(metrics).build());
+        small.get("10/a");
+        small.get("a*b");
+        // the formula and its shape are dropped
+        assertEquals(2, metrics.get("10/a").getCacheEvictions().sum());
+    }
+
+    @Test
+    public void testFormulasAreLimited() {
+        InMemoryExpressionMetrics metrics = new InMemoryExpressionMetrics(3);
+        ExpressionSettings settings = ExpressionSettings.builder().metrics(metrics).build();
+        for (int i = 0; i < 10; i++) {
+            new Expression("a + " + i, settings).with("a", 1).eval();
+        }
+        new Expression("a + 1", settings).withFormulaId("a + 0").with("a", 1).eval();
+        // three formulas with own metrics and the other ones
+        assertEquals(4, metrics.getFormulas().size());
+        assertEquals(2, metrics.get("a + 0").getEvaluations().getCount());
+        assertEquals(7, metrics.get(InMemoryExpressionMetrics.OTHER_FORMULAS).getEvaluations().getCount());
+        assertEquals(0, metrics.get("a + 9").getEvaluations().getCount());
+        assertEquals(4, metrics.getFormulas().size());
+    }
+
+    @Test
+    public void testFormulaIdDefaultsToExpression() {
+        InMemoryExpressionMetrics metrics = new InMemoryExpressionMetrics();
+        new Expression("1+2", ExpressionSettings.builder().metrics(metrics).build()).eval();
+        assertEquals(1, metrics.get("1+2").getEvaluations().getCount());
+        assertEquals(1, metrics.getFormulas().size());
+    }
+
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertPercentile(500_000, histogram.getPercentile(50));
+        assertPercentile(990_000, histogram.getPercentile(99));
+        assertEquals(1_000_000, histogram.getPercentile(100));
+    }
+
+    private void assertPercentile(long expected, long actual) {
+        assertTrue(actual >= expected && actual <= expected * 1.125, () -> "Expected ~" + expected + " but got " + actual);
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.profiler.FormulaProfile;
+import io.github.ngsandbox.math.expressions.profiler.NodeProfiler;
+import io.github.ngsandbox.math.expressions.profiler.NodeStats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestNodeProfiler {
+
+    @Test
+    public void testDisabledByDefault() {
+        assertSame(NodeProfiler.DISABLED, ExpressionSettings.builder().build().getProfiler());
+        assertThrows(ExpressionException.class, () -> new NodeProfiler(1.5));
+    }
+
+    @Test
+    public void testNodeStats() {
+        NodeProfiler profiler = new NodeProfiler(1);
+        Expression expression = new Expression("a^0.5 + MAX(b, c) * 2", ExpressionSettings.builder().profiler(profiler).build())
+                .withFormulaId("power")
+                .with("a", 16).with("b", 1).with("c", 3);
+        for (int i = 0; i < 50; i++) {
+            assertEquals("10", expression.eval().getExpression());
+        }
+
+        FormulaProfile profile = profiler.get("power");
+        Map<String, NodeStats> nodes = profile.getNodes().stream()
+                .collect(Collectors.toMap(NodeStats::getLabel, Function.identity()));
+        assertEquals(4, nodes.size(), nodes::toString);
+        for (String label : new String[]{"a ^ 0.5", "MAX(b, c)", "MAX(b, c) * 2", "(a ^ 0.5) + (MAX(b, c) * 2)"}) {
+            assertEquals(50, nodes.get(label).getCalls().sum(), label);
+        }
+
+        NodeStats root = nodes.get("(a ^ 0.5) + (MAX(b, c) * 2)");
+        assertEquals(root.getTotalNanos().sum(), profile.getSelfNanos());
+        assertTrue(profiler.report().contains("MAX(b, c) * 2"));
+    }
+
+    @Test
+    public void testHotNestedExpression() {
+        NodeProfiler profiler = new NodeProfiler(1);
+        String nested = IntStream.range(0, 100).mapToObj(i -> "ROUND(b/" + (i + 3) + ", 4)").collect(Collectors.joining("+"));
+        Expression expression = new Expression("IF(a > 0, x + 1, a)", ExpressionSettings.builder().profiler(profiler).build())
+                .withFormulaId("nested")
+                .with("a", 1).with("b", 2).with("x", nested);
+        // timings are noisy (GC, JIT), so a few rounds are given to find the hot node
+        FormulaProfile profile = null;
+        for (int round = 0; round < 5; round++) {
+            profiler.reset();
+            for (int i = 0; i < 20; i++) {
+                expression.eval();
+            }
+            profile = profiler.get("nested");
+            if ("x".equals(profile.getHotNode().getLabel())) {
+                break;
+            }
+        }
+
+        assertEquals("x", profile.getHotNode().getLabel(), profile::report);
+        List<String> labels = profile.getNodes().stream().map(NodeStats::getLabel).collect(Collectors.toList());
+        assertTrue(labels.contains("IF(a > 0, x + 1, a)"), labels::toString);
+        assertTrue(profiler.get(nested) != null, "nested expression is profiled by itself");
+    }
+
+    @Test
+    public void testFormulasAreLimited() {
+        NodeProfiler profiler = new NodeProfiler(1, 2);
+        ExpressionSettings settings = ExpressionSettings.builder().profiler(profiler).build();
+        for (int i = 0; i < 5; i++) {
+            assertEquals(String.valueOf(i + 1), new Expression("a + " + i, settings).with("a", 1).eval().getExpression());
+        }
+        assertEquals(2, profiler.getFormulas().size());
+        assertNull(profiler.get("a + 2"));
+        assertEquals(1, profiler.get("a + 1").getNodes().get(0).getCalls().sum());
+        assertThrows(ExpressionException.class, () -> new NodeProfiler(1, 0));
+    }
+
+    @Test
+    public void testConcurrentSamples() throws Exception {
+        NodeProfiler profiler = new NodeProfiler(1);
+        ExpressionSettings settings = ExpressionSettings.builder().profiler(profiler).build();
+        int threads = 8;
+        int evaluations = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    Expression expression = new Expression("a * 2", settings).with("a", 3);
+                    for (int i = 0; i < evaluations; i++) {
+                        expression.eval();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // the first samples of the threads do not replace each other's profile
+        assertEquals(threads * evaluations, profiler.get("a * 2").getNodes().get(0).getCalls().sum());
+    }
+
+    @Test
+    public void testNotSampled() {
+        NodeProfiler profiler = new NodeProfiler(0);
+        new Expression("1+2", ExpressionSettings.builder().profiler(profiler).build()).eval();
+        assertNull(profiler.get("1+2"));
+        assertTrue(profiler.getFormulas().isEmpty());
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.ObjectVariables;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestObjectBinding {
+
+    public static class Order {
+        public String currency = "EUR";
+        private final BigDecimal price;
+        private final int quantity;
+        private final boolean priority;
+        private final List<String> reads;
+
+        Order(BigDecimal price, int quantity, boolean priority, List<String> reads) {
+            this.price = price;
+            this.quantity = quantity;
+            this.priority = priority;
+            this.reads = reads;
+        }
+
+        public BigDecimal getPrice() {
+            reads.add("price");
+            return price;
+        }
+
+        public int getQuantity() {
+            reads.add("quantity");
+            return quantity;
+        }
+
+        public boolean isPriority() {
+            reads.add("priority");
+            return priority;
+        }
+    }
+
+    static class Point {
+        public double x;
+        public Double y;
+        public static int ignored = 1;
+    }
+
+    @Test
+    public void testBean() {
+        List<String> reads = new ArrayList<>();
+        BoundExpression<Order> bound = new Expression("IF(priority, price * quantity, 0) + extra")
+                .with("extra", 1)
+                .bind(Order.class);
+
+        assertEquals("21", bound.eval(new Order(new BigDecimal("2"), 10, true, reads)).getExpression());
+        assertEquals(asList("priority", "price", "quantity"), reads);
+
+        reads.clear();
+        assertEquals("1", bound.eval(new Order(new BigDecimal("2"), 10, false, reads)).getExpression());
+        assertEquals(asList("priority"), reads);
+
+        assertEquals("1", new Expression("CURRENCY == \"EUR\"").bind(Order.class)
+                .eval(new Order(BigDecimal.ONE, 1, false, reads)).getExpression());
+    }
+
+    @Test
+    public void testFields() {
+        Point point = new Point();
+        point.x = 1.5;
+        assertEquals("1", new Expression("x == 1.5 && y == NULL").bind(Point.class).eval(point).getExpression());
+        assertEquals(asList("x", "y"), new ArrayList<>(ObjectVariables.of(Point.class).getNames()));
+    }
+
+    @Test
+    public void testUnknownVariables() {
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression("price * tax + class + hashCode").bind(Order.class));
+        assertEquals("Variables do not exist [class, hashCode, tax] in " + Order.class.getName(), ex.getMessage());
+    }
+
+    @Test
+    public void testNestedFormula() {
+        List<String> reads = new ArrayList<>();
+        BoundExpression<Order> bound = new Expression("total + 1").with("total", "price * quantity").bind(Order.class);
+        assertEquals("21", bound.eval(new Order(new BigDecimal("2"), 10, false, reads)).getExpression());
+        assertEquals(asList("price", "quantity"), reads);
+
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression("total + 1").with("total", "price * tax").bind(Order.class));
+        assertEquals("Variables do not exist [tax] in " + Order.class.getName(), ex.getMessage());
+    }
+
+    @Test
+    public void testVariablesAreComputedOnce() {
+        assertSame(ObjectVariables.of(Order.class), ObjectVariables.of(Order.class));
+        assertTrue(ObjectVariables.of(Order.class).contains("PRICE"));
+        assertEquals("6", new Expression("price * quantity").eval(ObjectVariables.of(Order.class)
+                .bind(new Order(new BigDecimal("3"), 2, false, new ArrayList<>()))).getExpression());
+    }
+}
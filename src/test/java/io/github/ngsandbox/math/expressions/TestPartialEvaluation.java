@@ -0,0 +1,117 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.FormulaGenerator;
+import io.github.ngsandbox.math.expressions.service.ExpressionCache;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+import io.github.ngsandbox.math.expressions.variables.VariableScope;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+
+import static io.github.ngsandbox.math.expressions.ExpressionTests.resultCode;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TestPartialEvaluation {
+
+    private static final ExpressionSettings SETTINGS = ExpressionSettings.builder().syntaxTree(true).build();
+
+    @Test
+    public void testResidualFormula() {
+        VariableScope constants = VariableScope.of(Map.of("rate", new BigDecimal("0.1"), "fee", 5, "discount", 1,
+                "vip", true, "region", "EU", "vat", new BigDecimal("0.2"), "zero", 0));
+
+        Expression expression = new Expression("rate * amount + fee * 2 - discount").withFormulaId("price")
+                .specialize(constants);
+        assertEquals("(((0.1 * amount) + 10) - 1)", expression.getExpressionString());
+        assertEquals("price", expression.getFormulaId());
+        assertEquals("19", expression.with("amount", 100).eval().getExpression());
+
+        assertEquals("((amount * 0.9) + 0.2)", residual(
+                "IF(vip, amount * 0.9, amount) + IF(region == 'EU', vat, 0)", constants));
+        assertEquals("max(amount, -4, \"EU\")", residual("max(amount, 1 - fee, region)", constants));
+        assertEquals("5", residual("IF(NOT(vip), amount, fee)", constants));
+        // operators are evaluated only with all the operands known
+        assertEquals("IF((0 || amount), 1, 1)", residual("IF(NOT(vip) || amount, 1, 1)", constants));
+        // errors are reported by the evaluation of the residual formula
+        Expression failed = new Expression("fee / zero + amount").specialize(constants).with("amount", 1);
+        assertEquals("((5 / 0) + amount)", failed.getExpressionString());
+        assertEquals("ERROR{DIVISION_BY_ZERO at 3}", failed.tryEval().toString());
+    }
+
+    @Test
+    public void testReferencedConstants() {
+        VariableScope constants = VariableScope.of(Map.of("code", "a\"b'c", "precise", new BigDecimal("0.123456789012"),
+                "limit", 10));
+        Expression expression = new Expression("IF(name == code, precise * x, limit)").specialize(constants);
+        assertEquals("IF((name == code), (precise * x), 10)", expression.getExpressionString());
+        Expression full = new Expression("IF(name == code, precise * x, limit)")
+                .with("precise", new BigDecimal("0.123456789012")).with("code", new WrappedString("a\"b'c")).with("limit", 10);
+        for (Expression evaluated : new Expression[]{expression, full}) {
+            evaluated.with("name", new WrappedString("a\"b'c")).with("x", 2);
+        }
+        assertEquals(full.eval().getExpression(), expression.eval().getExpression());
+
+        // formulas of the variables are not specialized, but they see the constants
+        Expression nested = new Expression("y + limit").with("y", "limit * 2").specialize(constants);
+        assertEquals("(y + 10)", nested.getExpressionString());
+        assertEquals("30", nested.eval().getExpression());
+    }
+
+    @Test
+    public void testEquivalence() {
+        FormulaGenerator generator = FormulaGenerator.builder().seed(48L).maxDepth(6).build();
+        for (ExpressionSettings settings : new ExpressionSettings[]{ExpressionSettings.builder().build(), SETTINGS}) {
+            for (FormulaRecord record : generator.next(1000)) {
+                Map<String, Object> constants = new HashMap<>();
+                Expression expression = new Expression(record.getFormula(), settings);
+                int index = 0;
+                for (Map.Entry<String, String> variable : record.getVariables().entrySet()) {
+                    Double number = parse(variable.getValue());
+                    if (number != null && index++ % 2 == 0) {
+                        constants.put(variable.getKey(), number);
+                    } else if (number != null) {
+                        expression.with(variable.getKey(), number);
+                    } else {
+                        expression.with(variable.getKey(), variable.getValue());
+                    }
+                }
+                Expression residual = expression.specialize(VariableScope.of(constants));
+                // positions of the errors in the residual formula differ, so only the codes are compared
+                String expected = resultCode(record.applyTo(new Expression(record.getFormula(), settings)));
+                assertEquals(expected, resultCode(residual), () -> record.format() + " -> " + residual.getExpressionString());
+            }
+        }
+    }
+
+    @Test
+    public void testTenantCache() {
+        ExpressionCache cache = new ExpressionCache(ExpressionSettings.builder().build());
+        VariableScope tenant = VariableScope.of(Map.of("rate", 2, "base", 10));
+        assertEquals("16", cache.get("base + rate * x", "t1", tenant).with("x", 3).eval().getExpression());
+        assertEquals("(10 + (2 * x))", cache.get("base + rate * x", "t1", tenant).getExpressionString());
+        assertEquals(1, cache.getSpecializations());
+
+        VariableScope changed = tenant.with("rate", 3);
+        assertEquals("19", cache.get("base + rate * x", "t1", changed).with("x", 3).eval().getExpression());
+        assertEquals("12", cache.get("base + rate * x", "t2", VariableScope.of(Map.of("rate", 1, "base", 9)))
+                .with("x", 3).eval().getExpression());
+        assertEquals(3, cache.getSpecializations());
+        assertEquals(1, cache.getMisses());
+    }
+
+    private static String residual(String formula, VariableScope constants) {
+        return new Expression(formula).specialize(constants).getExpressionString();
+    }
+
+    private static Double parse(String value) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
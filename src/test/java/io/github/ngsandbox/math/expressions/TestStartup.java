@@ -0,0 +1,68 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.io.File;
+import java.math.MathContext;
+import java.util.Collections;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import io.github.ngsandbox.math.expressions.bench.StartupBenchmark;
+import io.github.ngsandbox.math.expressions.functions.Function;
+import io.github.ngsandbox.math.expressions.functions.Functions;
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.operators.Operators;
+import io.github.ngsandbox.math.expressions.utils.LoggingConfigurator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestStartup {
+
+    @Test
+    public void testSharedRegistries() {
+        ExpressionSettings settings = ExpressionSettings.builder().build();
+        Map<String, Operator> operators = Operators.defaultOperators(settings);
+        Map<String, Function> functions = Functions.defaultFunctions(settings);
+        assertSame(operators, Operators.defaultOperators(ExpressionSettings.builder().build()));
+        assertSame(functions, Functions.defaultFunctions(ExpressionSettings.builder().build()));
+        assertNotSame(operators, Operators.defaultOperators(ExpressionSettings.builder().mathContext(MathContext.DECIMAL64).build()));
+
+        assertNotNull(functions.get("max"), "registry is case insensitive");
+        assertNotNull(operators.get("and"));
+        assertThrows(UnsupportedOperationException.class, () -> operators.remove("+"));
+        assertEquals("21", new Expression("x * 3", settings).with("x", "y + 2").with("y", 5).eval().getExpression());
+    }
+
+    @Test
+    public void testLoggingConfiguration() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        assertEquals(Level.INFO, root.getLevel());
+        assertNotNull(root.getAppender(LoggingConfigurator.APPENDER_NAME));
+    }
+
+    @Test
+    public void testStartupBenchmark() throws Exception {
+        String classpath = Stream.of(ApplicationMain.class, LoggerFactory.class, Logger.class, ch.qos.logback.core.Appender.class)
+                .map(c -> c.getProtectionDomain().getCodeSource().getLocation().getPath())
+                .map(File::new)
+                .map(File::getPath)
+                .distinct()
+                .collect(Collectors.joining(File.pathSeparator));
+        StartupBenchmark.Result result = new StartupBenchmark(classpath, StartupBenchmark.DEFAULT_ARGUMENTS)
+                .run("default", Collections.emptyList(), 1);
+        assertEquals(1, result.getSamples().length);
+        assertTrue(result.getPercentile(50) > 0);
+    }
+}
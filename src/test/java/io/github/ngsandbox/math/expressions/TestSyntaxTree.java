@@ -0,0 +1,136 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.ast.AstParser;
+import io.github.ngsandbox.math.expressions.ast.BinaryNode;
+import io.github.ngsandbox.math.expressions.ast.FunctionNode;
+import io.github.ngsandbox.math.expressions.ast.LiteralNode;
+import io.github.ngsandbox.math.expressions.ast.Node;
+import io.github.ngsandbox.math.expressions.bench.FormulaGenerator;
+import io.github.ngsandbox.math.expressions.profiler.NodeProfiler;
+import io.github.ngsandbox.math.expressions.profiler.NodeStats;
+import io.github.ngsandbox.math.expressions.utils.FormulaRecord;
+
+import static io.github.ngsandbox.math.expressions.ExpressionTests.result;
+import static io.github.ngsandbox.math.expressions.functions.Functions.defaultFunctions;
+import static io.github.ngsandbox.math.expressions.operators.Operators.defaultOperators;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestSyntaxTree {
+
+    private static final ExpressionSettings SETTINGS = ExpressionSettings.builder().syntaxTree(true).build();
+
+    @Test
+    public void testPriorities() {
+        assertEquals("(1 + (2 * 3))", tree("1 + 2 * 3"));
+        assertEquals("((a - b) - c)", tree("a - b - c"));
+        assertEquals("(2 ^ (3 ^ 2))", tree("2 ^ 3 ^ 2"));
+        assertEquals("(-a ^ 2)", tree("-a ^ 2"));
+        assertEquals("(a ^ -b)", tree("a^-b"));
+        assertEquals("((a > 1) && ((b == \"x\") || c))", tree("a > 1 && (b == 'x' || c)"));
+        assertEquals("(x OR (y AND z))", tree("x OR y AND z"));
+        assertEquals("(2 * (a + b))", tree("2(a + b)"));
+        assertEquals("(a - (2 * c))", tree("a - 2(c)"));
+        assertEquals("IF((a > 0), MAX(1, -a, 3), ROUND(a, 2))", tree(" IF(a > 0, MAX(1, -a, 3), ROUND(a, 2))"));
+    }
+
+    @Test
+    public void testNodes() {
+        Node root = new Expression("1.50 + MAX(b, 2)", SETTINGS).getSyntaxTree();
+        BinaryNode plus = (BinaryNode) root;
+        assertEquals("+", plus.getOperator().getOper());
+        assertEquals(5, plus.getPosition());
+        assertEquals("1.50", ((LiteralNode) plus.getLeft()).getText());
+        FunctionNode max = (FunctionNode) plus.getRight();
+        assertEquals(7, max.getPosition());
+        assertEquals(2, max.getArguments().size());
+        // the index in the RPN: 1.50 ( b 2 MAX +
+        assertEquals(5, root.getIndex());
+        assertEquals(4, max.getIndex());
+        assertEquals(3.5, new Expression("1.50 + MAX(b, 2)", SETTINGS).with("b", 0).eval().doubleValue());
+    }
+
+    @Test
+    public void testErrorPositions() {
+        assertError("Function ABS expected 1 parameters, got 2 at character position 4", "1 + ABS(1, 2)");
+        assertError("Function does not exist FOO at character position 4", "1 + foo(2)");
+        assertError("Missing parameter(s) for operator + at character position 2", "1 + ");
+        assertError("Missing parameter(s) for operator + at character position 3", "(a + )");
+        assertError("Unknown unary operator *u at character position 5", "(a + * b)");
+        assertError("Missing parameter(s) for operator - at character position 6", "MAX(1 -, 2)");
+        assertError("Missing parameter for function MAX at character position 6", "MAX(1,)");
+        assertError("Missing operator at character position 2", "1 2");
+        assertError("Missing operator at character position 2", "a b");
+        assertError("Mismatched parentheses at character position 4", "1 + (2 * 3");
+        assertError("Mismatched parentheses at character position 5", "1 + 2)");
+        assertError("Unexpected comma at character position 1", "1, 2");
+        assertError("Empty expression at character position 1", "()");
+        assertError("Invalid number 1..2 at character position 0", "1..2");
+        assertError("Empty expression at character position 0", "   ");
+    }
+
+    @Test
+    public void testEvaluation() {
+        FormulaGenerator generator = FormulaGenerator.builder().seed(46L).maxDepth(6).build();
+        for (FormulaRecord record : generator.next(2000)) {
+            String expected = result(record.applyTo(new Expression(record.getFormula())));
+            assertEquals(expected, result(record.applyTo(new Expression(record.getFormula(), SETTINGS))), record::format);
+        }
+
+        Expression expression = new Expression("x * 2", SETTINGS).with("x", "a + 1").with("a", 1).parse();
+        Expression copy = expression.copy().with("a", 2);
+        assertSame(expression.getSyntaxTree(), copy.getSyntaxTree());
+        assertEquals("4", expression.eval().getExpression());
+        assertEquals("6", copy.eval().getExpression());
+        assertTrue(new Expression("1 / a", SETTINGS).with("a", 0).tryEval().isError());
+    }
+
+    @Test
+    public void testDeepTree() {
+        int depth = 100_000;
+        Expression nested = new Expression("(".repeat(depth) + "a" + ")".repeat(depth), SETTINGS).with("a", "7");
+        assertEquals("7", nested.eval().getExpression());
+        Expression chain = new Expression("a" + "+a".repeat(depth - 1), SETTINGS).with("a", 1);
+        assertEquals("100000", chain.eval().getExpression());
+        assertEquals(2 * depth - 2, chain.getSyntaxTree().getIndex());
+    }
+
+    @Test
+    public void testProfiler() {
+        NodeProfiler profiler = new NodeProfiler(1);
+        Expression expression = new Expression("a^0.5 + MAX(b, c) * 2", ExpressionSettings.builder()
+                .profiler(profiler).syntaxTree(true).build())
+                .withFormulaId("tree")
+                .with("a", 16).with("b", 1).with("c", 3);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("10", expression.eval().getExpression());
+        }
+
+        Map<String, NodeStats> nodes = profiler.get("tree").getNodes().stream()
+                .collect(Collectors.toMap(NodeStats::getLabel, Function.identity()));
+        assertEquals(4, nodes.size(), nodes::toString);
+        assertEquals(10, nodes.get("MAX(b, c) * 2").getCalls().sum());
+    }
+
+    private static String tree(String formula) {
+        Node root = new AstParser(formula, defaultOperators(SETTINGS), defaultFunctions(SETTINGS),
+                SETTINGS.buildMathContext()).parse();
+        // the formula of the tree is parsed to the same tree
+        assertEquals(root.toString(), new Expression(root.toString(), SETTINGS).getSyntaxTree().toString());
+        return root.toString();
+    }
+
+    private static void assertError(String message, String formula) {
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression(formula, SETTINGS).getSyntaxTree(), formula);
+        assertEquals(message, ex.getMessage());
+    }
+}
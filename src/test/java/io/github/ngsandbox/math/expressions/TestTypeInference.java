@@ -0,0 +1,134 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.operators.Operator;
+import io.github.ngsandbox.math.expressions.wrappers.StaticType;
+import io.github.ngsandbox.math.expressions.wrappers.ValueKind;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedString;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static io.github.ngsandbox.math.expressions.ExpressionTests.result;
+import static io.github.ngsandbox.math.expressions.ExpressionTests.set;
+import static io.github.ngsandbox.math.expressions.operators.Operators.defaultOperators;
+import static io.github.ngsandbox.math.expressions.wrappers.StaticType.ANY;
+import static io.github.ngsandbox.math.expressions.wrappers.StaticType.NULL;
+import static io.github.ngsandbox.math.expressions.wrappers.StaticType.NUMBER;
+import static io.github.ngsandbox.math.expressions.wrappers.StaticType.STRING;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTypeInference {
+
+    private static final ExpressionSettings SETTINGS = ExpressionSettings.builder().syntaxTree(true).build();
+
+    @Test
+    public void testStaticTypes() {
+        assertSame(NUMBER, NUMBER.union(NUMBER));
+        assertSame(ANY, NUMBER.union(STRING).union(NULL));
+        assertEquals("NUMBER|NULL", NUMBER.union(NULL).toString());
+        assertTrue(STRING.union(NULL).isNullable());
+        assertFalse(STRING.union(NULL).isString());
+        assertFalse(NUMBER.canBe(ValueKind.STRING));
+
+        assertSame(NUMBER, type("1 + a * 2", "a", "3"));
+        assertSame(NUMBER, type("a > 'x' || NOT(b)", "a", "3"));
+        assertSame(NUMBER, type("MAX(a, b)"));
+        assertSame(STRING, type("IF(a, 'x', \"y\")"));
+        assertSame(STRING.union(NULL), type("IF(a, 'x', NULL)"));
+        assertSame(NUMBER.union(STRING), type("IF(a, 1, b)", "b", new WrappedString("z")));
+        // unknown variables and nested expressions can be anything
+        assertSame(ANY, type("IF(a, 1, b)"));
+        assertSame(ANY, type("b", "b", "a + 1"));
+    }
+
+    @Test
+    public void testSpecializedOperators() {
+        Map<String, Operator> operators = defaultOperators(SETTINGS);
+        Operator greater = operators.get(">");
+        Operator numbers = greater.specialize(NUMBER, NUMBER);
+        assertNotSame(greater, numbers);
+        assertFalse(numbers.isAssertArgs());
+        assertEquals(">", numbers.getOper());
+        assertNotSame(numbers, greater.specialize(STRING, STRING));
+        assertSame(greater, greater.specialize(NUMBER, STRING));
+        assertSame(greater, greater.specialize(NUMBER.union(NULL), NUMBER));
+        assertSame(greater, greater.specialize(ANY, ANY));
+        assertNotSame(operators.get("&&"), operators.get("&&").specialize(NUMBER, NUMBER));
+        assertSame(operators.get("&&"), operators.get("&&").specialize(NUMBER.union(NULL), NUMBER));
+        assertNotSame(operators.get("-u"), operators.get("-u").specialize(NUMBER, NULL));
+    }
+
+    @Test
+    public void testSpecializedEvaluation() {
+        String[] formulas = {
+                "a > b", "a >= b", "a < b", "a <= b", "a == b", "a != b", "a <> b",
+                "a + b", "a - b", "a * b", "a / b", "a % b", "a ^ 2", "-a+(+b)",
+                "a == a", "'x' < 'y'", "'x' == \"x\"", "'b' > 'a' && a > 1", "ROUND(a / 3, 2) > b"
+        };
+        Object[][] values = {{2, 3}, {3, 3}, {-1.5, 0}, {1e300, 1e301}, {str("x"), str("y")},
+                {str("b"), str("b")}, {str("1"), str("x")}, {1, str("1")}};
+        for (String formula : formulas) {
+            for (Object[] pair : values) {
+                Expression rpn = new Expression(formula);
+                Expression tree = new Expression(formula, SETTINGS);
+                for (Expression expression : new Expression[]{rpn, tree}) {
+                    set(expression, "a", pair[0]);
+                    set(expression, "b", pair[1]);
+                }
+                assertEquals(result(rpn), result(tree), () -> formula + " with " + pair[0] + ", " + pair[1]);
+            }
+        }
+        assertEquals("ERROR{DIVISION_BY_ZERO at 2}", result(new Expression("a / b", SETTINGS).with("a", 1).with("b", 0)));
+    }
+
+    @Test
+    public void testChangedVariableTypes() {
+        Expression rpn = new Expression("x > b").with("x", "a * 2").with("a", 1).with("b", 1);
+        Expression expression = new Expression("x > b", SETTINGS).with("x", "a * 2").with("a", 1).with("b", 1);
+        assertEquals("1", expression.eval().getExpression());
+        assertSame(NUMBER, expression.with("b", 3).getStaticType());
+        assertEquals("0", expression.eval().getExpression());
+
+        // the nested expression shares the variables, so its types are inferred again too
+        rpn.with("b", 3).eval();
+        assertEquals(result(rpn.with("a", str("s"))), result(expression.with("a", str("s"))));
+        expression.with("a", 2).with("b", str("s"));
+        assertEquals("1", expression.eval().getExpression());
+        assertSame(NUMBER, expression.with("x", "").getStaticType());
+        assertEquals("ERROR{FIRST_OPERAND_NULL at 2}", result(expression));
+    }
+
+    @Test
+    public void testCopies() {
+        Expression parsed = new Expression("a + b > 1", SETTINGS).with("b", 1).parse();
+        assertSame(NUMBER, parsed.getStaticType());
+        assertEquals("1", parsed.copy().with("a", 1).eval().getExpression());
+        // the copies share the types inferred for the same types of the variables
+        for (int i = 0; i < 3; i++) {
+            Expression number = parsed.copy().with("a", i);
+            assertSame(NUMBER, number.getStaticType());
+            assertEquals(i > 0 ? "1" : "0", number.eval().getExpression());
+            Expression string = parsed.copy().with("a", str("s"));
+            assertEquals("ERROR{FIRST_ARGUMENT_NOT_NUMERIC at 2}", result(string));
+        }
+        assertSame(NUMBER, parsed.copy().getStaticType());
+    }
+
+    private static WrappedValue str(String value) {
+        return new WrappedString(value);
+    }
+
+    private static StaticType type(String formula, Object... variables) {
+        Expression expression = new Expression(formula, SETTINGS);
+        for (int i = 0; i < variables.length; i += 2) {
+            set(expression, (String) variables[i], variables[i + 1]);
+        }
+        return expression.getStaticType();
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.wrappers.ValueKind;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedBigDecimal;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestTypedAccess {
+
+    @Test
+    public void testNumber() {
+        WrappedValue result = new Expression("a * 2").with("a", "1.25").eval();
+        assertEquals(ValueKind.NUMBER, result.getKind());
+        assertFalse(result.isNull());
+        assertEquals(new BigDecimal("2.5"), result.decimalValue());
+        assertEquals(2.5, result.doubleValue());
+        assertEquals("2.50", result.stringValue());
+        assertEquals(result.unwrap().orElse(null), result.decimalValue());
+    }
+
+    @Test
+    public void testNullAndString() {
+        WrappedValue nullResult = new Expression("IF(a > 1, NULL, 2)").with("a", 5).eval();
+        assertEquals(ValueKind.NULL, nullResult.getKind());
+        assertTrue(nullResult.isNull());
+        assertNull(nullResult.decimalValue());
+        assertTrue(Double.isNaN(nullResult.doubleValue()));
+        assertNull(nullResult.stringValue());
+
+        WrappedValue string = new Expression("IF(a > 1, \"abc\", 2)").with("a", 5).eval();
+        assertEquals(ValueKind.STRING, string.getKind());
+        assertNull(string.decimalValue());
+        assertEquals("abc", string.stringValue());
+    }
+
+    @Test
+    public void testLazyValues() {
+        BigDecimal value = new BigDecimal("12.3400");
+        WrappedValue wrapped = WrappedBigDecimal.wrapBigDecimal(value);
+        assertEquals("12.3400", wrapped.getExpression());
+        assertSame(wrapped.getExpression(), wrapped.stringValue());
+        assertSame(wrapped.decimalValue(), wrapped.decimalValue());
+        assertEquals(new BigDecimal("12.34"), wrapped.decimalValue());
+        assertEquals("Decimal{12.3400}", wrapped.toString());
+        assertSame(WrappedBigDecimal.WRAPPED_MINUS_ONE, WrappedBigDecimal.wrapBigDecimal(BigDecimal.valueOf(-1)));
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.ArrayVariables;
+import io.github.ngsandbox.math.expressions.variables.VariableResolver;
+import io.github.ngsandbox.math.expressions.variables.VariableScope;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVariableResolver {
+
+    @Test
+    public void testOnlyUsedVariablesAreResolved() {
+        Map<String, Object> record = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            record.put("field" + i, i);
+        }
+        List<String> resolved = new ArrayList<>();
+        VariableResolver map = VariableResolver.of(record);
+        VariableResolver resolver = name -> {
+            resolved.add(name);
+            return map.resolve(name);
+        };
+
+        Expression expression = new Expression("IF(field10 > 5, field20 * field20 + field20, field30)");
+        assertEquals("420", expression.eval(resolver).getExpression());
+        assertEquals(asList("field10", "field20"), resolved);
+
+        // every evaluation resolves the variables again
+        assertEquals("420", expression.eval(resolver).getExpression());
+        assertEquals(4, resolved.size());
+    }
+
+    @Test
+    public void testSetVariablesHavePriority() {
+        List<String> resolved = new ArrayList<>();
+        VariableResolver resolver = name -> {
+            resolved.add(name);
+            return 100;
+        };
+        Expression expression = new Expression("a + b").with("a", 1);
+        assertEquals("101", expression.eval(resolver).getExpression());
+        assertEquals(asList("b"), resolved);
+    }
+
+    @Test
+    public void testValues() {
+        Map<String, Object> record = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        record.put("name", "ABC");
+        record.put("active", true);
+        record.put("score", 2.5d);
+        record.put("missing", null);
+        assertEquals("1", new Expression("NAME == \"ABC\" && active && missing == NULL")
+                .eval(VariableResolver.of(record)).getExpression());
+        assertEquals("5.0", new Expression("score * 2").eval(VariableResolver.of(record)).getExpression());
+
+        // floats keep their decimal value instead of the one of the double
+        VariableResolver floats = VariableResolver.of(Map.of("f", 0.1f));
+        assertEquals("1", new Expression("f == 0.1").eval(floats).getExpression());
+        assertEquals("100000000", new Expression("f * 1000000000").eval(floats).getExpression());
+        assertEquals("1", new Expression("f == 0.1").eval(VariableScope.of(Map.of("f", 0.1f))).getExpression());
+    }
+
+    @Test
+    public void testNestedFormula() {
+        List<String> resolved = new ArrayList<>();
+        VariableResolver map = VariableResolver.of(Map.of("y", 5));
+        VariableResolver resolver = name -> {
+            resolved.add(name);
+            return map.resolve(name);
+        };
+        assertEquals("11", new Expression("x + 1").with("x", "y * 2").eval(resolver).getExpression());
+        assertEquals("11", new Expression("x + 1", ExpressionSettings.builder().syntaxTree(true).build())
+                .with("x", "y * 2").eval(resolver).getExpression());
+        assertEquals("11", new Expression("x + 1").with("x", "y * 2").tryEval(resolver).getExpression());
+        assertEquals(asList("y", "y", "y"), resolved);
+    }
+
+    @Test
+    public void testUnknownVariable() {
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression("a + b").eval(VariableResolver.of(Map.of("a", 1))));
+        assertEquals("Variable does not exist b", ex.getMessage());
+    }
+
+    @Test
+    public void testArrayVariables() {
+        ArrayVariables layout = new ArrayVariables("id", "price", "quantity", "discount");
+        Expression expression = new Expression("price * Quantity - discount");
+        assertEquals("17", expression.eval(layout.bind(new Object[] {1, 5, 4, 3})).getExpression());
+        assertEquals("1.5", expression.eval(layout.bind(new Object[] {2, 0.5, 3, 0})).getExpression());
+        assertEquals(2, layout.indexOf("QUANTITY"));
+
+        assertThrows(ExpressionException.class, () -> layout.bind(new Object[] {1}));
+        assertThrows(ExpressionException.class, () -> new ArrayVariables("a", "A"));
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression("price * tax").eval(layout.bind(new Object[] {1, 5, 4, 3})));
+        assertTrue(ex.getMessage().contains("tax"));
+    }
+}
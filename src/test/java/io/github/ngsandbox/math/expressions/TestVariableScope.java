@@ -0,0 +1,99 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.VariableScope;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVariableScope {
+
+    @Test
+    public void testLayers() {
+        VariableScope global = VariableScope.of(Map.of("rate", new BigDecimal("0.2"), "limit", 100));
+        VariableScope tenant = global.layer(Map.of("LIMIT", 50));
+        VariableScope request = tenant.layer().with("amount", 80).with("note", "x");
+
+        Expression expression = new Expression("IF(amount > limit, limit, amount) * (1 + rate)");
+        assertEquals("60", expression.eval(request).getExpression());
+        assertEquals("96", expression.eval(global.with("amount", 80)).getExpression());
+
+        assertEquals(3, request.getDepth());
+        assertSame(tenant, request.getParent());
+        assertEquals(4, request.getNames().size());
+        assertFalse(tenant.contains("amount"));
+        assertNull(tenant.get("amount"));
+        assertTrue(global.contains("RATE"));
+        assertEquals("100", global.get("limit").getExpression());
+    }
+
+    @Test
+    public void testWithCopiesOnlyTopLayer() {
+        Map<String, Object> constants = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            constants.put("c" + i, i);
+        }
+        VariableScope global = VariableScope.of(constants);
+        VariableScope first = global.layer().with("x", 1);
+        VariableScope second = first.with("x", 2);
+
+        assertSame(global, first.getParent());
+        assertSame(global, second.getParent());
+        assertEquals("1", first.get("x").getExpression());
+        assertEquals("2", second.get("x").getExpression());
+        assertEquals("1001", new Expression("c999 + x").eval(second).getExpression());
+
+        // the large layer is not copied, the variables are set on top of it
+        VariableScope request = global.with("x", 1).with("Y", 2);
+        assertSame(global, request.getParent());
+        assertEquals(2, request.getDepth());
+        assertEquals("1002", new Expression("c999 + x + y").eval(request).getExpression());
+        for (int i = 0; i < 20; i++) {
+            request = request.with("v" + i, i);
+        }
+        assertEquals(4, request.getDepth());
+        assertEquals("19", request.get("V19").getExpression());
+        assertEquals("2", request.get("y").getExpression());
+        assertEquals(1022, request.getNames().size());
+    }
+
+    @Test
+    public void testUnknownVariable() {
+        ExpressionException ex = assertThrows(ExpressionException.class,
+                () -> new Expression("a + b").eval(VariableScope.of(Map.of("a", 1))));
+        assertEquals("Variable does not exist b", ex.getMessage());
+    }
+
+    @Test
+    public void testParallelRequests() throws Exception {
+        VariableScope global = VariableScope.of(Map.of("rate", 2));
+        Expression expression = new Expression("x * rate").parse();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                VariableScope request = global.with("x", i);
+                results.add(executor.submit(() -> expression.eval(request).getExpression()));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(String.valueOf(i * 2), results.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.variables.VariableStore;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVariableStore {
+
+    @Test
+    public void testVersions() {
+        VariableStore store = new VariableStore();
+        assertEquals(0, store.getVersion());
+        assertEquals(1, store.set("rate", 2));
+        VariableStore.Snapshot first = store.snapshot();
+        assertEquals(2, store.setAll(Map.of("RATE", 3, "price", 10)));
+        assertEquals(3, store.remove("price"));
+
+        Expression expression = new Expression("rate * 10");
+        assertEquals("20", expression.eval(first).getExpression());
+        assertEquals("30", expression.eval(store.snapshot()).getExpression());
+        assertEquals(1, first.getVersion());
+        assertNull(store.snapshot().get("price"));
+        assertThrows(ExpressionException.class, () -> new Expression("price").eval(store.snapshot()));
+        assertEquals("35", new Expression("rate * 10 + fee").eval(store.snapshot().getScope().with("fee", 5)).getExpression());
+    }
+
+    @Test
+    public void testReadersSeeConsistentSnapshots() throws Exception {
+        VariableStore store = new VariableStore();
+        store.setAll(Map.of("bid", 0, "ask", 0));
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread writer = new Thread(() -> {
+            for (int i = 1; running.get(); i++) {
+                store.setAll(Map.of("bid", i, "ask", -i));
+            }
+        });
+        writer.start();
+        try {
+            Expression expression = new Expression("bid + ask").parse();
+            long version = 0;
+            for (int i = 0; i < 20_000; i++) {
+                VariableStore.Snapshot snapshot = store.snapshot();
+                assertTrue(snapshot.getVersion() >= version);
+                version = snapshot.getVersion();
+                assertEquals("0", expression.eval(snapshot).getExpression());
+            }
+        } finally {
+            running.set(false);
+            writer.join();
+        }
+    }
+}
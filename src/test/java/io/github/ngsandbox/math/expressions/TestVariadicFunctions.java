@@ -0,0 +1,47 @@
+package io.github.ngsandbox.math.expressions;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.ngsandbox.math.expressions.bench.VariadicBenchmark;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedError;
+import io.github.ngsandbox.math.expressions.wrappers.WrappedValue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TestVariadicFunctions {
+
+    @Test
+    public void testHundredThousandArguments() {
+        int arguments = 100_000;
+        String descending = IntStream.range(0, arguments)
+                .mapToObj(i -> Integer.toString(arguments - i))
+                .collect(Collectors.joining(", "));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertEquals("100000", new Expression("MAX(" + descending + ")").eval().getExpression());
+            assertEquals("1", new Expression("MIN(" + descending + ")").eval().getExpression());
+        });
+        VariadicBenchmark.Result result = VariadicBenchmark.run(arguments, 1);
+        assertEquals("1998", result.getValue());
+    }
+
+    @Test
+    public void testArgumentsOrder() {
+        assertEquals("3.14", new Expression("ROUND(3.14159, 2)").eval().getExpression());
+        assertEquals("5", new Expression("MAX(1, ROUND(4.6, 0), MIN(3, 2), ABS(-4))").eval().getExpression());
+        assertEquals("12", new Expression("MAX(IF(a > 0, a, 0), 2) * 2").with("a", 6).eval().getExpression());
+    }
+
+    @Test
+    public void testErrorOfArgument() {
+        WrappedValue result = new Expression("MAX(1, 2, \"x\", 1/0)").tryEval();
+        assertTrue(result.isError());
+        assertEquals("2 argument must be numeric, but  `STR{x}`", ((WrappedError) result).getMessage());
+        assertTrue(new Expression("MIN(1, 2/0, \"x\")").tryEval().isError());
+    }
+}